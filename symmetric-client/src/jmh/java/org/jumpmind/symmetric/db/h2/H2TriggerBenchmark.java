@@ -0,0 +1,119 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.db.h2;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rows captured per second by an H2 insert trigger set up the way {@link H2TriggerTemplate} sets it up, with rows captured by literal
+ * SQL built for each row and by the prepared capture statement. Run with <code>gradlew :symmetric-client:jmh</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class H2TriggerBenchmark {
+    private static final String VIRTUAL_TABLE = "(SELECT ? as \"NEW_ID\", ? as \"NEW_NAME\", ? as \"NEW_AMOUNT\", ? as \"NEW_UPDATED\", "
+            + "? AS \"OLD_ID\", ? AS \"OLD_NAME\", ? AS \"OLD_AMOUNT\", ? AS \"OLD_UPDATED\" FROM DUAL) T ";
+
+    @Param({ "literal", "prepared" })
+    public String capture;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private int id;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:trigger_benchmark_" + capture, "sa", "");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("create table sym_data (data_id bigint auto_increment primary key, table_name varchar(255), event_type char(1), "
+                    + "trigger_hist_id integer, row_data clob, channel_id varchar(128), transaction_id varchar(255), source_node_id varchar(50), "
+                    + "external_data varchar(50), create_time timestamp)");
+            stmt.execute("create table item (id integer primary key, name varchar(100), amount decimal(10,2), updated timestamp)");
+            stmt.execute("set @sync_prevented = null");
+            stmt.execute("set @node_value = null");
+            stmt.execute("create table ON_I_ITEM_CONFIG (CONDITION_SQL CLOB, INSERT_DATA_SQL CLOB)");
+            try (PreparedStatement ps = connection.prepareStatement("insert into ON_I_ITEM_CONFIG values(?, ?)")) {
+                ps.setString(1, "select count(*) from " + VIRTUAL_TABLE + " where 1=1 and @sync_prevented is null");
+                ps.setString(2, "insert into sym_data (table_name, event_type, trigger_hist_id, row_data, channel_id, transaction_id, "
+                        + "source_node_id, external_data, create_time) (select 'ITEM','I',1,"
+                        + "case when \"NEW_ID\" is null then '' else '\"' || cast(\"NEW_ID\" as varchar) || '\"' end || ',' || "
+                        + "case when \"NEW_NAME\" is null then '' else '\"' || replace(replace(\"NEW_NAME\",'\\','\\\\'),'\"','\\\"') || '\"' end || ',' || "
+                        + "case when \"NEW_AMOUNT\" is null then '' else '\"' || cast(\"NEW_AMOUNT\" as varchar) || '\"' end || ',' || "
+                        + "case when \"NEW_UPDATED\" is null then '' else '\"' || formatdatetime(\"NEW_UPDATED\", 'yyyy-MM-dd HH:mm:ss.SSS') || '\"' end, "
+                        + "'default', " + H2Trigger.TRANSACTION_FUNCTION + ", @node_value, null, CURRENT_TIMESTAMP from " + VIRTUAL_TABLE + ")");
+                ps.execute();
+            }
+            stmt.execute("create trigger ON_I_ITEM after insert on item for each row call \"" + ("literal".equals(capture)
+                    ? LiteralH2Trigger.class.getName() : H2Trigger.class.getName()) + "\"");
+        }
+        insert = connection.prepareStatement("insert into item values(?, ?, ?, CURRENT_TIMESTAMP)");
+    }
+
+    @TearDown
+    public void teardown() throws SQLException {
+        insert.close();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("shutdown");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int insertRow() throws SQLException {
+        insert.setInt(1, ++id);
+        insert.setString(2, "item " + id);
+        insert.setBigDecimal(3, BigDecimal.valueOf(id, 2));
+        return insert.executeUpdate();
+    }
+
+    /**
+     * Captures rows with literal SQL, the way every row was captured before the prepared capture statement.
+     */
+    public static class LiteralH2Trigger extends H2Trigger {
+        @Override
+        protected boolean isPreparedCaptureSupported() {
+            return false;
+        }
+    }
+}
@@ -370,6 +370,8 @@ public class ClientSymmetricEngine extends AbstractSymmetricEngine {
         settings.setQueryTimeout(properties.getInt(ParameterConstants.DB_QUERY_TIMEOUT_SECS, 300));
         settings.setBatchSize(properties.getInt(ParameterConstants.JDBC_EXECUTE_BATCH_SIZE, 100));
         settings.setBatchBulkLoaderSize(properties.getInt(ParameterConstants.JDBC_EXECUTE_BULK_BATCH_SIZE, 25));
+        settings.setStatementCacheSize(properties.getInt(ParameterConstants.JDBC_STATEMENT_CACHE_SIZE, 0));
+        settings.setDmlStatementCacheSize(properties.getInt(ParameterConstants.DML_STATEMENT_CACHE_SIZE, 100));
         settings.setOverrideIsolationLevel(properties.getInt(ParameterConstants.JDBC_ISOLATION_LEVEL, -1));
         settings.setReadStringsAsBytes(properties.is(ParameterConstants.JDBC_READ_STRINGS_AS_BYTES, false));
         settings.setTreatBinaryAsLob(properties.is(ParameterConstants.TREAT_BINARY_AS_LOB_ENABLED, true));
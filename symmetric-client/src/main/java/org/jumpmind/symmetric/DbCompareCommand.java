@@ -122,6 +122,26 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         if (!StringUtils.isEmpty(continueAfterError)) {
             config.setContinueAfterError(Boolean.parseBoolean(continueAfterError));
         }
+        String rangeChecksum = getOptionValue(OPTION_RANGE_CHECKSUM, "useRangeChecksum", line, config);
+        if (!StringUtils.isEmpty(rangeChecksum)) {
+            config.setUseRangeChecksum(Boolean.parseBoolean(rangeChecksum));
+        }
+        String rangeSizeArg = getOptionValue(OPTION_RANGE_SIZE, "rangeSize", line, config);
+        if (!StringUtils.isEmpty(rangeSizeArg)) {
+            try {
+                config.setRangeSize(Integer.parseInt(rangeSizeArg.trim()));
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("Failed to parse arg [" + rangeSizeArg + "] ", ex);
+            }
+        }
+        String threadsArg = getOptionValue(OPTION_THREADS, "threadCount", line, config);
+        if (!StringUtils.isEmpty(threadsArg)) {
+            try {
+                config.setThreadCount(Integer.parseInt(threadsArg.trim()));
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("Failed to parse arg [" + threadsArg + "] ", ex);
+            }
+        }
         ISymmetricEngine sourceEngine = new ClientSymmetricEngine(sourceProperies);
         ISymmetricEngine targetEngine = new ClientSymmetricEngine(targetProperties);
         DbCompare dbCompare = new DbCompare(sourceEngine, targetEngine, config);
@@ -186,6 +206,9 @@ public class DbCompareCommand extends AbstractCommandLauncher {
     private static final String OPTION_DATE_TIME_FORMAT = "date-time-format";
     private static final String OPTION_CONFIG_PROPERTIES = "config";
     private static final String OPTION_CONTINUE_AFTER_ERROR = "continue-after-error";
+    private static final String OPTION_RANGE_CHECKSUM = "range-checksum";
+    private static final String OPTION_RANGE_SIZE = "range-size";
+    private static final String OPTION_THREADS = "threads";
 
     @Override
     protected void printHelp(CommandLine cmd, Options options) {
@@ -207,6 +230,9 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         addOption(options, null, OPTION_DATE_TIME_FORMAT, true);
         addOption(options, null, OPTION_CONFIG_PROPERTIES, true);
         addOption(options, null, OPTION_CONTINUE_AFTER_ERROR, true);
+        addOption(options, null, OPTION_RANGE_CHECKSUM, true);
+        addOption(options, null, OPTION_RANGE_SIZE, true);
+        addOption(options, null, OPTION_THREADS, true);
     }
 
     protected Map<String, String> parseProperty(CommandLine line, String propertyName) {
@@ -52,6 +52,8 @@ public class DbExportCommand extends AbstractCommandLauncher {
     private static final String OPTION_WHERE = "where";
     private static final String OPTION_EXCLUDE_COLUMNS = "exclude-columns";
     private static final String OPTION_USE_SYM_DB = "use-sym-db";
+    private static final String OPTION_THREADS = "threads";
+    private static final String OPTION_CHUNK_SIZE = "chunk-size";
 
     public DbExportCommand() {
         super("dbexport", "[tablename...]", "DbExport.Option.");
@@ -99,6 +101,8 @@ public class DbExportCommand extends AbstractCommandLauncher {
         addOption(options, "i", OPTION_COMMENTS, false);
         addOption(options, null, OPTION_EXCLUDE_COLUMNS, true);
         addOption(options, null, OPTION_USE_SYM_DB, false);
+        addOption(options, null, OPTION_THREADS, true);
+        addOption(options, null, OPTION_CHUNK_SIZE, true);
     }
 
     @Override
@@ -174,6 +178,12 @@ public class DbExportCommand extends AbstractCommandLauncher {
         if (line.hasOption(OPTION_EXCLUDE_COLUMNS)) {
             dbExport.setExcludeColumns(line.getOptionValue(OPTION_EXCLUDE_COLUMNS).split(","));
         }
+        if (line.hasOption(OPTION_THREADS)) {
+            dbExport.setThreadCount(Integer.parseInt(line.getOptionValue(OPTION_THREADS)));
+        }
+        if (line.hasOption(OPTION_CHUNK_SIZE)) {
+            dbExport.setChunkSize(Integer.parseInt(line.getOptionValue(OPTION_CHUNK_SIZE)));
+        }
         String[] args = line.getArgs();
         if (line.hasOption(OPTION_SQL)) {
             if (args.length != 1) {
@@ -54,6 +54,10 @@ public class DbFillCommand extends AbstractCommandLauncher {
     private static final String OPTION_TRUNCATE = "truncate";
     private static final String OPTION_MAX_TEXT_SIZE = "max-text-size";
     private static final String OPTION_MAX_BYTE_SIZE = "max-byte-size";
+    private static final String OPTION_THREADS = "threads";
+    private static final String OPTION_BATCH = "batch";
+    private static final String OPTION_RATE = "rate";
+    private static final String OPTION_DURATION = "duration";
 
     public DbFillCommand() {
         super("dbfill", "[tablename...]", "DbFill.Option.");
@@ -102,6 +106,10 @@ public class DbFillCommand extends AbstractCommandLauncher {
         addOption(options, null, OPTION_TRUNCATE, false);
         addOption(options, null, OPTION_MAX_TEXT_SIZE, true);
         addOption(options, null, OPTION_MAX_BYTE_SIZE, true);
+        addOption(options, null, OPTION_THREADS, true);
+        addOption(options, null, OPTION_BATCH, true);
+        addOption(options, null, OPTION_RATE, true);
+        addOption(options, null, OPTION_DURATION, true);
     }
 
     @Override
@@ -172,6 +180,18 @@ public class DbFillCommand extends AbstractCommandLauncher {
         if (line.hasOption(OPTION_MAX_BYTE_SIZE)) {
             dbFill.setMaxByteSize(Integer.parseInt(line.getOptionValue(OPTION_MAX_BYTE_SIZE)));
         }
+        if (line.hasOption(OPTION_THREADS)) {
+            dbFill.setThreadCount(Integer.parseInt(line.getOptionValue(OPTION_THREADS)));
+        }
+        if (line.hasOption(OPTION_BATCH)) {
+            dbFill.setBatchSize(Integer.parseInt(line.getOptionValue(OPTION_BATCH)));
+        }
+        if (line.hasOption(OPTION_RATE)) {
+            dbFill.setRate(Integer.parseInt(line.getOptionValue(OPTION_RATE)));
+        }
+        if (line.hasOption(OPTION_DURATION)) {
+            dbFill.setDuration(Integer.parseInt(line.getOptionValue(OPTION_DURATION)));
+        }
         // Ignore the Symmetric config tables.
         getSymmetricEngine();
         IParameterService parameterService = engine.getParameterService();
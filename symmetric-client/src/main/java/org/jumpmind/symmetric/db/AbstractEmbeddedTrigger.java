@@ -27,6 +27,7 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -59,9 +60,12 @@ abstract public class AbstractEmbeddedTrigger {
     protected static final String KEY_CONDITION_SQL = "CONDITION_SQL";
     protected static final String KEY_INSERT_DATA_SQL = "INSERT_DATA_SQL";
     protected static final String TEMPLATE_TABLE_SUFFIX = "_CONFIG";
+    protected static final String VIRTUAL_TABLE_END = " FROM DUAL) T ";
     protected String triggerName;
     protected String schemaName;
     protected Map<String, String> templates = null;
+    protected Map<String, String[]> templateTokens = null;
+    protected String captureSql;
 
     /**
      * This method should be called by the database engine once when initializing the trigger.
@@ -79,7 +83,22 @@ abstract public class AbstractEmbeddedTrigger {
         if (this.templates == null) {
             this.schemaName = schemaName;
             this.triggerName = triggerName;
-            this.templates = getTemplates(conn);
+            Map<String, String> templates = getTemplates(conn);
+            Map<String, String[]> templateTokens = new HashMap<String, String[]>();
+            for (Map.Entry<String, String> entry : templates.entrySet()) {
+                if (entry.getValue() != null) {
+                    entry.setValue(preprocessTemplate(entry.getValue()));
+                    templateTokens.put(entry.getValue(), entry.getValue().split("\\?"));
+                }
+            }
+            if (isPreparedCaptureSupported() && templates.size() > 0) {
+                String[] columnTypes = getColumnCastTypes(conn, tableName);
+                if (columnTypes != null) {
+                    this.captureSql = buildCaptureSql(templates.get(KEY_CONDITION_SQL), templates.get(KEY_INSERT_DATA_SQL), columnTypes);
+                }
+            }
+            this.templateTokens = templateTokens;
+            this.templates = templates;
         }
         if (templates == null || templates.size() == 0) {
             throw new IllegalStateException(String.format(
@@ -87,6 +106,139 @@ abstract public class AbstractEmbeddedTrigger {
         }
     }
 
+    /**
+     * Called once for each template when the trigger is initialized, so subclasses can replace expressions that do not change between rows.
+     */
+    protected String preprocessTemplate(String sql) {
+        return sql;
+    }
+
+    /**
+     * Whether rows can be captured with one prepared statement that binds the row values, instead of building literal SQL for every row.
+     */
+    protected boolean isPreparedCaptureSupported() {
+        return false;
+    }
+
+    /**
+     * Combines the condition and insert templates into one insert with the row values as typed parameters. The sync condition becomes the
+     * where clause of the insert, and terms that are always true are dropped. Returns null when the templates are not in the expected form, in
+     * which case rows are captured with literal SQL.
+     */
+    protected static String buildCaptureSql(String conditionSql, String insertSql, String[] columnTypes) {
+        if (conditionSql == null || insertSql == null) {
+            return null;
+        }
+        int conditionIndex = conditionSql.lastIndexOf(VIRTUAL_TABLE_END);
+        int insertIndex = insertSql.lastIndexOf(VIRTUAL_TABLE_END);
+        if (conditionIndex < 0 || insertIndex < 0) {
+            return null;
+        }
+        String condition = conditionSql.substring(conditionIndex + VIRTUAL_TABLE_END.length()).trim();
+        if (!condition.regionMatches(true, 0, "where ", 0, 6) || condition.indexOf('?') >= 0) {
+            return null;
+        }
+        condition = simplifyCondition(condition.substring(6));
+        String[] tokens = insertSql.substring(0, insertIndex).split("\\?", -1);
+        if (tokens.length != columnTypes.length * 2 + 1) {
+            return null;
+        }
+        StringBuilder sql = new StringBuilder(tokens[0]);
+        for (int i = 1; i < tokens.length; i++) {
+            sql.append("CAST(? AS ").append(columnTypes[(i - 1) % columnTypes.length]).append(")").append(tokens[i]);
+        }
+        sql.append(VIRTUAL_TABLE_END);
+        if (condition.length() > 0) {
+            sql.append("WHERE ").append(condition).append(" ");
+        }
+        sql.append(insertSql.substring(insertIndex + VIRTUAL_TABLE_END.length()));
+        return sql.toString();
+    }
+
+    /**
+     * Drops the terms of a condition that are always true, so the default sync conditions cost nothing per row.
+     */
+    protected static String simplifyCondition(String condition) {
+        if (condition.indexOf('\'') >= 0) {
+            return condition.trim();
+        }
+        StringBuilder simplified = new StringBuilder();
+        for (String term : condition.split("(?i)\\s+and\\s+")) {
+            if (!term.replaceAll("\\s", "").equals("1=1")) {
+                if (simplified.length() > 0) {
+                    simplified.append(" and ");
+                }
+                simplified.append(term.trim());
+            }
+        }
+        return simplified.toString();
+    }
+
+    /**
+     * Reads the SQL types of the table's columns for casting bound values. Returns null if a column has a type that cannot be cast.
+     */
+    protected String[] getColumnCastTypes(Connection conn, String tableName) {
+        String schemaPrefix = schemaName != null && schemaName.length() > 0 ? "\"" + schemaName + "\"." : "";
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(String.format("select * from %s\"%s\" where 1=0", schemaPrefix, tableName))) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            String[] columnTypes = new String[metaData.getColumnCount()];
+            for (int i = 1; i <= columnTypes.length; i++) {
+                columnTypes[i - 1] = getCastType(metaData.getColumnTypeName(i), metaData.getPrecision(i), metaData.getScale(i));
+                if (columnTypes[i - 1] == null) {
+                    return null;
+                }
+            }
+            return columnTypes;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    protected static String getCastType(String typeName, int precision, int scale) {
+        String type = typeName == null ? "" : typeName.toUpperCase();
+        switch (type) {
+            case "CHARACTER VARYING":
+            case "VARCHAR":
+            case "VARCHAR_IGNORECASE":
+            case "CHARACTER":
+            case "CHAR":
+            case "BINARY VARYING":
+            case "VARBINARY":
+            case "BINARY":
+                return precision > 0 ? type + "(" + precision + ")" : type;
+            case "NUMERIC":
+            case "DECIMAL":
+                return precision > 0 ? type + "(" + precision + ", " + scale + ")" : type;
+            case "TIME":
+            case "TIMESTAMP":
+                return scale > 0 ? type + "(" + scale + ")" : type;
+            case "TIME WITH TIME ZONE":
+            case "TIMESTAMP WITH TIME ZONE":
+                return scale > 0 ? type.replaceFirst(" ", "(" + scale + ") ") : type;
+            case "TINYINT":
+            case "SMALLINT":
+            case "INTEGER":
+            case "INT":
+            case "BIGINT":
+            case "BOOLEAN":
+            case "REAL":
+            case "FLOAT":
+            case "DOUBLE":
+            case "DOUBLE PRECISION":
+            case "DECFLOAT":
+            case "DATE":
+            case "CHARACTER LARGE OBJECT":
+            case "CLOB":
+            case "BINARY LARGE OBJECT":
+            case "BLOB":
+            case "UUID":
+                return type;
+            default:
+                return null;
+        }
+    }
+
     /**
      * This method is called for each triggered action.
      * 
@@ -100,6 +252,10 @@ abstract public class AbstractEmbeddedTrigger {
      *             if the operation must be undone
      */
     public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (captureSql != null) {
+            capture(conn, oldRow, newRow);
+            return;
+        }
         String sql = null;
         try (Statement stmt = conn.createStatement()) {
             sql = fillVirtualTableSql(templates.get(KEY_CONDITION_SQL), oldRow, newRow);
@@ -120,10 +276,54 @@ abstract public class AbstractEmbeddedTrigger {
         }
     }
 
+    /**
+     * Captures the row with the prepared capture statement. The statement text is the same for every row, so the database can reuse the
+     * compiled statement.
+     */
+    protected void capture(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        int columnCount = oldRow != null ? oldRow.length : newRow.length;
+        try (PreparedStatement ps = conn.prepareStatement(captureSql)) {
+            int index = bindColumns(ps, 1, columnCount, newRow);
+            bindColumns(ps, index, columnCount, oldRow);
+            ps.executeUpdate();
+        } catch (SQLException ex) {
+            System.err.println("This sql failed: " + captureSql);
+            ex.printStackTrace();
+            throw ex;
+        }
+    }
+
+    protected int bindColumns(PreparedStatement ps, int index, int columnCount, Object[] data) throws SQLException {
+        for (int i = 0; i < columnCount; i++) {
+            ps.setObject(index++, data != null ? getBindValue(data[i]) : null);
+        }
+        return index;
+    }
+
+    protected Object getBindValue(Object value) throws SQLException {
+        try {
+            if (value instanceof Reader) {
+                return readStringAndClose((Reader) value, -1);
+            } else if (value instanceof JdbcClob) {
+                return readStringAndClose(((JdbcClob) value).getCharacterStream(), -1);
+            } else if (value instanceof InputStream) {
+                return readBytesAndClose((InputStream) value, -1);
+            } else if (value instanceof JdbcBlob) {
+                return readBytesAndClose(((JdbcBlob) value).getBinaryStream(), -1);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return value;
+    }
+
     protected String fillVirtualTableSql(String sql, Object[] oldRow, Object[] newRow) throws SQLException {
         int columnCount = oldRow != null ? oldRow.length : newRow.length;
         StringBuilder out = new StringBuilder();
-        String[] tokens = sql.split("\\?");
+        String[] tokens = templateTokens != null ? templateTokens.get(sql) : null;
+        if (tokens == null) {
+            tokens = sql.split("\\?");
+        }
         int tokenIndex = 0;
         tokenIndex = forEachColumn(columnCount, newRow, out, tokenIndex, tokens);
         tokenIndex = forEachColumn(columnCount, oldRow, out, tokenIndex, tokens);
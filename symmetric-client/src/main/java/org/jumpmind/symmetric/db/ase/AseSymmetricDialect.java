@@ -95,6 +95,8 @@ public class AseSymmetricDialect extends AbstractSymmetricDialect implements ISy
             reconfigureTableColumn(database, prefix, TableConstants.SYM_FILE_SNAPSHOT, "file_name", "55");
             reconfigureTableColumn(database, prefix, TableConstants.SYM_FILE_INCOMING, "relative_dir", "55");
             reconfigureTableColumn(database, prefix, TableConstants.SYM_FILE_INCOMING, "file_name", "55");
+            reconfigureTableColumn(database, prefix, TableConstants.SYM_FILE_BLOCK_SIGNATURE, "relative_dir", "55");
+            reconfigureTableColumn(database, prefix, TableConstants.SYM_FILE_BLOCK_SIGNATURE, "file_name", "55");
             Table table = database.findTable(prefix + TableConstants.SYM_REGISTRATION_REQUEST);
             if (table != null) {
                 table.removeIndex(0);
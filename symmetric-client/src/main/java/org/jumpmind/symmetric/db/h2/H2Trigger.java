@@ -57,9 +57,12 @@ public class H2Trigger extends AbstractEmbeddedTrigger implements org.h2.api.Tri
     }
 
     @Override
-    protected String fillVirtualTableSql(String sql, Object[] oldRow, Object[] newRow)
-            throws SQLException {
-        sql = sql.replace(TRANSACTION_FUNCTION, TRANSACTION_FUNCTION + " || '-" + startupTime + "'");
-        return super.fillVirtualTableSql(sql, oldRow, newRow);
+    protected String preprocessTemplate(String sql) {
+        return sql.replace(TRANSACTION_FUNCTION, TRANSACTION_FUNCTION + " || '-" + startupTime + "'");
+    }
+
+    @Override
+    protected boolean isPreparedCaptureSupported() {
+        return true;
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.io.JdbcBatchBulkDatabaseWriter;
+import org.jumpmind.symmetric.io.JdbcBatchGroupingDatabaseWriter;
 import org.jumpmind.symmetric.io.data.IDataWriter;
 import org.jumpmind.symmetric.io.data.writer.Conflict;
 import org.jumpmind.symmetric.io.data.writer.IDatabaseWriterErrorHandler;
@@ -50,7 +51,11 @@ public class BulkDataLoaderFactory extends AbstractDataLoaderFactory implements
             List<IDatabaseWriterFilter> filters, List<IDatabaseWriterErrorHandler> errorHandlers,
             List<? extends Conflict> conflictSettings, List<ResolvedData> resolvedData) {
         IDatabasePlatform platform = engine.getTargetDialect().getPlatform();
-        if (engine.getParameterService().is(ParameterConstants.JDBC_EXECUTE_BULK_BATCH_OVERRIDE, false)) {
+        if (engine.getParameterService().is(ParameterConstants.JDBC_EXECUTE_BULK_BATCH_GROUP_TABLES, false)) {
+            return new JdbcBatchGroupingDatabaseWriter(symmetricDialect.getPlatform(), platform, symmetricDialect.getTablePrefix(),
+                    buildParameterDatabaseWriterSettings(conflictSettings),
+                    engine.getParameterService().getInt(ParameterConstants.JDBC_EXECUTE_BULK_BATCH_GROUP_MAX_ROWS, 10000));
+        } else if (engine.getParameterService().is(ParameterConstants.JDBC_EXECUTE_BULK_BATCH_OVERRIDE, false)) {
             return new JdbcBatchBulkDatabaseWriter(symmetricDialect.getPlatform(), platform,
                     symmetricDialect.getTablePrefix(), buildParameterDatabaseWriterSettings(conflictSettings));
         } else {
@@ -20,20 +20,36 @@
  */
 package org.jumpmind.symmetric.io;
 
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.db.model.Table;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.DmlStatement;
 import org.jumpmind.db.sql.DmlStatement.DmlType;
 import org.jumpmind.db.sql.JdbcSqlTemplate;
 import org.jumpmind.db.sql.JdbcSqlTransaction;
-import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.ContextConstants;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.writer.AbstractDatabaseWriter;
 import org.jumpmind.symmetric.io.data.writer.Conflict;
+import org.jumpmind.symmetric.io.data.writer.ConflictException;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
 import org.jumpmind.symmetric.io.data.writer.DatabaseWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Loads rows with JDBC batches. When a batch has rows that failed or did not change a row, only those rows are replayed one at a time through
+ * the conflict resolver, so the rest of the batch keeps loading at batch speed. On platforms that need savepoints, a failed batch is rolled
+ * back to a savepoint taken before it and all of its rows are replayed.
+ */
 public class JdbcBatchBulkDatabaseWriter extends AbstractBulkDatabaseWriter {
-    private int lastRowCount = 0;
-    private int expectedRowCount = 0;
+    private static final Logger log = LoggerFactory.getLogger(JdbcBatchBulkDatabaseWriter.class);
+    private int batchSize;
+    private int unflushedCount;
 
     public JdbcBatchBulkDatabaseWriter(IDatabasePlatform symmetricPlatform, IDatabasePlatform targetPlatform,
             String tablePrefix, DatabaseWriterSettings writerSettings) {
@@ -45,8 +61,9 @@ public class JdbcBatchBulkDatabaseWriter extends AbstractBulkDatabaseWriter {
         super.start(batch);
         if (context.get(ContextConstants.CONTEXT_BULK_WRITER_TO_USE) == null || !context.get(ContextConstants.CONTEXT_BULK_WRITER_TO_USE).equals("default")) {
             getTransaction().setInBatchMode(true);
-            ((JdbcSqlTransaction) getTransaction()).setBatchSize(((JdbcSqlTemplate) getPlatform()
-                    .getSqlTemplate()).getSettings().getBatchBulkLoaderSize());
+            batchSize = ((JdbcSqlTemplate) getPlatform().getSqlTemplate()).getSettings().getBatchBulkLoaderSize();
+            // This writer flushes the batch itself so it can find the rows that failed
+            ((JdbcSqlTransaction) getTransaction()).setBatchSize(Integer.MAX_VALUE);
         }
     }
 
@@ -61,7 +78,7 @@ public class JdbcBatchBulkDatabaseWriter extends AbstractBulkDatabaseWriter {
         if (!getTransaction().isInBatchMode()) {
             return loadStatus;
         }
-        checkForConflict(true);
+        flushIfFull();
         return LoadStatus.SUCCESS;
     }
 
@@ -71,7 +88,7 @@ public class JdbcBatchBulkDatabaseWriter extends AbstractBulkDatabaseWriter {
         if (!getTransaction().isInBatchMode()) {
             return loadStatus;
         }
-        checkForConflict(true);
+        flushIfFull();
         return LoadStatus.SUCCESS;
     }
 
@@ -81,42 +98,155 @@ public class JdbcBatchBulkDatabaseWriter extends AbstractBulkDatabaseWriter {
         if (!getTransaction().isInBatchMode()) {
             return loadStatus;
         }
-        checkForConflict(true);
+        flushIfFull();
         return LoadStatus.SUCCESS;
     }
 
-    protected void checkForConflict(boolean isDml) {
-        if (isDml) {
-            expectedRowCount++;
+    protected void flushIfFull() {
+        if (++unflushedCount >= batchSize && flush()) {
+            super.prepare();
+        }
+    }
+
+    /**
+     * Runs the pending JDBC batch and replays the rows that failed or did not change a row. Returns true when rows were replayed, in which case
+     * the current statement needs to be prepared again.
+     */
+    protected boolean flush() {
+        JdbcSqlTransaction transaction = (JdbcSqlTransaction) getTransaction();
+        List<Object> rows = transaction.getUnflushedMarkers(false);
+        unflushedCount = 0;
+        if (rows.size() == 0) {
+            return false;
         }
-        if (getTransaction().getUnflushedMarkers(false).size() == 0) {
-            if (expectedRowCount != lastRowCount) {
-                throw new SymmetricException("JdbcBatchBulkDataWriter was in conflict, will attempt to fallback using default writer.");
+        boolean useSavepoints = getPlatform().getDatabaseInfo().isRequiresSavePointsInTransaction();
+        if (useSavepoints) {
+            transaction.execute("savepoint sym");
+        }
+        int[] rowCounts = transaction.flushForUpdateCounts();
+        List<CsvData> failedRows = new ArrayList<CsvData>();
+        boolean isBatchFailed = false;
+        for (int i = 0; i < rows.size(); i++) {
+            if (rowCounts[i] == Statement.EXECUTE_FAILED) {
+                isBatchFailed = true;
+                failedRows.add((CsvData) rows.get(i));
+            } else if (rowCounts[i] == 0) {
+                failedRows.add((CsvData) rows.get(i));
+            }
+        }
+        if (useSavepoints) {
+            if (isBatchFailed) {
+                transaction.execute("rollback to savepoint sym");
+                failedRows.clear();
+                for (Object row : rows) {
+                    failedRows.add((CsvData) row);
+                }
+            }
+            transaction.execute("release savepoint sym");
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            if (rowCounts[i] > 0 && !(useSavepoints && isBatchFailed)) {
+                incrementStatistics((CsvData) rows.get(i), rowCounts[i]);
+            }
+        }
+        if (failedRows.size() > 0) {
+            log.debug("Replaying {} of {} rows from a JDBC batch for table {}", failedRows.size(), rows.size(), targetTable.getName());
+            getStatistics().get(batch).increment(DataWriterStatisticConstants.BATCHREPLAYCOUNT, failedRows.size());
+            replay(failedRows);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Loads the rows one at a time, the way the default writer would, and passes conflicts to the conflict resolver.
+     */
+    protected void replay(List<CsvData> rows) {
+        DmlStatement batchDmlStatement = currentDmlStatement;
+        getTransaction().setInBatchMode(false);
+        try {
+            for (CsvData data : rows) {
+                beforeReplay(data);
+                LoadStatus loadStatus = LoadStatus.SUCCESS;
+                switch (data.getDataEventType()) {
+                    case UPDATE:
+                        loadStatus = update(data, writerSettings.isApplyChangesOnly(), true);
+                        break;
+                    case INSERT:
+                        loadStatus = insert(data);
+                        break;
+                    case DELETE:
+                        loadStatus = delete(data, true);
+                        break;
+                    default:
+                        break;
+                }
+                if (loadStatus == LoadStatus.CONFLICT) {
+                    if (conflictResolver != null) {
+                        conflictResolver.needsResolved(this, data, loadStatus);
+                    } else {
+                        throw new ConflictException(data, targetTable, false, writerSettings.pickConflict(targetTable, batch),
+                                (Exception) context.get(AbstractDatabaseWriter.CONFLICT_ERROR));
+                    }
+                }
             }
-            expectedRowCount = 0;
-            lastRowCount = 0;
+        } finally {
+            getTransaction().setInBatchMode(true);
+            currentDmlStatement = batchDmlStatement;
+        }
+    }
+
+    /**
+     * Called before a row from a JDBC batch is replayed on its own.
+     */
+    protected void beforeReplay(CsvData data) {
+    }
+
+    protected void incrementStatistics(CsvData data, int count) {
+        switch (data.getDataEventType()) {
+            case UPDATE:
+                getStatistics().get(batch).increment(DataWriterStatisticConstants.UPDATECOUNT, count);
+                break;
+            case INSERT:
+                getStatistics().get(batch).increment(DataWriterStatisticConstants.INSERTCOUNT, count);
+                break;
+            case DELETE:
+                getStatistics().get(batch).increment(DataWriterStatisticConstants.DELETECOUNT, count);
+                break;
+            default:
+                return;
         }
+        getStatistics().get(batch).incrementTableStats(targetTable.getName(), data.getDataEventType().getCode(), count);
     }
 
     @Override
     protected void prepare() {
         if (getTransaction().isInBatchMode()) {
-            lastRowCount = getTransaction().flush();
-            checkForConflict(false);
+            flush();
         }
         super.prepare();
     }
 
-    protected int execute(CsvData data, String[] values) {
-        lastRowCount = super.execute(data, values);
-        return lastRowCount;
+    @Override
+    public void end(Table table) {
+        if (getTransaction().isInBatchMode()) {
+            flush();
+        }
+        super.end(table);
+    }
+
+    @Override
+    protected void commit(boolean earlyCommit) {
+        if (getTransaction().isInBatchMode() && flush()) {
+            super.prepare();
+        }
+        super.commit(earlyCommit);
     }
 
     @Override
     public void end(Batch batch, boolean inError) {
-        if (getTransaction().isInBatchMode()) {
-            lastRowCount = getTransaction().flush();
-            checkForConflict(false);
+        if (!inError && getTransaction().isInBatchMode()) {
+            flush();
         }
         super.end(batch, inError);
     }
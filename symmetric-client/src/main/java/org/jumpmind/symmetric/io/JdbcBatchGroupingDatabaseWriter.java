@@ -0,0 +1,288 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.db.model.ForeignKey;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.symmetric.io.data.writer.DatabaseWriterSettings;
+import org.jumpmind.util.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the rows of a transaction with one JDBC batch per table and DML type, instead of starting a new JDBC batch each time the rows switch
+ * tables. Rows are held until the transaction ends, a non-row event is read, or the maximum number of rows is held, and are then written in an
+ * order that keeps:
+ * <ul>
+ * <li>the original order of the rows of each table, so changes to the same key and unique values are applied in order</li>
+ * <li>changes to a parent table before changes to its child tables, except for deletes of child rows, which can move earlier</li>
+ * <li>changes to a child table before changes to its parent tables, except for inserts of parent rows, which can move earlier</li>
+ * </ul>
+ * Parent and child tables are found from the foreign keys of the target tables. Rows from a feed without transaction IDs are grouped by batch.
+ */
+public class JdbcBatchGroupingDatabaseWriter extends JdbcBatchBulkDatabaseWriter {
+    private static final Logger log = LoggerFactory.getLogger(JdbcBatchGroupingDatabaseWriter.class);
+    protected int maxRowsToGroup;
+    protected List<GroupedRow> groupedRows = new ArrayList<GroupedRow>();
+    protected String groupedTransactionId;
+    protected Table streamTable;
+    protected Map<CsvData, GroupedRow> writingRows = new IdentityHashMap<CsvData, GroupedRow>();
+
+    public JdbcBatchGroupingDatabaseWriter(IDatabasePlatform symmetricPlatform, IDatabasePlatform targetPlatform,
+            String tablePrefix, DatabaseWriterSettings writerSettings, int maxRowsToGroup) {
+        super(symmetricPlatform, targetPlatform, tablePrefix, writerSettings);
+        this.maxRowsToGroup = maxRowsToGroup;
+    }
+
+    @Override
+    public boolean start(Table table) {
+        streamTable = table;
+        return super.start(table);
+    }
+
+    /**
+     * The last table of a batch ends after the batch is read completely. The held rows are written then, because listeners can act on the
+     * load transaction before the batch itself ends, like enabling sync triggers again.
+     */
+    @Override
+    public void end(Table table) {
+        streamTable = null;
+        super.end(table);
+        if (batch != null && batch.isComplete()) {
+            writeGroupedRows();
+        }
+    }
+
+    @Override
+    protected void bulkWrite(CsvData data) {
+        DataEventType eventType = data.getDataEventType();
+        if (targetTable != null && (eventType == DataEventType.INSERT || eventType == DataEventType.UPDATE || eventType == DataEventType.DELETE)) {
+            String transactionId = data.getAttribute(CsvData.ATTRIBUTE_TX_ID);
+            if (groupedRows.size() >= maxRowsToGroup || !StringUtils.equals(transactionId, groupedTransactionId)) {
+                writeGroupedRows();
+            }
+            groupedTransactionId = transactionId;
+            Statistics stats = statistics.get(batch);
+            stats.increment(DataWriterStatisticConstants.ROWCOUNT_INDEX);
+            stats.increment(DataWriterStatisticConstants.LINENUMBER_INDEX);
+            groupedRows.add(new GroupedRow(sourceTable, targetTable, data, stats.get(DataWriterStatisticConstants.ROWCOUNT_INDEX),
+                    stats.get(DataWriterStatisticConstants.LINENUMBER_INDEX)));
+        } else {
+            writeGroupedRows();
+            super.bulkWrite(data);
+        }
+    }
+
+    @Override
+    public void end(Batch batch, boolean inError) {
+        if (inError) {
+            groupedRows.clear();
+        } else {
+            writeGroupedRows();
+        }
+        groupedTransactionId = null;
+        super.end(batch, inError);
+    }
+
+    /**
+     * Writes the held rows one table at a time. The table being read is ended first and started again afterwards, because some databases
+     * only allow one table at a time to accept values for identity columns. The row and line numbers were counted when the rows were read,
+     * so each row is written with its own numbers, which are the ones reported when it fails.
+     */
+    protected void writeGroupedRows() {
+        if (groupedRows.size() == 0) {
+            return;
+        }
+        List<GroupedRow> rows = groupedRows;
+        groupedRows = new ArrayList<GroupedRow>();
+        Table currentTable = streamTable;
+        CsvData currentData = context.getData();
+        if (currentTable != null) {
+            super.end(currentTable);
+        }
+        Statistics stats = statistics.get(batch);
+        long rowCount = stats.get(DataWriterStatisticConstants.ROWCOUNT_INDEX);
+        long lineNumber = stats.get(DataWriterStatisticConstants.LINENUMBER_INDEX);
+        List<List<GroupedRow>> runs = groupByTable(rows);
+        log.debug("Writing {} rows as {} groups of table rows", rows.size(), runs.size());
+        for (GroupedRow row : rows) {
+            writingRows.put(row.data, row);
+        }
+        try {
+            for (List<GroupedRow> run : runs) {
+                Table table = run.get(0).sourceTable;
+                super.start(table);
+                for (GroupedRow row : run) {
+                    context.setData(row.data);
+                    setPosition(row);
+                    writeDefault(row.data);
+                }
+                super.end(table);
+            }
+        } finally {
+            writingRows.clear();
+        }
+        stats.set(DataWriterStatisticConstants.ROWCOUNT_INDEX, rowCount);
+        stats.set(DataWriterStatisticConstants.LINENUMBER_INDEX, lineNumber);
+        context.setData(currentData);
+        if (currentTable != null) {
+            super.start(currentTable);
+        }
+    }
+
+    @Override
+    protected void beforeReplay(CsvData data) {
+        GroupedRow row = writingRows.get(data);
+        if (row != null) {
+            setPosition(row);
+            statistics.get(batch).increment(DataWriterStatisticConstants.ROWCOUNT_INDEX);
+            statistics.get(batch).increment(DataWriterStatisticConstants.LINENUMBER_INDEX);
+        }
+    }
+
+    /**
+     * Sets the statistics to the numbers before the row, so writing it counts the row at its original position.
+     */
+    protected void setPosition(GroupedRow row) {
+        Statistics stats = statistics.get(batch);
+        stats.set(DataWriterStatisticConstants.ROWCOUNT_INDEX, row.rowNumber - 1);
+        stats.set(DataWriterStatisticConstants.LINENUMBER_INDEX, row.lineNumber - 1);
+    }
+
+    /**
+     * Orders the rows into runs of the same table and DML type. The earliest row that has not been written can always be written next, so the
+     * next run starts with the earliest row that is ready and takes the rows of its table that follow it until the DML type changes or a row
+     * has to wait for a row of another table.
+     */
+    protected static List<List<GroupedRow>> groupByTable(List<GroupedRow> rows) {
+        Map<Table, Integer> tableIndexes = new IdentityHashMap<Table, Integer>();
+        List<Table> tables = new ArrayList<Table>();
+        List<List<Integer>> rowsByTable = new ArrayList<List<Integer>>();
+        int[] rowTables = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Table table = rows.get(i).targetTable;
+            Integer tableIndex = tableIndexes.get(table);
+            if (tableIndex == null) {
+                tableIndex = tables.size();
+                tableIndexes.put(table, tableIndex);
+                tables.add(table);
+                rowsByTable.add(new ArrayList<Integer>());
+            }
+            rowTables[i] = tableIndex;
+            rowsByTable.get(tableIndex).add(i);
+        }
+        int tableCount = tables.size();
+        boolean[][] references = new boolean[tableCount][tableCount];
+        for (int child = 0; child < tableCount; child++) {
+            for (int parent = 0; parent < tableCount; parent++) {
+                references[child][parent] = child != parent && isReferenced(tables.get(child), tables.get(parent));
+            }
+        }
+        int[] nextRows = new int[tableCount];
+        List<List<GroupedRow>> runs = new ArrayList<List<GroupedRow>>();
+        int remaining = rows.size();
+        while (remaining > 0) {
+            int runTable = -1;
+            int runRow = Integer.MAX_VALUE;
+            for (int table = 0; table < tableCount; table++) {
+                int row = getNextRow(rowsByTable, nextRows, table);
+                if (row >= 0 && row < runRow && isReady(rows, rowTables, rowsByTable, nextRows, references, row)) {
+                    runTable = table;
+                    runRow = row;
+                }
+            }
+            DataEventType eventType = rows.get(runRow).data.getDataEventType();
+            List<GroupedRow> run = new ArrayList<GroupedRow>();
+            int row = runRow;
+            while (row >= 0 && rows.get(row).data.getDataEventType() == eventType
+                    && isReady(rows, rowTables, rowsByTable, nextRows, references, row)) {
+                run.add(rows.get(row));
+                nextRows[runTable]++;
+                remaining--;
+                row = getNextRow(rowsByTable, nextRows, runTable);
+            }
+            runs.add(run);
+        }
+        return runs;
+    }
+
+    protected static int getNextRow(List<List<Integer>> rowsByTable, int[] nextRows, int table) {
+        List<Integer> tableRows = rowsByTable.get(table);
+        return nextRows[table] < tableRows.size() ? tableRows.get(nextRows[table]) : -1;
+    }
+
+    /**
+     * A row is ready when every earlier row it has to follow is written. Rows of a table are written in order, so that is the case when the
+     * next row of each related table comes after this row.
+     */
+    protected static boolean isReady(List<GroupedRow> rows, int[] rowTables, List<List<Integer>> rowsByTable, int[] nextRows,
+            boolean[][] references, int row) {
+        int table = rowTables[row];
+        DataEventType eventType = rows.get(row).data.getDataEventType();
+        for (int other = 0; other < references.length; other++) {
+            boolean mustFollow = (references[table][other] && eventType != DataEventType.DELETE)
+                    || (references[other][table] && eventType != DataEventType.INSERT);
+            if (mustFollow) {
+                int otherRow = getNextRow(rowsByTable, nextRows, other);
+                if (otherRow >= 0 && otherRow < row) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    protected static boolean isReferenced(Table child, Table parent) {
+        for (ForeignKey fk : child.getForeignKeys()) {
+            if (parent.getName().equalsIgnoreCase(fk.getForeignTableName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected static class GroupedRow {
+        Table sourceTable;
+        Table targetTable;
+        CsvData data;
+        long rowNumber;
+        long lineNumber;
+
+        GroupedRow(Table sourceTable, Table targetTable, CsvData data, long rowNumber, long lineNumber) {
+            this.sourceTable = sourceTable;
+            this.targetTable = targetTable;
+            this.data = data;
+            this.rowNumber = rowNumber;
+            this.lineNumber = lineNumber;
+        }
+    }
+}
@@ -55,6 +55,9 @@ abstract public class AbstractJob implements Runnable, IJob {
     private AtomicBoolean paused = new AtomicBoolean(false);
     private Date lastFinishTime;
     private AtomicBoolean running = new AtomicBoolean(false);
+    private AtomicBoolean wakeUpScheduled = new AtomicBoolean(false);
+    private AtomicBoolean wakeUpMissed = new AtomicBoolean(false);
+    private volatile boolean lockAcquired;
     private long lastExecutionTimeInMs;
     private long totalExecutionTimeInMs;
     private long numberOfRuns;
@@ -188,30 +191,37 @@ abstract public class AbstractJob implements Runnable, IJob {
                 return false;
             }
             long startTime = System.currentTimeMillis();
-            if (!jobDefinition.isClustered() || engine.getClusterService().lock(jobName)) {
-                try {
-                    if (!running.compareAndSet(false, true)) { // This ensures this job only runs once on this instance.
-                        log.info("Job '{}' is already running on another thread and will not run at this time.", getName());
-                        return false;
-                    }
-                    if (parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS)) {
-                        synchronized (AbstractJob.class) {
+            if (!running.compareAndSet(false, true)) { // This ensures this job only runs once on this instance.
+                log.info("Job '{}' is already running on another thread and will not run at this time.", getName());
+                return false;
+            }
+            try {
+                lockAcquired = !jobDefinition.isClustered() || engine.getClusterService().lock(jobName);
+                if (lockAcquired) {
+                    try {
+                        if (parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS)) {
+                            synchronized (AbstractJob.class) {
+                                doJob(force);
+                            }
+                        } else {
                             doJob(force);
                         }
-                    } else {
-                        doJob(force);
-                    }
-                } finally {
-                    if (jobDefinition.isClustered()) {
-                        engine.getClusterService().unlock(jobName);
+                    } finally {
+                        if (jobDefinition.isClustered()) {
+                            engine.getClusterService().unlock(jobName);
+                        }
+                        lastFinishTime = new Date();
+                        long endTime = System.currentTimeMillis();
+                        lastExecutionTimeInMs = endTime - startTime;
+                        totalExecutionTimeInMs += lastExecutionTimeInMs;
+                        numberOfRuns++;
                     }
-                    lastFinishTime = new Date();
-                    long endTime = System.currentTimeMillis();
-                    lastExecutionTimeInMs = endTime - startTime;
-                    totalExecutionTimeInMs += lastExecutionTimeInMs;
-                    numberOfRuns++;
-                    running.set(false);
                 }
+            } finally {
+                running.set(false);
+            }
+            if (lockAcquired && wakeUpMissed.getAndSet(false)) {
+                scheduleWakeUp();
             }
         } catch (final Throwable ex) {
             log.error("Exception while executing job '" + getName() + "'", ex);
@@ -270,6 +280,56 @@ abstract public class AbstractJob implements Runnable, IJob {
 
     protected abstract void doJob(boolean force) throws Exception;
 
+    /**
+     * Run the job soon instead of waiting for its next scheduled time, because new work is ready for it. Wake ups that arrive within
+     * job.wake.up.debounce.ms are combined into one run, and wake ups that arrive while the job is running cause one more run after it
+     * finishes, so a busy job is never queued more than once.
+     */
+    @Override
+    public void wakeUp() {
+        if (started && !paused.get() && taskScheduler != null && parameterService.is(ParameterConstants.JOB_WAKE_UP_ENABLED, false)) {
+            if (running.get()) {
+                wakeUpMissed.set(true);
+                if (!running.get() && wakeUpMissed.getAndSet(false)) {
+                    scheduleWakeUp();
+                }
+            } else {
+                scheduleWakeUp();
+            }
+        }
+    }
+
+    protected void scheduleWakeUp() {
+        if (wakeUpScheduled.compareAndSet(false, true)) {
+            long debounceMs = parameterService.getLong(ParameterConstants.JOB_WAKE_UP_DEBOUNCE_MS, 50);
+            try {
+                taskScheduler.schedule(() -> {
+                    wakeUpScheduled.set(false);
+                    if (running.get()) {
+                        wakeUpMissed.set(true);
+                    } else {
+                        run();
+                    }
+                }, Instant.now().plusMillis(debounceMs));
+            } catch (RuntimeException ex) {
+                wakeUpScheduled.set(false);
+                log.debug("Unable to wake up job '{}': {}", jobName, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Wake up another job that has work to do because of this one.
+     */
+    protected void wakeUp(String jobName) {
+        if (engine.getJobManager() != null && engine.getJobManager().isStarted()) {
+            IJob job = engine.getJobManager().getJob(jobName);
+            if (job != null) {
+                job.wakeUp();
+            }
+        }
+    }
+
     @Override
     @ManagedOperation(description = "Pause this job")
     public void pause() {
@@ -316,6 +376,14 @@ abstract public class AbstractJob implements Runnable, IJob {
         return running.get();
     }
 
+    /**
+     * True when the job is started and not paused, and when it is clustered, its last run got the cluster lock on this node.
+     */
+    public boolean isAbleToRun() {
+        return started && !paused.get() && (jobDefinition == null || !jobDefinition.isClustered()
+                || !engine.getClusterService().isClusteringEnabled() || lockAcquired);
+    }
+
     @Override
     @ManagedMetric(description = "The number of times this job has been run during the lifetime of the JVM")
     public long getNumberOfRuns() {
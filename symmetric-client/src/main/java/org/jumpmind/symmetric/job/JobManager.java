@@ -20,16 +20,19 @@
  */
 package org.jumpmind.symmetric.job;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SymmetricException;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.model.JobDefinition;
 import org.jumpmind.symmetric.service.ClusterConstants;
 import org.jumpmind.symmetric.service.impl.AbstractService;
@@ -47,6 +50,8 @@ public class JobManager extends AbstractService implements IJobManager {
     private ISymmetricEngine engine;
     private JobCreator jobCreator = new JobCreator();
     private boolean started = false;
+    private ScheduledFuture<?> dataWakeUpMonitor;
+    private long lastMaxDataId = -1;
 
     public JobManager(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect());
@@ -109,6 +114,32 @@ public class JobManager extends AbstractService implements IJobManager {
             }
         }
         started = true;
+        if (engine.getParameterService().is(ParameterConstants.JOB_WAKE_UP_ENABLED, false) && dataWakeUpMonitor == null) {
+            long pollMs = Math.max(engine.getParameterService().getLong(ParameterConstants.JOB_WAKE_UP_DATA_POLL_MS, 100), 10);
+            log.info("Checking for captured data every {}ms to wake up the route job", pollMs);
+            dataWakeUpMonitor = taskScheduler.scheduleWithFixedDelay(() -> checkForCapturedData(), Duration.ofMillis(pollMs));
+        }
+    }
+
+    /**
+     * Wake up the route job when the maximum data_id has gone up since the last check, which is an inexpensive query on the primary key. The
+     * query only runs while the route job can run on this node, so other nodes in a cluster do not poll.
+     */
+    protected void checkForCapturedData() {
+        try {
+            IJob routeJob = getJob(ClusterConstants.ROUTE);
+            if (engine.isStarted() && routeJob instanceof AbstractJob && ((AbstractJob) routeJob).isAbleToRun()) {
+                long maxDataId = engine.getDataService().findMaxDataId();
+                if (lastMaxDataId >= 0 && maxDataId > lastMaxDataId) {
+                    routeJob.wakeUp();
+                }
+                lastMaxDataId = maxDataId;
+            } else {
+                lastMaxDataId = -1;
+            }
+        } catch (Exception ex) {
+            log.debug("Failed to check for captured data", ex);
+        }
     }
 
     @Override
@@ -136,6 +167,11 @@ public class JobManager extends AbstractService implements IJobManager {
 
     @Override
     public synchronized void stopJobs() {
+        if (dataWakeUpMonitor != null) {
+            dataWakeUpMonitor.cancel(false);
+            dataWakeUpMonitor = null;
+            lastMaxDataId = -1;
+        }
         if (jobs != null) {
             for (IJob job : jobs) {
                 job.stop();
@@ -45,6 +45,9 @@ public class RouterJob extends AbstractJob {
     @Override
     public void doJob(boolean force) throws Exception {
         setProcessedCount(engine.getRouterService().routeData(force));
+        if (getProcessedCount() > 0) {
+            wakeUp(ClusterConstants.PUSH);
+        }
     }
 
     @Override
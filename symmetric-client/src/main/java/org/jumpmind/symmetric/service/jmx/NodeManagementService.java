@@ -45,6 +45,7 @@ import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
 import org.jumpmind.symmetric.service.IDataExtractorService;
 import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.NodeConnectionStatistics;
+import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.PoolStatistics;
 import org.jumpmind.util.FormatUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -145,6 +146,38 @@ public class NodeManagementService implements IBuiltInExtensionPoint, ISymmetric
         return 0;
     }
 
+    @ManagedOperation(description = "Get accepted and rejected connection rates for each connection pool")
+    public String showPoolConcurrencyStatisticsAsText() {
+        String lineFeed = "\n";
+        if (engine.getParameterService().getString(ParameterConstants.JMX_LINE_FEED).equals("html")) {
+            lineFeed = "</br>";
+        }
+        Map<String, PoolStatistics> stats = engine.getConcurrentConnectionManager().getPoolStatisticsByPool();
+        NumberFormat rateFormat = NumberFormat.getNumberInstance();
+        rateFormat.setMaximumFractionDigits(2);
+        StringBuilder out = new StringBuilder();
+        out.append("-----------------------------------------------------------------------------------------------------------------------------------------------------------");
+        out.append(lineFeed);
+        out.append("     CONNECTION TYPE        ACTIVE      ACCEPTED      REJECTED     DUPLICATE     NOT FOUND    ACCEPTED/SEC    REJECTED/SEC     REJECTED %");
+        out.append(lineFeed);
+        out.append("-----------------------------------------------------------------------------------------------------------------------------------------------------------");
+        out.append(lineFeed);
+        for (String pool : stats.keySet()) {
+            PoolStatistics poolStat = stats.get(pool);
+            out.append(StringUtils.leftPad(pool, 20));
+            out.append(StringUtils.leftPad(Integer.toString(engine.getConcurrentConnectionManager().getReservationCount(pool)), 14));
+            out.append(StringUtils.leftPad(Long.toString(poolStat.getAcceptedCount()), 14));
+            out.append(StringUtils.leftPad(Long.toString(poolStat.getRejectedCount()), 14));
+            out.append(StringUtils.leftPad(Long.toString(poolStat.getDuplicateCount()), 14));
+            out.append(StringUtils.leftPad(Long.toString(poolStat.getNotFoundCount()), 14));
+            out.append(StringUtils.leftPad(rateFormat.format(poolStat.getAcceptedPerSecond()), 16));
+            out.append(StringUtils.leftPad(rateFormat.format(poolStat.getRejectedPerSecond()), 16));
+            out.append(StringUtils.leftPad(rateFormat.format(poolStat.getRejectedPercent()), 15));
+            out.append(lineFeed);
+        }
+        return out.toString();
+    }
+
     @ManagedOperation(description = "Get connection statistics about indivdual nodes")
     public String showNodeConcurrencyStatisticsAsText() {
         String lineFeed = "\n";
@@ -177,9 +210,8 @@ public class NodeManagementService implements IBuiltInExtensionPoint, ISymmetric
                         27));
                 out.append(StringUtils.leftPad(Integer.toString(nodeStat.getNumOfRejections()), 25));
                 out.append(StringUtils.leftPad(
-                        NumberFormat.getIntegerInstance().format(
-                                nodeStat.getTotalConnectionTimeMs()
-                                        / nodeStat.getTotalConnectionCount()), 25));
+                        NumberFormat.getIntegerInstance().format(nodeStat.getTotalConnectionCount() == 0 ? 0
+                                : nodeStat.getTotalConnectionTimeMs() / nodeStat.getTotalConnectionCount()), 25));
             }
             out.append(lineFeed);
         }
@@ -137,11 +137,11 @@ public class DbExportImportTest extends AbstractServiceTest {
                 .getDefaultCatalog());
         export.setCompatible(Compatible.H2);
         String output = export.exportTables(tables).toLowerCase();
-        Assert.assertEquals(output, 46, StringUtils.countMatches(output, "create table "));
+        Assert.assertEquals(output, 47, StringUtils.countMatches(output, "create table "));
         if (engine.getDatabasePlatform().getName().equals(DatabaseNamesConstants.INFORMIX)) {
             return;
         }
-        final int EXPECTED_VARCHAR_MAX_COUNT = engine.getDatabasePlatform().getName().equals(DatabaseNamesConstants.SQLITE) ? 318 : 65;
+        final int EXPECTED_VARCHAR_MAX_COUNT = engine.getDatabasePlatform().getName().equals(DatabaseNamesConstants.SQLITE) ? 324 : 66;
         final String EXPECTED_VARCHAR_MAX_STRING;
         if (engine.getDatabasePlatform().getName().equals(DatabaseNamesConstants.DERBY)) {
             EXPECTED_VARCHAR_MAX_STRING = "clob";
@@ -392,6 +392,51 @@ public class DbExportImportTest extends AbstractServiceTest {
         // TODO test force
     }
 
+    @Test
+    public void exportThenImportCsvInParallelChunks() throws Exception {
+        ISymmetricEngine engine = getSymmetricEngine();
+        IDatabasePlatform platform = engine.getSymmetricDialect().getPlatform();
+        Database testTables = platform.readDatabaseFromXml("/test-dbimport.xml", true);
+        Table table = testTables.findTable("test_db_import_1", false);
+        recreateImportTable();
+        final int RECORD_COUNT = 100;
+        DbFill fill = new DbFill(platform);
+        fill.setRecordCount(RECORD_COUNT);
+        fill.fillTables(table.getName());
+        DbExport export = new DbExport(platform);
+        export.setFormat(Format.CSV);
+        export.setNoCreateInfo(true);
+        export.setNoData(false);
+        export.setThreadCount(4);
+        export.setChunkSize(30);
+        String csvOutput = export.exportTables(new String[] { table.getName() });
+        Assert.assertEquals(1, StringUtils.countMatches(csvOutput.toLowerCase(), "\"string_value\""));
+        ISqlTemplate sqlTemplate = platform.getSqlTemplate();
+        List<Row> rowsBeforeImport = sqlTemplate.query(SELECT_FROM_TEST_DB_IMPORT_1_ORDER_BY_ID);
+        recreateImportTable();
+        DbImport importCsv = new DbImport(platform);
+        importCsv.setFormat(DbImport.Format.CSV);
+        importCsv.importTables(csvOutput, table.getName());
+        Assert.assertEquals(RECORD_COUNT, sqlTemplate.queryForInt("select count(*) from " + table.getName()));
+        compareRows(table, rowsBeforeImport, sqlTemplate.query(SELECT_FROM_TEST_DB_IMPORT_1_ORDER_BY_ID));
+    }
+
+    @Test
+    public void fillTableWithThreadsAndBatches() throws Exception {
+        ISymmetricEngine engine = getSymmetricEngine();
+        IDatabasePlatform platform = engine.getSymmetricDialect().getPlatform();
+        Database testTables = platform.readDatabaseFromXml("/test-dbimport.xml", true);
+        Table table = testTables.findTable("test_db_import_1", false);
+        recreateImportTable();
+        DbFill fill = new DbFill(platform);
+        fill.setRecordCount(100);
+        fill.setThreadCount(3);
+        fill.setBatchSize(10);
+        fill.setMaxRowsCommit(25);
+        fill.fillTables(table.getName());
+        Assert.assertEquals(100, platform.getSqlTemplate().queryForInt("select count(*) from " + table.getName()));
+    }
+
     @Test
     public void exportThenImportCsvWithBackslashes() throws Exception {
         ISymmetricEngine engine = getSymmetricEngine();
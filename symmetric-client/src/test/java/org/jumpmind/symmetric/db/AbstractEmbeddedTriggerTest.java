@@ -0,0 +1,56 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class AbstractEmbeddedTriggerTest {
+    private static final String VIRTUAL_TABLE = "(SELECT ? as \"NEW_ID\", ? as \"NEW_NAME\", ? AS \"OLD_ID\", ? AS \"OLD_NAME\" FROM DUAL) T ";
+
+    @Test
+    public void testBuildCaptureSql() throws Exception {
+        String sql = AbstractEmbeddedTrigger.buildCaptureSql("select count(*) from " + VIRTUAL_TABLE + " where 1=1 and @sync_prevented is null",
+                "insert into sym_data (row_data) (select \"NEW_NAME\" from " + VIRTUAL_TABLE + ")", new String[] { "INTEGER", "VARCHAR(50)" });
+        assertEquals("insert into sym_data (row_data) (select \"NEW_NAME\" from (SELECT CAST(? AS INTEGER) as \"NEW_ID\", "
+                + "CAST(? AS VARCHAR(50)) as \"NEW_NAME\", CAST(? AS INTEGER) AS \"OLD_ID\", CAST(? AS VARCHAR(50)) AS \"OLD_NAME\" FROM DUAL) T "
+                + "WHERE @sync_prevented is null )", sql);
+    }
+
+    @Test
+    public void testBuildCaptureSqlFallsBack() throws Exception {
+        String insertSql = "insert into sym_data (row_data) (select \"NEW_NAME\" from " + VIRTUAL_TABLE + ")";
+        assertNull(AbstractEmbeddedTrigger.buildCaptureSql("select count(*) from " + VIRTUAL_TABLE + " where 1=1", insertSql,
+                new String[] { "INTEGER" }));
+        assertNull(AbstractEmbeddedTrigger.buildCaptureSql("select count(*) from " + VIRTUAL_TABLE + " where \"NEW_ID\" > ?", insertSql,
+                new String[] { "INTEGER", "VARCHAR(50)" }));
+    }
+
+    @Test
+    public void testSimplifyCondition() throws Exception {
+        assertEquals("", AbstractEmbeddedTrigger.simplifyCondition("1=1 and 1 = 1"));
+        assertEquals("\"NEW_ID\" > 5 and @sync_prevented is null", AbstractEmbeddedTrigger.simplifyCondition(
+                "\"NEW_ID\" > 5 AND 1=1 and @sync_prevented is null"));
+        assertEquals("\"NEW_NAME\" = 'a and 1=1'", AbstractEmbeddedTrigger.simplifyCondition("\"NEW_NAME\" = 'a and 1=1'"));
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.io.DbCompareReport.TableReport;
+import org.jumpmind.symmetric.service.impl.AbstractServiceTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("integration")
+public class DbCompareRangeTest extends AbstractServiceTest {
+    @Test
+    public void testCompareRangesOnlyComparesMismatchedRanges() throws Exception {
+        IDatabasePlatform platform = getPlatform();
+        if (!platform.getName().equals(DatabaseNamesConstants.H2)) {
+            return;
+        }
+        Table sourceTable = createTable(platform, "test_dbcompare_range_source");
+        Table targetTable = createTable(platform, "test_dbcompare_range_target");
+        ISqlTemplate sqlTemplate = platform.getSqlTemplate();
+        try {
+            for (int id = 1; id <= 1000; id++) {
+                sqlTemplate.update("insert into test_dbcompare_range_source values(?, ?)", id, "name " + id);
+                sqlTemplate.update("insert into test_dbcompare_range_target values(?, ?)", id, "name " + id);
+            }
+            sqlTemplate.update("update test_dbcompare_range_target set name = 'changed' where id = 17");
+            sqlTemplate.update("delete from test_dbcompare_range_target where id = 500");
+            sqlTemplate.update("insert into test_dbcompare_range_target values(1500, 'name 1500')");
+            DbCompareConfig config = new DbCompareConfig();
+            config.setUseRangeChecksum(true);
+            config.setRangeSize(20);
+            DbCompareTables tables = new DbCompareTables(platform.getTableFromCache(sourceTable.getName(), true),
+                    platform.getTableFromCache(targetTable.getName(), true));
+            tables.applyColumnMappings();
+            RecordingDbCompare dbCompare = new RecordingDbCompare(getSymmetricEngine(), config);
+            TableReport report = dbCompare.compareTables(tables, new ByteArrayOutputStream());
+            assertEquals("Only the three ranges with a difference should be compared row by row", 3, dbCompare.rangeRowCounts.size());
+            for (int rowCount : dbCompare.rangeRowCounts) {
+                assertTrue("A compared range has " + rowCount + " rows", rowCount <= config.getRangeSize());
+            }
+            assertEquals(1000, report.getSourceRows());
+            assertEquals(1000, report.getTargetRows());
+            assertEquals(998, report.getMatchedRows());
+            assertEquals(1, report.getDifferentRows());
+            assertEquals(1, report.getMissingRows());
+            assertEquals(1, report.getExtraRows());
+        } finally {
+            platform.dropTables(true, sourceTable, targetTable);
+        }
+    }
+
+    protected Table createTable(IDatabasePlatform platform, String name) {
+        Table table = new Table(name);
+        table.addColumn(new Column("id", true, Types.INTEGER, -1, -1));
+        table.addColumn(new Column("name", false, Types.VARCHAR, 50, -1));
+        platform.alterCaseToMatchDatabaseDefaultCase(table);
+        platform.createTables(true, false, table);
+        return table;
+    }
+
+    static class RecordingDbCompare extends DbCompare {
+        List<Integer> rangeRowCounts = new ArrayList<Integer>();
+
+        RecordingDbCompare(ISymmetricEngine engine, DbCompareConfig config) {
+            super(engine, engine, config);
+        }
+
+        @Override
+        protected void compareRows(DbCompareTables tables, CountingSqlReadCursor sourceCursor, CountingSqlReadCursor targetCursor,
+                TableReport tableReport, DbCompareDiffWriter diffWriter) {
+            super.compareRows(tables, sourceCursor, targetCursor, tableReport, diffWriter);
+            rangeRowCounts.add(Math.max(sourceCursor.count, targetCursor.count));
+        }
+    }
+}
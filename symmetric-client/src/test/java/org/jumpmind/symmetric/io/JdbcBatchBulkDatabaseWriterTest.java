@@ -0,0 +1,77 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.db.DbTestUtils;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.writer.Conflict;
+import org.jumpmind.symmetric.io.data.writer.Conflict.DetectConflict;
+import org.jumpmind.symmetric.io.data.writer.Conflict.ResolveConflict;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.util.Statistics;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class JdbcBatchBulkDatabaseWriterTest extends AbstractWriterTest {
+    @BeforeAll
+    public static void setup() throws Exception {
+        platform = DbTestUtils.createDatabasePlatform(DbTestUtils.ROOT);
+        platform.createDatabase(platform.readDatabaseFromXml("/testDatabaseWriter.xml", true), true, false);
+    }
+
+    @BeforeEach
+    public void notExpectingError() {
+        setErrorExpected(false);
+        Conflict conflict = new Conflict();
+        conflict.setDetectType(DetectConflict.USE_PK_DATA);
+        conflict.setResolveType(ResolveConflict.FALLBACK);
+        writerSettings.setDefaultConflictSetting(conflict);
+    }
+
+    @Test
+    public void testOnlyConflictingRowsAreReplayed() {
+        platform.getSqlTemplate().update("delete from " + TEST_TABLE);
+        String existingId = getNextId();
+        platform.getSqlTemplate().update("insert into " + TEST_TABLE + " (id, string_value, string_required_value, char_required_value) "
+                + "values (?, ?, ?, ?)", Integer.valueOf(existingId), "old value", "required", "required");
+        List<CsvData> data = new ArrayList<CsvData>();
+        for (int i = 0; i < 30; i++) {
+            String id = i == 10 ? existingId : getNextId();
+            data.add(new CsvData(DataEventType.INSERT, new String[] { id, "new value", "required", "char", "required",
+                    "2007-01-02 00:00:00.000", "2007-02-03 04:05:06.000", "0", "47", "67.89", "-0.0747663" }));
+        }
+        Table table = platform.getTableFromCache(TEST_TABLE, false);
+        JdbcBatchBulkDatabaseWriter writer = new JdbcBatchBulkDatabaseWriter(platform, platform, "sym", writerSettings);
+        Assert.assertEquals(30, writeData(writer, new TableCsvData(table, data)));
+        Assert.assertEquals(30, countRows(TEST_TABLE));
+        Assert.assertEquals("new value", queryForRow(existingId).get("string_value"));
+        Statistics stats = writer.getStatistics().values().iterator().next();
+        Assert.assertEquals(1, stats.get(DataWriterStatisticConstants.BATCHREPLAYCOUNT));
+        Assert.assertEquals(29, stats.get(DataWriterStatisticConstants.INSERTCOUNT));
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.jumpmind.db.DbTestUtils;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.sql.Row;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.JdbcBatchGroupingDatabaseWriter.GroupedRow;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.writer.Conflict;
+import org.jumpmind.symmetric.io.data.writer.Conflict.DetectConflict;
+import org.jumpmind.symmetric.io.data.writer.Conflict.ResolveConflict;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.symmetric.io.data.writer.DynamicDefaultDatabaseWriter;
+import org.jumpmind.util.Statistics;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class JdbcBatchGroupingDatabaseWriterTest extends AbstractWriterTest {
+    private final static String PARENT_TABLE = "test_dataloader_parent";
+    private final static String CHILD_TABLE = "test_dataloader_child";
+    private final static String GRANDCHILD_TABLE = "test_dataloader_grandchild";
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        platform = DbTestUtils.createDatabasePlatform(DbTestUtils.ROOT);
+        platform.createDatabase(platform.readDatabaseFromXml("/testDatabaseWriter.xml", true), true, false);
+    }
+
+    @BeforeEach
+    public void notExpectingError() {
+        setErrorExpected(false);
+        Conflict conflict = new Conflict();
+        conflict.setDetectType(DetectConflict.USE_PK_DATA);
+        conflict.setResolveType(ResolveConflict.FALLBACK);
+        writerSettings.setDefaultConflictSetting(conflict);
+    }
+
+    @Test
+    public void testInsertsAreGroupedByTable() {
+        Table parent = platform.getTableFromCache(PARENT_TABLE, false);
+        Table child = platform.getTableFromCache(CHILD_TABLE, false);
+        List<GroupedRow> rows = new ArrayList<GroupedRow>();
+        rows.add(row(parent, DataEventType.INSERT, "1"));
+        rows.add(row(child, DataEventType.INSERT, "1"));
+        rows.add(row(child, DataEventType.INSERT, "2"));
+        rows.add(row(parent, DataEventType.INSERT, "2"));
+        rows.add(row(child, DataEventType.INSERT, "3"));
+        List<List<GroupedRow>> runs = JdbcBatchGroupingDatabaseWriter.groupByTable(rows);
+        Assert.assertEquals(2, runs.size());
+        assertRun(runs.get(0), rows.get(0), rows.get(3));
+        assertRun(runs.get(1), rows.get(1), rows.get(2), rows.get(4));
+    }
+
+    @Test
+    public void testDeletesOfChildRowsAreGroupedFirst() {
+        Table parent = platform.getTableFromCache(PARENT_TABLE, false);
+        Table child = platform.getTableFromCache(CHILD_TABLE, false);
+        List<GroupedRow> rows = new ArrayList<GroupedRow>();
+        rows.add(row(child, DataEventType.DELETE, "1"));
+        rows.add(row(parent, DataEventType.DELETE, "1"));
+        rows.add(row(child, DataEventType.DELETE, "2"));
+        rows.add(row(parent, DataEventType.DELETE, "2"));
+        List<List<GroupedRow>> runs = JdbcBatchGroupingDatabaseWriter.groupByTable(rows);
+        Assert.assertEquals(2, runs.size());
+        assertRun(runs.get(0), rows.get(0), rows.get(2));
+        assertRun(runs.get(1), rows.get(1), rows.get(3));
+    }
+
+    @Test
+    public void testUpdateOfParentWaitsForEarlierChildRows() {
+        Table parent = platform.getTableFromCache(PARENT_TABLE, false);
+        Table child = platform.getTableFromCache(CHILD_TABLE, false);
+        List<GroupedRow> rows = new ArrayList<GroupedRow>();
+        rows.add(row(child, DataEventType.INSERT, "1"));
+        rows.add(row(parent, DataEventType.UPDATE, "1"));
+        rows.add(row(child, DataEventType.INSERT, "2"));
+        List<List<GroupedRow>> runs = JdbcBatchGroupingDatabaseWriter.groupByTable(rows);
+        Assert.assertEquals(3, runs.size());
+        assertRun(runs.get(0), rows.get(0));
+        assertRun(runs.get(1), rows.get(1));
+        assertRun(runs.get(2), rows.get(2));
+    }
+
+    @Test
+    public void testFinalStateMatchesDefaultWriter() {
+        for (long seed = 1; seed <= 5; seed++) {
+            List<TableCsvData> changes = buildInterleavedChanges(new Random(seed), 300);
+            deleteTestRows();
+            writeBatch(new DynamicDefaultDatabaseWriter(platform, platform, "sym", writerSettings), changes);
+            Map<String, List<Row>> expected = queryTestRows();
+            Assert.assertTrue(expected.get(CHILD_TABLE).size() > 0);
+            for (int maxRowsToGroup : new int[] { 7, 10000 }) {
+                deleteTestRows();
+                writeBatch(new JdbcBatchGroupingDatabaseWriter(platform, platform, "sym", writerSettings, maxRowsToGroup), changes);
+                Assert.assertEquals("Seed " + seed + " grouping " + maxRowsToGroup + " rows", expected, queryTestRows());
+            }
+        }
+    }
+
+    @Test
+    public void testFailedRowReportsOriginalLineNumber() {
+        Table parent = platform.getTableFromCache(PARENT_TABLE, false);
+        Table child = platform.getTableFromCache(CHILD_TABLE, false);
+        deleteTestRows();
+        List<TableCsvData> changes = new ArrayList<TableCsvData>();
+        changes.add(new TableCsvData(parent, new CsvData(DataEventType.INSERT, new String[] { "1", "name 1", null })));
+        changes.add(new TableCsvData(child, new CsvData(DataEventType.INSERT, new String[] { "1", "1" })));
+        changes.add(new TableCsvData(child, new CsvData(DataEventType.INSERT, new String[] { "2", "999" })));
+        changes.add(new TableCsvData(parent, new CsvData(DataEventType.INSERT, new String[] { "2", "name 2", null })));
+        JdbcBatchGroupingDatabaseWriter writer = new JdbcBatchGroupingDatabaseWriter(platform, platform, "sym", writerSettings, 10000);
+        try {
+            writeBatch(writer, changes);
+            Assert.fail("Expected the child row without a parent to fail");
+        } catch (RuntimeException ex) {
+        }
+        Statistics stats = writer.getStatistics().values().iterator().next();
+        Assert.assertEquals(3, stats.get(DataWriterStatisticConstants.LINENUMBER));
+        Assert.assertEquals(3, stats.get(DataWriterStatisticConstants.ROWCOUNT));
+    }
+
+    /**
+     * Builds changes that are valid when applied in order, one row at a time, switching tables often like an OLTP feed of orders and order
+     * lines.
+     */
+    protected List<TableCsvData> buildInterleavedChanges(Random random, int count) {
+        Table parent = platform.getTableFromCache(PARENT_TABLE, false);
+        Table child = platform.getTableFromCache(CHILD_TABLE, false);
+        Table grandchild = platform.getTableFromCache(GRANDCHILD_TABLE, false);
+        Map<String, String[]> parents = new LinkedHashMap<String, String[]>();
+        Map<String, String[]> children = new LinkedHashMap<String, String[]>();
+        Map<String, String[]> grandchildren = new LinkedHashMap<String, String[]>();
+        List<TableCsvData> changes = new ArrayList<TableCsvData>();
+        int nextId = 1;
+        for (int i = 0; i < count; i++) {
+            int operation = random.nextInt(8);
+            if (operation <= 1 || parents.size() == 0) {
+                String id = String.valueOf(nextId++);
+                String[] values = { id, "name " + id, parents.size() > 0 && random.nextBoolean() ? pick(random, parents)[0] : null };
+                parents.put(id, values);
+                changes.add(new TableCsvData(parent, new CsvData(DataEventType.INSERT, values)));
+            } else if (operation <= 3) {
+                String id = String.valueOf(nextId++);
+                String[] values = { id, pick(random, parents)[0] };
+                children.put(id, values);
+                changes.add(new TableCsvData(child, new CsvData(DataEventType.INSERT, values)));
+            } else if (operation == 4 && children.size() > 0) {
+                String id = String.valueOf(nextId++);
+                String[] values = { id, pick(random, children)[0] };
+                grandchildren.put(id, values);
+                changes.add(new TableCsvData(grandchild, new CsvData(DataEventType.INSERT, values)));
+            } else if (operation == 5) {
+                String[] old = pick(random, parents);
+                String[] values = { old[0], "name " + old[0] + " " + i, old[2] };
+                parents.put(old[0], values);
+                changes.add(new TableCsvData(parent, new CsvData(DataEventType.UPDATE, new String[] { old[0] }, values)));
+            } else if (operation == 6 && children.size() > 0) {
+                String[] old = pick(random, children);
+                String[] values = { old[0], pick(random, parents)[0] };
+                children.put(old[0], values);
+                changes.add(new TableCsvData(child, new CsvData(DataEventType.UPDATE, new String[] { old[0] }, values)));
+            } else if (operation == 7 && children.size() > 0) {
+                String[] old = pick(random, children);
+                for (String[] values : new ArrayList<String[]>(grandchildren.values())) {
+                    if (values[1].equals(old[0])) {
+                        grandchildren.remove(values[0]);
+                        changes.add(new TableCsvData(grandchild, new CsvData(DataEventType.DELETE, new String[] { values[0] }, values)));
+                    }
+                }
+                children.remove(old[0]);
+                changes.add(new TableCsvData(child, new CsvData(DataEventType.DELETE, new String[] { old[0] }, old)));
+                String[] oldParent = parents.get(old[1]);
+                if (isUnreferenced(oldParent[0], parents, children)) {
+                    parents.remove(oldParent[0]);
+                    changes.add(new TableCsvData(parent, new CsvData(DataEventType.DELETE, new String[] { oldParent[0] }, oldParent)));
+                }
+            }
+        }
+        return changes;
+    }
+
+    protected boolean isUnreferenced(String parentId, Map<String, String[]> parents, Map<String, String[]> children) {
+        for (String[] values : parents.values()) {
+            if (parentId.equals(values[2])) {
+                return false;
+            }
+        }
+        for (String[] values : children.values()) {
+            if (parentId.equals(values[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected String[] pick(Random random, Map<String, String[]> rows) {
+        List<String[]> values = new ArrayList<String[]>(rows.values());
+        return values.get(random.nextInt(values.size()));
+    }
+
+    protected void writeBatch(IDataWriter writer, List<TableCsvData> changes) {
+        Batch batch = new Batch(BatchType.LOAD, getNextBatchId(), "default", BinaryEncoding.BASE64, "00000", "00001", false);
+        writer.open(new DataContext(batch));
+        try {
+            writer.start(batch);
+            for (TableCsvData change : changes) {
+                if (writer.start(change.table)) {
+                    for (CsvData data : change.data) {
+                        writer.write(data);
+                    }
+                    writer.end(change.table);
+                }
+            }
+            writer.end(batch, false);
+        } catch (RuntimeException ex) {
+            writer.end(batch, true);
+            throw ex;
+        } finally {
+            writer.close();
+        }
+    }
+
+    protected void deleteTestRows() {
+        platform.getSqlTemplate().update("delete from " + GRANDCHILD_TABLE);
+        platform.getSqlTemplate().update("delete from " + CHILD_TABLE);
+        platform.getSqlTemplate().update("update " + PARENT_TABLE + " set pid = null");
+        platform.getSqlTemplate().update("delete from " + PARENT_TABLE);
+    }
+
+    protected Map<String, List<Row>> queryTestRows() {
+        Map<String, List<Row>> rows = new LinkedHashMap<String, List<Row>>();
+        for (String tableName : new String[] { PARENT_TABLE, CHILD_TABLE, GRANDCHILD_TABLE }) {
+            rows.put(tableName, platform.getSqlTemplate().query("select * from " + tableName + " order by id"));
+        }
+        return rows;
+    }
+
+    protected GroupedRow row(Table table, DataEventType eventType, String id) {
+        return new GroupedRow(table, table, new CsvData(eventType, new String[] { id }, new String[] { id }), 0, 0);
+    }
+
+    protected void assertRun(List<GroupedRow> run, GroupedRow... expected) {
+        Assert.assertEquals(expected.length, run.size());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertSame(expected[i], run.get(i));
+        }
+    }
+}
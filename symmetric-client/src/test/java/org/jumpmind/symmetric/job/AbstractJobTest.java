@@ -0,0 +1,148 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.model.JobDefinition;
+import org.jumpmind.symmetric.service.IClusterService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+public class AbstractJobTest {
+    ThreadPoolTaskScheduler taskScheduler;
+    IParameterService parameterService;
+    TestJob job;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(2);
+        taskScheduler.initialize();
+        parameterService = mock(IParameterService.class);
+        when(parameterService.getExternalId()).thenReturn("00000");
+        when(parameterService.getInt(ParameterConstants.JOB_RANDOM_MAX_START_TIME_MS)).thenReturn(1000);
+        when(parameterService.is(ParameterConstants.JOB_WAKE_UP_ENABLED, false)).thenReturn(true);
+        when(parameterService.getLong(ParameterConstants.JOB_WAKE_UP_DEBOUNCE_MS, 50)).thenReturn(50l);
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        when(engine.getParameterService()).thenReturn(parameterService);
+        when(engine.getClusterService()).thenReturn(mock(IClusterService.class));
+        when(engine.isStarted()).thenReturn(true);
+        when(engine.getEngineName()).thenReturn("test");
+        job = new TestJob(engine, taskScheduler);
+        JobDefinition jobDefinition = new JobDefinition();
+        jobDefinition.setJobName("test");
+        job.setJobDefinition(jobDefinition);
+        job.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        job.stop();
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    public void testWakeUpDebounce() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            job.wakeUp();
+        }
+        Thread.sleep(500);
+        assertEquals(1, job.runCount.get());
+    }
+
+    @Test
+    public void testWakeUpWhileRunning() throws Exception {
+        job.block = new CountDownLatch(1);
+        job.wakeUp();
+        Thread.sleep(200);
+        job.wakeUp();
+        job.wakeUp();
+        job.block.countDown();
+        Thread.sleep(500);
+        assertEquals(2, job.runCount.get());
+    }
+
+    @Test
+    public void testWakeUpDisabled() throws Exception {
+        when(parameterService.is(ParameterConstants.JOB_WAKE_UP_ENABLED, false)).thenReturn(false);
+        job.wakeUp();
+        Thread.sleep(200);
+        assertEquals(0, job.runCount.get());
+    }
+
+    @Test
+    public void testOverlappingInvokeKeepsRunning() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        job.block = latch;
+        Thread first = new Thread(() -> job.invoke(true));
+        first.start();
+        Thread.sleep(200);
+        assertFalse(job.invoke(true));
+        assertTrue(job.isRunning());
+        latch.countDown();
+        first.join(5000);
+        assertFalse(job.isRunning());
+        assertEquals(1, job.runCount.get());
+    }
+
+    static class TestJob extends AbstractJob {
+        AtomicInteger runCount = new AtomicInteger();
+        volatile CountDownLatch block;
+
+        public TestJob(ISymmetricEngine engine, ThreadPoolTaskScheduler taskScheduler) {
+            super("test", engine, taskScheduler);
+        }
+
+        @Override
+        public String getSchedule() {
+            return "0 0 0 1 1 ?";
+        }
+
+        @Override
+        public JobDefaults getDefaults() {
+            return new JobDefaults();
+        }
+
+        @Override
+        protected void doJob(boolean force) throws Exception {
+            runCount.incrementAndGet();
+            CountDownLatch latch = block;
+            if (latch != null) {
+                block = null;
+                latch.await(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
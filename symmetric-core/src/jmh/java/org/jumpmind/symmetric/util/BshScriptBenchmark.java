@@ -0,0 +1,114 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.symmetric.util.BshScriptCompiler.CompiledScript;
+import org.jumpmind.util.SimpleClassCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bsh.Interpreter;
+
+/**
+ * Compares running a transform script for one row with the BeanShell interpreter, bound the way {@link
+ * org.jumpmind.symmetric.io.data.transform.BshColumnTransform} binds it, against the same script compiled by {@link BshScriptCompiler}. Run with
+ * <code>gradlew :symmetric-core:jmh</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BshScriptBenchmark {
+    private static final String SCRIPT = "if (STATUS != null && STATUS.equals(\"A\")) {\n"
+            + "    return currentValue.trim().toUpperCase() + \"-\" + ID;\n"
+            + "}\n"
+            + "return currentValue;";
+
+    @Param({ "10", "50" })
+    public int columnCount;
+
+    private Map<String, String> sourceValues;
+    private Interpreter interpreter;
+    private CompiledScript compiledScript;
+    private int row;
+
+    @Setup
+    public void setup() throws Exception {
+        sourceValues = new LinkedHashMap<String, String>();
+        sourceValues.put("id", "1");
+        sourceValues.put("status", "A");
+        for (int i = 2; i < columnCount; i++) {
+            sourceValues.put("column_" + i, "value " + i);
+        }
+        interpreter = new Interpreter();
+        interpreter.eval("transform_1() {\n" + SCRIPT + "\n}");
+        Map<String, String> variableTypes = new LinkedHashMap<String, String>();
+        variableTypes.put("currentValue", "String");
+        for (String columnName : sourceValues.keySet()) {
+            variableTypes.put(columnName, "String");
+            variableTypes.put(columnName.toUpperCase(), "String");
+        }
+        compiledScript = new BshScriptCompiler(new SimpleClassCompiler()).compile(SCRIPT, variableTypes, false);
+        if (compiledScript == null) {
+            throw new IllegalStateException("The benchmark script did not compile");
+        }
+    }
+
+    @Benchmark
+    public Object interpreted() throws Exception {
+        interpreter.set("currentValue", " value " + (row++));
+        for (Map.Entry<String, String> entry : sourceValues.entrySet()) {
+            interpreter.set(entry.getKey().toUpperCase(), entry.getValue());
+            interpreter.set(entry.getKey(), entry.getValue());
+        }
+        Object result = interpreter.eval("transform_1()");
+        for (String columnName : sourceValues.keySet()) {
+            interpreter.unset(columnName.toUpperCase());
+            interpreter.unset(columnName);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object compiled() throws Exception {
+        String[] names = compiledScript.getVariableNames();
+        Object[] variables = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            variables[i] = names[i].equals("currentValue") ? " value " + (row++) : sourceValues.get(names[i].toLowerCase());
+        }
+        return compiledScript.eval(variables);
+    }
+}
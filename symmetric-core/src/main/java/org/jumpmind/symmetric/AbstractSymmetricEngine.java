@@ -823,6 +823,15 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
         if (nodeCommunicationService != null) {
             nodeCommunicationService.stop();
         }
+        if (pushService != null) {
+            pushService.stop();
+        }
+        if (acknowledgeService != null) {
+            acknowledgeService.stop();
+        }
+        if (fileSyncService != null) {
+            fileSyncService.stop();
+        }
         if (updateService != null) {
             updateService.stop();
         }
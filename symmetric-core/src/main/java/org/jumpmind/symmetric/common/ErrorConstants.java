@@ -34,4 +34,6 @@ final public class ErrorConstants {
     public static final int PROTOCOL_VIOLATION_CODE = -888;
     public static final String STAGE_ERROR_STATE = "STAGE";
     public static final int STAGE_ERROR_CODE = -808;
+    public static final String FILE_DELTA_MISMATCH_STATE = "DELTA";
+    public static final int FILE_DELTA_MISMATCH_CODE = -877;
 }
\ No newline at end of file
@@ -43,6 +43,10 @@ final public class ParameterConstants {
     public final static String JDBC_EXECUTE_BATCH_SIZE = "db.jdbc.execute.batch.size";
     public final static String JDBC_EXECUTE_BULK_BATCH_SIZE = "db.jdbc.bulk.execute.batch.size";
     public final static String JDBC_EXECUTE_BULK_BATCH_OVERRIDE = "db.jdbc.bulk.execute.batch.override";
+    public final static String JDBC_EXECUTE_BULK_BATCH_GROUP_TABLES = "db.jdbc.bulk.execute.batch.group.tables";
+    public final static String JDBC_EXECUTE_BULK_BATCH_GROUP_MAX_ROWS = "db.jdbc.bulk.execute.batch.group.max.rows";
+    public final static String JDBC_STATEMENT_CACHE_SIZE = "db.jdbc.statement.cache.size";
+    public final static String DML_STATEMENT_CACHE_SIZE = "db.dml.statement.cache.size";
     public final static String JDBC_READ_STRINGS_AS_BYTES = "db.read.strings.as.bytes";
     public final static String JDBC_ISOLATION_LEVEL = "db.jdbc.isolation.level";
     public final static String DB_AWS_ACTIVE_KEY = "target.db.aws.active.key";
@@ -52,6 +56,7 @@ final public class ParameterConstants {
     public final static String DB_AWS_FOLDER = "target.db.aws.folder";
     public final static String DB_USER = "db.user";
     public final static String DB_PASSWORD = "db.password";
+    public final static String DB_POOL_MAX_ACTIVE = "db.pool.max.active";
     public final static String START_PULL_JOB = "start.pull.job";
     public final static String START_PUSH_JOB = "start.push.job";
     public final static String START_PURGE_OUTGOING_JOB = "start.purge.incoming.job"; // In <= 3.8m was start.purge.outgoing.job
@@ -81,6 +86,11 @@ final public class ParameterConstants {
     public final static String PUSH_MINIMUM_PERIOD_MS = "push.period.minimum.ms";
     public final static String PUSH_LOCK_TIMEOUT_MS = "push.lock.timeout.ms";
     public final static String PUSH_IMMEDIATE_IF_DATA_FOUND = "push.immediate.if.data.found";
+    public final static String PUSH_ACK_STREAMING_ENABLED = "push.ack.streaming.enabled";
+    public final static String NODE_COMMUNICATION_VIRTUAL_THREADS_ENABLED = "node.communication.virtual.threads.enabled";
+    public final static String NODE_COMMUNICATION_VIRTUAL_THREADS_PINNED_THRESHOLD_MS = "node.communication.virtual.threads.pinned.threshold.ms";
+    public final static String NODE_COMMUNICATION_VIRTUAL_THREADS_MIN_PERMITS = "node.communication.virtual.threads.min.permits";
+    public final static String NODE_COMMUNICATION_VIRTUAL_THREADS_PERMIT_TIMEOUT_MS = "node.communication.virtual.threads.permit.timeout.ms";
     public final static String OFFLINE_PULL_THREAD_COUNT_PER_SERVER = "offline.pull.thread.per.server.count";
     public final static String OFFLINE_PULL_LOCK_TIMEOUT_MS = "offline.pull.lock.timeout.ms";
     public final static String OFFLINE_PUSH_THREAD_COUNT_PER_SERVER = "offline.push.thread.per.server.count";
@@ -92,6 +102,9 @@ final public class ParameterConstants {
     public final static String FILE_PUSH_MINIMUM_PERIOD_MS = "file.push.period.minimum.ms";
     public final static String FILE_PUSH_LOCK_TIMEOUT_MS = "file.push.lock.timeout.ms";
     public final static String JOB_RANDOM_MAX_START_TIME_MS = "job.random.max.start.time.ms";
+    public final static String JOB_WAKE_UP_ENABLED = "job.wake.up.enabled";
+    public final static String JOB_WAKE_UP_DEBOUNCE_MS = "job.wake.up.debounce.ms";
+    public final static String JOB_WAKE_UP_DATA_POLL_MS = "job.wake.up.data.poll.ms";
     public final static String JOB_PULL_PERIOD_TIME_MS = "job.pull.period.time.ms";
     public final static String JOB_PUSH_PERIOD_TIME_MS = "job.push.period.time.ms";
     public final static String JOB_FILE_SYNC_PULL_PERIOD_TIME_MS = "job.file.sync.pull.period.time.ms";
@@ -207,6 +220,9 @@ final public class ParameterConstants {
     public final static String ROUTING_GAPS_USE_TRANSACTION_VIEW = "routing.gaps.use.transaction.view";
     public final static String ROUTING_GAPS_TRANSACTION_VIEW_CLOCK_SYNC_THRESHOLD_MS = "routing.gaps.transaction.view.clock.sync.threshold";
     public final static String ROUTING_MAX_BATCH_SIZE_EXCEED_PERCENT = "routing.max.batch.size.exceed.percent";
+    public final static String ROUTING_PRE_EXTRACT_CHANNELS = "routing.pre.extract.channels";
+    public final static String ROUTING_PRE_EXTRACT_MAX_BATCH_SIZE = "routing.pre.extract.max.batch.size";
+    public final static String ROUTING_PRE_EXTRACT_MAX_QUEUED_BATCHES = "routing.pre.extract.max.queued.batches";
     public final static String ROUTING_USE_CHANNEL_THREADS = "routing.use.channel.threads";
     public final static String ROUTING_THREAD_COUNT_PER_SERVER = "routing.thread.per.server.count";
     public final static String ROUTING_LOCK_TIMEOUT_MS = "routing.lock.timeout.ms";
@@ -214,6 +230,8 @@ final public class ParameterConstants {
     @Deprecated
     public final static String INCOMING_BATCH_DELETE_ON_LOAD = "incoming.batch.delete.on.load";
     public final static String INCOMING_BATCH_RECORD_OK_ENABLED = "incoming.batches.record.ok.enabled";
+    public final static String INCOMING_BATCH_BULK_BOOKKEEPING_ENABLED = "incoming.batches.bulk.bookkeeping.enabled";
+    public final static String INCOMING_BATCH_BULK_BOOKKEEPING_PREFETCH_SIZE = "incoming.batches.bulk.bookkeeping.prefetch.size";
     public final static String DATA_LOADER_ENABLED = "dataloader.enable";
     public final static String DATA_LOADER_APPLY_CHANGES_ONLY = "dataloader.apply.changes.only";
     public final static String DATA_LOADER_IGNORE_MISSING_TABLES = "dataloader.ignore.missing.tables";
@@ -221,6 +239,7 @@ final public class ParameterConstants {
     public final static String DATA_LOADER_ERROR_RECORD_CUR_VAL = "dataloader.error.save.curval";
     public final static String DATA_LOADER_NUM_OF_ACK_RETRIES = "num.of.ack.retries";
     public final static String DATA_LOADER_SEND_ACK_KEEPALIVE = "send.ack.keepalive.ms";
+    public final static String ACK_BULK_MAX_BATCHES = "ack.bulk.max.batches";
     public final static String DATA_LOADER_TIME_BETWEEN_ACK_RETRIES = "time.between.ack.retries.ms";
     public final static String DATA_LOADER_MAX_ROWS_BEFORE_COMMIT = "dataloader.max.rows.before.commit";
     public final static String DATA_LOADER_CREATE_TABLE_ALTER_TO_MATCH_DB_CASE = "dataloader.create.table.alter.to.match.db.case";
@@ -275,6 +294,9 @@ final public class ParameterConstants {
     public final static String TRANSPORT_HTTP_SESSION_EXPIRE_SECONDS = "http.session.expire.seconds";
     public final static String TRANSPORT_HTTP_SESSION_MAX_COUNT = "http.session.max.count";
     public final static String TRANSPORT_HTTP_USE_HEADER_SECURITY_TOKEN = "http.use.header.security.token";
+    public final static String TRANSPORT_HTTP_CLIENT = "http.client";
+    public final static String TRANSPORT_HTTP_CLIENT_ASYNC_ACK = "http.client.async.ack";
+    public final static String TRANSPORT_BINARY_PROTOCOL_ENABLED = "transport.binary.protocol.enabled";
     public final static String TRANSPORT_TYPE = "transport.type";
     public final static String TRANSPORT_MAX_BYTES_TO_SYNC = "transport.max.bytes.to.sync";
     public final static String TRANSPORT_MAX_ERROR_MILLIS = "transport.max.error.millis";
@@ -285,6 +307,8 @@ final public class ParameterConstants {
     public final static String CACHE_TIMEOUT_CHANNEL_IN_MS = "cache.channel.time.ms";
     public final static String CACHE_TIMEOUT_NODE_GROUP_LINK_IN_MS = "cache.node.group.link.time.ms";
     public final static String CACHE_TIMEOUT_TRANSFORM_IN_MS = "cache.transform.time.ms";
+    public final static String TRANSFORM_LOOKUP_CACHE_SIZE = "transform.lookup.cache.size";
+    public final static String TRANSFORM_LOOKUP_PREFETCH_SIZE = "transform.lookup.prefetch.size";
     public final static String CACHE_TIMEOUT_LOAD_FILTER_IN_MS = "cache.load.filter.time.ms";
     public final static String CACHE_TIMEOUT_CONFLICT_IN_MS = "cache.conflict.time.ms";
     public final static String CACHE_TIMEOUT_TABLES_IN_MS = "cache.table.time.ms";
@@ -360,6 +384,12 @@ final public class ParameterConstants {
     public final static String FILE_SYNC_ENABLE = "file.sync.enable";
     public final static String FILE_SYNC_FAST_SCAN = "file.sync.fast.scan";
     public final static String FILE_SYNC_USE_CRC = "file.sync.use.crc";
+    public final static String FILE_SYNC_CHECKSUM_THREADS = "file.sync.checksum.threads";
+    public final static String FILE_SYNC_USE_WATCH_SERVICE = "file.sync.use.watch.service";
+    public final static String FILE_SYNC_DELTA_ENABLED = "file.sync.delta.enabled";
+    public final static String FILE_SYNC_DELTA_MIN_FILE_SIZE = "file.sync.delta.min.file.size";
+    public final static String FILE_SYNC_DELTA_BLOCK_SIZE = "file.sync.delta.block.size";
+    public final static String FILE_SYNC_STREAM_ENABLED = "file.sync.stream.enabled";
     public final static String FILE_SYNC_PREVENT_PING_BACK = "file.sync.prevent.ping.back";
     public final static String FILE_SYNC_LOCK_WAIT_MS = "file.sync.lock.wait.ms";
     public final static String FILE_SYNC_DELETE_ZIP_FILE_AFTER_SYNC = "file.sync.delete.zip.file.after.sync";
@@ -367,6 +397,7 @@ final public class ParameterConstants {
     public final static String FILE_SYNC_USE_CTL_AS_FILE_EXT = "file.sync.use.ctl.as.file.ext";
     public final static String BSH_LOAD_FILTER_HANDLES_MISSING_TABLES = "bsh.load.filter.handles.missing.tables";
     public final static String BSH_TRANSFORM_GLOBAL_SCRIPT = "bsh.transform.global.script";
+    public final static String BSH_COMPILE_SCRIPTS = "bsh.compile.scripts";
     public final static String BSH_EXTENSION_GLOBAL_SCRIPT = "bsh.extension.global.script";
     public final static String MSSQL_ROW_LEVEL_LOCKS_ONLY = "mssql.allow.only.row.level.locks.on.runtime.tables";
     public final static String MSSQL_USE_NTYPES_FOR_SYNC = "mssql.use.ntypes.for.sync";
@@ -443,15 +474,17 @@ final public class ParameterConstants {
     public final static String KAFKA_TOPIC_BY = "kafka.topic.by";
     public final static String KAFKA_CONFLUENT_REGISTRY_URL = "kafka.confluent.registry.url";
     public final static String KAFKA_AVRO_JAVA_PACKAGE = "kafka.avro.java.package";
+    public final static String KAFKA_ASYNC_SEND = "kafka.async.send";
+    public final static String KAFKA_MAX_IN_FLIGHT_BYTES = "kafka.max.in.flight.bytes";
     public final static String KAFKACLIENT_SECURITY_PROTOCOL = "kafkaclient.security.protocol";
     public final static String KAFKACLIENT_SSL_KEYSTORE_LOCATION = "kafkaclient.ssl.keystore.location";
     public final static String KAFKACLIENT_SSL_KEYSTORE_PASSWORD = "kafkaclient.ssl.keystore.password";
     public final static String KAFKACLIENT_SSL_TRUSTSTORE_LOCATION = "kafkaclient.ssl.truststore.location";
     public final static String KAFKACLIENT_SSL_KEYSTORE_TYPE = "kafkaclient.ssl.keystore.type";
     public final static String[] ALL_KAFKA_PARAMS = new String[] { KAFKA_PRODUCER, KAFKA_FORMAT, KAFKA_MESSAGE_BY,
-            KAFKA_TOPIC_BY, KAFKA_CONFLUENT_REGISTRY_URL, KAFKA_AVRO_JAVA_PACKAGE, KAFKACLIENT_SECURITY_PROTOCOL,
-            KAFKACLIENT_SSL_KEYSTORE_LOCATION, KAFKACLIENT_SSL_KEYSTORE_PASSWORD, KAFKACLIENT_SSL_TRUSTSTORE_LOCATION,
-            KAFKACLIENT_SSL_KEYSTORE_TYPE };
+            KAFKA_TOPIC_BY, KAFKA_CONFLUENT_REGISTRY_URL, KAFKA_AVRO_JAVA_PACKAGE, KAFKA_ASYNC_SEND, KAFKA_MAX_IN_FLIGHT_BYTES,
+            KAFKACLIENT_SECURITY_PROTOCOL, KAFKACLIENT_SSL_KEYSTORE_LOCATION, KAFKACLIENT_SSL_KEYSTORE_PASSWORD,
+            KAFKACLIENT_SSL_TRUSTSTORE_LOCATION, KAFKACLIENT_SSL_KEYSTORE_TYPE };
     public final static String RABBITMQ_FORMAT = "rabbitmq.format";
     public final static String RABBITMQ_QUEUE_NAME = "rabbitmq.queue.name";
     public final static String RABBITMQ_MESSAGE_BY = "rabbitmq.message.by";
@@ -488,7 +521,8 @@ final public class ParameterConstants {
     public final static String POSTGRES_SECURITY_DEFINER = "postgres.security.definer";
     public final static String POSTGRES_CONVERT_INFINITY_DATE_TO_NULL = "postgres.convert.infinity.date.to.null";
     public final static String[] ALL_JDBC_PARAMS = new String[] { DB_FETCH_SIZE, DB_QUERY_TIMEOUT_SECS, JDBC_EXECUTE_BATCH_SIZE, JDBC_ISOLATION_LEVEL,
-            JDBC_READ_STRINGS_AS_BYTES, TREAT_BINARY_AS_LOB_ENABLED, LOG_SLOW_SQL_THRESHOLD_MILLIS, LOG_SQL_PARAMETERS_INLINE };
+            JDBC_READ_STRINGS_AS_BYTES, TREAT_BINARY_AS_LOB_ENABLED, LOG_SLOW_SQL_THRESHOLD_MILLIS, LOG_SQL_PARAMETERS_INLINE, JDBC_STATEMENT_CACHE_SIZE,
+            DML_STATEMENT_CACHE_SIZE };
     public final static String GOOGLE_BIG_QUERY_MAX_ROWS_PER_RPC = "google.bigquery.max.rows.per.rpc";
     public final static String GOOGLE_BIG_QUERY_LOCATION = "google.bigquery.location";
     public final static String GOOGLE_BIG_QUERY_PROJECT_ID = "google.bigquery.project.id";
@@ -76,6 +76,7 @@ public class TableConstants {
     public static final String SYM_FILE_TRIGGER_ROUTER = "file_trigger_router";
     public static final String SYM_FILE_SNAPSHOT = "file_snapshot";
     public static final String SYM_FILE_INCOMING = "file_incoming";
+    public static final String SYM_FILE_BLOCK_SIGNATURE = "file_block_signature";
     public static final String SYM_CONSOLE_USER = "console_user";
     public static final String SYM_CONSOLE_ROLE = "console_role";
     public static final String SYM_CONSOLE_ROLE_PRIVILEGE = "console_role_privilege";
@@ -104,7 +105,7 @@ public class TableConstants {
     public static final Set<String> getTables(String tablePrefix) {
         Set<String> tables = new HashSet<String>();
         addPrefixToTableNames(tables, tablePrefix, SYM_CHANNEL, SYM_CONFLICT, SYM_CONTEXT, SYM_DATA, SYM_DATA_GAP, SYM_DATA_EVENT, SYM_EXTRACT_REQUEST,
-                SYM_EXTENSION, SYM_FILE_INCOMING, SYM_FILE_SNAPSHOT, SYM_FILE_TRIGGER, SYM_FILE_TRIGGER_ROUTER, SYM_GROUPLET, SYM_GROUPLET_LINK,
+                SYM_EXTENSION, SYM_FILE_BLOCK_SIGNATURE, SYM_FILE_INCOMING, SYM_FILE_SNAPSHOT, SYM_FILE_TRIGGER, SYM_FILE_TRIGGER_ROUTER, SYM_GROUPLET, SYM_GROUPLET_LINK,
                 SYM_INCOMING_BATCH, SYM_INCOMING_ERROR, SYM_JOB, SYM_LOAD_FILTER, SYM_LOCK, SYM_NODE, SYM_NODE_CHANNEL_CTL,
                 SYM_NODE_COMMUNICATION, SYM_NODE_GROUP, SYM_NODE_GROUP_CHANNEL_WND, SYM_NODE_GROUP_LINK, SYM_NODE_HOST, SYM_NODE_HOST_CHANNEL_STATS,
                 SYM_NODE_HOST_JOB_STATS, SYM_NODE_HOST_STATS, SYM_NODE_IDENTITY, SYM_NODE_SECURITY, SYM_OUTGOING_BATCH, SYM_PARAMETER,
@@ -0,0 +1,147 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.config;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.properties.TypedProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The parameters read at one point in time, with each value parsed once when the snapshot is created. A snapshot never changes after it is
+ * created, so it can be read from any thread without locking. Blank values are treated as missing.
+ */
+public class ParameterSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(ParameterSnapshot.class);
+    private final TypedProperties properties;
+    private final Map<String, Value> values;
+
+    public ParameterSnapshot(TypedProperties properties) {
+        this.properties = properties;
+        Map<String, Value> values = new HashMap<String, Value>();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key);
+            if (!StringUtils.isBlank(value)) {
+                values.put(key, new Value(value));
+            }
+        }
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    public TypedProperties getProperties() {
+        return properties;
+    }
+
+    public String getString(String key, String defaultVal) {
+        Value value = values.get(key);
+        return value != null ? value.string : defaultVal;
+    }
+
+    public boolean is(String key, boolean defaultVal) {
+        Value value = values.get(key);
+        return value != null ? value.booleanValue : defaultVal;
+    }
+
+    public int getInt(String key, int defaultVal) {
+        Value value = values.get(key);
+        if (value != null) {
+            if (value.intValue != null) {
+                return value.intValue;
+            }
+            TypedProperties.logPropertiesException(log, key, value.string);
+        }
+        return defaultVal;
+    }
+
+    public long getLong(String key, long defaultVal) {
+        Value value = values.get(key);
+        if (value != null) {
+            if (value.longValue != null) {
+                return value.longValue;
+            }
+            TypedProperties.logPropertiesException(log, key, value.string);
+        }
+        return defaultVal;
+    }
+
+    public BigDecimal getDecimal(String key, BigDecimal defaultVal) {
+        Value value = values.get(key);
+        if (value != null) {
+            try {
+                return new BigDecimal(value.string);
+            } catch (NumberFormatException ex) {
+                TypedProperties.logPropertiesException(log, key, value.string);
+            }
+        }
+        return defaultVal;
+    }
+
+    /**
+     * Returns the keys that were added, removed or given a different value since the previous snapshot.
+     */
+    public Set<String> getChangedKeys(ParameterSnapshot previous) {
+        Set<String> changedKeys = new HashSet<String>();
+        for (Map.Entry<String, Value> entry : values.entrySet()) {
+            Value previousValue = previous.values.get(entry.getKey());
+            if (previousValue == null || !previousValue.string.equals(entry.getValue().string)) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (String key : previous.values.keySet()) {
+            if (!values.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        return changedKeys;
+    }
+
+    static final class Value {
+        final String string;
+        final boolean booleanValue;
+        final Integer intValue;
+        final Long longValue;
+
+        Value(String string) {
+            this.string = string;
+            String trimmed = string.trim();
+            this.booleanValue = trimmed.equals("1") || Boolean.parseBoolean(trimmed);
+            Integer intValue = null;
+            Long longValue = null;
+            try {
+                longValue = Long.parseLong(trimmed);
+                if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
+                    intValue = longValue.intValue();
+                }
+            } catch (NumberFormatException ex) {
+            }
+            this.intValue = intValue;
+            this.longValue = longValue;
+        }
+
+    }
+}
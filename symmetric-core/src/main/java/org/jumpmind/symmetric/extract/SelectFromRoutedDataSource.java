@@ -0,0 +1,49 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.extract;
+
+import java.util.List;
+
+import org.jumpmind.db.sql.ISqlReadCursor;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.OutgoingBatch;
+import org.jumpmind.symmetric.model.ProcessInfo;
+import org.jumpmind.symmetric.route.DataMemoryCursor;
+
+/**
+ * Extracts a batch from the data rows that were just routed into it, instead of selecting them again from the data and data event tables.
+ */
+public class SelectFromRoutedDataSource extends SelectFromSymDataSource {
+    protected List<Data> routedData;
+
+    public SelectFromRoutedDataSource(ISymmetricEngine engine, OutgoingBatch outgoingBatch, Node sourceNode, Node targetNode,
+            ProcessInfo processInfo, List<Data> routedData) {
+        super(engine, outgoingBatch, sourceNode, targetNode, processInfo, false);
+        this.routedData = routedData;
+    }
+
+    @Override
+    protected ISqlReadCursor<Data> openCursor() {
+        return new DataMemoryCursor(routedData);
+    }
+}
@@ -94,7 +94,7 @@ public class SelectFromSymDataSource extends SelectFromSource {
 
     public CsvData next() {
         if (cursor == null) {
-            cursor = dataService.selectDataFor(batch.getBatchId(), batch.getTargetNodeId(), containsBigLob);
+            cursor = openCursor();
         }
         Data data = null;
         if (reloadSource != null) {
@@ -204,6 +204,10 @@ public class SelectFromSymDataSource extends SelectFromSource {
         return data;
     }
 
+    protected ISqlReadCursor<Data> openCursor() {
+        return dataService.selectDataFor(batch.getBatchId(), batch.getTargetNodeId(), containsBigLob);
+    }
+
     protected Data processReloadEvent(TriggerHistory triggerHistory, TriggerRouter triggerRouter, Data data) {
         processInfo.setCurrentTableName(triggerHistory.getSourceTableName());
         String initialLoadSelect = data.getRowData();
@@ -34,11 +34,20 @@ import org.jumpmind.symmetric.service.IExtensionService;
 
 public class BeanShellFileSyncZipScript extends FileSyncZipScript {
     protected IExtensionService extensionService;
+    protected boolean moveFiles;
 
     public BeanShellFileSyncZipScript(IExtensionService extensionService) {
         this.extensionService = extensionService;
     }
 
+    /**
+     * Move files out of the batch directory instead of copying them, for batches that were not sent in a zip. Files whose trigger has an after
+     * copy script are still copied, so the script can read sourceFile.
+     */
+    public void setMoveFiles(boolean moveFiles) {
+        this.moveFiles = moveFiles;
+    }
+
     @Override
     public String getScriptFileName(Batch batch) {
         return "sync.bsh";
@@ -47,11 +56,25 @@ public class BeanShellFileSyncZipScript extends FileSyncZipScript {
     @Override
     public void buildScriptStart(Batch batch) {
         getScript().append("fileList = new HashMap();\n");
+        if (moveFiles) {
+            getScript().append("movedFiles = new HashMap();\n");
+        }
+    }
+
+    @Override
+    public boolean isDeltaSupported() {
+        return true;
     }
 
     @Override
     public void buildScriptFileSnapshot(Batch batch, FileSnapshot snapshot, FileTriggerRouter triggerRouter,
             FileTrigger fileTrigger, File file, String targetBaseDir, String targetFile) {
+        buildScriptFileSnapshot(batch, snapshot, triggerRouter, fileTrigger, file, targetBaseDir, targetFile, false);
+    }
+
+    @Override
+    public void buildScriptFileSnapshot(Batch batch, FileSnapshot snapshot, FileTriggerRouter triggerRouter,
+            FileTrigger fileTrigger, File file, String targetBaseDir, String targetFile, boolean delta) {
         LastEventType eventType = snapshot.getLastEventType();
         StringBuilder command = new StringBuilder();
         command.append("targetBaseDir = \"").append(targetBaseDir).append("\";\n");
@@ -128,7 +151,16 @@ public class BeanShellFileSyncZipScript extends FileSyncZipScript {
                     command.append("    if (sourceFile.isDirectory()) {\n");
                     command.append("      org.apache.commons.io.FileUtils.copyDirectory(sourceFile, targetFile, true);\n");
                     command.append("    } else {\n");
-                    command.append("      org.apache.commons.io.FileUtils.copyFile(sourceFile, targetFile, true);\n");
+                    if (delta) {
+                        command.append("      org.jumpmind.symmetric.file.FileBlockDelta.apply(sourceFile, targetFile);\n");
+                    } else if (moveFiles && StringUtils.isBlank(fileTrigger.getAfterCopyScript())) {
+                        command.append("      org.jumpmind.symmetric.file.FileSyncUtils.moveFile(sourceFile, targetFile, movedFiles);\n");
+                    } else if (moveFiles) {
+                        // the after copy script can read sourceFile, so copy it and point sourceFile at a file that still exists
+                        command.append("      sourceFile = org.jumpmind.symmetric.file.FileSyncUtils.copyFile(sourceFile, targetFile, movedFiles);\n");
+                    } else {
+                        command.append("      org.apache.commons.io.FileUtils.copyFile(sourceFile, targetFile, true);\n");
+                    }
                     command.append("    }\n");
                     command.append("  }\n");
                     command.append("  fileList.put(").append(targetFile)
@@ -21,8 +21,11 @@
 package org.jumpmind.symmetric.file;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jumpmind.symmetric.model.FileSnapshot;
@@ -66,11 +69,19 @@ public class DirectorySnapshot extends ArrayList<FileSnapshot> {
 
     public DirectorySnapshot diff(DirectorySnapshot anotherSnapshot) {
         DirectorySnapshot differences = new DirectorySnapshot(anotherSnapshot.getFileTriggerRouter());
+        Map<List<String>, List<FileSnapshot>> filesByName = new HashMap<List<String>, List<FileSnapshot>>(size() * 2);
+        for (FileSnapshot file : this) {
+            filesByName.computeIfAbsent(getName(file), k -> new ArrayList<FileSnapshot>(1)).add(file);
+        }
+        Set<List<String>> anotherNames = new HashSet<List<String>>(anotherSnapshot.size() * 2);
         for (FileSnapshot anotherFile : anotherSnapshot) {
-            boolean found = false;
-            for (FileSnapshot file : this) {
-                if (anotherFile.sameFile(file)) {
-                    found = true;
+            List<String> name = getName(anotherFile);
+            anotherNames.add(name);
+            List<FileSnapshot> files = filesByName.get(name);
+            if (files == null) {
+                differences.add(anotherFile);
+            } else {
+                for (FileSnapshot file : files) {
                     if ((file.getLastEventType() == LastEventType.MODIFY ||
                             file.getLastEventType() == LastEventType.CREATE)
                             && anotherFile.getLastEventType() == LastEventType.CREATE) {
@@ -82,18 +93,9 @@ public class DirectorySnapshot extends ArrayList<FileSnapshot> {
                     }
                 }
             }
-            if (!found) {
-                differences.add(anotherFile);
-            }
         }
         for (FileSnapshot file : this) {
-            boolean found = false;
-            for (FileSnapshot anotherFile : anotherSnapshot) {
-                if (anotherFile.sameFile(file)) {
-                    found = true;
-                }
-            }
-            if (file.getLastEventType() != LastEventType.DELETE && !found) {
+            if (file.getLastEventType() != LastEventType.DELETE && !anotherNames.contains(getName(file))) {
                 FileSnapshot copy = new FileSnapshot(file);
                 copy.setLastEventType(LastEventType.DELETE);
                 differences.add(copy);
@@ -102,6 +104,10 @@ public class DirectorySnapshot extends ArrayList<FileSnapshot> {
         return differences;
     }
 
+    private static List<String> getName(FileSnapshot file) {
+        return Arrays.asList(file.getRelativeDir(), file.getFileName());
+    }
+
     public FileTriggerRouter getFileTriggerRouter() {
         return fileTriggerRouter;
     }
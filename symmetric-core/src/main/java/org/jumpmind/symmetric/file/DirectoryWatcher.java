@@ -0,0 +1,144 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the file system events for a directory, and optionally all of its sub-directories, from a {@link WatchService}. Events are queued
+ * by the operating system between calls to {@link #pollChanges()}, so nothing is scanned unless the events were lost.
+ */
+public class DirectoryWatcher implements Closeable {
+    private WatchService watchService;
+    private Map<WatchKey, Path> directories = new ConcurrentHashMap<WatchKey, Path>();
+    private WatchKey baseKey;
+    private boolean recurse;
+
+    public DirectoryWatcher(Path baseDir, boolean recurse) throws IOException {
+        this.recurse = recurse;
+        this.watchService = baseDir.getFileSystem().newWatchService();
+        try {
+            baseKey = register(baseDir);
+            if (recurse) {
+                registerTree(baseDir);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    protected WatchKey register(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        directories.put(key, dir);
+        return key;
+    }
+
+    /**
+     * Watches a directory and all the directories below it. Called for directories that are created after the watcher started.
+     */
+    public void registerTree(Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Drains the events that were queued since the last call.
+     * 
+     * @return Each path that had an event, mapped to true if it was created or deleted or to false if it was only modified, or null if the
+     *         operating system dropped events and the directory needs to be scanned.
+     */
+    public Map<Path, Boolean> pollChanges() {
+        Map<Path, Boolean> changes = new LinkedHashMap<Path, Boolean>();
+        boolean overflow = false;
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            Path dir = directories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    overflow = true;
+                } else if (dir != null) {
+                    Path path = dir.resolve((Path) event.context());
+                    changes.merge(path, event.kind() != ENTRY_MODIFY, Boolean::logicalOr);
+                }
+            }
+            if (!key.reset()) {
+                directories.remove(key);
+            }
+        }
+        return overflow ? null : changes;
+    }
+
+    /**
+     * @return False once the base directory can no longer be watched, because it was deleted or the watcher was closed.
+     */
+    public boolean isValid() {
+        return baseKey != null && baseKey.isValid();
+    }
+
+    public boolean isRecurse() {
+        return recurse;
+    }
+
+    public int getDirectoryCount() {
+        return directories.size();
+    }
+
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+        }
+        directories.clear();
+    }
+}
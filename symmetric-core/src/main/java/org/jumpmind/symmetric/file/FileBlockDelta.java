@@ -0,0 +1,413 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.exception.IoException;
+import org.jumpmind.symmetric.model.FileBlockSignature;
+
+/**
+ * Block level (rsync style) delta encoding for file sync. The source keeps the {@link FileBlockSignature} of the version of a file it last
+ * sent to a node. When the file changes, a rolling checksum is slid over the new content to find blocks the target already has, and only
+ * references to those blocks plus the bytes in between are sent. The target rebuilds the file from its current copy and the delta.
+ * <p>
+ * A delta starts with a header of the base file size and CRC, followed by copy (block index and count) and data (length and bytes)
+ * instructions, and ends with the size and CRC of the rebuilt file so both sides of the transfer can be verified.
+ */
+public class FileBlockDelta {
+    public static final String DELTA_FILE_SUFFIX = ".sym_delta";
+    static final int MAGIC = 0x53594d44;
+    static final int MAX_BLOCK_COUNT = 65536;
+    static final int BUFFER_SIZE = 1024 * 1024;
+    static final byte OP_COPY = 'C';
+    static final byte OP_DATA = 'D';
+    static final byte OP_END = 'E';
+
+    private FileBlockDelta() {
+    }
+
+    /**
+     * Use the configured block size unless the file is so large that the signature would have more than {@link #MAX_BLOCK_COUNT} blocks.
+     */
+    public static int getBlockSize(long fileSize, int minBlockSize) {
+        long blockSize = Math.max(minBlockSize, (fileSize + MAX_BLOCK_COUNT - 1) / MAX_BLOCK_COUNT);
+        return (int) Math.min(blockSize, Integer.MAX_VALUE / 2);
+    }
+
+    /**
+     * Copy the whole file to the output while computing the signature that the next delta will be based on.
+     */
+    public static FileBlockSignature copy(InputStream in, OutputStream out, int blockSize) throws IOException {
+        SignatureBuilder signature = new SignatureBuilder(blockSize);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, count);
+            signature.update(buffer, 0, count);
+        }
+        return signature.finish();
+    }
+
+    /**
+     * Write the delta between the base and the content of the input stream. The returned signature describes the new content, using the
+     * given block size.
+     */
+    public static FileBlockSignature writeDelta(InputStream in, FileBlockSignature base, int blockSize, OutputStream out) throws IOException {
+        SignatureBuilder signature = new SignatureBuilder(blockSize);
+        DeltaWriter writer = new DeltaWriter(out, base);
+        BlockIndex index = new BlockIndex(base);
+        MessageDigest digest = newDigest();
+        byte[] strong = new byte[FileBlockSignature.STRONG_CHECKSUM_LENGTH];
+        int size = base.getBlockSize();
+        byte[] buffer = new byte[Math.max(size * 2, BUFFER_SIZE)];
+        int length = 0, position = 0, literal = 0;
+        int a = 0, b = 0;
+        boolean rolling = false, eof = false;
+        while (true) {
+            if (length - position <= size && !eof) {
+                writer.data(buffer, literal, position - literal);
+                System.arraycopy(buffer, position, buffer, 0, length - position);
+                length -= position;
+                position = 0;
+                literal = 0;
+                while (length < buffer.length && !eof) {
+                    int count = in.read(buffer, length, buffer.length - length);
+                    if (count < 0) {
+                        eof = true;
+                    } else {
+                        signature.update(buffer, length, count);
+                        length += count;
+                    }
+                }
+            }
+            int available = length - position;
+            if (available < size) {
+                break;
+            }
+            if (!rolling) {
+                a = 0;
+                b = 0;
+                for (int i = 0; i < size; i++) {
+                    int value = buffer[position + i] & 0xff;
+                    a += value;
+                    b += (size - i) * value;
+                }
+                a &= 0xffff;
+                b &= 0xffff;
+                rolling = true;
+            }
+            int block = index.find(a | (b << 16), buffer, position, size, digest, strong);
+            if (block >= 0) {
+                writer.data(buffer, literal, position - literal);
+                writer.copy(block);
+                position += size;
+                literal = position;
+                rolling = false;
+            } else if (available == size) {
+                break;
+            } else {
+                int removed = buffer[position] & 0xff;
+                a = (a - removed + (buffer[position + size] & 0xff)) & 0xffff;
+                b = (b - size * removed + a) & 0xffff;
+                position++;
+            }
+        }
+        int last = base.getBlockCount() - 1;
+        int tail = length - position;
+        if (last >= 0 && tail > 0 && tail < size && tail == base.getBlockLength(last)
+                && base.getWeakChecksum(last) == weakChecksum(buffer, position, tail)
+                && base.isStrongChecksumEqual(last, strongChecksum(digest, buffer, position, tail, strong))) {
+            writer.data(buffer, literal, position - literal);
+            writer.copy(last);
+        } else {
+            writer.data(buffer, literal, length - literal);
+        }
+        FileBlockSignature result = signature.finish();
+        writer.end(result);
+        return result;
+    }
+
+    /**
+     * Rebuild the target file from its current content and the delta. The target is only replaced once the rebuilt content has been verified.
+     *
+     * @throws FileDeltaMismatchException
+     *             if the target is not the version the delta was built from, so the full file needs to be sent
+     */
+    public static void apply(File delta, File target) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(delta), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IoException("The file " + delta.getName() + " is not a file sync delta");
+            }
+            int blockSize = in.readInt();
+            long baseFileSize = in.readLong();
+            long baseChecksum = in.readLong();
+            if (!target.isFile() || target.length() != baseFileSize || FileUtils.checksumCRC32(target) != baseChecksum) {
+                throw new FileDeltaMismatchException(target.getName() + " is not the version the delta was built from");
+            }
+            File rebuilt = new File(target.getParentFile(), target.getName() + DELTA_FILE_SUFFIX);
+            CRC32 crc = new CRC32();
+            long size = 0;
+            boolean success = false;
+            try (RandomAccessFile baseFile = new RandomAccessFile(target, "r");
+                    OutputStream out = new BufferedOutputStream(new FileOutputStream(rebuilt), BUFFER_SIZE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                byte op;
+                while ((op = in.readByte()) != OP_END) {
+                    if (op == OP_COPY) {
+                        long offset = (long) in.readInt() * blockSize;
+                        long remaining = Math.min((long) in.readInt() * blockSize, baseFileSize - offset);
+                        baseFile.seek(offset);
+                        while (remaining > 0) {
+                            int count = (int) Math.min(buffer.length, remaining);
+                            baseFile.readFully(buffer, 0, count);
+                            out.write(buffer, 0, count);
+                            crc.update(buffer, 0, count);
+                            remaining -= count;
+                            size += count;
+                        }
+                    } else if (op == OP_DATA) {
+                        int remaining = in.readInt();
+                        while (remaining > 0) {
+                            int count = Math.min(buffer.length, remaining);
+                            in.readFully(buffer, 0, count);
+                            out.write(buffer, 0, count);
+                            crc.update(buffer, 0, count);
+                            remaining -= count;
+                            size += count;
+                        }
+                    } else {
+                        throw new IoException("Unexpected instruction " + op + " in file sync delta " + delta.getName());
+                    }
+                }
+                long expectedSize = in.readLong();
+                long expectedChecksum = in.readLong();
+                if (size != expectedSize || crc.getValue() != expectedChecksum) {
+                    throw new IoException("The file " + target.getName() + " rebuilt from a delta did not match the source file");
+                }
+                success = true;
+            } finally {
+                if (!success) {
+                    FileUtils.deleteQuietly(rebuilt);
+                }
+            }
+            Files.move(rebuilt.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            target.setLastModified(delta.lastModified());
+        }
+    }
+
+    static int weakChecksum(byte[] buffer, int offset, int length) {
+        int a = 0, b = 0;
+        for (int i = 0; i < length; i++) {
+            int value = buffer[offset + i] & 0xff;
+            a += value;
+            b += (length - i) * value;
+        }
+        return (a & 0xffff) | ((b & 0xffff) << 16);
+    }
+
+    static byte[] strongChecksum(MessageDigest digest, byte[] buffer, int offset, int length, byte[] result) {
+        digest.update(buffer, offset, length);
+        try {
+            digest.digest(result, 0, result.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        return result;
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Computes the block checksums and CRC of content as it is streamed.
+     */
+    public static class SignatureBuilder {
+        private final int blockSize;
+        private final byte[] block;
+        private int blockLength;
+        private long fileSize;
+        private final CRC32 crc = new CRC32();
+        private final MessageDigest digest = newDigest();
+        private final byte[] strong = new byte[FileBlockSignature.STRONG_CHECKSUM_LENGTH];
+        private final ByteArrayOutputStream checksums = new ByteArrayOutputStream();
+
+        public SignatureBuilder(int blockSize) {
+            this.blockSize = blockSize;
+            this.block = new byte[blockSize];
+        }
+
+        public void update(byte[] buffer, int offset, int length) {
+            crc.update(buffer, offset, length);
+            fileSize += length;
+            while (length > 0) {
+                int count = Math.min(length, blockSize - blockLength);
+                System.arraycopy(buffer, offset, block, blockLength, count);
+                blockLength += count;
+                offset += count;
+                length -= count;
+                if (blockLength == blockSize) {
+                    addBlock();
+                }
+            }
+        }
+
+        public FileBlockSignature finish() {
+            if (blockLength > 0) {
+                addBlock();
+            }
+            return new FileBlockSignature(blockSize, fileSize, crc.getValue(), checksums.toByteArray());
+        }
+
+        private void addBlock() {
+            int weak = weakChecksum(block, 0, blockLength);
+            checksums.write(weak >>> 24);
+            checksums.write(weak >>> 16);
+            checksums.write(weak >>> 8);
+            checksums.write(weak);
+            checksums.write(strongChecksum(digest, block, 0, blockLength, strong), 0, strong.length);
+            blockLength = 0;
+        }
+    }
+
+    /**
+     * Hash table from weak checksum to the full sized blocks of the base, chained for blocks with the same weak checksum.
+     */
+    static class BlockIndex {
+        private final FileBlockSignature base;
+        private final int[] heads;
+        private final int[] next;
+        private final int mask;
+
+        BlockIndex(FileBlockSignature base) {
+            this.base = base;
+            int count = base.getBlockCount();
+            int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+            heads = new int[capacity];
+            next = new int[count];
+            mask = capacity - 1;
+            for (int i = count - 1; i >= 0; i--) {
+                if (base.getBlockLength(i) == base.getBlockSize()) {
+                    int bucket = hash(base.getWeakChecksum(i));
+                    next[i] = heads[bucket];
+                    heads[bucket] = i + 1;
+                }
+            }
+        }
+
+        int find(int weak, byte[] buffer, int offset, int length, MessageDigest digest, byte[] strong) {
+            boolean digested = false;
+            for (int entry = heads[hash(weak)]; entry != 0; entry = next[entry - 1]) {
+                int block = entry - 1;
+                if (base.getWeakChecksum(block) == weak) {
+                    if (!digested) {
+                        strongChecksum(digest, buffer, offset, length, strong);
+                        digested = true;
+                    }
+                    if (base.isStrongChecksumEqual(block, strong)) {
+                        return block;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private int hash(int weak) {
+            return (weak ^ (weak >>> 16)) & mask;
+        }
+    }
+
+    /**
+     * Writes the delta instructions, merging copies of consecutive blocks into one instruction.
+     */
+    static class DeltaWriter {
+        private final DataOutputStream out;
+        private int copyStart = -1;
+        private int copyCount;
+
+        DeltaWriter(OutputStream out, FileBlockSignature base) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(base.getBlockSize());
+            this.out.writeLong(base.getFileSize());
+            this.out.writeLong(base.getCrc32Checksum());
+        }
+
+        void copy(int block) throws IOException {
+            if (copyCount > 0 && block == copyStart + copyCount) {
+                copyCount++;
+            } else {
+                flushCopy();
+                copyStart = block;
+                copyCount = 1;
+            }
+        }
+
+        void data(byte[] buffer, int offset, int length) throws IOException {
+            if (length > 0) {
+                flushCopy();
+                out.writeByte(OP_DATA);
+                out.writeInt(length);
+                out.write(buffer, offset, length);
+            }
+        }
+
+        void end(FileBlockSignature result) throws IOException {
+            flushCopy();
+            out.writeByte(OP_END);
+            out.writeLong(result.getFileSize());
+            out.writeLong(result.getCrc32Checksum());
+            out.flush();
+        }
+
+        private void flushCopy() throws IOException {
+            if (copyCount > 0) {
+                out.writeByte(OP_COPY);
+                out.writeInt(copyStart);
+                out.writeInt(copyCount);
+                copyCount = 0;
+            }
+        }
+    }
+}
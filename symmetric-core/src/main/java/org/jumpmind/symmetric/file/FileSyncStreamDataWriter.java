@@ -0,0 +1,90 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jumpmind.exception.IoException;
+import org.jumpmind.symmetric.service.IConfigurationService;
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.jumpmind.symmetric.service.IFileSyncService;
+import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IParameterService;
+
+/**
+ * Writes file sync batches straight to the transport with a {@link FileSyncStreamWriter} instead of staging a zip. The generated script moves
+ * received files into place rather than copying them.
+ */
+public class FileSyncStreamDataWriter extends FileSyncZipDataWriter {
+    protected OutputStream out;
+    protected FileSyncStreamWriter streamWriter;
+
+    public FileSyncStreamDataWriter(long maxBytesToSync, IFileSyncService fileSyncService, INodeService nodeService, OutputStream out,
+            IExtensionService extensionService, IConfigurationService configurationService, IParameterService parameterService) {
+        super(maxBytesToSync, fileSyncService, nodeService, null, extensionService, configurationService, parameterService);
+        this.out = out;
+    }
+
+    @Override
+    protected void openEntries() throws IOException {
+        if (streamWriter == null) {
+            streamWriter = new FileSyncStreamWriter(out);
+        }
+    }
+
+    @Override
+    protected OutputStream startEntry(String name, File file, long size) throws IOException {
+        streamWriter.startEntry(name, file != null ? file.lastModified() : System.currentTimeMillis(), file != null && file.isDirectory());
+        return streamWriter.getEntryOutputStream();
+    }
+
+    @Override
+    protected void copyFile(File file, OutputStream out) throws IOException {
+        streamWriter.transferFrom(file);
+    }
+
+    @Override
+    protected void endEntry() throws IOException {
+        streamWriter.endEntry();
+    }
+
+    @Override
+    protected FileSyncZipScript createFileSyncZipScript(String targetNodeId) {
+        FileSyncZipScript script = super.createFileSyncZipScript(targetNodeId);
+        if (script instanceof BeanShellFileSyncZipScript) {
+            ((BeanShellFileSyncZipScript) script).setMoveFiles(true);
+        }
+        return script;
+    }
+
+    @Override
+    public void finish() {
+        if (streamWriter != null) {
+            try {
+                streamWriter.finish();
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.jumpmind.exception.IoException;
+
+/**
+ * Reads a stream written by {@link FileSyncStreamWriter} into a directory. When the transport is a file, file content is copied between the
+ * two file channels with {@link FileChannel#transferFrom(java.nio.channels.ReadableByteChannel, long, long)}.
+ */
+public class FileSyncStreamReader {
+    protected DataInputStream in;
+    protected FileChannel sourceChannel;
+
+    public FileSyncStreamReader(InputStream in) {
+        if (in instanceof FileInputStream) {
+            // read the entry headers through the channel too, so its position stays in step with them
+            this.sourceChannel = ((FileInputStream) in).getChannel();
+            this.in = new DataInputStream(Channels.newInputStream(sourceChannel));
+        } else {
+            this.in = new DataInputStream(in);
+        }
+    }
+
+    /**
+     * Check for the stream header without consuming it.
+     */
+    public static boolean isStream(BufferedInputStream in) throws IOException {
+        byte[] header = new byte[FileSyncStreamWriter.MAGIC.length];
+        in.mark(header.length);
+        int length = 0, count = 0;
+        while (length < header.length && (count = in.read(header, length, header.length - length)) > 0) {
+            length += count;
+        }
+        in.reset();
+        return Arrays.equals(header, FileSyncStreamWriter.MAGIC);
+    }
+
+    /**
+     * Check for the stream header at the current position of a file without consuming it.
+     */
+    public static boolean isStream(FileInputStream in) throws IOException {
+        FileChannel channel = in.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(FileSyncStreamWriter.MAGIC.length);
+        long position = channel.position();
+        int count;
+        do {
+            count = channel.read(header, position + header.position());
+        } while (count > 0 && header.hasRemaining());
+        return Arrays.equals(header.array(), FileSyncStreamWriter.MAGIC);
+    }
+
+    public void unpack(File toDir) {
+        try {
+            byte[] header = new byte[FileSyncStreamWriter.MAGIC.length];
+            in.readFully(header);
+            if (!Arrays.equals(header, FileSyncStreamWriter.MAGIC)) {
+                throw new IoException("The file sync stream did not start with the expected header");
+            }
+            String canonicalDir = toDir.getCanonicalPath() + File.separator;
+            byte type;
+            while ((type = in.readByte()) == FileSyncStreamWriter.ENTRY) {
+                String name = in.readUTF();
+                long lastModified = in.readLong();
+                boolean directory = in.readBoolean();
+                File file = new File(toDir, name);
+                if (!file.getCanonicalPath().startsWith(canonicalDir)) {
+                    throw new IoException("The file sync stream entry " + name + " is outside of the batch directory");
+                }
+                if (directory) {
+                    file.mkdirs();
+                    skipContent();
+                } else {
+                    if (!file.getParentFile().exists()) {
+                        file.getParentFile().mkdirs();
+                    }
+                    readContent(file);
+                }
+                file.setLastModified(lastModified);
+            }
+            if (type != FileSyncStreamWriter.END) {
+                throw new IoException("Unexpected record type " + type + " in the file sync stream");
+            }
+        } catch (EOFException e) {
+            throw new IoException("The file sync stream ended before all files were received");
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    protected void readContent(File file) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] buffer = sourceChannel == null ? new byte[FileSyncStreamWriter.CHUNK_SIZE] : null;
+            long position = 0;
+            long length;
+            while ((length = in.readLong()) > 0) {
+                long end = position + length;
+                while (position < end) {
+                    long count;
+                    if (sourceChannel != null) {
+                        count = fileChannel.transferFrom(sourceChannel, position, end - position);
+                    } else {
+                        count = in.read(buffer, 0, (int) Math.min(buffer.length, end - position));
+                        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, (int) Math.max(count, 0));
+                        while (bytes.hasRemaining()) {
+                            fileChannel.write(bytes, position + bytes.position());
+                        }
+                    }
+                    if (count <= 0) {
+                        throw new EOFException();
+                    }
+                    position += count;
+                }
+            }
+        }
+    }
+
+    protected void skipContent() throws IOException {
+        long length;
+        while ((length = in.readLong()) > 0) {
+            while (length > 0) {
+                long count = in.skip(length);
+                if (count <= 0) {
+                    throw new EOFException();
+                }
+                length -= count;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.jumpmind.exception.IoException;
+
+/**
+ * Writes file sync batches as a stream of entries that can be sent while they are written, instead of staging a zip first. Each entry is a
+ * name, a modified time and a directory flag, followed by the content as length prefixed chunks ending with an empty chunk. When the
+ * transport is a file, file content is copied between the two file channels with {@link FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel)} so the operating system can copy it without passing through the heap.
+ */
+public class FileSyncStreamWriter {
+    static final byte[] MAGIC = { 'S', 'Y', 'M', 'F', 'S', 'S', '0', '1' };
+    static final byte ENTRY = 'F';
+    static final byte END = 'Z';
+    static final int CHUNK_SIZE = 64 * 1024;
+    protected DataOutputStream out;
+    protected FileChannel targetChannel;
+    protected ChunkOutputStream entryOut;
+    protected long byteCount;
+
+    public FileSyncStreamWriter(OutputStream out) {
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, CHUNK_SIZE));
+            if (out instanceof FileOutputStream) {
+                this.targetChannel = ((FileOutputStream) out).getChannel();
+            }
+            this.out.write(MAGIC);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    public void startEntry(String name, long lastModified, boolean directory) throws IOException {
+        out.writeByte(ENTRY);
+        out.writeUTF(name);
+        out.writeLong(lastModified);
+        out.writeBoolean(directory);
+        entryOut = new ChunkOutputStream();
+    }
+
+    /**
+     * Content of unknown length, which is buffered into chunks.
+     */
+    public OutputStream getEntryOutputStream() {
+        return entryOut;
+    }
+
+    /**
+     * Send the whole file as one chunk, directly between the file channels when the transport is a file.
+     */
+    public void transferFrom(File file) throws IOException {
+        entryOut.flush();
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = fileChannel.size();
+            if (size > 0) {
+                out.writeLong(size);
+                if (targetChannel != null) {
+                    out.flush();
+                    long position = 0;
+                    while (position < size) {
+                        long count = fileChannel.transferTo(position, size - position, targetChannel);
+                        if (count <= 0) {
+                            throw new IoException("The file " + file.getAbsolutePath() + " changed while it was being sent");
+                        }
+                        position += count;
+                    }
+                } else {
+                    // the entry buffer was just flushed, so it is free to use for the copy
+                    ByteBuffer buffer = ByteBuffer.wrap(entryOut.buffer);
+                    long remaining = size;
+                    while (remaining > 0) {
+                        buffer.clear();
+                        buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                        int count = fileChannel.read(buffer);
+                        if (count <= 0) {
+                            throw new IoException("The file " + file.getAbsolutePath() + " changed while it was being sent");
+                        }
+                        out.write(entryOut.buffer, 0, count);
+                        remaining -= count;
+                    }
+                }
+                byteCount += size;
+            }
+        }
+    }
+
+    public void endEntry() throws IOException {
+        entryOut.flush();
+        out.writeLong(0);
+        entryOut = null;
+    }
+
+    public void finish() throws IOException {
+        out.writeByte(END);
+        out.flush();
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    class ChunkOutputStream extends OutputStream {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        int length;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == buffer.length) {
+                flush();
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == buffer.length) {
+                    flush();
+                }
+                int count = Math.min(len, buffer.length - length);
+                System.arraycopy(b, off, buffer, length, count);
+                length += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (length > 0) {
+                out.writeLong(length);
+                out.write(buffer, 0, length);
+                byteCount += length;
+                length = 0;
+            }
+        }
+    }
+}
@@ -21,14 +21,51 @@
 package org.jumpmind.symmetric.file;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
 import java.util.regex.Pattern;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 
 final public class FileSyncUtils {
     private FileSyncUtils() {
     }
 
+    /**
+     * Move a file received in a batch to its target, which avoids writing the content again when both are on the same file store. A file that
+     * is routed to more than one target is moved the first time and copied from where it was moved to after that.
+     */
+    public static void moveFile(File sourceFile, File targetFile, Map<File, File> movedFiles) throws IOException {
+        File movedTo = movedFiles.get(sourceFile);
+        if (movedTo != null && movedTo.isFile()) {
+            FileUtils.copyFile(movedTo, targetFile, true);
+        } else {
+            File parent = targetFile.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            Files.move(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            movedFiles.put(sourceFile, targetFile);
+        }
+    }
+
+    /**
+     * Copy a file received in a batch to its target, reading it from where it was moved to if an earlier target already moved it.
+     * 
+     * @return the file that was copied, which can be used in place of the source file
+     */
+    public static File copyFile(File sourceFile, File targetFile, Map<File, File> movedFiles) throws IOException {
+        File copyFrom = movedFiles.get(sourceFile);
+        if (copyFrom == null || !copyFrom.isFile()) {
+            copyFrom = sourceFile;
+        }
+        FileUtils.copyFile(copyFrom, targetFile, true);
+        return copyFrom;
+    }
+
     public static String getRelativePath(File target, File base) {
         return getRelativePath(target.getAbsolutePath(), base.getAbsolutePath());
     }
@@ -23,22 +23,27 @@ package org.jumpmind.symmetric.file;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.DataContext;
@@ -47,6 +52,7 @@ import org.jumpmind.symmetric.io.data.IDataWriter;
 import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
 import org.jumpmind.symmetric.io.stage.IStagedResource;
 import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.FileBlockSignature;
 import org.jumpmind.symmetric.model.FileSnapshot;
 import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
 import org.jumpmind.symmetric.model.FileTrigger;
@@ -56,6 +62,7 @@ import org.jumpmind.symmetric.service.IConfigurationService;
 import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.service.IFileSyncService;
 import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,15 +82,29 @@ public class FileSyncZipDataWriter implements IDataWriter {
     protected INodeService nodeService;
     protected IExtensionService extensionService;
     protected IConfigurationService configurationService;
+    protected boolean deltaEnabled;
+    protected long deltaMinFileSize;
+    protected int deltaBlockSize;
 
     public FileSyncZipDataWriter(long maxBytesToSync, IFileSyncService fileSyncService,
             INodeService nodeService, IStagedResource stagedResource, IExtensionService extensionService, IConfigurationService configurationService) {
+        this(maxBytesToSync, fileSyncService, nodeService, stagedResource, extensionService, configurationService, null);
+    }
+
+    public FileSyncZipDataWriter(long maxBytesToSync, IFileSyncService fileSyncService,
+            INodeService nodeService, IStagedResource stagedResource, IExtensionService extensionService, IConfigurationService configurationService,
+            IParameterService parameterService) {
         this.maxBytesToSync = maxBytesToSync;
         this.fileSyncService = fileSyncService;
         this.stagedResource = stagedResource;
         this.nodeService = nodeService;
         this.extensionService = extensionService;
         this.configurationService = configurationService;
+        if (parameterService != null) {
+            this.deltaEnabled = parameterService.is(ParameterConstants.FILE_SYNC_DELTA_ENABLED, false);
+            this.deltaMinFileSize = parameterService.getLong(ParameterConstants.FILE_SYNC_DELTA_MIN_FILE_SIZE, 1048576);
+            this.deltaBlockSize = parameterService.getInt(ParameterConstants.FILE_SYNC_DELTA_BLOCK_SIZE, 65536);
+        }
     }
 
     public void open(DataContext context) {
@@ -176,13 +197,12 @@ public class FileSyncZipDataWriter implements IDataWriter {
     public void end(Batch batch, boolean inError) {
         try {
             if (!inError) {
-                if (zos == null) {
-                    zos = new ZipOutputStream(stagedResource.getOutputStream());
-                }
+                openEntries();
                 FileSyncZipScript script = createFileSyncZipScript(batch.getTargetNodeId());
                 script.buildScriptStart(batch);
                 Map<String, LastEventType> entriesByLastEventType = new HashMap<String, LastEventType>();
                 Map<String, String> entriesByLastRouterId = new HashMap<String, String>();
+                Set<String> deltaEntries = new HashSet<String>();
                 for (FileSnapshot snapshot : snapshotEvents) {
                     FileTriggerRouter triggerRouter = fileSyncService.getFileTriggerRouter(
                             snapshot.getTriggerId(), snapshot.getRouterId(), false);
@@ -222,21 +242,43 @@ public class FileSyncZipDataWriter implements IDataWriter {
                         if (addFileToZip) {
                             if (eventType != LastEventType.DELETE) {
                                 if (file.exists()) {
-                                    byteCount += file.length();
-                                    ZipEntry entry = new ZipEntry(entryName.toString());
-                                    BasicFileAttributes attr = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
-                                    // note: as of 8/21 getting the creation time won't work on unix file systems EVEN IF THEY HAVE EXT4
-                                    // you also cannot set the creation time on unix systems (birth date) using setCreationTime, so this only works for windows
-                                    entry.setCreationTime(attr.creationTime());
-                                    entry.setSize(file.length());
-                                    entry.setTime(file.lastModified());
-                                    zos.putNextEntry(entry);
+                                    boolean useDelta = deltaEnabled && script.isDeltaSupported() && file.isFile()
+                                            && file.length() >= deltaMinFileSize;
+                                    FileBlockSignature baseSignature = null;
+                                    if (!useDelta) {
+                                        byteCount += file.length();
+                                    } else if (eventType == LastEventType.MODIFY) {
+                                        baseSignature = fileSyncService.getFileBlockSignature(batch.getTargetNodeId(), snapshot);
+                                        if (baseSignature != null && baseSignature.getBatchId() >= batch.getBatchId()) {
+                                            // the batch is being extracted again, so the target may not have the version the signature was taken from
+                                            baseSignature = null;
+                                        }
+                                    }
+                                    OutputStream out = startEntry(entryName.toString(), file, baseSignature == null ? file.length() : -1);
                                     if (file.isFile()) {
-                                        try (FileInputStream fis = new FileInputStream(file)) {
-                                            IOUtils.copy(fis, zos);
+                                        if (useDelta) {
+                                            try (FileInputStream fis = new FileInputStream(file)) {
+                                                int blockSize = FileBlockDelta.getBlockSize(file.length(), deltaBlockSize);
+                                                FileBlockSignature signature;
+                                                if (baseSignature != null) {
+                                                    CountingOutputStream cos = new CountingOutputStream(out);
+                                                    signature = FileBlockDelta.writeDelta(fis, baseSignature, blockSize, cos);
+                                                    byteCount += cos.getByteCount();
+                                                    deltaEntries.add(entryName.toString());
+                                                    log.debug("Sending {} as a delta of {} bytes instead of {} bytes", file.getName(),
+                                                            cos.getByteCount(), signature.getFileSize());
+                                                } else {
+                                                    signature = FileBlockDelta.copy(fis, out, blockSize);
+                                                    byteCount += signature.getFileSize();
+                                                }
+                                                signature.setSnapshot(batch.getTargetNodeId(), snapshot, batch.getBatchId());
+                                                fileSyncService.saveFileBlockSignature(signature);
+                                            }
+                                        } else {
+                                            copyFile(file, out);
                                         }
                                     }
-                                    zos.closeEntry();
+                                    endEntry();
                                     entriesByLastEventType.put(entryName.toString(), eventType);
                                     entriesByLastRouterId.put(entryName.toString(), snapshot.getRouterId());
                                 } else {
@@ -244,11 +286,13 @@ public class FileSyncZipDataWriter implements IDataWriter {
                                             "Could not find the {} file to package for synchronization.  Skipping it.",
                                             file.getAbsolutePath());
                                 }
+                            } else if (deltaEnabled && script.isDeltaSupported()) {
+                                fileSyncService.deleteFileBlockSignature(batch.getTargetNodeId(), snapshot);
                             }
                         }
                         if (addFileToScript) {
                             script.buildScriptFileSnapshot(batch, snapshot, triggerRouter, fileTrigger,
-                                    file, targetBaseDir, targetFile);
+                                    file, targetBaseDir, targetFile, deltaEntries.contains(entryName.toString()));
                         }
                     } else {
                         log.error(
@@ -257,20 +301,58 @@ public class FileSyncZipDataWriter implements IDataWriter {
                     }
                 }
                 script.buildScriptEnd(batch);
-                ZipEntry entry = new ZipEntry(batch.getBatchId() + "/" + script.getScriptFileName(batch));
-                zos.putNextEntry(entry);
-                IOUtils.write(script.getScript().toString(), zos, Charset.defaultCharset());
-                zos.closeEntry();
-                entry = new ZipEntry(batch.getBatchId() + "/batch-info.txt");
-                zos.putNextEntry(entry);
-                IOUtils.write(batch.getChannelId(), zos, Charset.defaultCharset());
-                zos.closeEntry();
+                OutputStream out = startEntry(batch.getBatchId() + "/" + script.getScriptFileName(batch), null, -1);
+                IOUtils.write(script.getScript().toString(), out, Charset.defaultCharset());
+                endEntry();
+                out = startEntry(batch.getBatchId() + "/batch-info.txt", null, -1);
+                IOUtils.write(batch.getChannelId(), out, Charset.defaultCharset());
+                endEntry();
             }
         } catch (IOException e) {
             throw new IoException(e);
         }
     }
 
+    protected void openEntries() throws IOException {
+        if (zos == null) {
+            zos = new ZipOutputStream(stagedResource.getOutputStream());
+        }
+    }
+
+    /**
+     * Start an entry in the zip and return the stream to write its content to.
+     * 
+     * @param file
+     *            the source file, or null for entries generated for the batch
+     * @param size
+     *            the size of the content, or -1 if it is not known
+     */
+    protected OutputStream startEntry(String name, File file, long size) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (file != null) {
+            BasicFileAttributes attr = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            // note: as of 8/21 getting the creation time won't work on unix file systems EVEN IF THEY HAVE EXT4
+            // you also cannot set the creation time on unix systems (birth date) using setCreationTime, so this only works for windows
+            entry.setCreationTime(attr.creationTime());
+            if (size >= 0) {
+                entry.setSize(size);
+            }
+            entry.setTime(file.lastModified());
+        }
+        zos.putNextEntry(entry);
+        return zos;
+    }
+
+    protected void copyFile(File file, OutputStream out) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            IOUtils.copy(fis, out);
+        }
+    }
+
+    protected void endEntry() throws IOException {
+        zos.closeEntry();
+    }
+
     public void finish() {
         try {
             if (zos != null) {
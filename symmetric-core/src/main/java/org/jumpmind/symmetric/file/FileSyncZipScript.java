@@ -37,6 +37,19 @@ public abstract class FileSyncZipScript {
     public abstract void buildScriptFileSnapshot(Batch batch, FileSnapshot snapshot, FileTriggerRouter triggerRouter,
             FileTrigger fileTrigger, File file, String targetBaseDir, String targetFile);
 
+    /**
+     * Build the script for a file, where the file in the zip is a delta built by {@link FileBlockDelta} when delta is true. Only called
+     * with a delta when {@link #isDeltaSupported()} is true.
+     */
+    public void buildScriptFileSnapshot(Batch batch, FileSnapshot snapshot, FileTriggerRouter triggerRouter,
+            FileTrigger fileTrigger, File file, String targetBaseDir, String targetFile, boolean delta) {
+        buildScriptFileSnapshot(batch, snapshot, triggerRouter, fileTrigger, file, targetBaseDir, targetFile);
+    }
+
+    public boolean isDeltaSupported() {
+        return false;
+    }
+
     public abstract void buildScriptEnd(Batch batch);
 
     public StringBuilder getScript() {
@@ -48,6 +48,7 @@ public class FileTriggerFileModifiedListener extends FileAlterationListenerAdapt
     protected boolean isSyncOnCtlFile;
     protected boolean useCrc;
     protected ISymmetricEngine engine;
+    protected ParallelChecksumCalculator checksumCalculator;
     protected Map<String, DirectorySnapshot> modifiedDirs = new HashMap<String, DirectorySnapshot>();
     protected long startTime = System.currentTimeMillis();
     protected long ts = startTime;
@@ -108,6 +109,7 @@ public class FileTriggerFileModifiedListener extends FileAlterationListenerAdapt
         for (String relativeDir : modifiedDirs.keySet()) {
             DirectorySnapshot lastSnapshot = fileModifiedCallback.getLastDirectorySnapshot(relativeDir);
             DirectorySnapshot currentSnapshot = modifiedDirs.get(relativeDir);
+            calculateChecksums(currentSnapshot);
             modifiedDirFileCount += currentSnapshot.size();
             DirectorySnapshot changesSinceLastSnapshot = lastSnapshot.diff(currentSnapshot);
             processInfo.setCurrentDataCount(processInfo.getCurrentDataCount() + lastSnapshot.size() + currentSnapshot.size());
@@ -139,7 +141,7 @@ public class FileTriggerFileModifiedListener extends FileAlterationListenerAdapt
         log.debug("addSnapshot: " + file);
         fileCount++;
         processInfo.incrementCurrentDataCount();
-        FileSnapshot fileSnapshot = new FileSnapshot(fileTriggerRouter, file, lastEventType, useCrc);
+        FileSnapshot fileSnapshot = new FileSnapshot(fileTriggerRouter, file, lastEventType, useCrc && checksumCalculator == null);
         DirectorySnapshot modifiedDir = modifiedDirs.get(fileSnapshot.getRelativeDir());
         if (!isDir && modifiedDir != null) {
             // This file belongs to a directory that had a file add/delete, so we will process the directory later
@@ -175,10 +177,24 @@ public class FileTriggerFileModifiedListener extends FileAlterationListenerAdapt
     }
 
     protected void commit() {
+        calculateChecksums(snapshot);
         fileModifiedCallback.commit(snapshot);
         snapshot.clear();
     }
 
+    protected void calculateChecksums(DirectorySnapshot snapshot) {
+        if (useCrc && checksumCalculator != null) {
+            checksumCalculator.calculate(fileTriggerRouter, snapshot);
+        }
+    }
+
+    /**
+     * Checksums are calculated in parallel for each commit instead of as each file is found.
+     */
+    public void setChecksumCalculator(ParallelChecksumCalculator checksumCalculator) {
+        this.checksumCalculator = checksumCalculator;
+    }
+
     public Map<String, DirectorySnapshot> getModifiedDirs() {
         return modifiedDirs;
     }
@@ -21,19 +21,32 @@
 package org.jumpmind.symmetric.file;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
 import org.apache.commons.io.monitor.FileAlterationObserver;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.model.FileSnapshot;
 import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
+import org.jumpmind.symmetric.model.FileTrigger;
 import org.jumpmind.symmetric.model.FileTriggerRouter;
 import org.jumpmind.symmetric.model.ProcessInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Tracks the files that changed under the base directory of a file trigger. By default the directory is polled with a
+ * {@link FileAlterationObserver}. When the tracker is created to use the watch service, it is meant to be kept between runs: the file
+ * system events since the last run decide which files are looked at, and the directory is only scanned again if events were lost. Either way
+ * the changes are reported as a {@link DirectorySnapshot} diff.
+ */
 public class FileTriggerTracker {
     final protected Logger log = LoggerFactory.getLogger(getClass());
     private FileTriggerRouter fileTriggerRouter;
@@ -43,23 +56,40 @@ public class FileTriggerTracker {
     private SnapshotUpdater currentListener;
     private ProcessInfo processInfo;
     private ISymmetricEngine engine;
+    private DirectoryWatcher directoryWatcher;
+    private TreeMap<String, FileSnapshot> watchedFiles;
+    private IOFileFilter fileFilter;
+    private ParallelChecksumCalculator checksumCalculator;
     protected boolean useCrc;
     long startTime = System.currentTimeMillis();
     long ts = startTime;
 
     public FileTriggerTracker(FileTriggerRouter fileTriggerRouter, DirectorySnapshot lastSnapshot, ProcessInfo processInfo,
             boolean useCrc, ISymmetricEngine engine) {
+        this(fileTriggerRouter, lastSnapshot, processInfo, useCrc, null, false, engine);
+    }
+
+    public FileTriggerTracker(FileTriggerRouter fileTriggerRouter, DirectorySnapshot lastSnapshot, ProcessInfo processInfo,
+            boolean useCrc, ParallelChecksumCalculator checksumCalculator, boolean useWatchService, ISymmetricEngine engine) {
         this.fileTriggerRouter = fileTriggerRouter;
         this.processInfo = processInfo;
         this.useCrc = useCrc;
         this.engine = engine;
+        if (useCrc) {
+            this.checksumCalculator = checksumCalculator;
+        }
         changesSinceLastSnapshot = new DirectorySnapshot(fileTriggerRouter);
-        fileObserver = new FileAlterationObserver(fileTriggerRouter.getFileTrigger().getBaseDir(), fileTriggerRouter.getFileTrigger()
-                .createIOFileFilter());
-        currentListener = new SnapshotUpdater(changesSinceLastSnapshot);
-        fileObserver.addListener(currentListener);
+        fileFilter = fileTriggerRouter.getFileTrigger().createIOFileFilter();
         try {
-            fileObserver.initialize();
+            if (useWatchService) {
+                directoryWatcher = startWatching();
+            }
+            if (directoryWatcher == null) {
+                fileObserver = new FileAlterationObserver(fileTriggerRouter.getFileTrigger().getBaseDir(), fileFilter);
+                currentListener = new SnapshotUpdater(changesSinceLastSnapshot);
+                fileObserver.addListener(currentListener);
+                fileObserver.initialize();
+            }
             if (lastSnapshot == null) {
                 lastSnapshot = new DirectorySnapshot(fileTriggerRouter);
             }
@@ -67,21 +97,182 @@ public class FileTriggerTracker {
             DirectorySnapshot currentSnapshot = new DirectorySnapshot(fileTriggerRouter);
             takeFullSnapshot(currentSnapshot);
             changesSinceLastSnapshot.addAll(lastSnapshot.diff(currentSnapshot));
+            if (directoryWatcher != null) {
+                watchedFiles = new TreeMap<String, FileSnapshot>();
+                putWatchedFiles(currentSnapshot);
+                this.lastSnapshot = null;
+            }
         } catch (RuntimeException e) {
+            close();
             throw e;
         } catch (IOException e) {
+            close();
             throw new IoException(e);
         } catch (Exception e) {
+            close();
             throw new RuntimeException(e);
         }
     }
 
+    protected DirectoryWatcher startWatching() {
+        FileTrigger fileTrigger = fileTriggerRouter.getFileTrigger();
+        try {
+            DirectoryWatcher watcher = new DirectoryWatcher(new File(fileTrigger.getBaseDir()).toPath(), fileTrigger.isRecurse());
+            log.info("Watching {} directories for file trigger {}", watcher.getDirectoryCount(), fileTrigger.getTriggerId());
+            return watcher;
+        } catch (IOException e) {
+            log.warn("Unable to watch {} for changes, so it will be polled instead: {}", fileTrigger.getBaseDir(), e.getMessage());
+            return null;
+        }
+    }
+
     protected void pollForChanges() {
-        if (fileObserver != null) {
+        if (directoryWatcher != null) {
+            startTime = System.currentTimeMillis();
+            ts = startTime;
+            Map<Path, Boolean> events = directoryWatcher.pollChanges();
+            if (events == null) {
+                log.info("File system events were lost for {}, so it will be scanned", fileTriggerRouter.getFileTrigger().getBaseDir());
+                rescan();
+            } else if (events.size() > 0) {
+                applyEvents(events);
+            }
+        } else if (fileObserver != null) {
             fileObserver.checkAndNotify();
+            if (checksumCalculator != null) {
+                checksumCalculator.calculate(fileTriggerRouter, changesSinceLastSnapshot);
+            }
+        }
+    }
+
+    protected void rescan() {
+        if (directoryWatcher.isRecurse()) {
+            try {
+                directoryWatcher.registerTree(new File(fileTriggerRouter.getFileTrigger().getBaseDir()).toPath());
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+        DirectorySnapshot currentSnapshot = new DirectorySnapshot(fileTriggerRouter);
+        takeFullSnapshot(currentSnapshot);
+        DirectorySnapshot watchedSnapshot = new DirectorySnapshot(fileTriggerRouter, watchedFiles.values().stream().toList());
+        changesSinceLastSnapshot.addAll(watchedSnapshot.diff(currentSnapshot));
+        watchedFiles.clear();
+        putWatchedFiles(currentSnapshot);
+    }
+
+    /**
+     * Compares the files that had events with what was tracked for them. Only those files are looked at, and the comparison is done with
+     * {@link DirectorySnapshot#diff(DirectorySnapshot)} so the changes are the same as a full scan would have found.
+     */
+    protected void applyEvents(Map<Path, Boolean> events) {
+        Map<String, FileSnapshot> before = new LinkedHashMap<String, FileSnapshot>();
+        Map<String, FileSnapshot> after = new LinkedHashMap<String, FileSnapshot>();
+        boolean isSyncOnCtlFile = fileTriggerRouter.getFileTrigger().isSyncOnCtlFile();
+        for (Map.Entry<Path, Boolean> event : events.entrySet()) {
+            File file = event.getKey().toFile();
+            collectChange(file, event.getValue(), before, after);
+            if (isSyncOnCtlFile && file.getName().endsWith(FileTrigger.FILE_CTL_EXTENSION)) {
+                collectControlledFiles(file, before, after);
+            }
+        }
+        DirectorySnapshot beforeSnapshot = new DirectorySnapshot(fileTriggerRouter, before.values().stream().toList());
+        DirectorySnapshot afterSnapshot = new DirectorySnapshot(fileTriggerRouter, after.values().stream().toList());
+        if (checksumCalculator != null) {
+            checksumCalculator.calculate(fileTriggerRouter, afterSnapshot);
+        }
+        changesSinceLastSnapshot.addAll(beforeSnapshot.diff(afterSnapshot));
+        watchedFiles.keySet().removeAll(before.keySet());
+        putWatchedFiles(afterSnapshot);
+    }
+
+    protected void collectChange(File file, boolean createdOrDeleted, Map<String, FileSnapshot> before, Map<String, FileSnapshot> after) {
+        boolean isDirectory = file.isDirectory();
+        if (isDirectory && !createdOrDeleted) {
+            return;
+        }
+        String key = getKey(new FileSnapshot(fileTriggerRouter, file, LastEventType.DELETE));
+        FileSnapshot tracked = watchedFiles.get(key);
+        if (tracked != null) {
+            before.put(key, tracked);
+        }
+        if (createdOrDeleted) {
+            String childPrefix = key.startsWith("./") ? key.substring(2) + "/" : key + "/";
+            before.putAll(watchedFiles.subMap(childPrefix, childPrefix + Character.MAX_VALUE));
+        }
+        if (file.exists() && fileFilter.accept(file)) {
+            if (isDirectory) {
+                after.put(key, createSnapshot(file));
+                if (directoryWatcher.isRecurse()) {
+                    try {
+                        directoryWatcher.registerTree(file.toPath());
+                    } catch (IOException e) {
+                        log.warn("Unable to watch directory {}: {}", file.getAbsolutePath(), e.getMessage());
+                    }
+                    collectDirectory(file, after);
+                }
+            } else if (isControlled(file)) {
+                after.put(key, createSnapshot(file));
+            }
+        }
+    }
+
+    protected void collectDirectory(File directory, Map<String, FileSnapshot> after) {
+        File[] children = directory.listFiles((FileFilter) fileFilter);
+        if (children != null) {
+            for (File child : children) {
+                boolean isDirectory = child.isDirectory();
+                if (isDirectory || isControlled(child)) {
+                    FileSnapshot snapshot = createSnapshot(child);
+                    after.put(getKey(snapshot), snapshot);
+                }
+                if (isDirectory) {
+                    collectDirectory(child, after);
+                }
+            }
+        }
+    }
+
+    /**
+     * A control file can be named for its data file with an extension added or with the data file's extension replaced, so both are
+     * looked at.
+     */
+    protected void collectControlledFiles(File ctlFile, Map<String, FileSnapshot> before, Map<String, FileSnapshot> after) {
+        String name = ctlFile.getName();
+        String baseName = name.substring(0, name.length() - FileTrigger.FILE_CTL_EXTENSION.length());
+        File parent = ctlFile.getParentFile();
+        collectChange(new File(parent, baseName), false, before, after);
+        File[] siblings = parent.listFiles((dir, siblingName) -> siblingName.startsWith(baseName + ".") && !siblingName.equals(name));
+        if (siblings != null) {
+            for (File sibling : siblings) {
+                collectChange(sibling, false, before, after);
+            }
+        }
+    }
+
+    protected boolean isControlled(File file) {
+        return !fileTriggerRouter.getFileTrigger().isSyncOnCtlFile() || engine.getFileSyncService().getControleFile(file).exists();
+    }
+
+    protected FileSnapshot createSnapshot(File file) {
+        if (processInfo != null) {
+            processInfo.incrementCurrentDataCount();
+        }
+        return new FileSnapshot(fileTriggerRouter, file, LastEventType.CREATE, useCrc && checksumCalculator == null);
+    }
+
+    protected void putWatchedFiles(DirectorySnapshot snapshot) {
+        for (FileSnapshot file : snapshot) {
+            if (file.getLastEventType() != LastEventType.DELETE) {
+                watchedFiles.put(getKey(file), file);
+            }
         }
     }
 
+    protected static String getKey(FileSnapshot snapshot) {
+        return snapshot.getRelativeDir() + "/" + snapshot.getFileName();
+    }
+
     synchronized public DirectorySnapshot trackChanges() {
         pollForChanges();
         DirectorySnapshot changes = changesSinceLastSnapshot;
@@ -91,14 +282,20 @@ public class FileTriggerTracker {
             }
         }
         changesSinceLastSnapshot = new DirectorySnapshot(fileTriggerRouter);
-        SnapshotUpdater newListener = new SnapshotUpdater(changesSinceLastSnapshot);
-        fileObserver.addListener(newListener);
-        fileObserver.removeListener(currentListener);
-        currentListener = newListener;
-        lastSnapshot.merge(changes);
+        int trackedCount;
+        if (fileObserver != null) {
+            SnapshotUpdater newListener = new SnapshotUpdater(changesSinceLastSnapshot);
+            fileObserver.addListener(newListener);
+            fileObserver.removeListener(currentListener);
+            currentListener = newListener;
+            lastSnapshot.merge(changes);
+            trackedCount = lastSnapshot.size();
+        } else {
+            trackedCount = watchedFiles.size();
+        }
         long runTime = (System.currentTimeMillis() - startTime) / 1000;
         if (changes.size() > 0) {
-            log.info("Tracked {} files in {} seconds.  Found {} files changed.", new Object[] { lastSnapshot.size(), runTime, changes.size() });
+            log.info("Tracked {} files in {} seconds.  Found {} files changed.", new Object[] { trackedCount, runTime, changes.size() });
         }
         return changes;
     }
@@ -109,6 +306,34 @@ public class FileTriggerTracker {
                 .getFileTrigger().createIOFileFilter());
         observer.addListener(new SnapshotUpdater(snapshot));
         observer.checkAndNotify();
+        if (checksumCalculator != null) {
+            checksumCalculator.calculate(fileTriggerRouter, snapshot);
+        }
+    }
+
+    /**
+     * @return True while file system events are being used to track changes, so the tracker can be kept for the next run.
+     */
+    public boolean isWatching() {
+        return directoryWatcher != null && directoryWatcher.isValid();
+    }
+
+    public FileTriggerRouter getFileTriggerRouter() {
+        return fileTriggerRouter;
+    }
+
+    public boolean isUseCrc() {
+        return useCrc;
+    }
+
+    public void setProcessInfo(ProcessInfo processInfo) {
+        this.processInfo = processInfo;
+    }
+
+    public void close() {
+        if (directoryWatcher != null) {
+            directoryWatcher.close();
+        }
     }
 
     class SnapshotUpdater extends FileAlterationListenerAdaptor {
@@ -164,7 +389,7 @@ public class FileTriggerTracker {
             if (processInfo != null) {
                 processInfo.incrementCurrentDataCount();
             }
-            snapshot.add(new FileSnapshot(snapshot.getFileTriggerRouter(), file, lastEventType, useCrc));
+            snapshot.add(new FileSnapshot(snapshot.getFileTriggerRouter(), file, lastEventType, useCrc && checksumCalculator == null));
             if (System.currentTimeMillis() - ts > 60000) {
                 log.info("File tracker has been processing for {} seconds.  The following stats have been gathered: {}", new Object[] {
                         (System.currentTimeMillis() - startTime) / 1000, "{ fileCount=" + snapshot.size() + " }" });
@@ -0,0 +1,114 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jumpmind.symmetric.model.FileSnapshot;
+import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
+import org.jumpmind.symmetric.model.FileTriggerRouter;
+import org.jumpmind.util.CustomizableThreadFactory;
+
+/**
+ * Calculates the CRC32 checksums of file snapshots that were taken without one, reading up to a fixed number of files at the same time. The
+ * calling thread reads files too, and the other readers come from one bounded pool that is kept until {@link #shutdown()}.
+ */
+public class ParallelChecksumCalculator {
+    private int threadCount;
+    private ThreadPoolExecutor executor;
+
+    public ParallelChecksumCalculator(int threadCount) {
+        this(threadCount, "file-sync-checksum");
+    }
+
+    public ParallelChecksumCalculator(int threadCount, String threadNamePrefix) {
+        this.threadCount = threadCount;
+        int poolSize = Math.max(threadCount - 1, 1);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new CustomizableThreadFactory(threadNamePrefix));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void calculate(FileTriggerRouter fileTriggerRouter, List<FileSnapshot> snapshots) {
+        final List<FileSnapshot> pending = new ArrayList<FileSnapshot>();
+        for (FileSnapshot snapshot : snapshots) {
+            if (snapshot.getCrc32Checksum() == -1 && snapshot.getLastEventType() != LastEventType.DELETE) {
+                pending.add(snapshot);
+            }
+        }
+        final AtomicInteger nextIndex = new AtomicInteger();
+        Runnable reader = () -> {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < pending.size()) {
+                calculate(fileTriggerRouter, pending.get(index));
+            }
+        };
+        int threads = Math.min(threadCount, pending.size());
+        List<Future<?>> futures = new ArrayList<Future<?>>(threads);
+        try {
+            for (int i = 1; i < threads; i++) {
+                futures.add(executor.submit(reader));
+            }
+        } catch (RejectedExecutionException e) {
+            // the pool was shut down, so the calling thread reads the rest of the files
+        }
+        try {
+            reader.run();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            nextIndex.set(pending.size());
+        }
+    }
+
+    protected void calculate(FileTriggerRouter fileTriggerRouter, FileSnapshot snapshot) {
+        File file = fileTriggerRouter.getFileTrigger().createSourceFile(snapshot);
+        if (file.isFile()) {
+            snapshot.calculateCrc32Checksum(file);
+        }
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -28,6 +28,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -40,6 +44,7 @@ import org.jumpmind.db.sql.DmlStatement;
 import org.jumpmind.db.sql.DmlStatement.DmlType;
 import org.jumpmind.db.sql.ISqlReadCursor;
 import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SymmetricException;
@@ -48,6 +53,7 @@ import org.jumpmind.symmetric.io.DbCompareReport.TableReport;
 import org.jumpmind.symmetric.model.TriggerHistory;
 import org.jumpmind.symmetric.model.TriggerRouter;
 import org.jumpmind.symmetric.service.impl.TransformService.TransformTableNodeGroupLink;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +62,8 @@ import org.slf4j.LoggerFactory;
  * the source.
  */
 public class DbCompare {
+    protected static final int RANGE_SPLIT_COUNT = 8;
+    protected static final int MAX_RANGE_DEPTH = 32;
     final Logger log = LoggerFactory.getLogger(getClass());
     ISqlRowMapper<Row> defaultRowMapper = new ISqlRowMapper<Row>() {
         @Override
@@ -84,17 +92,37 @@ public class DbCompare {
         long start = System.currentTimeMillis();
         List<DbCompareTables> tablesToCompare = getTablesToCompare();
         report.printReportHeader(System.out);
-        for (DbCompareTables tables : tablesToCompare) {
+        int threadCount = Math.min(config.getThreadCount(), tablesToCompare.size());
+        if (threadCount > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount, new CustomizableThreadFactory("dbcompare"));
             try {
-                TableReport tableReport = compareTables(tables, sqlDiffOutput);
-                report.addTableReport(tableReport);
-                long elapsed = System.currentTimeMillis() - start;
-                log.info("Completed table {}.  Elapsed time: {}", tableReport,
-                        DurationFormatUtils.formatDurationWords((elapsed), true, true));
-                report.printTableReport(tableReport, System.out);
-            } catch (Exception e) {
-                log.error("Exception while comparing " + tables.getSourceTable() +
-                        " to " + tables.getTargetTable(), e);
+                List<Future<TableReport>> futures = new ArrayList<Future<TableReport>>();
+                for (DbCompareTables tables : tablesToCompare) {
+                    futures.add(executor.submit(() -> compareTables(tables, sqlDiffOutput)));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    DbCompareTables tables = tablesToCompare.get(i);
+                    try {
+                        addTableReport(report, futures.get(i).get(), start);
+                    } catch (ExecutionException e) {
+                        log.error("Exception while comparing " + tables.getSourceTable() +
+                                " to " + tables.getTargetTable(), e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            for (DbCompareTables tables : tablesToCompare) {
+                try {
+                    addTableReport(report, compareTables(tables, sqlDiffOutput), start);
+                } catch (Exception e) {
+                    log.error("Exception while comparing " + tables.getSourceTable() +
+                            " to " + tables.getTargetTable(), e);
+                }
             }
         }
         report.printReportFooter(System.out);
@@ -104,6 +132,14 @@ public class DbCompare {
         return report;
     }
 
+    protected void addTableReport(DbCompareReport report, TableReport tableReport, long start) {
+        report.addTableReport(tableReport);
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Completed table {}.  Elapsed time: {}", tableReport,
+                DurationFormatUtils.formatDurationWords((elapsed), true, true));
+        report.printTableReport(tableReport, System.out);
+    }
+
     protected OutputStream getSqlDiffOutputStream() {
         String outputSqlDiffFileName = config.getOutputSql();
         if (!StringUtils.isEmpty(outputSqlDiffFileName) && !outputSqlDiffFileName.contains("%t")) {
@@ -135,22 +171,9 @@ public class DbCompare {
     }
 
     protected TableReport compareTables(DbCompareTables tables, OutputStream sqlDiffOutput) {
-        String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getTargetDialect().getTargetPlatform());
-        String targetSelect = getTargetComparisonSQL(tables, targetEngine.getTargetDialect().getTargetPlatform());
-        // String targetSelect = getTargetComparisonSQL(tables, targetEngine.getDatabasePlatform());
-        CountingSqlReadCursor sourceCursor = new CountingSqlReadCursor(sourceEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
-                sourceSelect,
-                defaultRowMapper));
-        CountingSqlReadCursor targetCursor = new CountingSqlReadCursor(targetEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
-                targetSelect,
-                defaultRowMapper));
         TableReport tableReport = new TableReport();
         tableReport.setSourceTable(tables.getSourceTable().getName());
         tableReport.setTargetTable(tables.getTargetTable().getName());
-        Row sourceRow = sourceCursor.next();
-        Row targetRow = targetCursor.next();
-        int counter = 0;
-        long startTime = System.currentTimeMillis();
         DbCompareDiffWriter diffWriter = null;
         OutputStream stream = null;
         if (sqlDiffOutput != null) {
@@ -161,6 +184,40 @@ public class DbCompare {
         }
         diffWriter.setContinueAfterError(config.isContinueAfterError());
         try {
+            if (config.isUseRangeChecksum() && getMappedPkColumns(tables) != null) {
+                compareRanges(tables, tableReport, diffWriter);
+            } else {
+                String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getTargetDialect().getTargetPlatform());
+                String targetSelect = getTargetComparisonSQL(tables, targetEngine.getTargetDialect().getTargetPlatform());
+                compareRows(tables, openCursor(sourceEngine, sourceSelect, null, null), openCursor(targetEngine, targetSelect, null, null),
+                        tableReport, diffWriter);
+            }
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+        return tableReport;
+    }
+
+    protected CountingSqlReadCursor openCursor(ISymmetricEngine engine, String sql, Object[] args, int[] types) {
+        ISqlTemplate sqlTemplate = engine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty();
+        if (args == null) {
+            return new CountingSqlReadCursor(sqlTemplate.queryForCursor(sql, defaultRowMapper));
+        }
+        return new CountingSqlReadCursor(sqlTemplate.queryForCursor(sql, defaultRowMapper, args, types));
+    }
+
+    protected void compareRows(DbCompareTables tables, CountingSqlReadCursor sourceCursor, CountingSqlReadCursor targetCursor,
+            TableReport tableReport, DbCompareDiffWriter diffWriter) {
+        int counter = 0;
+        long startTime = System.currentTimeMillis();
+        try {
+            Row sourceRow = sourceCursor.next();
+            Row targetRow = targetCursor.next();
             while (true) {
                 if (sourceRow == null && targetRow == null) {
                     break;
@@ -218,20 +275,218 @@ public class DbCompare {
                 tableReport.setTargetRows(targetCursor.count);
             }
         } finally {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e) {
+            sourceCursor.close();
+            targetCursor.close();
+        }
+    }
+
+    /**
+     * Compare the table as ranges of primary keys. Each side computes the row count and checksum of a range in SQL, a range that differs is
+     * split into smaller ranges, and only the smallest ranges that still differ are selected and compared row by row. Checksums are only
+     * comparable when both sides are the same platform with the same column types, so other tables are compared row by row in one pass.
+     */
+    protected void compareRanges(DbCompareTables tables, TableReport tableReport, DbCompareDiffWriter diffWriter) {
+        Table sourceTable = tables.getSourceTable();
+        Table targetTable = tables.getTargetTable();
+        List<Column> sourceColumns = new ArrayList<Column>();
+        List<Column> targetColumns = new ArrayList<Column>();
+        boolean sameTypes = true;
+        for (Column sourceColumn : sourceTable.getColumns()) {
+            Column targetColumn = tables.getColumnMapping().get(sourceColumn);
+            if (targetColumn != null) {
+                sourceColumns.add(sourceColumn);
+                targetColumns.add(targetColumn);
+                sameTypes &= sourceColumn.getMappedTypeCode() == targetColumn.getMappedTypeCode();
+            }
+        }
+        RangeSide source = createRangeSide(sourceEngine, sourceTable, sourceTable.getPrimaryKeyColumns(), sourceColumns,
+                config.getSourceWhereClause(sourceTable.getName()), true);
+        RangeSide target = createRangeSide(targetEngine, targetTable, getMappedPkColumns(tables), targetColumns,
+                config.getTargetWhereClause(targetTable.getName()), false);
+        if (source == null || target == null || !sameTypes || !StringUtils.equals(source.platform.getName(), target.platform.getName())) {
+            log.info("Comparing table {} row by row because its range checksums can not be compared", sourceTable.getName());
+            String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getTargetDialect().getTargetPlatform());
+            String targetSelect = getTargetComparisonSQL(tables, targetEngine.getTargetDialect().getTargetPlatform());
+            compareRows(tables, openCursor(sourceEngine, sourceSelect, null, null), openCursor(targetEngine, targetSelect, null, null),
+                    tableReport, diffWriter);
+            return;
+        }
+        RangeChecksum sourceChecksum = selectRangeChecksum(source, null, null);
+        RangeChecksum targetChecksum = selectRangeChecksum(target, null, null);
+        compareRange(tables, source, target, null, null, sourceChecksum, targetChecksum, 0, tableReport, diffWriter);
+        tableReport.setSourceRows((int) sourceChecksum.count);
+        tableReport.setTargetRows((int) targetChecksum.count);
+    }
+
+    protected void compareRange(DbCompareTables tables, RangeSide source, RangeSide target, Object[] lower, Object[] upper,
+            RangeChecksum sourceChecksum, RangeChecksum targetChecksum, int depth, TableReport tableReport, DbCompareDiffWriter diffWriter) {
+        if (sourceChecksum.matches(targetChecksum)) {
+            tableReport.setMatchedRows((int) (tableReport.getMatchedRows() + sourceChecksum.count));
+            return;
+        }
+        List<Object[]> splitKeys = null;
+        long count = Math.max(sourceChecksum.count, targetChecksum.count);
+        if (count > Math.max(config.getRangeSize(), 1) && depth < MAX_RANGE_DEPTH) {
+            RangeSide larger = sourceChecksum.count >= targetChecksum.count ? source : target;
+            splitKeys = selectSplitKeys(larger, lower, upper, count, (count + RANGE_SPLIT_COUNT - 1) / RANGE_SPLIT_COUNT);
+        }
+        if (splitKeys == null || splitKeys.isEmpty()) {
+            List<Object> sourceArgs = new ArrayList<Object>();
+            List<Integer> sourceTypes = new ArrayList<Integer>();
+            String sourceRange = buildRangeClause(source.pkColumns, source.platform, lower, upper, sourceArgs, sourceTypes);
+            List<Object> targetArgs = new ArrayList<Object>();
+            List<Integer> targetTypes = new ArrayList<Integer>();
+            String targetRange = buildRangeClause(target.pkColumns, target.platform, lower, upper, targetArgs, targetTypes);
+            String sourceSelect = getComparisonSQL(source.table, source.table.getPrimaryKeyColumns(), source.platform,
+                    "(" + source.whereClause + ") and " + sourceRange, true);
+            String targetSelect = getComparisonSQL(target.table, target.table.getPrimaryKeyColumns(), target.platform,
+                    "(" + target.whereClause + ") and " + targetRange, false);
+            log.debug("Comparing rows of a range with {} source and {} target rows: {}", sourceChecksum.count, targetChecksum.count,
+                    sourceSelect);
+            compareRows(tables, openCursor(sourceEngine, sourceSelect, sourceArgs.toArray(), toIntArray(sourceTypes)),
+                    openCursor(targetEngine, targetSelect, targetArgs.toArray(), toIntArray(targetTypes)), tableReport, diffWriter);
+            return;
+        }
+        Object[] from = lower;
+        for (int i = 0; i <= splitKeys.size(); i++) {
+            Object[] to = i < splitKeys.size() ? splitKeys.get(i) : upper;
+            compareRange(tables, source, target, from, to, selectRangeChecksum(source, from, to), selectRangeChecksum(target, from, to),
+                    depth + 1, tableReport, diffWriter);
+            from = to;
+        }
+    }
+
+    protected RangeSide createRangeSide(ISymmetricEngine engine, Table table, Column[] pkColumns, List<Column> columns, String whereClause,
+            boolean isSource) {
+        IDatabasePlatform platform = engine.getTargetDialect().getTargetPlatform();
+        DatabaseInfo databaseInfo = platform.getDatabaseInfo();
+        String quote = databaseInfo.getDelimiterToken() == null ? "" : databaseInfo.getDelimiterToken();
+        for (Column column : columns) {
+            if (platform.isLob(column.getMappedTypeCode())) {
+                return null;
+            }
+        }
+        String checksum = DbCompareUtil.getRangeChecksumSql(platform.getName(), columns, quote);
+        if (checksum == null) {
+            return null;
+        }
+        String tableName = table.getQualifiedTableName(quote, databaseInfo.getCatalogSeparator(), databaseInfo.getSchemaSeparator());
+        return new RangeSide(engine, platform, table, tableName, pkColumns, whereClause, isSource,
+                "select count(*) as row_count, " + checksum + " as row_checksum from " + tableName + " t where (" + whereClause + ") and ");
+    }
+
+    protected RangeChecksum selectRangeChecksum(RangeSide side, Object[] lower, Object[] upper) {
+        List<Object> args = new ArrayList<Object>();
+        List<Integer> types = new ArrayList<Integer>();
+        String sql = side.checksumSql + buildRangeClause(side.pkColumns, side.platform, lower, upper, args, types);
+        Row row = side.platform.getSqlTemplateDirty().query(sql, defaultRowMapper, args.toArray(), toIntArray(types)).get(0);
+        return new RangeChecksum(row.getLong("row_count"), row.getString("row_checksum", false));
+    }
+
+    /**
+     * Return the primary keys at every step rows of a range, which are the inclusive upper bounds of the smaller ranges. Where the platform
+     * supports row_number, the rows are numbered in SQL so only the split keys are returned. Otherwise every key of the range is read in order.
+     */
+    protected List<Object[]> selectSplitKeys(RangeSide side, Object[] lower, Object[] upper, long count, long step) {
+        DatabaseInfo databaseInfo = side.platform.getDatabaseInfo();
+        String quote = databaseInfo.getDelimiterToken() == null ? "" : databaseInfo.getDelimiterToken();
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < side.pkColumns.length; i++) {
+            columns.append(i > 0 ? ", " : "").append(quote).append(side.pkColumns[i].getName()).append(quote);
+        }
+        List<Object> args = new ArrayList<Object>();
+        List<Integer> types = new ArrayList<Integer>();
+        String fromClause = side.tableName + " t where (" + side.whereClause + ") and "
+                + buildRangeClause(side.pkColumns, side.platform, lower, upper, args, types);
+        String orderBy = buildOrderBy(side.table, side.pkColumns, side.platform, side.isSource);
+        ISqlTemplate sqlTemplate = side.platform.getSqlTemplateDirty();
+        boolean numbered = DbCompareUtil.isRowNumberSupported(side.platform.getName(), sqlTemplate.getDatabaseMajorVersion(),
+                sqlTemplate.getDatabaseMinorVersion());
+        String sql = numbered ? DbCompareUtil.getSplitKeysSql(side.platform.getName(), columns.toString(), fromClause, orderBy, step, count)
+                : "select " + columns + " from " + fromClause + " " + orderBy;
+        List<Object[]> keys = new ArrayList<Object[]>();
+        CountingSqlReadCursor cursor = openCursor(side.engine, sql, args.toArray(), toIntArray(types));
+        try {
+            Row row = null;
+            while ((row = cursor.next()) != null) {
+                // the last row is already bounded by the upper bound of the range
+                if (numbered || (cursor.count % step == 0 && cursor.count < count)) {
+                    Object[] key = new Object[side.pkColumns.length];
+                    for (int i = 0; i < key.length; i++) {
+                        key[i] = row.get(side.pkColumns[i].getName());
+                    }
+                    keys.add(key);
                 }
             }
-            if (sourceCursor != null) {
-                sourceCursor.close();
+        } finally {
+            cursor.close();
+        }
+        return keys;
+    }
+
+    protected Column[] getMappedPkColumns(DbCompareTables tables) {
+        Column[] sourcePkColumns = tables.getSourceTable().getPrimaryKeyColumns();
+        if (sourcePkColumns.length == 0) {
+            return null;
+        }
+        Column[] targetPkColumns = new Column[sourcePkColumns.length];
+        for (int i = 0; i < sourcePkColumns.length; i++) {
+            targetPkColumns[i] = tables.getColumnMapping().get(sourcePkColumns[i]);
+            if (targetPkColumns[i] == null) {
+                return null;
+            }
+        }
+        return targetPkColumns;
+    }
+
+    /**
+     * Build a predicate for primary keys greater than the lower key and less than or equal to the upper key, where either bound can be null.
+     * The key values are passed as arguments in primary key order.
+     */
+    protected String buildRangeClause(Column[] pkColumns, IDatabasePlatform platform, Object[] lower, Object[] upper, List<Object> args,
+            List<Integer> types) {
+        String quote = platform.getDatabaseInfo().getDelimiterToken() == null ? "" : platform.getDatabaseInfo().getDelimiterToken();
+        StringBuilder sql = new StringBuilder("1=1");
+        if (lower != null) {
+            sql.append(" and ");
+            appendBound(sql, pkColumns, quote, lower, ">", false, args, types);
+        }
+        if (upper != null) {
+            sql.append(" and ");
+            appendBound(sql, pkColumns, quote, upper, "<", true, args, types);
+        }
+        return sql.toString();
+    }
+
+    protected void appendBound(StringBuilder sql, Column[] pkColumns, String quote, Object[] key, String operator, boolean inclusive,
+            List<Object> args, List<Integer> types) {
+        sql.append("(");
+        int terms = inclusive ? pkColumns.length + 1 : pkColumns.length;
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                sql.append(" or ");
             }
-            if (targetCursor != null) {
-                targetCursor.close();
+            sql.append("(");
+            for (int j = 0; j <= i && j < pkColumns.length; j++) {
+                if (j > 0) {
+                    sql.append(" and ");
+                }
+                sql.append(quote).append(pkColumns[j].getName()).append(quote);
+                sql.append(j < i ? " = ?" : " " + operator + " ?");
+                args.add(key[j]);
+                types.add(pkColumns[j].getMappedTypeCode());
             }
+            sql.append(")");
         }
-        return tableReport;
+        sql.append(")");
+    }
+
+    protected int[] toIntArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
     }
 
     protected int comparePk(DbCompareTables tables, DbCompareRow sourceCompareRow, DbCompareRow targetCompareRow) {
@@ -602,6 +857,43 @@ public class DbCompare {
         }
     }
 
+    static class RangeSide {
+        ISymmetricEngine engine;
+        IDatabasePlatform platform;
+        Table table;
+        String tableName;
+        Column[] pkColumns;
+        String whereClause;
+        boolean isSource;
+        String checksumSql;
+
+        RangeSide(ISymmetricEngine engine, IDatabasePlatform platform, Table table, String tableName, Column[] pkColumns, String whereClause,
+                boolean isSource, String checksumSql) {
+            this.engine = engine;
+            this.platform = platform;
+            this.table = table;
+            this.tableName = tableName;
+            this.pkColumns = pkColumns;
+            this.whereClause = whereClause;
+            this.isSource = isSource;
+            this.checksumSql = checksumSql;
+        }
+    }
+
+    static class RangeChecksum {
+        long count;
+        String checksum;
+
+        RangeChecksum(long count, String checksum) {
+            this.count = count;
+            this.checksum = checksum;
+        }
+
+        boolean matches(RangeChecksum other) {
+            return count == other.count && StringUtils.equals(checksum, other.checksum);
+        }
+    }
+
     public DbCompareConfig getConfig() {
         return config;
     }
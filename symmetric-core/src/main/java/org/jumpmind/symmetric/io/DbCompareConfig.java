@@ -46,6 +46,9 @@ public class DbCompareConfig {
     private Map<String, List<String>> tablesToExcludedColumns = new LinkedHashMap<String, List<String>>();
     private String outputSql;
     private boolean continueAfterError = false;
+    private boolean useRangeChecksum = false;
+    private int rangeSize = 10000;
+    private int threadCount = 1;
     private Map<String, String> configSources = new HashMap<String, String>();
 
     public DbCompareConfig() {
@@ -61,6 +64,9 @@ public class DbCompareConfig {
         configSources.put("sqlDiffFileName", "default");
         configSources.put("outputSql", "default");
         configSources.put("continueAfterError", "default");
+        configSources.put("useRangeChecksum", "default");
+        configSources.put("rangeSize", "default");
+        configSources.put("threadCount", "default");
     }
 
     public String getSourceWhereClause(String tableName) {
@@ -237,6 +243,30 @@ public class DbCompareConfig {
         return continueAfterError;
     }
 
+    public boolean isUseRangeChecksum() {
+        return useRangeChecksum;
+    }
+
+    public void setUseRangeChecksum(boolean useRangeChecksum) {
+        this.useRangeChecksum = useRangeChecksum;
+    }
+
+    public int getRangeSize() {
+        return rangeSize;
+    }
+
+    public void setRangeSize(int rangeSize) {
+        this.rangeSize = rangeSize;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     public String report() {
         StringBuilder buff = new StringBuilder(128);
         buff.append("\tsourceTableNames=").append(sourceTableNames).append(" @").append(configSources.get("sourceTableNames")).append("\n");
@@ -250,6 +280,9 @@ public class DbCompareConfig {
                 "\n");
         buff.append("\toutputSql=").append(outputSql).append(" @").append(configSources.get("outputSql")).append("\n");
         buff.append("\tcontinueAfterError=").append(continueAfterError).append(" @").append(configSources.get("continueAfterError")).append("\n");
+        buff.append("\tuseRangeChecksum=").append(useRangeChecksum).append(" @").append(configSources.get("useRangeChecksum")).append("\n");
+        buff.append("\trangeSize=").append(rangeSize).append(" @").append(configSources.get("rangeSize")).append("\n");
+        buff.append("\tthreadCount=").append(threadCount).append(" @").append(configSources.get("threadCount")).append("\n");
         return buff.toString();
     }
 }
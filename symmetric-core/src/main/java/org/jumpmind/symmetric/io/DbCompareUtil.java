@@ -20,6 +20,14 @@
  */
 package org.jumpmind.symmetric.io;
 
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Function;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.TypeMap;
+import org.jumpmind.db.platform.DatabaseNamesConstants;
+
 public class DbCompareUtil {
     public static String getUnqualifiedTableName(String tableName) {
         tableName = tableName.replace("\"", "");
@@ -30,4 +38,82 @@ public class DbCompareUtil {
         }
         return tableName;
     }
+
+    /**
+     * Return the SQL aggregate for the checksum of the rows in a range, or null when the platform has no hash function to build it from.
+     * Each row is hashed from its columns in the order given, and the row hashes are summed, so the checksum does not depend on the order
+     * the rows are read. Checksums are only comparable between databases of the same platform.
+     */
+    public static String getRangeChecksumSql(String platformName, List<Column> columns, String quote) {
+        if (columns.isEmpty()) {
+            return null;
+        }
+        if (platformName.equals(DatabaseNamesConstants.H2)) {
+            return "sum(ora_hash(concat_ws('|', " + concatValues(columns, quote, ", ", c -> "coalesce(cast(%s as varchar), '~')") + ")))";
+        } else if (platformName.startsWith(DatabaseNamesConstants.POSTGRESQL)) {
+            return "sum(cast(cast('x' || substr(md5(concat_ws('|', " + concatValues(columns, quote, ", ", c -> "coalesce(cast(%s as text), '~')")
+                    + ")), 1, 15) as bit(60)) as bigint))";
+        } else if (platformName.equals(DatabaseNamesConstants.MYSQL) || platformName.equals(DatabaseNamesConstants.MARIADB)) {
+            return "sum(cast(conv(substr(md5(concat_ws('|', " + concatValues(columns, quote, ", ", c -> "coalesce(cast(%s as char), '~')")
+                    + ")), 1, 15), 16, 10) as unsigned))";
+        } else if (platformName.startsWith(DatabaseNamesConstants.ORACLE)) {
+            // hash each column first so the concatenated row stays within the length of a varchar2
+            return "sum(ora_hash(" + concatValues(columns, quote, " || '|' || ", c -> "nvl(to_char(ora_hash(%s)), '~')") + "))";
+        } else if (platformName.startsWith(DatabaseNamesConstants.MSSQL)) {
+            // the first 7 bytes of the MD5 of the row always fit in a positive bigint
+            return "sum(cast(cast(substring(hashbytes('MD5', " + concatValues(columns, quote, " + '|' + ", c -> "coalesce(" + getMssqlText(c) + ", '~')")
+                    + "), 1, 7) as bigint) as decimal(38, 0)))";
+        }
+        return null;
+    }
+
+    /**
+     * Convert a column to text on SQL Server without losing the precision of dates and floating point numbers, which a plain cast rounds.
+     */
+    protected static String getMssqlText(Column column) {
+        int type = column.getMappedTypeCode();
+        if (TypeMap.isDateTimeType(type)) {
+            return "convert(nvarchar(max), %s, 121)";
+        } else if (type == Types.FLOAT || type == Types.REAL || type == Types.DOUBLE) {
+            return "convert(nvarchar(max), %s, 2)";
+        } else if (column.isOfBinaryType()) {
+            return "convert(nvarchar(max), %s, 2)";
+        }
+        return "cast(%s as nvarchar(max))";
+    }
+
+    protected static String concatValues(List<Column> columns, String quote, String separator, Function<Column, String> valueFormat) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(separator);
+            }
+            sql.append(valueFormat.apply(columns.get(i)).replace("%s", quote + columns.get(i).getName() + quote));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Return whether the database numbers rows with the row_number window function, which MySQL supports from 8.0 and MariaDB from 10.2.
+     */
+    public static boolean isRowNumberSupported(String platformName, int majorVersion, int minorVersion) {
+        if (platformName.equals(DatabaseNamesConstants.MYSQL)) {
+            return majorVersion >= 8;
+        } else if (platformName.equals(DatabaseNamesConstants.MARIADB)) {
+            return majorVersion > 10 || (majorVersion == 10 && minorVersion >= 2);
+        }
+        return platformName.equals(DatabaseNamesConstants.H2) || platformName.startsWith(DatabaseNamesConstants.POSTGRESQL)
+                || platformName.startsWith(DatabaseNamesConstants.ORACLE) || platformName.startsWith(DatabaseNamesConstants.MSSQL);
+    }
+
+    /**
+     * Return the SQL that numbers the rows of a range in order and selects the columns of every step rows before the last row, so the database
+     * only returns the keys that split the range.
+     */
+    public static String getSplitKeysSql(String platformName, String columns, String fromClause, String orderBy, long step, long count) {
+        String rowNumber = "dbcompare_row_number";
+        String modulo = platformName.startsWith(DatabaseNamesConstants.MSSQL) ? rowNumber + " % " + step : "mod(" + rowNumber + ", " + step + ")";
+        return "select " + columns + " from (select " + columns + ", row_number() over (" + orderBy + ") as " + rowNumber + " from "
+                + fromClause + ") r where " + modulo + " = 0 and " + rowNumber + " < " + count + " order by " + rowNumber;
+    }
 }
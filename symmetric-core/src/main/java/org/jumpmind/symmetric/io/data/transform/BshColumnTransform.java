@@ -31,6 +31,7 @@ import static org.jumpmind.symmetric.common.Constants.DATA_CONTEXT_TARGET_NODE_G
 import static org.jumpmind.symmetric.common.Constants.DATA_CONTEXT_TARGET_NODE_ID;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
@@ -43,7 +44,10 @@ import org.jumpmind.symmetric.io.data.DataContext;
 import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.model.Data;
 import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.util.BshScriptCompiler;
+import org.jumpmind.symmetric.util.BshScriptCompiler.CompiledScript;
 import org.jumpmind.util.Context;
+import org.jumpmind.util.SimpleClassCompiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,8 +57,37 @@ import bsh.TargetError;
 public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform, IBuiltInExtensionPoint {
     protected final Logger log = LoggerFactory.getLogger(getClass());
     final String INTERPRETER_KEY = String.format("%d.BshInterpreter", hashCode());
+    final String COMPILED_SCRIPT_KEY = String.format("%d.BshCompiledScript.", hashCode());
     public static final String NAME = "bsh";
+    protected static final Map<String, String> VARIABLE_TYPES = new LinkedHashMap<String, String>();
+    static {
+        VARIABLE_TYPES.put("currentValue", "String");
+        VARIABLE_TYPES.put("oldValue", "String");
+        VARIABLE_TYPES.put("channelId", "String");
+        VARIABLE_TYPES.put("includeOn", "org.jumpmind.symmetric.io.data.transform.TransformColumn.IncludeOnType");
+        VARIABLE_TYPES.put("sourceDmlType", "org.jumpmind.symmetric.io.data.DataEventType");
+        VARIABLE_TYPES.put("sourceDmlTypeString", "String");
+        VARIABLE_TYPES.put("transformedData", "org.jumpmind.symmetric.io.data.transform.TransformedData");
+        VARIABLE_TYPES.put("transformColumn", "org.jumpmind.symmetric.io.data.transform.TransformColumn");
+        VARIABLE_TYPES.put("sourceSchemaName", "String");
+        VARIABLE_TYPES.put("sourceCatalogName", "String");
+        VARIABLE_TYPES.put("sourceTableName", "String");
+        VARIABLE_TYPES.put("log", "org.slf4j.Logger");
+        VARIABLE_TYPES.put("sqlTemplate", "org.jumpmind.db.sql.ISqlTemplate");
+        VARIABLE_TYPES.put("context", "org.jumpmind.symmetric.io.data.DataContext");
+        VARIABLE_TYPES.put("bshContext", "Map<String, Object>");
+        VARIABLE_TYPES.put(DATA_CONTEXT_ENGINE, "org.jumpmind.symmetric.ISymmetricEngine");
+        VARIABLE_TYPES.put(DATA_CONTEXT_TARGET_NODE, "org.jumpmind.symmetric.model.Node");
+        VARIABLE_TYPES.put(DATA_CONTEXT_TARGET_NODE_ID, "String");
+        VARIABLE_TYPES.put(DATA_CONTEXT_TARGET_NODE_GROUP_ID, "String");
+        VARIABLE_TYPES.put(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, "String");
+        VARIABLE_TYPES.put(DATA_CONTEXT_SOURCE_NODE, "org.jumpmind.symmetric.model.Node");
+        VARIABLE_TYPES.put(DATA_CONTEXT_SOURCE_NODE_ID, "String");
+        VARIABLE_TYPES.put(DATA_CONTEXT_SOURCE_NODE_GROUP_ID, "String");
+        VARIABLE_TYPES.put(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, "String");
+    }
     IParameterService parameterService;
+    BshScriptCompiler scriptCompiler = new BshScriptCompiler(new SimpleClassCompiler());
     /*
      * Static context object used to maintain objects in memory for reference between BSH transforms.
      */
@@ -81,6 +114,13 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
             TransformColumn column, TransformedData data, Map<String, String> sourceValues,
             String newValue, String oldValue) throws IgnoreColumnException, IgnoreRowException {
         try {
+            CompiledScript compiledScript = getCompiledScript(context, column, sourceValues);
+            if (compiledScript != null) {
+                Object[] variables = bind(compiledScript, platform, context, column, data, sourceValues, newValue, oldValue);
+                if (variables != null) {
+                    return toNewAndOldValue(compiledScript.eval(variables), data);
+                }
+            }
             Interpreter interpreter = getInterpreter(context);
             interpreter.set("currentValue", newValue);
             interpreter.set("oldValue", oldValue);
@@ -138,19 +178,7 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
                 interpreter.unset(columnName.toUpperCase());
                 interpreter.unset(columnName);
             }
-            if (result instanceof String) {
-                if (data.getTargetDmlType().equals(DataEventType.DELETE) && data.getOldSourceValues() != null) {
-                    return new NewAndOldValue(null, (String) result);
-                } else {
-                    return new NewAndOldValue((String) result, null);
-                }
-            } else if (result instanceof NewAndOldValue) {
-                return (NewAndOldValue) result;
-            } else if (result != null) {
-                return new NewAndOldValue(result.toString(), null);
-            } else {
-                return null;
-            }
+            return toNewAndOldValue(result, data);
         } catch (TargetError evalEx) {
             Throwable ex = evalEx.getTarget();
             if (ex instanceof IgnoreColumnException) {
@@ -175,6 +203,106 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
         }
     }
 
+    protected NewAndOldValue toNewAndOldValue(Object result, TransformedData data) {
+        if (result instanceof String) {
+            if (data.getTargetDmlType().equals(DataEventType.DELETE) && data.getOldSourceValues() != null) {
+                return new NewAndOldValue(null, (String) result);
+            } else {
+                return new NewAndOldValue((String) result, null);
+            }
+        } else if (result instanceof NewAndOldValue) {
+            return (NewAndOldValue) result;
+        } else if (result != null) {
+            return new NewAndOldValue(result.toString(), null);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the transform expression compiled as Java, or null when it has to be interpreted. The variables are declared from the source
+     * columns of the first row, and the result is kept in the context for the rest of the batch.
+     */
+    protected CompiledScript getCompiledScript(DataContext context, TransformColumn column, Map<String, String> sourceValues) {
+        String transformExpression = column.getTransformExpression();
+        if (StringUtils.isEmpty(transformExpression) || !parameterService.is(ParameterConstants.BSH_COMPILE_SCRIPTS, true)
+                || StringUtils.isNotBlank(parameterService.getString(ParameterConstants.BSH_TRANSFORM_GLOBAL_SCRIPT))) {
+            return null;
+        }
+        String key = COMPILED_SCRIPT_KEY + column.getTransformId() + "." + transformExpression.hashCode();
+        Object compiledScript = context.get(key);
+        if (compiledScript == null) {
+            Map<String, String> variableTypes = new LinkedHashMap<String, String>(VARIABLE_TYPES);
+            for (String columnName : sourceValues.keySet()) {
+                if (VARIABLE_TYPES.containsKey(columnName) || VARIABLE_TYPES.containsKey(columnName.toUpperCase())) {
+                    variableTypes = null;
+                    break;
+                }
+                variableTypes.put(columnName, "String");
+                variableTypes.put(columnName.toUpperCase(), "String");
+            }
+            compiledScript = variableTypes != null ? scriptCompiler.compile(transformExpression, variableTypes, false) : null;
+            context.put(key, compiledScript != null ? compiledScript : Boolean.FALSE);
+        }
+        return compiledScript instanceof CompiledScript ? (CompiledScript) compiledScript : null;
+    }
+
+    /**
+     * Returns the values for the variables of the compiled script, or null if one of them would not have been bound for the interpreter on this
+     * row, so the row is interpreted instead.
+     */
+    protected Object[] bind(CompiledScript compiledScript, IDatabasePlatform platform, DataContext context, TransformColumn column,
+            TransformedData data, Map<String, String> sourceValues, String newValue, String oldValue) {
+        String[] names = compiledScript.getVariableNames();
+        Object[] variables = new Object[names.length];
+        Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.equals("currentValue")) {
+                variables[i] = newValue;
+            } else if (name.equals("oldValue")) {
+                variables[i] = oldValue;
+            } else if (name.equals("channelId")) {
+                variables[i] = context.getBatch().getChannelId();
+            } else if (name.equals("includeOn")) {
+                variables[i] = column.getIncludeOn();
+            } else if (name.equals("sourceDmlType")) {
+                variables[i] = data.getSourceDmlType();
+            } else if (name.equals("sourceDmlTypeString")) {
+                variables[i] = data.getSourceDmlType().toString();
+            } else if (name.equals("transformedData")) {
+                variables[i] = data;
+            } else if (name.equals("transformColumn")) {
+                variables[i] = column;
+            } else if (name.equals("sourceSchemaName") || name.equals("sourceCatalogName") || name.equals("sourceTableName")) {
+                if (csvData == null || csvData.getTriggerHistory() == null) {
+                    return null;
+                } else if (name.equals("sourceSchemaName")) {
+                    variables[i] = csvData.getTriggerHistory().getSourceSchemaName();
+                } else if (name.equals("sourceCatalogName")) {
+                    variables[i] = csvData.getTriggerHistory().getSourceCatalogName();
+                } else {
+                    variables[i] = csvData.getTriggerHistory().getSourceTableName();
+                }
+            } else if (name.equals("log")) {
+                variables[i] = log;
+            } else if (name.equals("sqlTemplate")) {
+                variables[i] = platform.getSqlTemplate();
+            } else if (name.equals("context")) {
+                variables[i] = context;
+            } else if (name.equals("bshContext")) {
+                variables[i] = bshContext;
+            } else if (VARIABLE_TYPES.containsKey(name)) {
+                variables[i] = context.get(name);
+            } else if (sourceValues.containsKey(name)) {
+                variables[i] = sourceValues.get(name);
+            } else {
+                return null;
+            }
+        }
+        return variables;
+    }
+
     protected Interpreter getInterpreter(Context context) {
         Interpreter interpreter = (Interpreter) context.get(INTERPRETER_KEY);
         if (interpreter == null) {
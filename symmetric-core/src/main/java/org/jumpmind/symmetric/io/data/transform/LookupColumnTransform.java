@@ -22,26 +22,62 @@ package org.jumpmind.symmetric.io.data.transform;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.NamedParameterUtils;
+import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.mapper.StringMapper;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
 import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.FormatUtils;
 import org.jumpmind.util.LinkedCaseInsensitiveMap;
+import org.jumpmind.util.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransform, IBuiltInExtensionPoint {
+/**
+ * Runs the SQL in the transform expression to look up the target value. When transform.lookup.cache.size is set, results are kept in the data
+ * context for each transform column, keyed on the values bound to the SQL, so rows with the same values do not run the query again. When
+ * transform.lookup.prefetch.size is also set and the SQL is a single key equality, the results for a block of rows are fetched with one IN query.
+ */
+public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransform, IPrefetchColumnTransform<NewAndOldValue>,
+        IBuiltInExtensionPoint {
     protected final Logger log = LoggerFactory.getLogger(getClass());
     public static final String NAME = "lookup";
     protected static final StringMapper lookupColumnRowMapper = new StringMapper();
+    protected static final String CACHE_CONTEXT_KEY = "LookupColumnTransform.cache.";
+    protected static final String PREFETCH_KEY_COLUMN = "lookup_prefetch_key";
+    protected static final String PREFETCH_KEYS_PARAM = "LOOKUP_PREFETCH_KEYS";
+    protected static final int MAX_PREFETCH_KEYS_PER_QUERY = 1000;
+    protected static final Pattern PREFETCH_SQL_PATTERN = Pattern.compile(
+            "^\\s*select\\s+(.+?)\\s+from\\s+(.+?)\\s+where\\s+([\\w.\"]+)\\s*=\\s*:(\\w+)\\s*;?\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    protected IParameterService parameterService;
+
+    public LookupColumnTransform() {
+    }
+
+    public LookupColumnTransform(IParameterService parameterService) {
+        this.parameterService = parameterService;
+    }
 
     public String getName() {
         return NAME;
@@ -75,11 +111,22 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
                     namedParams.put("TRM_" + transformedCol.getKey().toUpperCase(), transformedCol.getValue());
                 }
             }
+            Map<List<Object>, String> cache = getCache(context, column);
+            List<Object> cacheKey = null;
+            if (cache != null) {
+                cacheKey = getCacheKey(sql, NamedParameterUtils.buildValueArray(NamedParameterUtils.parseSqlStatement(sql), namedParams));
+                if (cache.containsKey(cacheKey)) {
+                    incrementStatistic(context, DataWriterStatisticConstants.LOOKUPCACHEHITS);
+                    return new NewAndOldValue(column, data, cache.get(cacheKey));
+                }
+                incrementStatistic(context, DataWriterStatisticConstants.LOOKUPCACHEMISSES);
+            }
             if (transaction != null) {
                 values = transaction.query(sql, lookupColumnRowMapper, namedParams);
             } else {
                 values = platform.getSqlTemplate().query(sql, lookupColumnRowMapper, namedParams);
             }
+            incrementStatistic(context, DataWriterStatisticConstants.LOOKUPQUERYCOUNT);
             int rowCount = values.size();
             if (rowCount == 1) {
                 lookupValue = values.get(0);
@@ -93,6 +140,9 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
                         "Expected a single row, but returned no rows from lookup for target column {} on transform {}",
                         column.getTargetColumnName(), column.getTransformId());
             }
+            if (cache != null) {
+                cache.put(cacheKey, lookupValue);
+            }
         } else {
             log.warn(
                     "Expected SQL expression for lookup transform, but no expression was found for target column {} on transform {}",
@@ -101,6 +151,134 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
         return new NewAndOldValue(column, data, lookupValue);
     }
 
+    public int getPrefetchSize(TransformColumn column) {
+        int cacheSize = getCacheSize();
+        if (cacheSize > 0 && parameterService != null && getPrefetchMatcher(column.getTransformExpression()) != null) {
+            return Math.min(cacheSize, parameterService.getInt(ParameterConstants.TRANSFORM_LOOKUP_PREFETCH_SIZE, 0));
+        }
+        return 0;
+    }
+
+    public void prefetch(IDatabasePlatform platform, DataContext context, TransformColumn column,
+            List<Map<String, String>> sourceValuesList) {
+        String sql = doTokenReplacementOnSql(context, column.getTransformExpression());
+        Matcher matcher = getPrefetchMatcher(sql);
+        Map<List<Object>, String> cache = getCache(context, column);
+        if (matcher == null || cache == null) {
+            return;
+        }
+        String keyColumn = matcher.group(3);
+        String paramName = matcher.group(4);
+        Set<String> keys = new LinkedHashSet<String>();
+        for (Map<String, String> sourceValues : sourceValuesList) {
+            String key = getSourceValue(sourceValues, paramName);
+            if (key != null && !cache.containsKey(getCacheKey(sql, key))) {
+                keys.add(key);
+            }
+        }
+        if (keys.size() == 0) {
+            return;
+        }
+        String prefetchSql = "select " + matcher.group(1) + ", " + keyColumn + " as " + PREFETCH_KEY_COLUMN + " from " + matcher.group(2)
+                + " where " + keyColumn + " in (:" + PREFETCH_KEYS_PARAM + ")";
+        ISqlRowMapper<String[]> mapper = new ISqlRowMapper<String[]>() {
+            public String[] mapRow(Row row) {
+                return new String[] { row.getString(PREFETCH_KEY_COLUMN), row.stringValue() };
+            }
+        };
+        ISqlTransaction transaction = context.findTransaction();
+        List<String> keyList = new ArrayList<String>(keys);
+        for (int i = 0; i < keyList.size(); i += MAX_PREFETCH_KEYS_PER_QUERY) {
+            Map<String, Object> namedParams = new LinkedCaseInsensitiveMap<Object>();
+            namedParams.put(PREFETCH_KEYS_PARAM, keyList.subList(i, Math.min(i + MAX_PREFETCH_KEYS_PER_QUERY, keyList.size())));
+            List<String[]> rows = null;
+            if (transaction != null) {
+                rows = transaction.query(prefetchSql, mapper, namedParams);
+            } else {
+                rows = platform.getSqlTemplate().query(prefetchSql, mapper, namedParams);
+            }
+            incrementStatistic(context, DataWriterStatisticConstants.LOOKUPQUERYCOUNT);
+            /*
+             * Keys that were not returned are left out of the cache, so those rows still run the lookup SQL on their own and get the same result
+             * and logging as before, even when the database formats the key differently than the source value.
+             */
+            for (String[] row : rows) {
+                if (row[0] != null) {
+                    List<Object> cacheKey = getCacheKey(sql, row[0]);
+                    if (!cache.containsKey(cacheKey)) {
+                        cache.put(cacheKey, row[1]);
+                    }
+                }
+            }
+        }
+    }
+
+    protected Matcher getPrefetchMatcher(String sql) {
+        if (isNotBlank(sql) && !sql.contains(":OLD_") && !sql.contains(":TRM_")
+                && StringUtils.countMatches(sql.toLowerCase(), "select") == 1) {
+            Matcher matcher = PREFETCH_SQL_PATTERN.matcher(sql);
+            if (matcher.matches() && !matcher.group(1).matches("(?is)(distinct|all|top)\\b.*")) {
+                return matcher;
+            }
+        }
+        return null;
+    }
+
+    protected String getSourceValue(Map<String, String> sourceValues, String name) {
+        String value = sourceValues.get(name);
+        if (value == null) {
+            for (Map.Entry<String, String> entry : sourceValues.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(name)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return value;
+    }
+
+    protected int getCacheSize() {
+        return parameterService != null ? parameterService.getInt(ParameterConstants.TRANSFORM_LOOKUP_CACHE_SIZE, 0) : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Map<List<Object>, String> getCache(DataContext context, TransformColumn column) {
+        final int cacheSize = getCacheSize();
+        if (cacheSize <= 0) {
+            return null;
+        }
+        String contextKey = CACHE_CONTEXT_KEY + column.getTransformId() + "." + column.getTargetColumnName() + "." + column.getIncludeOn();
+        Map<List<Object>, String> cache = (Map<List<Object>, String>) context.get(contextKey);
+        if (cache == null) {
+            cache = new LinkedHashMap<List<Object>, String>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, String> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+            context.put(contextKey, cache);
+        }
+        return cache;
+    }
+
+    protected List<Object> getCacheKey(String sql, Object... values) {
+        List<Object> key = new ArrayList<Object>(values.length + 1);
+        key.add(sql);
+        key.addAll(Arrays.asList(values));
+        return key;
+    }
+
+    protected void incrementStatistic(DataContext context, String category) {
+        IDataWriter writer = context.getWriter();
+        if (writer != null && writer.getStatistics() != null) {
+            Statistics stats = writer.getStatistics().get(context.getBatch());
+            if (stats != null) {
+                stats.increment(category);
+            }
+        }
+    }
+
     protected String doTokenReplacementOnSql(DataContext context, String sql) {
         if (isNotBlank(sql)) {
             Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
@@ -64,5 +64,11 @@ public interface IJob extends IExtensionPoint {
 
     public boolean invoke(boolean force);
 
+    /**
+     * Run the job soon because new work is ready for it. Jobs that are only run on their schedule can ignore it.
+     */
+    public default void wakeUp() {
+    }
+
     public String getDeprecatedStartParameter();
 }
\ No newline at end of file
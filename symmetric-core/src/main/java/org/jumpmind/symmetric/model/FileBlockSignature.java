@@ -0,0 +1,182 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * The block checksums of the version of a file that was last sent to a node. The next change to the file can be sent as a delta against these
+ * blocks instead of the whole file. Each block is described by a 4 byte rolling checksum followed by a 16 byte MD5 digest.
+ */
+public class FileBlockSignature implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final int WEAK_CHECKSUM_LENGTH = 4;
+    public static final int STRONG_CHECKSUM_LENGTH = 16;
+    public static final int BLOCK_CHECKSUM_LENGTH = WEAK_CHECKSUM_LENGTH + STRONG_CHECKSUM_LENGTH;
+    private String nodeId;
+    private String triggerId;
+    private String routerId;
+    private String relativeDir;
+    private String fileName;
+    private long batchId;
+    private int blockSize;
+    private long fileSize;
+    private long crc32Checksum;
+    private byte[] blockChecksums;
+    private Date createTime = new Date();
+    private Date lastUpdateTime;
+
+    public FileBlockSignature() {
+    }
+
+    public FileBlockSignature(int blockSize, long fileSize, long crc32Checksum, byte[] blockChecksums) {
+        this.blockSize = blockSize;
+        this.fileSize = fileSize;
+        this.crc32Checksum = crc32Checksum;
+        this.blockChecksums = blockChecksums;
+    }
+
+    public int getBlockCount() {
+        return blockChecksums == null ? 0 : blockChecksums.length / BLOCK_CHECKSUM_LENGTH;
+    }
+
+    public int getBlockLength(int index) {
+        return (int) Math.min(blockSize, fileSize - (long) index * blockSize);
+    }
+
+    public int getWeakChecksum(int index) {
+        int offset = index * BLOCK_CHECKSUM_LENGTH;
+        return ((blockChecksums[offset] & 0xff) << 24) | ((blockChecksums[offset + 1] & 0xff) << 16)
+                | ((blockChecksums[offset + 2] & 0xff) << 8) | (blockChecksums[offset + 3] & 0xff);
+    }
+
+    public boolean isStrongChecksumEqual(int index, byte[] digest) {
+        int offset = index * BLOCK_CHECKSUM_LENGTH + WEAK_CHECKSUM_LENGTH;
+        return Arrays.equals(blockChecksums, offset, offset + STRONG_CHECKSUM_LENGTH, digest, 0, STRONG_CHECKSUM_LENGTH);
+    }
+
+    public void setSnapshot(String nodeId, FileSnapshot snapshot, long batchId) {
+        this.nodeId = nodeId;
+        this.triggerId = snapshot.getTriggerId();
+        this.routerId = snapshot.getRouterId();
+        this.relativeDir = snapshot.getRelativeDir();
+        this.fileName = snapshot.getFileName();
+        this.batchId = batchId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getTriggerId() {
+        return triggerId;
+    }
+
+    public void setTriggerId(String triggerId) {
+        this.triggerId = triggerId;
+    }
+
+    public String getRouterId() {
+        return routerId;
+    }
+
+    public void setRouterId(String routerId) {
+        this.routerId = routerId;
+    }
+
+    public String getRelativeDir() {
+        return relativeDir;
+    }
+
+    public void setRelativeDir(String relativeDir) {
+        this.relativeDir = relativeDir;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(long batchId) {
+        this.batchId = batchId;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public long getCrc32Checksum() {
+        return crc32Checksum;
+    }
+
+    public void setCrc32Checksum(long crc32Checksum) {
+        this.crc32Checksum = crc32Checksum;
+    }
+
+    public byte[] getBlockChecksums() {
+        return blockChecksums;
+    }
+
+    public void setBlockChecksums(byte[] blockChecksums) {
+        this.blockChecksums = blockChecksums;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+
+    public Date getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public void setLastUpdateTime(Date lastUpdateTime) {
+        this.lastUpdateTime = lastUpdateTime;
+    }
+}
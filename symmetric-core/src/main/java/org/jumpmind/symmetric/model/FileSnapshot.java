@@ -125,18 +125,24 @@ public class FileSnapshot implements Serializable {
         }
         this.fileSize = isDelete ? 0 : file.length();
         this.fileModifiedTime = isDelete ? 0 : file.lastModified();
+        this.crc32Checksum = -1;
         if (useCrc && file.isFile() && !isDelete) {
-            try {
-                this.crc32Checksum = FileUtils.checksumCRC32(file);
-            } catch (FileNotFoundException ex) {
-                this.lastEventType = LastEventType.DELETE;
-                this.fileSize = 0;
-                this.fileModifiedTime = 0;
-            } catch (IOException ex) {
-                throw new IoException(ex);
-            }
-        } else {
-            this.crc32Checksum = -1;
+            calculateCrc32Checksum(file);
+        }
+    }
+
+    /**
+     * Calculates the checksum of the file this snapshot was taken of, or changes the snapshot to a delete if the file no longer exists.
+     */
+    public void calculateCrc32Checksum(File file) {
+        try {
+            this.crc32Checksum = FileUtils.checksumCRC32(file);
+        } catch (FileNotFoundException ex) {
+            this.lastEventType = LastEventType.DELETE;
+            this.fileSize = 0;
+            this.fileModifiedTime = 0;
+        } catch (IOException ex) {
+            throw new IoException(ex);
         }
     }
 
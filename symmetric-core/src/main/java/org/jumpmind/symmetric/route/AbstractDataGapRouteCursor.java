@@ -99,14 +99,17 @@ public abstract class AbstractDataGapRouteCursor implements IDataGapRouteCursor
     protected String getSql(String sqlName) {
         String select = engine.getRouterService().getSql(sqlName);
         Channel channel = context.getChannel().getChannel();
-        if (!channel.isUseOldDataToRoute() || context.isOnlyDefaultRoutersAssigned()) {
-            select = select.replace("d.old_data", "''");
-        }
-        if (!channel.isUseRowDataToRoute() || (context.isOnlyDefaultRoutersAssigned() && !channel.isFileSyncFlag())) {
-            select = select.replace("d.row_data", "''");
-        }
-        if (!channel.isUsePkDataToRoute() || context.isOnlyDefaultRoutersAssigned()) {
-            select = select.replace("d.pk_data", "''");
+        // Routed data that is kept for staging the batches needs every column
+        if (!context.isKeepRoutedData()) {
+            if (!channel.isUseOldDataToRoute() || context.isOnlyDefaultRoutersAssigned()) {
+                select = select.replace("d.old_data", "''");
+            }
+            if (!channel.isUseRowDataToRoute() || (context.isOnlyDefaultRoutersAssigned() && !channel.isFileSyncFlag())) {
+                select = select.replace("d.row_data", "''");
+            }
+            if (!channel.isUsePkDataToRoute() || context.isOnlyDefaultRoutersAssigned()) {
+                select = select.replace("d.pk_data", "''");
+            }
         }
         return engine.getSymmetricDialect().massageDataExtractionSql(select, context.isOverrideContainsBigLob() || channel.isContainsBigLob());
     }
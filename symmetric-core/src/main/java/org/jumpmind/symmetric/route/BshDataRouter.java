@@ -23,15 +23,21 @@ package org.jumpmind.symmetric.route;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.Router;
 import org.jumpmind.symmetric.model.TriggerRouter;
+import org.jumpmind.symmetric.util.BshScriptCompiler;
+import org.jumpmind.symmetric.util.BshScriptCompiler.CompiledScript;
+import org.jumpmind.util.SimpleClassCompiler;
 
 import bsh.EvalError;
 import bsh.Interpreter;
@@ -44,10 +50,26 @@ import bsh.TargetError;
  * Bound to the interpreter are the names of both the current and old column values. They can be used in the expression. They should always be referenced using
  * upper case. Also bound to the interpreter is a {@link Collection} of targetNodes. The script is expected to add the the list of target nodes a list of the
  * node_ids that should be routed to.
+ * <P/>
+ * When bsh.compile.scripts is enabled, an expression that is also valid Java is compiled once by {@link BshScriptCompiler} and the interpreter is
+ * only used for expressions that do not compile.
  */
 public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensionPoint {
     protected ISymmetricEngine engine;
     final String INTERPRETER_KEY = String.format("%d.BshInterpreter", hashCode());
+    final String COMPILED_SCRIPT_KEY = String.format("%d.BshCompiledScript.", hashCode());
+    protected static final Map<String, String> VARIABLE_TYPES = new LinkedHashMap<String, String>();
+    static {
+        VARIABLE_TYPES.put("log", "org.slf4j.Logger");
+        VARIABLE_TYPES.put("initialLoad", "Boolean");
+        VARIABLE_TYPES.put("dataMetaData", "org.jumpmind.symmetric.model.DataMetaData");
+        VARIABLE_TYPES.put("nodes", "Set<org.jumpmind.symmetric.model.Node>");
+        VARIABLE_TYPES.put("nodeIds", "Set<String>");
+        VARIABLE_TYPES.put("identityNodeId", "String");
+        VARIABLE_TYPES.put("targetNodes", "Set<String>");
+        VARIABLE_TYPES.put("engine", "org.jumpmind.symmetric.ISymmetricEngine");
+    }
+    protected BshScriptCompiler scriptCompiler = new BshScriptCompiler(new SimpleClassCompiler());
 
     public BshDataRouter(ISymmetricEngine engine) {
         this.engine = engine;
@@ -59,6 +81,19 @@ public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensi
         Set<String> boundVariableNames = new LinkedHashSet<String>();
         try {
             long ts = System.currentTimeMillis();
+            CompiledScript compiledScript = getCompiledScript(context, dataMetaData);
+            if (compiledScript != null) {
+                HashSet<String> targetNodes = new HashSet<String>();
+                Object[] variables = bind(compiledScript, dataMetaData, nodes, targetNodes, initialLoad);
+                context.incrementStat(System.currentTimeMillis() - ts, "bsh.bind.ms");
+                if (variables != null) {
+                    ts = System.currentTimeMillis();
+                    Object returnValue = compiledScript.eval(variables);
+                    context.incrementStat(System.currentTimeMillis() - ts, "bsh.eval.ms");
+                    return eval(returnValue, nodes, targetNodes);
+                }
+                ts = System.currentTimeMillis();
+            }
             Interpreter interpreter = getInterpreter(context);
             context.incrementStat(System.currentTimeMillis() - ts, "bsh.init.ms");
             HashSet<String> targetNodes = new HashSet<String>();
@@ -80,7 +115,82 @@ public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensi
             } else {
                 throw new RuntimeException("Failed to evaluate bsh router script.  Bound variables were: " + boundVariableNames, e);
             }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Routing script failed", e);
+        }
+    }
+
+    /**
+     * Returns the router expression compiled as Java, or null when it has to be interpreted. The variables are declared from the first row that is
+     * routed, and the result is kept in the context cache.
+     */
+    protected CompiledScript getCompiledScript(SimpleRouterContext context, DataMetaData dataMetaData) {
+        Router router = dataMetaData.getRouter();
+        if (!engine.getParameterService().is(ParameterConstants.BSH_COMPILE_SCRIPTS, true) || router.getRouterExpression() == null) {
+            return null;
+        }
+        String key = COMPILED_SCRIPT_KEY + router.getRouterId() + "." + router.getRouterExpression().hashCode();
+        Object compiledScript = context.getContextCache().get(key);
+        if (compiledScript == null) {
+            long ts = System.currentTimeMillis();
+            Map<String, String> variableTypes = new LinkedHashMap<String, String>(VARIABLE_TYPES);
+            Map<String, Object> params = getDataObjectMap(dataMetaData, engine.getSymmetricDialect(), true);
+            if (params != null) {
+                for (String param : params.keySet()) {
+                    if (VARIABLE_TYPES.containsKey(param)) {
+                        variableTypes = null;
+                        break;
+                    }
+                    variableTypes.put(param, "Object");
+                }
+            }
+            compiledScript = variableTypes != null ? scriptCompiler.compile(router.getRouterExpression(), variableTypes, true) : null;
+            context.getContextCache().put(key, compiledScript != null ? compiledScript : Boolean.FALSE);
+            context.incrementStat(System.currentTimeMillis() - ts, "bsh.compile.ms");
+        }
+        return compiledScript instanceof CompiledScript ? (CompiledScript) compiledScript : null;
+    }
+
+    /**
+     * Returns the values for the variables of the compiled script, or null if one of the columns it uses is not in this row, so the row is
+     * interpreted instead.
+     */
+    protected Object[] bind(CompiledScript compiledScript, DataMetaData dataMetaData, Set<Node> nodes, Set<String> targetNodes,
+            boolean initialLoad) {
+        String[] names = compiledScript.getVariableNames();
+        Object[] variables = new Object[names.length];
+        Map<String, Object> params = null;
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.equals("log")) {
+                variables[i] = log;
+            } else if (name.equals("initialLoad")) {
+                variables[i] = initialLoad;
+            } else if (name.equals("dataMetaData")) {
+                variables[i] = dataMetaData;
+            } else if (name.equals("nodes")) {
+                variables[i] = nodes;
+            } else if (name.equals("nodeIds")) {
+                variables[i] = toNodeIds(nodes, null);
+            } else if (name.equals("identityNodeId")) {
+                variables[i] = engine.getNodeService().findIdentityNodeId();
+            } else if (name.equals("targetNodes")) {
+                variables[i] = targetNodes;
+            } else if (name.equals("engine")) {
+                variables[i] = engine;
+            } else {
+                if (params == null) {
+                    params = getDataObjectMap(dataMetaData, engine.getSymmetricDialect(), true);
+                }
+                if (params == null || !params.containsKey(name)) {
+                    return null;
+                }
+                variables[i] = params.get(name);
+            }
         }
+        return variables;
     }
 
     protected Interpreter getInterpreter(SimpleRouterContext context) {
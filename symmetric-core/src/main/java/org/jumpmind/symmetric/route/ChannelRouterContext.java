@@ -92,6 +92,8 @@ public class ChannelRouterContext extends SimpleRouterContext {
     private long committedDataIdCount = 0;
     private IBatchAlgorithm batchAlgorithm;
     private Map<Long, DataMetaData> configDataIdsProcessed = new HashMap<Long, DataMetaData>();
+    private int maxRoutedDataToKeep = 0;
+    private Map<Long, List<Data>> routedDataByBatchId = new HashMap<Long, List<Data>>();
 
     public ChannelRouterContext(String nodeId, NodeChannel channel, ISqlTransaction transaction, IBatchAlgorithm batchAlgorithm) {
         super(nodeId, channel);
@@ -117,6 +119,44 @@ public class ChannelRouterContext extends SimpleRouterContext {
         uncommittedDataEventCount++;
     }
 
+    /**
+     * Keeps the data routed to a batch so the batch can be staged without reading the data back. A batch that grows past the
+     * maximum or contains anything other than DML is marked with no data, so it is extracted from the database as usual.
+     */
+    public void addRoutedData(Data data, long batchId) {
+        if (maxRoutedDataToKeep > 0) {
+            List<Data> datas = routedDataByBatchId.get(batchId);
+            if (datas == null) {
+                if (routedDataByBatchId.containsKey(batchId)) {
+                    return;
+                }
+                datas = new ArrayList<Data>();
+                routedDataByBatchId.put(batchId, datas);
+            }
+            if (data.getDataEventType().isDml() && datas.size() < maxRoutedDataToKeep) {
+                datas.add(data);
+            } else {
+                routedDataByBatchId.put(batchId, null);
+            }
+        }
+    }
+
+    public List<Data> getRoutedData(long batchId) {
+        return routedDataByBatchId.get(batchId);
+    }
+
+    public Map<Long, List<Data>> getRoutedDataByBatchId() {
+        return routedDataByBatchId;
+    }
+
+    public boolean isKeepRoutedData() {
+        return maxRoutedDataToKeep > 0;
+    }
+
+    public void setMaxRoutedDataToKeep(int maxRoutedDataToKeep) {
+        this.maxRoutedDataToKeep = maxRoutedDataToKeep;
+    }
+
     public void addData(long dataId) {
         if (dataId != lastDataId) {
             uncommittedDataIds.add(dataId);
@@ -175,6 +215,7 @@ public class ChannelRouterContext extends SimpleRouterContext {
         this.dataEventsToSend.clear();
         this.uncommittedDataIds.clear();
         this.uncommittedDataEventCount = 0;
+        this.routedDataByBatchId.clear();
     }
 
     public void rollback() {
@@ -25,6 +25,7 @@ import static org.jumpmind.symmetric.common.Constants.LOG_PROCESS_SUMMARY_THRESH
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 
 import org.jumpmind.db.sql.ISqlReadCursor;
 import org.jumpmind.symmetric.model.Data;
@@ -63,6 +64,10 @@ public class DataMemoryCursor implements ISqlReadCursor<Data> {
         this.iter = datas.iterator();
     }
 
+    public DataMemoryCursor(List<Data> datas) {
+        this.iter = datas.iterator();
+    }
+
     @Override
     public Data next() {
         if (this.iter.hasNext()) {
@@ -27,6 +27,7 @@ import java.util.List;
 import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.symmetric.io.data.writer.StructureDataWriter.PayloadType;
 import org.jumpmind.symmetric.io.stage.StagingFileLock;
+import org.jumpmind.symmetric.model.Data;
 import org.jumpmind.symmetric.model.ExtractRequest;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.OutgoingBatch;
@@ -52,6 +53,12 @@ public interface IDataExtractorService {
 
     public List<OutgoingBatch> extract(ProcessInfo processInfo, Node node, String channelId, IOutgoingTransport transport);
 
+    /**
+     * @param binaryProtocol
+     *            send the batches in the binary protocol instead of CSV, when the node pulling them asked for it
+     */
+    public List<OutgoingBatch> extract(ProcessInfo processInfo, Node node, String channelId, IOutgoingTransport transport, boolean binaryProtocol);
+
     public boolean extractBatchRange(Writer writer, String nodeId, long startBatchId, long endBatchId);
 
     public boolean extractBatchRange(Writer writer, String nodeId, Date startBatchTime,
@@ -59,6 +66,11 @@ public interface IDataExtractorService {
 
     public boolean extractOnlyOutgoingBatch(String nodeId, long batchId, Writer writer);
 
+    /**
+     * Stage a newly routed batch from the data rows that routing still has in memory, so it is not read back from the database to send it.
+     */
+    public boolean preExtract(OutgoingBatch batch, List<Data> routedData);
+
     public RemoteNodeStatuses queueWork(boolean force);
 
     public ExtractRequest requestExtractRequest(ISqlTransaction transaction, String nodeId, String channelId, TriggerRouter triggerRouter, long startBatchId,
@@ -50,6 +50,12 @@ public interface IDataLoaderService {
 
     public void loadDataFromPush(Node sourceNode, String channelId, InputStream in, OutputStream out) throws IOException;
 
+    /**
+     * Load a push, optionally writing an acknowledgement for each batch to the output stream as soon as it is loaded, ahead of the final
+     * acknowledgement for all batches.
+     */
+    public void loadDataFromPush(Node sourceNode, String channelId, InputStream in, OutputStream out, boolean streamAcks) throws IOException;
+
     public List<IncomingBatch> loadDataFromTransport(ProcessInfo processInfo, Node sourceNode, IIncomingTransport transport) throws IOException;
 
     public List<IncomingBatch> loadDataFromOfflineTransport(Node remote, RemoteNodeStatus status, IIncomingTransport transport) throws IOException;
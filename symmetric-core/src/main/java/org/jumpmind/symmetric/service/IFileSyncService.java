@@ -26,6 +26,7 @@ import java.io.OutputStream;
 import java.util.List;
 
 import org.jumpmind.symmetric.file.DirectorySnapshot;
+import org.jumpmind.symmetric.model.FileBlockSignature;
 import org.jumpmind.symmetric.model.FileSnapshot;
 import org.jumpmind.symmetric.model.FileTrigger;
 import org.jumpmind.symmetric.model.FileTriggerRouter;
@@ -86,9 +87,23 @@ public interface IFileSyncService {
 
     public void acknowledgeFiles(OutgoingBatch outgoingBatch);
 
+    /**
+     * Forget the block signatures of the files sent in a batch that failed to load, and when the target did not have the version a delta
+     * was built from, remove the staged batch so it is extracted again with full files.
+     */
+    public void acknowledgeFilesError(OutgoingBatch outgoingBatch);
+
     public boolean refreshFromDatabase();
 
     public File getControleFile(File file);
 
     public Object[] getStagingPathComponents(OutgoingBatch fileSyncBatch);
+
+    public FileBlockSignature getFileBlockSignature(String nodeId, FileSnapshot snapshot);
+
+    public void saveFileBlockSignature(FileBlockSignature signature);
+
+    public void deleteFileBlockSignature(String nodeId, FileSnapshot snapshot);
+
+    public void stop();
 }
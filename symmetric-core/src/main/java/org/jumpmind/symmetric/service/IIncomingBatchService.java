@@ -44,12 +44,20 @@ public interface IIncomingBatchService {
 
     public IncomingBatch findIncomingBatch(long batchId, String nodeId);
 
+    public Map<Long, IncomingBatch> findIncomingBatches(String nodeId, long fromBatchId, long toBatchId);
+
     public void refreshIncomingBatch(IncomingBatch batch);
 
     public List<IncomingBatch> findIncomingBatchErrors(int maxRows);
 
     public boolean acquireIncomingBatch(IncomingBatch batch);
 
+    /**
+     * Acquire a batch using statuses that were already read with {@link #findIncomingBatches(String, long, long)}. A batch that is not in the
+     * map is new, and it is not inserted until it is done loading.
+     */
+    public boolean acquireIncomingBatch(IncomingBatch batch, Map<Long, IncomingBatch> prefetchedBatches);
+
     public void insertIncomingBatch(ISqlTransaction transaction, IncomingBatch batch);
 
     public void insertIncomingBatch(IncomingBatch batch);
@@ -80,6 +88,8 @@ public interface IIncomingBatchService {
 
     public boolean isRecordOkBatchesEnabled();
 
+    public boolean isBulkBookkeepingEnabled();
+
     public Map<String, BatchId> findMaxBatchIdsByChannel();
 
     public List<IncomingBatchSummary> findIncomingBatchSummaryByChannel(Status... statuses);
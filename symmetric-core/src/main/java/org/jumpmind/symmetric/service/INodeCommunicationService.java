@@ -22,6 +22,7 @@ package org.jumpmind.symmetric.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.jumpmind.symmetric.model.NodeCommunication;
 import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
@@ -47,6 +48,12 @@ public interface INodeCommunicationService {
 
     public void persistToTableForSnapshot();
 
+    /**
+     * Wrap database work of a node communication task running on a virtual thread, so the work holds a database permit for the task's
+     * communication type on whichever thread it runs. Work outside such a task is returned unchanged.
+     */
+    public <T> Callable<T> withDatabasePermit(Callable<T> callable);
+
     public interface INodeCommunicationExecutor {
         public void execute(NodeCommunication nodeCommunication, RemoteNodeStatus status);
     }
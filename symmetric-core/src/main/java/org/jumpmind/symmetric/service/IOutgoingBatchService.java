@@ -47,6 +47,11 @@ public interface IOutgoingBatchService {
 
     public OutgoingBatch findOutgoingBatch(long batchId, String nodeId);
 
+    /**
+     * Find the batches for a node in one query. Batches that do not exist are left out of the list.
+     */
+    public List<OutgoingBatch> findOutgoingBatches(String nodeId, List<Long> batchIds);
+
     public OutgoingBatches getOutgoingBatches(String nodeId, boolean includeDisabledChannels);
 
     public OutgoingBatches getOutgoingBatches(String nodeId, String channelId, boolean includeDisabledChannels);
@@ -88,6 +93,11 @@ public interface IOutgoingBatchService {
 
     public void updateCommonBatchExtractStatistics(OutgoingBatch batch);
 
+    /**
+     * Save the extract statistics of a batch without changing its status.
+     */
+    public void updateOutgoingBatchExtractStatistics(OutgoingBatch batch);
+
     public void updateOutgoingBatch(ISqlTransaction transaction, OutgoingBatch outgoingBatch);
 
     public void updateOutgoingBatches(List<OutgoingBatch> batches);
@@ -24,8 +24,13 @@ import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.jumpmind.properties.TypedProperties;
+import org.jumpmind.symmetric.config.ParameterSnapshot;
 import org.jumpmind.symmetric.model.DatabaseParameter;
 import org.jumpmind.symmetric.model.Node;
 
@@ -53,6 +58,22 @@ public interface IParameterService {
 
     public String getString(String key, String defaultVal);
 
+    /**
+     * Returns a handle that reads the current value of a parameter without locking or parsing, for use in loops that check a parameter often.
+     */
+    public LongSupplier getLongParameter(String key, long defaultVal);
+
+    public IntSupplier getIntParameter(String key, int defaultVal);
+
+    public BooleanSupplier getBooleanParameter(String key, boolean defaultVal);
+
+    public Supplier<String> getStringParameter(String key, String defaultVal);
+
+    /**
+     * Get the current parameters, parsed and immutable. A new snapshot replaces it whenever parameters are reread.
+     */
+    public ParameterSnapshot getParameterSnapshot();
+
     public void saveParameter(String key, Object paramValue, String lastUpdateBy);
 
     public void saveParameter(String externalId, String nodeGroupId, String key, Object paramValue, String lastUpdateBy);
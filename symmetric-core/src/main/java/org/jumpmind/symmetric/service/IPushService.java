@@ -42,4 +42,6 @@ public interface IPushService extends IOfflineDetectorService {
     public RemoteNodeStatuses pushData(boolean force);
 
     public Map<String, Date> getStartTimesOfNodesBeingPushedTo();
+
+    public void stop();
 }
\ No newline at end of file
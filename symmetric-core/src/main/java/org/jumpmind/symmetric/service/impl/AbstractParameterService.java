@@ -26,11 +26,18 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.sql.SqlException;
 import org.jumpmind.properties.TypedProperties;
 import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.config.IParameterChangeListener;
+import org.jumpmind.symmetric.config.ParameterSnapshot;
 import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.util.SymmetricUtils;
 import org.jumpmind.util.AppUtils;
@@ -43,9 +50,10 @@ import bsh.Interpreter;
 abstract public class AbstractParameterService {
     protected final Logger log = LoggerFactory.getLogger(getClass());
     protected IExtensionService extensionService;
-    protected TypedProperties parameters;
-    private long cacheTimeoutInMs = 0;
-    private long lastTimeParameterWereCached;
+    protected volatile ParameterSnapshot parameters;
+    private volatile long cacheTimeoutInMs = 0;
+    private volatile long lastTimeParameterWereCached;
+    private volatile boolean refreshRequired;
     protected Properties systemProperties;
     protected boolean databaseHasBeenInitialized = false;
     protected boolean databaseHasBeenSetup = false;
@@ -60,15 +68,7 @@ abstract public class AbstractParameterService {
     }
 
     public BigDecimal getDecimal(String key, BigDecimal defaultVal) {
-        String val = getString(key);
-        if (val != null) {
-            try {
-                return new BigDecimal(val);
-            } catch (NumberFormatException ex) {
-                TypedProperties.logPropertiesException(log, key, val);
-            }
-        }
-        return defaultVal;
+        return getParameterSnapshot().getDecimal(key, defaultVal);
     }
 
     public BigDecimal getDecimal(String key) {
@@ -80,17 +80,7 @@ abstract public class AbstractParameterService {
     }
 
     public boolean is(String key, boolean defaultVal) {
-        String val = getString(key);
-        if (val != null) {
-            val = val.trim();
-            if (val.equals("1")) {
-                return true;
-            } else {
-                return Boolean.parseBoolean(val);
-            }
-        } else {
-            return defaultVal;
-        }
+        return getParameterSnapshot().is(key, defaultVal);
     }
 
     public int getInt(String key) {
@@ -98,15 +88,7 @@ abstract public class AbstractParameterService {
     }
 
     public int getInt(String key, int defaultVal) {
-        String val = getString(key);
-        if (val != null) {
-            try {
-                return Integer.parseInt(val.trim());
-            } catch (NumberFormatException ex) {
-                TypedProperties.logPropertiesException(log, key, val);
-            }
-        }
-        return defaultVal;
+        return getParameterSnapshot().getInt(key, defaultVal);
     }
 
     public long getLong(String key) {
@@ -114,20 +96,11 @@ abstract public class AbstractParameterService {
     }
 
     public long getLong(String key, long defaultVal) {
-        String val = getString(key);
-        if (val != null) {
-            try {
-                return Long.parseLong(val);
-            } catch (NumberFormatException ex) {
-                TypedProperties.logPropertiesException(log, key, val);
-            }
-        }
-        return defaultVal;
+        return getParameterSnapshot().getLong(key, defaultVal);
     }
 
     public String getString(String key, String defaultVal) {
-        String value = getParameters().get(key, defaultVal);
-        return StringUtils.isBlank(value) ? defaultVal : value;
+        return getParameterSnapshot().getString(key, defaultVal);
     }
 
     public String getString(String key) {
@@ -146,22 +119,64 @@ abstract public class AbstractParameterService {
 
     protected abstract TypedProperties rereadApplicationParameters();
 
+    public LongSupplier getLongParameter(String key, long defaultVal) {
+        return () -> getParameterSnapshot().getLong(key, defaultVal);
+    }
+
+    public IntSupplier getIntParameter(String key, int defaultVal) {
+        return () -> getParameterSnapshot().getInt(key, defaultVal);
+    }
+
+    public BooleanSupplier getBooleanParameter(String key, boolean defaultVal) {
+        return () -> getParameterSnapshot().is(key, defaultVal);
+    }
+
+    public Supplier<String> getStringParameter(String key, String defaultVal) {
+        return () -> getParameterSnapshot().getString(key, defaultVal);
+    }
+
     public synchronized void rereadParameters() {
         lastTimeParameterWereCached = 0;
         getParameters();
     }
 
-    protected synchronized TypedProperties getParameters() {
-        long timeoutTime = System.currentTimeMillis() - cacheTimeoutInMs;
-        // see if the parameters have timed out
-        if (parameters == null || (cacheTimeoutInMs > 0 && lastTimeParameterWereCached < timeoutTime)) {
+    protected TypedProperties getParameters() {
+        return getParameterSnapshot().getProperties();
+    }
+
+    /**
+     * Returns the current parameters without locking. Only a reread, once the cache period has passed, synchronizes.
+     */
+    public ParameterSnapshot getParameterSnapshot() {
+        ParameterSnapshot snapshot = parameters;
+        if (snapshot == null || isRefreshNeeded()) {
+            snapshot = refreshParameterSnapshot();
+        }
+        return snapshot;
+    }
+
+    protected boolean isRefreshNeeded() {
+        return refreshRequired || (cacheTimeoutInMs > 0 && lastTimeParameterWereCached < System.currentTimeMillis() - cacheTimeoutInMs);
+    }
+
+    protected ParameterSnapshot refreshParameterSnapshot() {
+        ParameterSnapshot previous = null;
+        ParameterSnapshot snapshot = null;
+        synchronized (this) {
+            previous = parameters;
+            if (previous != null && !isRefreshNeeded()) {
+                return previous;
+            }
             try {
-                parameters = rereadApplicationParameters();
-                SymmetricUtils.replaceSystemAndEnvironmentVariables(parameters);
+                TypedProperties properties = rereadApplicationParameters();
+                SymmetricUtils.replaceSystemAndEnvironmentVariables(properties);
+                snapshot = new ParameterSnapshot(properties);
+                cacheTimeoutInMs = snapshot.getInt(ParameterConstants.PARAMETER_REFRESH_PERIOD_IN_MS, 0);
                 lastTimeParameterWereCached = System.currentTimeMillis();
-                cacheTimeoutInMs = getInt(ParameterConstants.PARAMETER_REFRESH_PERIOD_IN_MS);
+                refreshRequired = false;
+                parameters = snapshot;
             } catch (SqlException ex) {
-                if (parameters != null) {
+                if (previous != null) {
                     log.warn("Could not read database parameters.  We will try again later", ex);
                 } else {
                     log.error("Could not read database parameters and they have not yet been initialized");
@@ -170,7 +185,26 @@ abstract public class AbstractParameterService {
                 throw ex;
             }
         }
-        return parameters;
+        if (previous != null) {
+            fireParametersChanged(previous, snapshot);
+        }
+        return snapshot;
+    }
+
+    protected void fireParametersChanged(ParameterSnapshot previous, ParameterSnapshot snapshot) {
+        if (extensionService != null) {
+            Set<String> changedKeys = snapshot.getChangedKeys(previous);
+            if (changedKeys.size() > 0) {
+                log.debug("Parameters changed: {}", changedKeys);
+                for (IParameterChangeListener listener : extensionService.getExtensionPointList(IParameterChangeListener.class)) {
+                    try {
+                        listener.parametersChanged(changedKeys, snapshot);
+                    } catch (RuntimeException ex) {
+                        log.warn("Parameter change listener failed", ex);
+                    }
+                }
+            }
+        }
     }
 
     public TypedProperties getAllParameters() {
@@ -260,7 +294,7 @@ abstract public class AbstractParameterService {
     public synchronized void setDatabaseHasBeenInitialized(boolean databaseHasBeenInitialized) {
         if (this.databaseHasBeenInitialized != databaseHasBeenInitialized) {
             this.databaseHasBeenInitialized = databaseHasBeenInitialized;
-            this.parameters = null;
+            this.refreshRequired = true;
         }
     }
 
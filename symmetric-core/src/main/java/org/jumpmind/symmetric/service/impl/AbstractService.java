@@ -405,12 +405,6 @@ abstract public class AbstractService implements IService {
     protected List<BatchAck> readAcks(List<OutgoingBatch> batches, IOutgoingWithResponseTransport transport,
             ITransportManager transportManager, IAcknowledgeService acknowledgeService, IDataExtractorService dataExtratorService)
             throws IOException {
-        Set<Long> batchIds = new HashSet<Long>(batches.size());
-        for (OutgoingBatch outgoingBatch : batches) {
-            if (outgoingBatch.getStatus() == OutgoingBatch.Status.LD) {
-                batchIds.add(outgoingBatch.getBatchId());
-            }
-        }
         BufferedReader reader = transport.readResponse();
         String ackString = reader.readLine();
         String ackExtendedString = reader.readLine();
@@ -426,15 +420,31 @@ abstract public class AbstractService implements IService {
         List<BatchAck> batchAcks = transportManager.readAcknowledgement(ackString,
                 ackExtendedString);
         Collections.sort(batchAcks, BATCH_ID_COMPARATOR);
+        for (BatchAck batchInfo : batchAcks) {
+            log.debug("Saving ack: {}, {}", batchInfo.getBatchId(),
+                    (batchInfo.isOk() ? "OK" : "ER"));
+        }
+        acknowledgeService.ack(batchAcks);
+        checkForMissingAcks(batches, batchAcks, dataExtratorService);
+        return batchAcks;
+    }
+
+    /**
+     * Warn about batches that were sent but not acknowledged, removing them from staging in case they are corrupt.
+     */
+    protected void checkForMissingAcks(List<OutgoingBatch> batches, List<BatchAck> batchAcks, IDataExtractorService dataExtratorService) {
+        Set<Long> batchIds = new HashSet<Long>(batches.size());
+        for (OutgoingBatch outgoingBatch : batches) {
+            if (outgoingBatch.getStatus() == OutgoingBatch.Status.LD) {
+                batchIds.add(outgoingBatch.getBatchId());
+            }
+        }
         long batchIdInError = Long.MAX_VALUE;
         for (BatchAck batchInfo : batchAcks) {
             batchIds.remove(batchInfo.getBatchId());
-            if (!batchInfo.isOk()) {
+            if (!batchInfo.isOk() && (batchIdInError == Long.MAX_VALUE || batchInfo.getBatchId() > batchIdInError)) {
                 batchIdInError = batchInfo.getBatchId();
             }
-            log.debug("Saving ack: {}, {}", batchInfo.getBatchId(),
-                    (batchInfo.isOk() ? "OK" : "ER"));
-            acknowledgeService.ack(batchInfo);
         }
         for (Long batchId : batchIds) {
             if (batchId < batchIdInError) {
@@ -460,7 +470,6 @@ abstract public class AbstractService implements IService {
                 }
             }
         }
-        return batchAcks;
     }
 
     protected void logOnce(String message) {
@@ -21,10 +21,19 @@
 package org.jumpmind.symmetric.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.db.sql.mapper.NumberMapper;
 import org.jumpmind.symmetric.ISymmetricEngine;
@@ -43,12 +52,18 @@ import org.jumpmind.symmetric.service.IOutgoingBatchService;
 import org.jumpmind.symmetric.service.IRegistrationService;
 import org.jumpmind.symmetric.statistic.RouterStats;
 import org.jumpmind.symmetric.transport.IAcknowledgeEventListener;
+import org.jumpmind.util.CustomizableThreadFactory;
 
 /**
  * @see IAcknowledgeService
  */
 public class AcknowledgeService extends AbstractService implements IAcknowledgeService {
     private ISymmetricEngine engine;
+    /**
+     * Largest number of batch IDs in the IN list used to find a group of batches, which is the limit on Oracle.
+     */
+    protected static final int MAX_BULK_BATCHES = 1000;
+    private ExecutorService stagingPurgeExecutor;
 
     public AcknowledgeService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect());
@@ -60,170 +75,272 @@ public class AcknowledgeService extends AbstractService implements IAcknowledgeS
         IRegistrationService registrationService = engine.getRegistrationService();
         IOutgoingBatchService outgoingBatchService = engine.getOutgoingBatchService();
         BatchAckResult result = new BatchAckResult(batch);
-        for (IAcknowledgeEventListener listener : engine.getExtensionService().getExtensionPointList(IAcknowledgeEventListener.class)) {
-            listener.onAcknowledgeEvent(batch);
-        }
+        fireAcknowledgeEvent(batch);
         if (batch.getBatchId() == Constants.VIRTUAL_BATCH_FOR_REGISTRATION) {
             if (batch.isOk()) {
                 registrationService.markNodeAsRegistered(batch.getNodeId());
             }
         } else if (batch.getBatchId() != Constants.BATCH_ID_MISSING) {
             OutgoingBatch outgoingBatch = outgoingBatchService.findOutgoingBatch(batch.getBatchId(), batch.getNodeId());
-            Status status = batch.isResend() ? Status.RS : batch.isOk() ? Status.OK : Status.ER;
-            if (outgoingBatch != null && outgoingBatch.getStatus() != Status.RQ) {
-                // Allow an outside system/user to indicate that a batch is OK
-                if (outgoingBatch.getStatus() == Status.IG && status == Status.OK) {
-                    log.info("Ignoring batch {}", outgoingBatch.getNodeBatchId());
-                } else if (outgoingBatch.getStatus() == Status.OK && status != Status.OK) {
-                    log.info("Setting status to ignore for batch {} because status was set to OK by user", outgoingBatch.getNodeBatchId());
-                    status = Status.IG;
-                }
-                boolean isFirstTimeAsOkStatus = outgoingBatch.getStatus() != Status.OK && status == Status.OK;
-                boolean isFirstTimeAsErStatus = !outgoingBatch.isErrorFlag() && status == Status.ER;
-                outgoingBatch.setStatus(status);
-                outgoingBatch.setBulkLoaderFlag(batch.isBulkLoaderFlag());
-                outgoingBatch.setErrorFlag(status == Status.ER);
-                outgoingBatch.setNetworkMillis(batch.getNetworkMillis());
-                outgoingBatch.setFilterMillis(batch.getFilterMillis());
-                outgoingBatch.setLoadMillis(batch.getLoadMillis());
-                outgoingBatch.setLoadStartTime(new Date(batch.getStartTime()));
-                outgoingBatch.setSqlCode(batch.getSqlCode());
-                outgoingBatch.setSqlState(batch.getSqlState());
-                outgoingBatch.setSqlMessage(batch.getSqlMessage());
-                outgoingBatch.setLoadRowCount(batch.getLoadRowCount());
-                outgoingBatch.setLoadInsertRowCount(batch.getLoadInsertRowCount());
-                outgoingBatch.setLoadUpdateRowCount(batch.getLoadUpdateRowCount());
-                outgoingBatch.setTransformLoadMillis(batch.getTransformLoadMillis());
-                outgoingBatch.setLoadDeleteRowCount(batch.getLoadDeleteRowCount());
-                outgoingBatch.setFallbackInsertCount(batch.getFallbackInsertCount());
-                outgoingBatch.setFallbackUpdateCount(batch.getFallbackUpdateCount());
-                outgoingBatch.setConflictWinCount(batch.getConflictWinCount());
-                outgoingBatch.setConflictLoseCount(batch.getConflictLoseCount());
-                outgoingBatch.setIgnoreRowCount(batch.getIgnoreRowCount());
-                outgoingBatch.setMissingDeleteCount(batch.getMissingDeleteCount());
-                outgoingBatch.setSkipCount(batch.getSkipCount());
-                if (batch.isIgnored()) {
-                    outgoingBatch.incrementIgnoreCount();
-                }
-                if (status == Status.OK) {
-                    outgoingBatch.setFailedDataId(0);
-                    outgoingBatch.setFailedLineNumber(0);
-                }
-                boolean isNewError = false;
-                if (status == Status.ER && batch.getErrorLine() != 0) {
-                    if (outgoingBatch.isLoadFlag()) {
-                        isNewError = outgoingBatch.getSentCount() == 1;
-                    } else if (batch.getErrorLine() != outgoingBatch.getFailedLineNumber()) {
-                        String sql = getSql("selectDataIdSql");
-                        if (parameterService.is(ParameterConstants.DBDIALECT_ORACLE_SEQUENCE_NOORDER, false)) {
-                            sql = getSql("selectDataIdByCreateTimeSql");
-                        } else if (parameterService.is(ParameterConstants.ROUTING_DATA_READER_ORDER_BY_DATA_ID_ENABLED, true)) {
-                            sql += getSql("orderByDataId");
-                        }
-                        List<Number> ids = sqlTemplateDirty.query(sql, new NumberMapper(), outgoingBatch.getBatchId());
-                        if (ids.size() >= batch.getErrorLine()) {
-                            long failedDataId = ids.get((int) batch.getErrorLine() - 1).longValue();
-                            isNewError = outgoingBatch.getFailedDataId() == 0 || outgoingBatch.getFailedDataId() != failedDataId;
-                            outgoingBatch.setFailedDataId(failedDataId);
-                        }
+            AckUpdate update = applyAck(batch, outgoingBatch, result);
+            if (update != null) {
+                saveAckUpdates(Collections.singletonList(update));
+            }
+        }
+        return result;
+    }
+
+    protected void fireAcknowledgeEvent(BatchAck batch) {
+        for (IAcknowledgeEventListener listener : engine.getExtensionService().getExtensionPointList(IAcknowledgeEventListener.class)) {
+            listener.onAcknowledgeEvent(batch);
+        }
+    }
+
+    /**
+     * Applies the acknowledgement to the outgoing batch in memory. Returns the update to save, or null if there is nothing to save.
+     */
+    protected AckUpdate applyAck(BatchAck batch, OutgoingBatch outgoingBatch, BatchAckResult result) {
+        Status status = batch.isResend() ? Status.RS : batch.isOk() ? Status.OK : Status.ER;
+        if (outgoingBatch != null && outgoingBatch.getStatus() != Status.RQ) {
+            // Allow an outside system/user to indicate that a batch is OK
+            if (outgoingBatch.getStatus() == Status.IG && status == Status.OK) {
+                log.info("Ignoring batch {}", outgoingBatch.getNodeBatchId());
+            } else if (outgoingBatch.getStatus() == Status.OK && status != Status.OK) {
+                log.info("Setting status to ignore for batch {} because status was set to OK by user", outgoingBatch.getNodeBatchId());
+                status = Status.IG;
+            }
+            boolean isFirstTimeAsOkStatus = outgoingBatch.getStatus() != Status.OK && status == Status.OK;
+            boolean isFirstTimeAsErStatus = !outgoingBatch.isErrorFlag() && status == Status.ER;
+            outgoingBatch.setStatus(status);
+            outgoingBatch.setBulkLoaderFlag(batch.isBulkLoaderFlag());
+            outgoingBatch.setErrorFlag(status == Status.ER);
+            outgoingBatch.setNetworkMillis(batch.getNetworkMillis());
+            outgoingBatch.setFilterMillis(batch.getFilterMillis());
+            outgoingBatch.setLoadMillis(batch.getLoadMillis());
+            outgoingBatch.setLoadStartTime(new Date(batch.getStartTime()));
+            outgoingBatch.setSqlCode(batch.getSqlCode());
+            outgoingBatch.setSqlState(batch.getSqlState());
+            outgoingBatch.setSqlMessage(batch.getSqlMessage());
+            outgoingBatch.setLoadRowCount(batch.getLoadRowCount());
+            outgoingBatch.setLoadInsertRowCount(batch.getLoadInsertRowCount());
+            outgoingBatch.setLoadUpdateRowCount(batch.getLoadUpdateRowCount());
+            outgoingBatch.setTransformLoadMillis(batch.getTransformLoadMillis());
+            outgoingBatch.setLoadDeleteRowCount(batch.getLoadDeleteRowCount());
+            outgoingBatch.setFallbackInsertCount(batch.getFallbackInsertCount());
+            outgoingBatch.setFallbackUpdateCount(batch.getFallbackUpdateCount());
+            outgoingBatch.setConflictWinCount(batch.getConflictWinCount());
+            outgoingBatch.setConflictLoseCount(batch.getConflictLoseCount());
+            outgoingBatch.setIgnoreRowCount(batch.getIgnoreRowCount());
+            outgoingBatch.setMissingDeleteCount(batch.getMissingDeleteCount());
+            outgoingBatch.setSkipCount(batch.getSkipCount());
+            if (batch.isIgnored()) {
+                outgoingBatch.incrementIgnoreCount();
+            }
+            if (status == Status.OK) {
+                outgoingBatch.setFailedDataId(0);
+                outgoingBatch.setFailedLineNumber(0);
+            }
+            boolean isNewError = false;
+            if (status == Status.ER && batch.getErrorLine() != 0) {
+                if (outgoingBatch.isLoadFlag()) {
+                    isNewError = outgoingBatch.getSentCount() == 1;
+                } else if (batch.getErrorLine() != outgoingBatch.getFailedLineNumber()) {
+                    String sql = getSql("selectDataIdSql");
+                    if (parameterService.is(ParameterConstants.DBDIALECT_ORACLE_SEQUENCE_NOORDER, false)) {
+                        sql = getSql("selectDataIdByCreateTimeSql");
+                    } else if (parameterService.is(ParameterConstants.ROUTING_DATA_READER_ORDER_BY_DATA_ID_ENABLED, true)) {
+                        sql += getSql("orderByDataId");
                     }
-                    outgoingBatch.setFailedLineNumber(batch.getErrorLine());
-                }
-                if (status == Status.ER) {
-                    boolean suppressError = false;
-                    if (isNewError) {
-                        engine.getStatisticManager().incrementDataLoadedOutgoingErrors(outgoingBatch.getChannelId(), 1);
+                    List<Number> ids = sqlTemplateDirty.query(sql, new NumberMapper(), outgoingBatch.getBatchId());
+                    if (ids.size() >= batch.getErrorLine()) {
+                        long failedDataId = ids.get((int) batch.getErrorLine() - 1).longValue();
+                        isNewError = outgoingBatch.getFailedDataId() == 0 || outgoingBatch.getFailedDataId() != failedDataId;
+                        outgoingBatch.setFailedDataId(failedDataId);
                     }
-                    if (isNewError && outgoingBatch.getSqlCode() == ErrorConstants.FK_VIOLATION_CODE) {
-                        if (!outgoingBatch.isLoadFlag() && outgoingBatch.getReloadRowCount() == 0 &&
-                                parameterService.is(ParameterConstants.AUTO_RESOLVE_FOREIGN_KEY_VIOLATION)) {
-                            engine.getDataService().reloadMissingForeignKeyRows(outgoingBatch.getBatchId(), outgoingBatch.getNodeId(),
-                                    outgoingBatch.getFailedDataId(), outgoingBatch.getFailedLineNumber());
-                            suppressError = true;
-                        }
-                        if (outgoingBatch.isLoadFlag() && parameterService.is(ParameterConstants.AUTO_RESOLVE_FOREIGN_KEY_VIOLATION_REVERSE_RELOAD)) {
-                            suppressError = true;
-                        }
-                    }
-                    if (outgoingBatch.getSqlCode() == ErrorConstants.PROTOCOL_VIOLATION_CODE
-                            && ErrorConstants.PROTOCOL_VIOLATION_STATE.equals(outgoingBatch.getSqlState())) {
-                        if (outgoingBatch.isLoadFlag()) {
-                            log.info(
-                                    "The batch {} may be corrupt in staging. Not removing the batch because it was a load batch, but you may need to clear the batch from staging manually.",
-                                    outgoingBatch.getNodeBatchId());
-                        } else {
-                            IStagedResource resource = engine.getStagingManager().find(Constants.STAGING_CATEGORY_OUTGOING,
-                                    outgoingBatch.getStagedLocation(), outgoingBatch.getBatchId());
-                            if (resource != null) {
-                                log.info("The batch {} may be corrupt in staging, so removing it.", outgoingBatch.getNodeBatchId());
-                                resource.delete();
-                                suppressError = isNewError;
-                            }
-                        }
+                }
+                outgoingBatch.setFailedLineNumber(batch.getErrorLine());
+            }
+            if (status == Status.ER) {
+                boolean suppressError = false;
+                if (isNewError) {
+                    engine.getStatisticManager().incrementDataLoadedOutgoingErrors(outgoingBatch.getChannelId(), 1);
+                }
+                if (isNewError && outgoingBatch.getSqlCode() == ErrorConstants.FK_VIOLATION_CODE) {
+                    if (!outgoingBatch.isLoadFlag() && outgoingBatch.getReloadRowCount() == 0 &&
+                            parameterService.is(ParameterConstants.AUTO_RESOLVE_FOREIGN_KEY_VIOLATION)) {
+                        engine.getDataService().reloadMissingForeignKeyRows(outgoingBatch.getBatchId(), outgoingBatch.getNodeId(),
+                                outgoingBatch.getFailedDataId(), outgoingBatch.getFailedLineNumber());
+                        suppressError = true;
                     }
-                    if (isNewError && (outgoingBatch.getSqlCode() == ErrorConstants.DEADLOCK_CODE ||
-                            outgoingBatch.getSqlCode() == ErrorConstants.CONFLICT_CODE)) {
+                    if (outgoingBatch.isLoadFlag() && parameterService.is(ParameterConstants.AUTO_RESOLVE_FOREIGN_KEY_VIOLATION_REVERSE_RELOAD)) {
                         suppressError = true;
                     }
-                    if (suppressError) {
-                        outgoingBatch.setErrorFlag(false);
+                }
+                if (outgoingBatch.getSqlCode() == ErrorConstants.PROTOCOL_VIOLATION_CODE
+                        && ErrorConstants.PROTOCOL_VIOLATION_STATE.equals(outgoingBatch.getSqlState())) {
+                    if (outgoingBatch.isLoadFlag()) {
+                        log.info(
+                                "The batch {} may be corrupt in staging. Not removing the batch because it was a load batch, but you may need to clear the batch from staging manually.",
+                                outgoingBatch.getNodeBatchId());
                     } else {
-                        log.error("The outgoing batch {} failed: {}{}", outgoingBatch.getNodeBatchId(),
-                                (batch.getSqlCode() != 0 ? "[" + batch.getSqlState() + "," + batch.getSqlCode() + "] " : ""),
-                                (batch.getSqlMessage() != null ? batch.getSqlMessage() : "(no message)"));
-                        RouterStats routerStats = engine.getStatisticManager().getRouterStatsByBatch(batch.getBatchId());
-                        if (routerStats != null) {
-                            log.info("Router stats for batch " + outgoingBatch.getBatchId() + ": " + routerStats);
+                        IStagedResource resource = engine.getStagingManager().find(Constants.STAGING_CATEGORY_OUTGOING,
+                                outgoingBatch.getStagedLocation(), outgoingBatch.getBatchId());
+                        if (resource != null) {
+                            log.info("The batch {} may be corrupt in staging, so removing it.", outgoingBatch.getNodeBatchId());
+                            resource.delete();
+                            suppressError = isNewError;
                         }
                     }
-                } else if (status == Status.RS) {
-                    log.info("The outgoing batch {} received resend request", outgoingBatch.getNodeBatchId());
                 }
-                ISqlTransaction transaction = null;
-                try {
-                    transaction = sqlTemplate.startSqlTransaction();
-                    outgoingBatchService.updateOutgoingBatch(transaction, outgoingBatch);
-                    if (status == Status.OK && isFirstTimeAsOkStatus && outgoingBatch.getLoadId() > 0) {
-                        engine.getDataExtractorService().updateExtractRequestLoadTime(transaction, new Date(), outgoingBatch);
-                    } else if (status == Status.ER && isFirstTimeAsErStatus && outgoingBatch.getLoadId() > 0) {
-                        engine.getDataService().updateTableReloadStatusFailed(transaction, outgoingBatch.getLoadId(), outgoingBatch.getBatchId());
-                    }
-                    transaction.commit();
-                    if (status == Status.OK) {
-                        if (isFirstTimeAsOkStatus) {
-                            engine.getStatisticManager().incrementDataLoadedOutgoing(outgoingBatch.getChannelId(), outgoingBatch.getLoadRowCount());
-                            engine.getStatisticManager().incrementDataBytesLoadedOutgoing(outgoingBatch.getChannelId(), outgoingBatch.getByteCount());
-                        }
-                        if (parameterService.is(ParameterConstants.STREAM_TO_FILE_ENABLED)) {
-                            purgeBatchesFromStaging(outgoingBatch);
-                        }
-                        Channel channel = engine.getConfigurationService().getChannel(outgoingBatch.getChannelId());
-                        if (channel != null && channel.isFileSyncFlag()) {
-                            /* Acknowledge the file_sync in case the file needs deleted. */
-                            engine.getFileSyncService().acknowledgeFiles(outgoingBatch);
-                        }
-                        engine.getStatisticManager().removeRouterStatsByBatch(batch.getBatchId());
-                    }
-                } catch (Error ex) {
-                    if (transaction != null) {
-                        transaction.rollback();
+                if (isNewError && (outgoingBatch.getSqlCode() == ErrorConstants.DEADLOCK_CODE ||
+                        outgoingBatch.getSqlCode() == ErrorConstants.CONFLICT_CODE)) {
+                    suppressError = true;
+                }
+                if (suppressError) {
+                    outgoingBatch.setErrorFlag(false);
+                } else {
+                    log.error("The outgoing batch {} failed: {}{}", outgoingBatch.getNodeBatchId(),
+                            (batch.getSqlCode() != 0 ? "[" + batch.getSqlState() + "," + batch.getSqlCode() + "] " : ""),
+                            (batch.getSqlMessage() != null ? batch.getSqlMessage() : "(no message)"));
+                    RouterStats routerStats = engine.getStatisticManager().getRouterStatsByBatch(batch.getBatchId());
+                    if (routerStats != null) {
+                        log.info("Router stats for batch " + outgoingBatch.getBatchId() + ": " + routerStats);
                     }
-                    throw ex;
-                } catch (RuntimeException ex) {
-                    if (transaction != null) {
-                        transaction.rollback();
+                }
+            } else if (status == Status.RS) {
+                log.info("The outgoing batch {} received resend request", outgoingBatch.getNodeBatchId());
+            }
+            return new AckUpdate(batch, outgoingBatch, status, isFirstTimeAsOkStatus, isFirstTimeAsErStatus);
+        } else if (outgoingBatch == null) {
+            log.error("Could not find batch {}-{} to acknowledge as {}", new Object[] { batch.getNodeId(), batch.getBatchId(),
+                    status.name() });
+            result.setOk(false);
+        }
+        return null;
+    }
+
+    /**
+     * Saves the updates in one transaction. Acknowledged batches are written in one JDBC batch, while batches with other statuses are written
+     * one at a time so they do not overwrite a batch that was set to OK in the meantime.
+     */
+    protected void saveAckUpdates(List<AckUpdate> updates) {
+        IOutgoingBatchService outgoingBatchService = engine.getOutgoingBatchService();
+        ISqlTransaction transaction = null;
+        try {
+            transaction = sqlTemplate.startSqlTransaction();
+            List<OutgoingBatch> okBatches = new ArrayList<OutgoingBatch>(updates.size());
+            for (AckUpdate update : updates) {
+                if (update.status == Status.OK) {
+                    okBatches.add(update.outgoingBatch);
+                } else {
+                    outgoingBatchService.updateOutgoingBatch(transaction, update.outgoingBatch);
+                }
+            }
+            if (okBatches.size() == 1) {
+                outgoingBatchService.updateOutgoingBatch(transaction, okBatches.get(0));
+            } else if (okBatches.size() > 1) {
+                transaction.setInBatchMode(true);
+                outgoingBatchService.updateOutgoingBatches(transaction, okBatches, okBatches.size());
+                transaction.setInBatchMode(false);
+            }
+            for (AckUpdate update : updates) {
+                OutgoingBatch outgoingBatch = update.outgoingBatch;
+                if (update.status == Status.OK && update.isFirstTimeAsOkStatus && outgoingBatch.getLoadId() > 0) {
+                    engine.getDataExtractorService().updateExtractRequestLoadTime(transaction, new Date(), outgoingBatch);
+                } else if (update.status == Status.ER && update.isFirstTimeAsErStatus && outgoingBatch.getLoadId() > 0) {
+                    engine.getDataService().updateTableReloadStatusFailed(transaction, outgoingBatch.getLoadId(), outgoingBatch.getBatchId());
+                }
+            }
+            transaction.commit();
+        } catch (Error ex) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw ex;
+        } finally {
+            close(transaction);
+        }
+        List<OutgoingBatch> purgeBatches = new ArrayList<OutgoingBatch>();
+        for (AckUpdate update : updates) {
+            OutgoingBatch outgoingBatch = update.outgoingBatch;
+            if (update.status == Status.OK) {
+                if (update.isFirstTimeAsOkStatus) {
+                    engine.getStatisticManager().incrementDataLoadedOutgoing(outgoingBatch.getChannelId(), outgoingBatch.getLoadRowCount());
+                    engine.getStatisticManager().incrementDataBytesLoadedOutgoing(outgoingBatch.getChannelId(), outgoingBatch.getByteCount());
+                }
+                purgeBatches.add(outgoingBatch);
+                Channel channel = engine.getConfigurationService().getChannel(outgoingBatch.getChannelId());
+                if (channel != null && channel.isFileSyncFlag()) {
+                    /* Acknowledge the file_sync in case the file needs deleted. */
+                    engine.getFileSyncService().acknowledgeFiles(outgoingBatch);
+                }
+                engine.getStatisticManager().removeRouterStatsByBatch(update.batchAck.getBatchId());
+            } else if (update.status == Status.ER) {
+                Channel channel = engine.getConfigurationService().getChannel(outgoingBatch.getChannelId());
+                if (channel != null && channel.isFileSyncFlag()) {
+                    engine.getFileSyncService().acknowledgeFilesError(outgoingBatch);
+                }
+            }
+        }
+        if (purgeBatches.size() > 0 && parameterService.is(ParameterConstants.STREAM_TO_FILE_ENABLED)) {
+            purgeBatchesFromStagingLater(purgeBatches);
+        }
+    }
+
+    /**
+     * Removes the staging files of acknowledged batches on a background thread, so the acknowledgement does not wait on the file system.
+     */
+    protected void purgeBatchesFromStagingLater(final List<OutgoingBatch> outgoingBatches) {
+        try {
+            getStagingPurgeExecutor().execute(() -> {
+                for (OutgoingBatch outgoingBatch : outgoingBatches) {
+                    try {
+                        purgeBatchesFromStaging(outgoingBatch);
+                    } catch (RuntimeException ex) {
+                        log.warn("Failed to purge batch {} from staging: {}", outgoingBatch.getNodeBatchId(), ex.getMessage());
                     }
-                    throw ex;
-                } finally {
-                    close(transaction);
                 }
-            } else if (outgoingBatch == null) {
-                log.error("Could not find batch {}-{} to acknowledge as {}", new Object[] { batch.getNodeId(), batch.getBatchId(),
-                        status.name() });
-                result.setOk(false);
+            });
+        } catch (RejectedExecutionException ex) {
+            for (OutgoingBatch outgoingBatch : outgoingBatches) {
+                purgeBatchesFromStaging(outgoingBatch);
+            }
+        }
+    }
+
+    protected synchronized ExecutorService getStagingPurgeExecutor() {
+        if (stagingPurgeExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new CustomizableThreadFactory(String.format("%s-ack-purge", parameterService.getEngineName().toLowerCase())));
+            executor.allowCoreThreadTimeOut(true);
+            stagingPurgeExecutor = executor;
+        }
+        return stagingPurgeExecutor;
+    }
+
+    public void stop() {
+        ExecutorService executor = null;
+        synchronized (this) {
+            executor = stagingPurgeExecutor;
+            stagingPurgeExecutor = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    log.info("Staging purge of acknowledged batches did not finish before stopping");
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
             }
         }
-        return result;
     }
 
     protected void purgeBatchesFromStaging(OutgoingBatch outgoingBatch) {
@@ -247,14 +364,82 @@ public class AcknowledgeService extends AbstractService implements IAcknowledgeS
         }
     }
 
+    /**
+     * Acknowledges the batches in order. Batches acknowledged by a node are processed together in groups, with one query to find them and one
+     * transaction to save them.
+     */
     public List<BatchAckResult> ack(List<BatchAck> batches) {
-        List<BatchAckResult> results = new ArrayList<BatchAckResult>();
+        int bulkSize = Math.min(parameterService.getInt(ParameterConstants.ACK_BULK_MAX_BATCHES, 100), MAX_BULK_BATCHES);
+        List<BatchAckResult> results = new ArrayList<BatchAckResult>(batches.size());
+        List<BatchAck> bulk = new ArrayList<BatchAck>();
         for (BatchAck batch : batches) {
-            results.add(ack(batch));
+            if (bulkSize > 1 && batch.getBatchId() != Constants.VIRTUAL_BATCH_FOR_REGISTRATION && batch.getBatchId() != Constants.BATCH_ID_MISSING
+                    && StringUtils.isNotBlank(batch.getNodeId())) {
+                bulk.add(batch);
+                if (bulk.size() >= bulkSize) {
+                    results.addAll(ackBulk(bulk));
+                    bulk.clear();
+                }
+            } else {
+                results.addAll(ackBulk(bulk));
+                bulk.clear();
+                results.add(ack(batch));
+            }
         }
+        results.addAll(ackBulk(bulk));
         return results;
     }
 
+    protected List<BatchAckResult> ackBulk(List<BatchAck> batches) {
+        List<BatchAckResult> results = new ArrayList<BatchAckResult>(batches.size());
+        if (batches.size() == 0) {
+            return results;
+        }
+        for (BatchAck batch : batches) {
+            fireAcknowledgeEvent(batch);
+        }
+        Map<String, List<Long>> batchIdsByNode = new HashMap<String, List<Long>>();
+        for (BatchAck batch : batches) {
+            batchIdsByNode.computeIfAbsent(batch.getNodeId(), k -> new ArrayList<Long>()).add(batch.getBatchId());
+        }
+        Map<String, OutgoingBatch> outgoingBatches = new HashMap<String, OutgoingBatch>();
+        for (Map.Entry<String, List<Long>> entry : batchIdsByNode.entrySet()) {
+            for (OutgoingBatch outgoingBatch : engine.getOutgoingBatchService().findOutgoingBatches(entry.getKey(), entry.getValue())) {
+                outgoingBatches.put(outgoingBatch.getNodeBatchId(), outgoingBatch);
+            }
+        }
+        List<AckUpdate> updates = new ArrayList<AckUpdate>(batches.size());
+        for (BatchAck batch : batches) {
+            BatchAckResult result = new BatchAckResult(batch);
+            OutgoingBatch outgoingBatch = outgoingBatches.get(batch.getNodeId() + "-" + batch.getBatchId());
+            AckUpdate update = applyAck(batch, outgoingBatch, result);
+            if (update != null) {
+                updates.add(update);
+            }
+            results.add(result);
+        }
+        if (updates.size() > 0) {
+            saveAckUpdates(updates);
+        }
+        return results;
+    }
+
+    static class AckUpdate {
+        BatchAck batchAck;
+        OutgoingBatch outgoingBatch;
+        Status status;
+        boolean isFirstTimeAsOkStatus;
+        boolean isFirstTimeAsErStatus;
+
+        AckUpdate(BatchAck batchAck, OutgoingBatch outgoingBatch, Status status, boolean isFirstTimeAsOkStatus, boolean isFirstTimeAsErStatus) {
+            this.batchAck = batchAck;
+            this.outgoingBatch = outgoingBatch;
+            this.status = status;
+            this.isFirstTimeAsOkStatus = isFirstTimeAsOkStatus;
+            this.isFirstTimeAsErStatus = isFirstTimeAsErStatus;
+        }
+    }
+
     public void checkMissingAck(List<BatchAck> acks, String queue) {
         boolean hasCorruptBatch = false;
         String nodeId = null;
@@ -55,6 +55,8 @@ import java.util.concurrent.FutureTask;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipException;
@@ -83,6 +85,7 @@ import org.jumpmind.symmetric.common.TableConstants;
 import org.jumpmind.symmetric.extract.ExtractDataReaderFactory;
 import org.jumpmind.symmetric.extract.IExtractDataReaderFactory;
 import org.jumpmind.symmetric.extract.MultiBatchStagingWriter;
+import org.jumpmind.symmetric.extract.SelectFromRoutedDataSource;
 import org.jumpmind.symmetric.extract.SelectFromSymDataSource;
 import org.jumpmind.symmetric.extract.SelectFromTableEvent;
 import org.jumpmind.symmetric.extract.SelectFromTableSource;
@@ -103,6 +106,7 @@ import org.jumpmind.symmetric.io.data.reader.ProtocolDataReader;
 import org.jumpmind.symmetric.io.data.transform.TransformPoint;
 import org.jumpmind.symmetric.io.data.transform.TransformTable;
 import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.symmetric.io.data.writer.BinaryProtocolDataWriter;
 import org.jumpmind.symmetric.io.data.writer.ProtocolDataWriter;
 import org.jumpmind.symmetric.io.data.writer.StagingDataWriter;
 import org.jumpmind.symmetric.io.data.writer.StructureDataWriter;
@@ -194,6 +198,8 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
     private IClusterService clusterService;
     private Map<String, BatchLock> locks = new ConcurrentHashMap<String, BatchLock>();
     private CustomizableThreadFactory threadPoolFactory;
+    private LongSupplier batchStatusUpdateMillis;
+    private IntSupplier batchStatusUpdateDataCount;
 
     public DataExtractorService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect());
@@ -211,6 +217,8 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         this.clusterService = engine.getClusterService();
         this.sequenceService = engine.getSequenceService();
         this.initialLoadService = engine.getInitialLoadService();
+        this.batchStatusUpdateMillis = parameterService.getLongParameter(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_MILLIS, 0);
+        this.batchStatusUpdateDataCount = parameterService.getIntParameter(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_DATA_COUNT, 0);
         setSqlMap(new DataExtractorServiceSqlMap(symmetricDialect.getPlatform(),
                 createSqlReplacementTokens()));
     }
@@ -396,6 +404,11 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
 
     public List<OutgoingBatch> extract(ProcessInfo extractInfo, Node targetNode, String queue,
             IOutgoingTransport transport) {
+        return extract(extractInfo, targetNode, queue, transport, false);
+    }
+
+    public List<OutgoingBatch> extract(ProcessInfo extractInfo, Node targetNode, String queue,
+            IOutgoingTransport transport, boolean binaryProtocol) {
         /*
          * make sure that data is routed before extracting if the route job is not configured to start automatically
          */
@@ -410,12 +423,20 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
             initialLoadService.queueLoads(true);
             routerService.routeData(true);
         }
-        OutgoingBatches batches = loadPendingBatches(extractInfo, targetNode, queue, transport);
+        OutgoingBatches batches = loadPendingBatches(extractInfo, targetNode, queue, binaryProtocol ? null : transport.getWriter());
         if (batches != null && batches.containsBatches()) {
             ChannelMap channelMap = transport.getSuspendIgnoreChannelLists(configurationService, queue,
                     targetNode);
             List<OutgoingBatch> activeBatches = filterBatchesForExtraction(batches, channelMap);
-            if (activeBatches.size() > 0) {
+            if (activeBatches.size() > 0 && binaryProtocol) {
+                /*
+                 * Batches are sent through the data writer instead of copied from staging, and keep alives are not written because they are
+                 * CSV text
+                 */
+                IDataWriter dataWriter = new BinaryProtocolDataWriter(nodeService.findIdentityNodeId(), transport.openStream(),
+                        targetNode.allowCaptureTimeInProtocol(), parameterService.is(ParameterConstants.EXTRACT_ROW_CAPTURE_TIME, true));
+                return extract(extractInfo, targetNode, activeBatches, dataWriter, null, ExtractMode.FOR_SYM_CLIENT);
+            } else if (activeBatches.size() > 0) {
                 BufferedWriter writer = transport.openWriter();
                 IDataWriter dataWriter = new ProtocolDataWriter(nodeService.findIdentityNodeId(),
                         writer, targetNode.requires13Compatiblity(), targetNode.allowCaptureTimeInProtocol(),
@@ -426,8 +447,7 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         return Collections.emptyList();
     }
 
-    protected OutgoingBatches loadPendingBatches(ProcessInfo extractInfo, Node targetNode, String queue, IOutgoingTransport transport) {
-        BufferedWriter writer = transport.getWriter();
+    protected OutgoingBatches loadPendingBatches(ProcessInfo extractInfo, Node targetNode, String queue, BufferedWriter writer) {
         extractInfo.setStatus(ProcessStatus.QUERYING);
         Callable<OutgoingBatches> getOutgoingBatches = () -> {
             MDC.put("engineName", engine.getParameterService().getEngineName());
@@ -534,11 +554,11 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                     currentBatch = activeBatches.get(i);
                     channelsProcessed.add(currentBatch.getChannelId());
                     final OutgoingBatch extractBatch = currentBatch;
-                    Callable<FutureOutgoingBatch> callable = () -> {
+                    Callable<FutureOutgoingBatch> callable = nodeCommunicationService.withDatabasePermit(() -> {
                         MDC.put("engineName", engine.getParameterService().getEngineName());
                         OutgoingBatch refreshedBatch = requeryIfEnoughTimeHasPassed(batchesSelectedAtMs, extractBatch);
                         return extractBatch(refreshedBatch, status, extractInfo, targetNode, dataWriter, mode, activeBatches);
-                    };
+                    });
                     if (status.shouldExtractSkip) {
                         break;
                     }
@@ -621,6 +641,9 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                                 currentBatch.setLoadCount(currentBatch.getLoadCount() + 1);
                                 changeBatchStatus(Status.LD, currentBatch, mode);
                             }
+                            if (writer instanceof BatchBufferedWriter) {
+                                ((BatchBufferedWriter) writer).batchCompleted(currentBatch.getBatchId());
+                            }
                             if (currentBatch.getLoadId() > 0) {
                                 long transferMillis = transferInfo.getEndTime() == null ? new Date().getTime() - transferInfo.getStartTime().getTime()
                                         : transferInfo.getEndTime().getTime() - transferInfo.getStartTime().getTime();
@@ -801,15 +824,13 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
             currentBatch.setStatus(status);
         }
         if (mode != ExtractMode.EXTRACT_ONLY) {
-            long batchStatusUpdateMillis = parameterService.getLong(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_MILLIS);
-            int batchStatusUpdateDataCount = parameterService.getInt(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_DATA_COUNT);
             Channel channel = configurationService.getChannel(currentBatch.getChannelId());
             if (currentBatch.getStatus() == Status.RQ ||
                     currentBatch.getStatus() == Status.LD ||
                     currentBatch.getLastUpdatedTime() == null ||
-                    System.currentTimeMillis() - batchStatusUpdateMillis >= currentBatch.getLastUpdatedTime().getTime() ||
+                    System.currentTimeMillis() - batchStatusUpdateMillis.getAsLong() >= currentBatch.getLastUpdatedTime().getTime() ||
                     channel.isReloadFlag() ||
-                    currentBatch.getDataRowCount() > batchStatusUpdateDataCount) {
+                    currentBatch.getDataRowCount() > batchStatusUpdateDataCount.getAsInt()) {
                 outgoingBatchService.updateOutgoingBatch(currentBatch);
                 return true;
             }
@@ -860,16 +881,7 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                         if (updateBatchStatistics) {
                             changeBatchStatus(Status.QY, currentBatch, mode);
                         }
-                        DataContext ctx = new DataContext();
-                        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_ID, targetNode.getNodeId());
-                        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, targetNode.getExternalId());
-                        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_GROUP_ID, targetNode.getNodeGroupId());
-                        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE, targetNode);
-                        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE, sourceNode);
-                        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_ID, sourceNode.getNodeId());
-                        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, sourceNode.getExternalId());
-                        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_GROUP_ID, sourceNode.getNodeGroupId());
-                        ctx.put(Constants.DATA_CONTEXT_ENGINE, engine);
+                        DataContext ctx = newExtractDataContext(sourceNode, targetNode);
                         extractInfo.setTotalDataCount(currentBatch.getDataRowCount());
                         currentBatch.resetStats();
                         IDataReader dataReader = buildExtractDataReader(sourceNode, targetNode, currentBatch, extractInfo);
@@ -968,6 +980,96 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         return currentBatch;
     }
 
+    protected DataContext newExtractDataContext(Node sourceNode, Node targetNode) {
+        DataContext ctx = new DataContext();
+        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_ID, targetNode.getNodeId());
+        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, targetNode.getExternalId());
+        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_GROUP_ID, targetNode.getNodeGroupId());
+        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE, targetNode);
+        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE, sourceNode);
+        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_ID, sourceNode.getNodeId());
+        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, sourceNode.getExternalId());
+        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_GROUP_ID, sourceNode.getNodeGroupId());
+        ctx.put(Constants.DATA_CONTEXT_ENGINE, engine);
+        return ctx;
+    }
+
+    /**
+     * Writes a batch that routing just completed to staging using the data rows that routing still has in memory. The staged batch is picked
+     * up by the next extract as previously extracted, so the extract statistics are saved here the same way an extract from the database saves
+     * them. When the batch is already staged or being extracted, or if the staged batch is lost on a restart, the normal extract from the
+     * database is used instead.
+     */
+    public boolean preExtract(OutgoingBatch routedBatch, List<Data> routedData) {
+        Node targetNode = nodeService.findNode(routedBatch.getNodeId(), true);
+        if (targetNode == null || isPreviouslyExtracted(routedBatch, false)) {
+            return false;
+        }
+        Node sourceNode = nodeService.findIdentity();
+        BatchLock lock = null;
+        try {
+            lock = acquireLock(routedBatch, true);
+            OutgoingBatch batch = outgoingBatchService.findOutgoingBatch(routedBatch.getBatchId(), routedBatch.getNodeId());
+            if (batch == null || batch.getStatus() != Status.NE || batch.getExtractCount() > 0 || isPreviouslyExtracted(batch, false)) {
+                return false;
+            }
+            long ts = System.currentTimeMillis();
+            ProcessInfo processInfo = new ProcessInfo();
+            processInfo.setTotalDataCount(routedData.size());
+            /* A reference is only held while the batch is being sent, so the staging writer does not acquire one */
+            IDataWriter writer = createTransformDataWriter(sourceNode, targetNode, new ProcessInfoDataWriter(new StagingDataWriter(
+                    parameterService.getLong(ParameterConstants.STREAM_TO_FILE_THRESHOLD), false, sourceNode.getNodeId(),
+                    Constants.STAGING_CATEGORY_OUTGOING, stagingManager, targetNode.allowCaptureTimeInProtocol(),
+                    parameterService.is(ParameterConstants.EXTRACT_ROW_CAPTURE_TIME, true)), processInfo));
+            batch.setExtractCount(batch.getExtractCount() + 1);
+            if (batch.getExtractStartTime() == null) {
+                batch.setExtractStartTime(new Date(ts));
+            }
+            batch.resetStats();
+            IDataReader dataReader = buildExtractDataReader(sourceNode, targetNode, batch, processInfo, routedData);
+            new DataProcessor(dataReader, writer, "pre-extract").process(newExtractDataContext(sourceNode, targetNode));
+            long extractTimeInMs = System.currentTimeMillis() - ts;
+            Statistics stats = getExtractStats(writer, batch);
+            if (stats != null) {
+                long transformTimeInMs = stats.get(DataWriterStatisticConstants.TRANSFORMMILLIS);
+                batch.setDataRowCount(stats.get(DataWriterStatisticConstants.ROWCOUNT));
+                batch.setDataInsertRowCount(stats.get(DataWriterStatisticConstants.INSERTCOUNT));
+                batch.setDataUpdateRowCount(stats.get(DataWriterStatisticConstants.UPDATECOUNT));
+                batch.setDataDeleteRowCount(stats.get(DataWriterStatisticConstants.DELETECOUNT));
+                batch.setTableExtractedCount(stats.getTableStats());
+                batch.setTransformExtractMillis(transformTimeInMs);
+                batch.setExtractMillis(extractTimeInMs - transformTimeInMs);
+                long byteCount = stats.get(DataWriterStatisticConstants.BYTECOUNT);
+                batch.setByteCount(byteCount);
+                statisticManager.incrementDataBytesExtracted(batch.getChannelId(), byteCount);
+                statisticManager.incrementDataExtracted(batch.getChannelId(), stats.get(DataWriterStatisticConstants.ROWCOUNT));
+                statisticManager.incrementTableRows(batch.getTableExtractedCount(), false);
+                outgoingBatchService.updateOutgoingBatchExtractStatistics(batch);
+                if (batch.isCommonFlag()) {
+                    outgoingBatchService.updateCommonBatchExtractStatistics(batch);
+                }
+            }
+            log.debug("Pre-extracted batch {} from {} routed rows", batch.getNodeBatchId(), routedData.size());
+            return true;
+        } catch (RuntimeException ex) {
+            IStagedResource resource = getStagedResource(routedBatch);
+            if (resource != null) {
+                resource.close();
+                resource.delete();
+            }
+            throw ex;
+        } finally {
+            try {
+                IStagedResource resource = getStagedResource(routedBatch);
+                if (resource != null) {
+                    resource.setState(State.DONE);
+                }
+            } finally {
+                releaseLock(lock, routedBatch, true);
+            }
+        }
+    }
+
     protected String getSemaphoreKey(OutgoingBatch batch, boolean useStagingDataWriter) {
         return useStagingDataWriter ? Long.toString(batch.getBatchId()) : batch.getNodeBatchId();
     }
@@ -1094,6 +1196,14 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         return factory.getReader(platform, source, sourceNode, targetNode);
     }
 
+    protected ExtractDataReader buildExtractDataReader(Node sourceNode, Node targetNode, OutgoingBatch currentBatch, ProcessInfo processInfo,
+            List<Data> routedData) {
+        IExtractDataReaderSource source = new SelectFromRoutedDataSource(engine, currentBatch, sourceNode, targetNode, processInfo, routedData);
+        IExtractDataReaderFactory factory = AppUtils.newInstance(IExtractDataReaderFactory.class, ExtractDataReaderFactory.class,
+                new Object[] { engine }, new Class[] { ISymmetricEngine.class });
+        return factory.getReader(platform, source, sourceNode, targetNode);
+    }
+
     protected Statistics getExtractStats(IDataWriter writer, OutgoingBatch currentBatch) {
         Map<Batch, Statistics> statisticsMap = null;
         if (writer instanceof TransformWriter) {
@@ -1329,8 +1439,7 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                     if (Thread.currentThread().isInterrupted()) {
                         throw new IoException("This thread was interrupted");
                     }
-                    long batchStatusUpdateMillis = parameterService.getLong(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_MILLIS);
-                    if (System.currentTimeMillis() - ts > batchStatusUpdateMillis && batch.getStatus() != Status.SE && batch.getStatus() != Status.RS) {
+                    if (System.currentTimeMillis() - ts > batchStatusUpdateMillis.getAsLong() && batch.getStatus() != Status.SE && batch.getStatus() != Status.RS) {
                         changeBatchStatus(Status.SE, batch, mode);
                     }
                     if (System.currentTimeMillis() - ts > LOG_PROCESS_SUMMARY_THRESHOLD) {
@@ -28,6 +28,7 @@ import static org.jumpmind.symmetric.model.ProcessType.PULL_JOB_TRANSFER;
 import static org.jumpmind.symmetric.model.ProcessType.PUSH_HANDLER_LOAD;
 import static org.jumpmind.symmetric.model.ProcessType.PUSH_HANDLER_TRANSFER;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -40,6 +41,7 @@ import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -75,11 +77,14 @@ import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.ext.INodeRegistrationListener;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.BinaryProtocolConstants;
 import org.jumpmind.symmetric.io.data.DataContext;
 import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.io.data.DataProcessor;
+import org.jumpmind.symmetric.io.data.IDataReader;
 import org.jumpmind.symmetric.io.data.IDataWriter;
 import org.jumpmind.symmetric.io.data.ProtocolException;
+import org.jumpmind.symmetric.io.data.reader.BinaryProtocolDataReader;
 import org.jumpmind.symmetric.io.data.reader.DataReaderStatistics;
 import org.jumpmind.symmetric.io.data.reader.ProtocolDataReader;
 import org.jumpmind.symmetric.io.data.transform.TransformPoint;
@@ -140,6 +145,7 @@ import org.jumpmind.symmetric.transport.IIncomingTransport;
 import org.jumpmind.symmetric.transport.ITransportManager;
 import org.jumpmind.symmetric.transport.ServiceUnavailableException;
 import org.jumpmind.symmetric.transport.SyncDisabledException;
+import org.jumpmind.symmetric.transport.TransportUtils;
 import org.jumpmind.symmetric.transport.internal.InternalIncomingTransport;
 import org.jumpmind.symmetric.web.WebConstants;
 import org.jumpmind.util.CustomizableThreadFactory;
@@ -272,6 +278,10 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                 requestProperties.put(WebConstants.IGNORED_CHANNELS,
                         suspendIgnoreChannels.getIgnoreChannelsAsString());
                 requestProperties.put(WebConstants.CHANNEL_QUEUE, status.getQueue());
+                if (parameterService.is(ParameterConstants.TRANSPORT_BINARY_PROTOCOL_ENABLED, false)
+                        && !parameterService.is(ParameterConstants.STREAM_TO_FILE_ENABLED)) {
+                    requestProperties.put(WebConstants.HEADER_BINARY_PROTOCOL, String.valueOf(BinaryProtocolConstants.VERSION));
+                }
                 transport = transportManager.getPullTransport(remote, local,
                         localSecurity.getNodePassword(), requestProperties,
                         parameterService.getRegistrationUrl());
@@ -385,13 +395,22 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
      */
     public void loadDataFromPush(Node sourceNode, String queue, InputStream in, OutputStream out)
             throws IOException {
+        loadDataFromPush(sourceNode, queue, in, out, false);
+    }
+
+    /**
+     * Load database from input stream and write acknowledgment to output stream. When acks are streamed, each successful batch is acknowledged as
+     * soon as it is loaded, so the pushing node can mark it done while the rest of the push is still being sent.
+     */
+    public void loadDataFromPush(Node sourceNode, String queue, InputStream in, OutputStream out, boolean streamAcks)
+            throws IOException {
         Node local = nodeService.findIdentity();
         if (sourceNode != null && sourceNode.getNodeId() != null) {
             ProcessInfo transferInfo = statisticManager.newProcessInfo(new ProcessInfoKey(sourceNode
                     .getNodeId(), queue, local != null ? local.getNodeId() : null, PUSH_HANDLER_TRANSFER));
             try {
                 List<IncomingBatch> batchList = loadDataFromTransport(transferInfo, sourceNode,
-                        new InternalIncomingTransport(in), out);
+                        new InternalIncomingTransport(in), out, streamAcks);
                 logDataReceivedFromPush(sourceNode, batchList, transferInfo);
                 if (local == null) {
                     local = nodeService.findIdentity(false);
@@ -536,7 +555,30 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
      */
     protected List<IncomingBatch> loadDataFromTransport(final ProcessInfo transferInfo,
             final Node sourceNode, IIncomingTransport transport, OutputStream out) throws IOException {
+        return loadDataFromTransport(transferInfo, sourceNode, transport, out, false);
+    }
+
+    /**
+     * When the binary protocol was offered, check which protocol the remote node answered with, because a node that does not support it
+     * sends CSV.
+     */
+    protected IDataReader openDataReader(IIncomingTransport transport, String targetNodeId) throws IOException {
+        if (parameterService.is(ParameterConstants.TRANSPORT_BINARY_PROTOCOL_ENABLED, false)) {
+            BufferedInputStream is = new BufferedInputStream(transport.openStream());
+            if (BinaryProtocolDataReader.isBinaryProtocol(is)) {
+                return new BinaryProtocolDataReader(BatchType.LOAD, targetNodeId, is);
+            }
+            return new ProtocolDataReader(BatchType.LOAD, targetNodeId, TransportUtils.toReader(is), false);
+        }
+        return new ProtocolDataReader(BatchType.LOAD, targetNodeId, transport.openReader(), false);
+    }
+
+    protected List<IncomingBatch> loadDataFromTransport(final ProcessInfo transferInfo,
+            final Node sourceNode, IIncomingTransport transport, final OutputStream out, boolean streamAcks) throws IOException {
         final ManageIncomingBatchListener listener = new ManageIncomingBatchListener(transferInfo, engine);
+        if (out != null && streamAcks) {
+            listener.setBatchSuccessfulCallback(batch -> writeStreamingAcknowledgement(out, sourceNode, batch));
+        }
         final DataContext ctx = new DataContext();
         Throwable error = null;
         try {
@@ -582,8 +624,10 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                         outWriter = new OutputStreamWriter(out, StandardCharsets.UTF_8);
                         long keepAliveMillis = parameterService.getLong(ParameterConstants.DATA_LOADER_SEND_ACK_KEEPALIVE);
                         while (!executor.awaitTermination(keepAliveMillis, TimeUnit.MILLISECONDS)) {
-                            outWriter.write("1=1&");
-                            outWriter.flush();
+                            synchronized (out) {
+                                outWriter.write("1=1&");
+                                outWriter.flush();
+                            }
                         }
                     } catch (Exception ex) {
                         log.info("Could not send keep alives to " + sourceNode + " " + ex);
@@ -602,8 +646,7 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                 ProcessInfo loadInfo = statisticManager.newProcessInfo(new ProcessInfoKey(sourceNode.getNodeId(), transferInfo.getQueue(), nodeService
                         .findIdentityNodeId(), PULL_JOB_LOAD));
                 try {
-                    DataProcessor processor = new DataProcessor(new ProtocolDataReader(BatchType.LOAD,
-                            targetNodeId, transport.openReader(), streamToFile), null, listener, "data load") {
+                    DataProcessor processor = new DataProcessor(openDataReader(transport, targetNodeId), null, listener, "data load") {
                         @Override
                         protected IDataWriter chooseDataWriter(Batch batch) {
                             return buildDataWriter(loadInfo, sourceNode.getNodeId(),
@@ -611,7 +654,10 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                                     ((ManageIncomingBatchListener) listener).getCurrentBatch().isRetry());
                         }
                     };
-                    processor.process(ctx);
+                    nodeCommunicationService.withDatabasePermit(() -> {
+                        processor.process(ctx);
+                        return null;
+                    }).call();
                     loadInfo.setStatus(ProcessStatus.OK);
                 } catch (Throwable e) {
                     loadInfo.setStatus(ProcessStatus.ERROR);
@@ -650,6 +696,19 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
         return batchesProcessed;
     }
 
+    protected void writeStreamingAcknowledgement(OutputStream out, Node sourceNode, IncomingBatch batch) {
+        Node local = nodeService.findIdentity();
+        if (local != null) {
+            try {
+                synchronized (out) {
+                    transportManager.writeAcknowledgement(out, sourceNode, Collections.singletonList(batch), local, null);
+                }
+            } catch (IOException e) {
+                log.debug("Could not stream acknowledgement for batch {} to {}: {}", batch.getNodeBatchId(), sourceNode, e.getMessage());
+            }
+        }
+    }
+
     private void awaitTermination(ExecutorService executor) throws InterruptedException {
         long hours = 1;
         while (!executor.awaitTermination(1, TimeUnit.HOURS)) {
@@ -1139,7 +1198,7 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                 }
                 isError = true;
             } else {
-                futures.add(executor.submit(loadBatchFromStage));
+                futures.add(executor.submit(nodeCommunicationService.withDatabasePermit(loadBatchFromStage)));
             }
         }
 
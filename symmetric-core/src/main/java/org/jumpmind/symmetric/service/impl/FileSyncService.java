@@ -20,18 +20,24 @@
  */
 package org.jumpmind.symmetric.service.impl;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
@@ -51,14 +57,19 @@ import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.cache.ICacheManager;
 import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ContextConstants;
+import org.jumpmind.symmetric.common.ErrorConstants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
 import org.jumpmind.symmetric.file.DirectorySnapshot;
 import org.jumpmind.symmetric.file.FileConflictException;
+import org.jumpmind.symmetric.file.FileDeltaMismatchException;
+import org.jumpmind.symmetric.file.FileSyncStreamDataWriter;
+import org.jumpmind.symmetric.file.FileSyncStreamReader;
 import org.jumpmind.symmetric.file.FileSyncZipDataWriter;
 import org.jumpmind.symmetric.file.FileTriggerFileModifiedListener;
 import org.jumpmind.symmetric.file.FileTriggerFileModifiedListener.FileModifiedCallback;
 import org.jumpmind.symmetric.file.FileTriggerTracker;
+import org.jumpmind.symmetric.file.ParallelChecksumCalculator;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.DataEventType;
@@ -69,6 +80,7 @@ import org.jumpmind.symmetric.model.AbstractBatch.Status;
 import org.jumpmind.symmetric.model.BatchAck;
 import org.jumpmind.symmetric.model.Channel;
 import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.FileBlockSignature;
 import org.jumpmind.symmetric.model.FileConflictStrategy;
 import org.jumpmind.symmetric.model.FileSnapshot;
 import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
@@ -111,6 +123,9 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
     private ISymmetricEngine engine;
     private Date lastUpdateTime;
     private ICacheManager cacheManager;
+    private Map<String, FileTriggerTracker> watchingTrackers = new ConcurrentHashMap<String, FileTriggerTracker>();
+    private long watchingTrackTime = -1;
+    private ParallelChecksumCalculator checksumCalculator;
 
     public FileSyncService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect(), engine.getExtensionService());
@@ -187,9 +202,18 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
             ctxDate = null;
         }
         Date currentDate = new Date();
+        if (ctxTime != watchingTrackTime) {
+            // another node in the cluster tracked changes since this node did, so the watched state no longer matches the saved snapshots
+            closeWatchingTrackers();
+        }
+        long trackTime = ctxTime;
+        ParallelChecksumCalculator checksumCalculator = useCrc ? getChecksumCalculator() : null;
+        boolean useWatchService = engine.getParameterService().is(ParameterConstants.FILE_SYNC_USE_WATCH_SERVICE, false);
+        Set<String> trackedKeys = new HashSet<String>();
         List<FileTriggerRouter> fileTriggerRouters = getFileTriggerRoutersForCurrentNode(false);
         for (FileTriggerRouter fileTriggerRouter : fileTriggerRouters) {
             if (fileTriggerRouter.isEnabled()) {
+                String trackerKey = getTrackerKey(fileTriggerRouter);
                 try {
                     FileTrigger fileTrigger = fileTriggerRouter.getFileTrigger();
                     boolean sourceDirReachable = checkSourceDir(fileTriggerRouter);
@@ -197,18 +221,100 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                         continue;
                     }
                     boolean ignoreFiles = shouldIgnoreInitialFiles(fileTriggerRouter, fileTrigger, ctxDate);
-                    FileTriggerTracker tracker = new FileTriggerTracker(fileTriggerRouter, getDirectorySnapshot(fileTriggerRouter),
-                            processInfo, useCrc, engine);
+                    FileTriggerTracker tracker = null;
+                    if (useWatchService) {
+                        trackedKeys.add(trackerKey);
+                        tracker = getWatchingTracker(trackerKey, fileTriggerRouter, processInfo, useCrc, checksumCalculator);
+                    } else {
+                        tracker = new FileTriggerTracker(fileTriggerRouter, getDirectorySnapshot(fileTriggerRouter),
+                                processInfo, useCrc, checksumCalculator, false, engine);
+                    }
                     DirectorySnapshot dirSnapshot = tracker.trackChanges();
                     saveDirectorySnapshot(fileTriggerRouter, dirSnapshot, ignoreFiles);
                     engine.getContextService().save(ContextConstants.FILE_SYNC_FAST_SCAN_TRACK_TIME, String.valueOf(currentDate.getTime()));
+                    trackTime = currentDate.getTime();
                 } catch (Exception ex) {
+                    closeWatchingTracker(trackerKey);
                     log.error("Failed to track changes for file trigger router: "
                             + fileTriggerRouter.getFileTrigger().getTriggerId()
                             + "::" + fileTriggerRouter.getRouter().getRouterId(), ex);
                 }
             }
         }
+        for (String trackerKey : new ArrayList<String>(watchingTrackers.keySet())) {
+            if (!trackedKeys.contains(trackerKey)) {
+                closeWatchingTracker(trackerKey);
+            }
+        }
+        watchingTrackTime = trackTime;
+    }
+
+    /**
+     * A tracker that watches for file system events is kept between runs, so the events since the last run are all that is looked at. It
+     * is replaced when the file trigger or its router changed, or when the base directory can no longer be watched.
+     */
+    protected FileTriggerTracker getWatchingTracker(String trackerKey, FileTriggerRouter fileTriggerRouter, ProcessInfo processInfo,
+            boolean useCrc, ParallelChecksumCalculator checksumCalculator) {
+        FileTriggerTracker tracker = watchingTrackers.get(trackerKey);
+        if (tracker != null) {
+            FileTriggerRouter trackedRouter = tracker.getFileTriggerRouter();
+            if (tracker.isWatching() && tracker.isUseCrc() == useCrc
+                    && Objects.equals(trackedRouter.getLastUpdateTime(), fileTriggerRouter.getLastUpdateTime())
+                    && Objects.equals(trackedRouter.getFileTrigger().getLastUpdateTime(), fileTriggerRouter.getFileTrigger().getLastUpdateTime())) {
+                tracker.setProcessInfo(processInfo);
+                return tracker;
+            }
+            closeWatchingTracker(trackerKey);
+        }
+        tracker = new FileTriggerTracker(fileTriggerRouter, getDirectorySnapshot(fileTriggerRouter), processInfo, useCrc, checksumCalculator,
+                true, engine);
+        if (tracker.isWatching()) {
+            watchingTrackers.put(trackerKey, tracker);
+        }
+        return tracker;
+    }
+
+    protected void closeWatchingTracker(String trackerKey) {
+        FileTriggerTracker tracker = watchingTrackers.remove(trackerKey);
+        if (tracker != null) {
+            tracker.close();
+        }
+    }
+
+    protected void closeWatchingTrackers() {
+        for (String trackerKey : new ArrayList<String>(watchingTrackers.keySet())) {
+            closeWatchingTracker(trackerKey);
+        }
+    }
+
+    /**
+     * The calculator and its thread pool are shared by every tracker, and replaced when file.sync.checksum.threads changes.
+     */
+    protected synchronized ParallelChecksumCalculator getChecksumCalculator() {
+        int checksumThreads = engine.getParameterService().getInt(ParameterConstants.FILE_SYNC_CHECKSUM_THREADS, 1);
+        if (checksumCalculator != null && checksumCalculator.getThreadCount() != checksumThreads) {
+            checksumCalculator.shutdown();
+            checksumCalculator = null;
+        }
+        if (checksumCalculator == null && checksumThreads > 1) {
+            checksumCalculator = new ParallelChecksumCalculator(checksumThreads,
+                    String.format("%s-file-sync-checksum", engine.getParameterService().getEngineName().toLowerCase()));
+        }
+        return checksumCalculator;
+    }
+
+    public void stop() {
+        closeWatchingTrackers();
+        synchronized (this) {
+            if (checksumCalculator != null) {
+                checksumCalculator.shutdown();
+                checksumCalculator = null;
+            }
+        }
+    }
+
+    protected String getTrackerKey(FileTriggerRouter fileTriggerRouter) {
+        return fileTriggerRouter.getFileTrigger().getTriggerId() + "::" + fileTriggerRouter.getRouter().getRouterId();
     }
 
     protected void trackChangesFastScan(ProcessInfo processInfo, boolean useCrc) {
@@ -223,6 +329,7 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         // Remove milliseconds - not all operating systems support milliseconds in the file modification time
         currentDate.setTime((currentDate.getTime() / 1000) * 1000);
         int maxRowsBeforeCommit = engine.getParameterService().getInt(ParameterConstants.DATA_LOADER_MAX_ROWS_BEFORE_COMMIT);
+        ParallelChecksumCalculator checksumCalculator = useCrc ? getChecksumCalculator() : null;
         try {
             List<FileTriggerRouter> fileTriggerRouters = getFileTriggerRoutersForCurrentNode(false);
             for (final FileTriggerRouter fileTriggerRouter : fileTriggerRouters) {
@@ -245,6 +352,7 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                                     return getDirectorySnapshot(fileTriggerRouter, relativeDir);
                                 }
                             }, engine);
+                    listener.setChecksumCalculator(checksumCalculator);
                     observer.addListener(listener);
                     observer.checkAndNotify();
                     engine.getContextService().save(ContextConstants.FILE_SYNC_FAST_SCAN_TRACK_TIME, String.valueOf(currentDate.getTime()));
@@ -561,6 +669,51 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         }
     }
 
+    public FileBlockSignature getFileBlockSignature(String nodeId, FileSnapshot snapshot) {
+        return sqlTemplate.queryForObject(getSql("selectFileBlockSignatureSql"), new FileBlockSignatureMapper(), nodeId,
+                snapshot.getTriggerId(), snapshot.getRouterId(), snapshot.getRelativeDir(), snapshot.getFileName());
+    }
+
+    public void saveFileBlockSignature(FileBlockSignature signature) {
+        signature.setLastUpdateTime(new Date());
+        String blockChecksums = Base64.getEncoder().encodeToString(signature.getBlockChecksums());
+        if (0 >= sqlTemplate.update(getSql("updateFileBlockSignatureSql"),
+                new Object[] { signature.getBatchId(), signature.getBlockSize(), signature.getFileSize(), signature.getCrc32Checksum(),
+                        blockChecksums, signature.getLastUpdateTime(), signature.getNodeId(), signature.getTriggerId(),
+                        signature.getRouterId(), signature.getRelativeDir(), signature.getFileName() },
+                new int[] { Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.LONGVARCHAR, Types.TIMESTAMP,
+                        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR })) {
+            signature.setCreateTime(signature.getLastUpdateTime());
+            sqlTemplate.update(getSql("insertFileBlockSignatureSql"),
+                    new Object[] { signature.getBatchId(), signature.getBlockSize(), signature.getFileSize(), signature.getCrc32Checksum(),
+                            blockChecksums, signature.getLastUpdateTime(), signature.getCreateTime(), signature.getNodeId(),
+                            signature.getTriggerId(), signature.getRouterId(), signature.getRelativeDir(), signature.getFileName() },
+                    new int[] { Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.LONGVARCHAR, Types.TIMESTAMP,
+                            Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR });
+        }
+    }
+
+    public void deleteFileBlockSignature(String nodeId, FileSnapshot snapshot) {
+        sqlTemplate.update(getSql("deleteFileBlockSignatureSql"), nodeId, snapshot.getTriggerId(), snapshot.getRouterId(),
+                snapshot.getRelativeDir(), snapshot.getFileName());
+    }
+
+    public void acknowledgeFilesError(OutgoingBatch outgoingBatch) {
+        /* The target may not have the files from this batch, so later changes to them are sent as full files */
+        int count = sqlTemplate.update(getSql("deleteFileBlockSignaturesForBatchSql"), outgoingBatch.getNodeId(), outgoingBatch.getBatchId());
+        if (count > 0) {
+            log.debug("Removed {} file block signatures for file_sync outgoing batch-{}", count, outgoingBatch.getBatchId());
+        }
+        if (outgoingBatch.getSqlCode() == ErrorConstants.FILE_DELTA_MISMATCH_CODE) {
+            IStagedResource resource = getStagedResource(outgoingBatch);
+            if (resource != null) {
+                log.info("The file sync batch {} has a delta of a file the target does not have, so it will be extracted again with the full file",
+                        outgoingBatch.getNodeBatchId());
+                resource.delete();
+            }
+        }
+    }
+
     synchronized public RemoteNodeStatuses pullFilesFromNodes(boolean force) {
         CommunicationType communicationType = engine.getParameterService().is(ParameterConstants.NODE_OFFLINE) ? CommunicationType.OFF_FSPULL
                 : CommunicationType.FILE_PULL;
@@ -599,8 +752,11 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         IStagedResource stagedResource = null;
         IStagedResource previouslyStagedResource = null;
         FileSyncZipDataWriter dataWriter = null;
+        boolean streaming = parameterService.is(ParameterConstants.FILE_SYNC_STREAM_ENABLED, false)
+                && !StringUtils.equals(targetNode.getDeploymentType(), Constants.DEPLOYMENT_TYPE_CCLIENT);
         try {
             long syncedBytes = 0;
+            boolean extracted = false;
             try {
                 for (int i = 0; i < batchesToProcess.size(); i++) {
                     currentBatch = batchesToProcess.get(i);
@@ -616,9 +772,17 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                         stagedResource = previouslyStagedResource;
                     } else {
                         if (dataWriter == null) {
-                            stagedResource = stagingManager.create(getStagingPathComponents(currentBatch));
-                            dataWriter = new FileSyncZipDataWriter(maxBytesToSync, this,
-                                    engine.getNodeService(), stagedResource, engine.getExtensionService(), engine.getConfigurationService());
+                            if (streaming) {
+                                processInfo.setStatus(ProcessInfo.ProcessStatus.TRANSFERRING);
+                                dataWriter = new FileSyncStreamDataWriter(maxBytesToSync, this, engine.getNodeService(),
+                                        outgoingTransport.openStream(), engine.getExtensionService(), engine.getConfigurationService(),
+                                        engine.getParameterService());
+                            } else {
+                                stagedResource = stagingManager.create(getStagingPathComponents(currentBatch));
+                                dataWriter = new FileSyncZipDataWriter(maxBytesToSync, this,
+                                        engine.getNodeService(), stagedResource, engine.getExtensionService(), engine.getConfigurationService(),
+                                        engine.getParameterService());
+                            }
                         }
                         log.debug("Extracting batch {} for filesync.", currentBatch.getNodeBatchId());
                         ((DataExtractorService) engine.getDataExtractorService()).extractOutgoingBatch(
@@ -626,7 +790,9 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                                 DataExtractorService.ExtractMode.FOR_SYM_CLIENT, null);
                     }
                     processedBatches.add(currentBatch);
-                    syncedBytes += stagedResource.getSize();
+                    if (stagedResource != null) {
+                        syncedBytes += stagedResource.getSize();
+                    }
                     processInfo.incrementBatchCount();
                     processInfo.setCurrentBatchId(currentBatch.getBatchId());
                     log.debug("Processed file sync batch {}. syncedBytes={}, maxBytesToSync={}", currentBatch, syncedBytes, maxBytesToSync);
@@ -637,8 +803,10 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                         break;
                     }
                 }
+                extracted = true;
             } finally {
-                if (dataWriter != null) {
+                // a stream that failed part way through is left unfinished so the target does not load it
+                if (dataWriter != null && (extracted || !streaming)) {
                     dataWriter.finish();
                 }
             }
@@ -657,7 +825,7 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                     } catch (IOException e) {
                         throw new IoException(e);
                     }
-                } else {
+                } else if (!streaming || dataWriter == null) {
                     log.error("Missing staged ZIP file for target node {}: {}", targetNode,
                             stagedResource == null ? "<null>" : stagedResource);
                 }
@@ -923,7 +1091,16 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         FileUtils.deleteDirectory(unzipDir);
         unzipDir.mkdirs();
         try {
-            AppUtils.unzip(is, unzipDir);
+            if (is instanceof FileInputStream && FileSyncStreamReader.isStream((FileInputStream) is)) {
+                new FileSyncStreamReader(is).unpack(unzipDir);
+            } else {
+                BufferedInputStream in = new BufferedInputStream(is);
+                if (FileSyncStreamReader.isStream(in)) {
+                    new FileSyncStreamReader(in).unpack(unzipDir);
+                } else {
+                    AppUtils.unzip(in, unzipDir);
+                }
+            }
         } catch (IoException ex) {
             if (ex.toString().contains("EOFException")) { // This happens on Android, when there is an empty zip.
                 // log.debug("Caught exception while unzipping.", ex);
@@ -1017,6 +1194,10 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                         } else if (ex instanceof FileConflictException) {
                             log.error(ex.getMessage() + ".  Failed to process file sync batch "
                                     + nodeIdBatchId);
+                        } else if (ex instanceof FileDeltaMismatchException) {
+                            log.warn("{}.  The file sync batch {} will be sent again with the full file", ex.getMessage(), nodeIdBatchId);
+                            incomingBatch.setSqlState(ErrorConstants.FILE_DELTA_MISMATCH_STATE);
+                            incomingBatch.setSqlCode(ErrorConstants.FILE_DELTA_MISMATCH_CODE);
                         } else {
                             log.error("Failed to process file sync for  batch " + nodeIdBatchId, ex);
                         }
@@ -1251,6 +1432,26 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         }
     }
 
+    static class FileBlockSignatureMapper implements ISqlRowMapper<FileBlockSignature> {
+        public FileBlockSignature mapRow(Row rs) {
+            FileBlockSignature signature = new FileBlockSignature();
+            signature.setNodeId(rs.getString("node_id"));
+            signature.setTriggerId(rs.getString("trigger_id"));
+            signature.setRouterId(rs.getString("router_id"));
+            signature.setRelativeDir(rs.getString("relative_dir"));
+            signature.setFileName(rs.getString("file_name"));
+            signature.setBatchId(rs.getLong("batch_id"));
+            signature.setBlockSize(rs.getInt("block_size"));
+            signature.setFileSize(rs.getLong("file_size"));
+            signature.setCrc32Checksum(rs.getLong("crc32_checksum"));
+            String blockChecksums = rs.getString("block_checksums");
+            signature.setBlockChecksums(blockChecksums == null ? new byte[0] : Base64.getDecoder().decode(blockChecksums));
+            signature.setCreateTime(rs.getDateTime("create_time"));
+            signature.setLastUpdateTime(rs.getDateTime("last_update_time"));
+            return signature;
+        }
+    }
+
     @Override
     public void save(List<FileSnapshot> changes) {
         // TODO Auto-generated method stub
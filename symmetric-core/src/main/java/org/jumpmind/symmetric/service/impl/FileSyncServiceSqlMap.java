@@ -107,6 +107,34 @@ public class FileSyncServiceSqlMap extends AbstractSqlMap {
                 "  last_update_by, channel_id, reload_channel_id, trigger_id, router_id, relative_dir, file_name   " +
                 " ) values(?,?,?,?,?,?,?,?,?,?,?,?,?)                                                 ");
 
+        putSql("selectFileBlockSignatureSql",
+                " select node_id, trigger_id, router_id, relative_dir, file_name, batch_id,     " +
+                "  block_size, file_size, crc32_checksum, block_checksums,                      " +
+                "  create_time, last_update_time                                                " +
+                " from $(file_block_signature)                                                  " +
+                " where node_id=? and trigger_id=? and router_id=? and relative_dir=? and file_name=? ");
+
+        putSql("updateFileBlockSignatureSql",
+                " update $(file_block_signature) set                                            " +
+                        "  batch_id=?, block_size=?, file_size=?, crc32_checksum=?,             " +
+                        "  block_checksums=?, last_update_time=?                                " +
+                        " where                                                                 " +
+                        "  node_id=? and trigger_id=? and router_id=? and relative_dir=? and file_name=? ");
+
+        putSql("insertFileBlockSignatureSql",
+                " insert into $(file_block_signature) (                                         " +
+                "  batch_id, block_size, file_size, crc32_checksum, block_checksums,            " +
+                "  last_update_time, create_time, node_id, trigger_id, router_id, relative_dir, file_name " +
+                " ) values(?,?,?,?,?,?,?,?,?,?,?,?)                                             ");
+
+        putSql("deleteFileBlockSignatureSql",
+                " delete from $(file_block_signature)                                           " +
+                        " where                                                                 " +
+                        "  node_id=? and trigger_id=? and router_id=? and relative_dir=? and file_name=? ");
+
+        putSql("deleteFileBlockSignaturesForBatchSql",
+                " delete from $(file_block_signature) where node_id=? and batch_id=?            ");
+
         putSql("selectFileTriggerRoutersSql",
                 " select                                                                        " +
                 "  tr.trigger_id as trigger_id, tr.router_id as router_id, enabled,             " +
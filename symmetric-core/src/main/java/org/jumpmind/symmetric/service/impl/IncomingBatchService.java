@@ -65,6 +65,15 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
         setSqlMap(new IncomingBatchServiceSqlMap(symmetricDialect.getPlatform(), createSqlReplacementTokens()));
     }
 
+    public Map<Long, IncomingBatch> findIncomingBatches(String nodeId, long fromBatchId, long toBatchId) {
+        Map<Long, IncomingBatch> batches = new HashMap<Long, IncomingBatch>();
+        for (IncomingBatch batch : sqlTemplate.query(getSql("selectIncomingBatchPrefixSql", "findIncomingBatchesInRangeSql"),
+                new IncomingBatchMapper(), nodeId, fromBatchId, toBatchId)) {
+            batches.put(batch.getBatchId(), batch);
+        }
+        return batches;
+    }
+
     public void refreshIncomingBatch(IncomingBatch batch) {
         sqlTemplate.queryForObject(getSql("selectIncomingBatchPrefixSql", "findIncomingBatchSql"), new IncomingBatchMapper(batch),
                 batch.getBatchId(), batch.getNodeId());
@@ -119,6 +128,10 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
                 nodeId);
     }
 
+    public boolean isBulkBookkeepingEnabled() {
+        return isRecordOkBatchesEnabled() && parameterService.is(ParameterConstants.INCOMING_BATCH_BULK_BOOKKEEPING_ENABLED, false);
+    }
+
     @SuppressWarnings("deprecation")
     public boolean isRecordOkBatchesEnabled() {
         boolean enabled = true;
@@ -247,39 +260,57 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
                 }
             }
             if (batch.isRetry()) {
-                if (existingBatch.getStatus() == Status.ER || existingBatch.getStatus() == Status.LD || existingBatch.getStatus() == Status.RS
-                        || !parameterService.is(ParameterConstants.INCOMING_BATCH_SKIP_DUPLICATE_BATCHES_ENABLED)) {
-                    okayToProcess = true;
-                    batch.setErrorFlag(existingBatch.isErrorFlag());
-                    batch.setFailedLineNumber(existingBatch.getFailedLineNumber());
-                    batch.setFailedRowNumber(existingBatch.getFailedRowNumber());
-                    existingBatch.setStatus(Status.LD);
-                    log.info("Retrying batch {}", batch.getNodeBatchId());
-                } else if (existingBatch.getStatus() == Status.IG) {
-                    okayToProcess = false;
-                    batch.setStatus(Status.OK);
-                    batch.incrementIgnoreCount();
-                    existingBatch.setStatus(Status.OK);
-                    existingBatch.incrementIgnoreCount();
-                    log.info("Ignoring batch {}", batch.getNodeBatchId());
-                } else {
-                    okayToProcess = false;
-                    batch.setStatus(existingBatch.getStatus());
-                    batch.setByteCount(existingBatch.getByteCount());
-                    batch.setLoadMillis(existingBatch.getLoadMillis());
-                    batch.setNetworkMillis(existingBatch.getNetworkMillis());
-                    batch.setFilterMillis(existingBatch.getFilterMillis());
-                    batch.setSkipCount(existingBatch.getSkipCount() + 1);
-                    batch.setLoadRowCount(existingBatch.getLoadRowCount());
-                    existingBatch.setSkipCount(existingBatch.getSkipCount() + 1);
-                    log.info("Skipping batch {} that was already loaded", batch.getNodeBatchId());
-                }
-                updateIncomingBatch(existingBatch);
+                okayToProcess = retryIncomingBatch(batch, existingBatch);
             }
         }
         return okayToProcess;
     }
 
+    public boolean acquireIncomingBatch(IncomingBatch batch, Map<Long, IncomingBatch> prefetchedBatches) {
+        boolean okayToProcess = true;
+        if (batch.isPersistable()) {
+            IncomingBatch existingBatch = prefetchedBatches.get(batch.getBatchId());
+            if (existingBatch != null) {
+                batch.setRetry(true);
+                okayToProcess = retryIncomingBatch(batch, existingBatch);
+            }
+        }
+        return okayToProcess;
+    }
+
+    protected boolean retryIncomingBatch(IncomingBatch batch, IncomingBatch existingBatch) {
+        boolean okayToProcess = true;
+        if (existingBatch.getStatus() == Status.ER || existingBatch.getStatus() == Status.LD || existingBatch.getStatus() == Status.RS
+                || !parameterService.is(ParameterConstants.INCOMING_BATCH_SKIP_DUPLICATE_BATCHES_ENABLED)) {
+            okayToProcess = true;
+            batch.setErrorFlag(existingBatch.isErrorFlag());
+            batch.setFailedLineNumber(existingBatch.getFailedLineNumber());
+            batch.setFailedRowNumber(existingBatch.getFailedRowNumber());
+            existingBatch.setStatus(Status.LD);
+            log.info("Retrying batch {}", batch.getNodeBatchId());
+        } else if (existingBatch.getStatus() == Status.IG) {
+            okayToProcess = false;
+            batch.setStatus(Status.OK);
+            batch.incrementIgnoreCount();
+            existingBatch.setStatus(Status.OK);
+            existingBatch.incrementIgnoreCount();
+            log.info("Ignoring batch {}", batch.getNodeBatchId());
+        } else {
+            okayToProcess = false;
+            batch.setStatus(existingBatch.getStatus());
+            batch.setByteCount(existingBatch.getByteCount());
+            batch.setLoadMillis(existingBatch.getLoadMillis());
+            batch.setNetworkMillis(existingBatch.getNetworkMillis());
+            batch.setFilterMillis(existingBatch.getFilterMillis());
+            batch.setSkipCount(existingBatch.getSkipCount() + 1);
+            batch.setLoadRowCount(existingBatch.getLoadRowCount());
+            existingBatch.setSkipCount(existingBatch.getSkipCount() + 1);
+            log.info("Skipping batch {} that was already loaded", batch.getNodeBatchId());
+        }
+        updateIncomingBatch(existingBatch);
+        return okayToProcess;
+    }
+
     public void insertIncomingBatch(ISqlTransaction transaction, IncomingBatch batch) {
         if (batch.isPersistable()) {
             boolean alreadyExists = false;
@@ -53,6 +53,8 @@ public class IncomingBatchServiceSqlMap extends AbstractSqlMap {
 
         putSql("findIncomingBatchByBatchIdSql", "where batch_id = ? " );
 
+        putSql("findIncomingBatchesInRangeSql", "where node_id = ? and batch_id between ? and ? " );
+
         putSql("listIncomingBatchesInErrorForNodeSql" ,"" + 
 "where node_id=? and error_flag=1   " );
 
@@ -26,7 +26,9 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 import java.util.zip.ZipException;
 
 import org.jumpmind.db.model.Table;
@@ -70,6 +72,12 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
     protected List<IncomingBatch> batchesProcessed = new ArrayList<IncomingBatch>();
     protected IncomingBatch currentBatch;
     protected boolean isNewErrorForCurrentBatch;
+    protected boolean isCurrentBatchDeferred;
+    protected boolean isCurrentBatchRecorded;
+    protected Map<Long, IncomingBatch> prefetchedBatches;
+    protected String prefetchedNodeId;
+    protected long prefetchedFromBatchId;
+    protected long prefetchedToBatchId;
     protected ProcessInfo processInfo;
     private ISymmetricEngine engine;
     private IParameterService parameterService;
@@ -77,6 +85,7 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
     private IStatisticManager statisticManager;
     private ISymmetricDialect symmetricDialect;
     private IDataLoaderService dataLoaderService;
+    private Consumer<IncomingBatch> batchSuccessfulCallback;
 
     public ManageIncomingBatchListener(ProcessInfo processInfo, ISymmetricEngine engine) {
         this.processInfo = processInfo;
@@ -89,6 +98,9 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
     }
 
     public void beforeBatchEnd(DataContext context) {
+        if (this.isCurrentBatchDeferred) {
+            recordBatchInLoadTransaction(context);
+        }
         // Only sync triggers if this is not a load only node.
         if (engine.getSymmetricDialect().getPlatform().equals(engine.getTargetDialect().getPlatform())) {
             enableSyncTriggers(context);
@@ -119,7 +131,20 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
             }
             this.currentBatch = incomingBatch;
             context.put("currentBatch", this.currentBatch);
-            if (incomingBatchService.acquireIncomingBatch(incomingBatch)) {
+            this.isCurrentBatchDeferred = false;
+            this.isCurrentBatchRecorded = false;
+            boolean okayToProcess = false;
+            if (incomingBatch.isPersistable() && incomingBatchService.isBulkBookkeepingEnabled()) {
+                okayToProcess = incomingBatchService.acquireIncomingBatch(incomingBatch, getPrefetchedBatches(incomingBatch));
+                this.isCurrentBatchDeferred = !incomingBatch.isRetry();
+                /*
+                 * The prefetched status of this batch is out of date now, so read it again if the batch is sent again
+                 */
+                this.prefetchedFromBatchId = incomingBatch.getBatchId() + 1;
+            } else {
+                okayToProcess = incomingBatchService.acquireIncomingBatch(incomingBatch);
+            }
+            if (okayToProcess) {
                 if (batch.getBatchId() == Constants.VIRTUAL_BATCH_FOR_REGISTRATION) {
                     log.info("Loading registration batch from {}", batch.getSourceNodeId());
                 }
@@ -129,6 +154,43 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
         return false;
     }
 
+    /**
+     * Read the status of this batch and the batches that follow it from the same node with one query, unless it was read already.
+     */
+    protected Map<Long, IncomingBatch> getPrefetchedBatches(IncomingBatch batch) {
+        if (prefetchedBatches == null || !batch.getNodeId().equals(prefetchedNodeId) || batch.getBatchId() < prefetchedFromBatchId
+                || batch.getBatchId() > prefetchedToBatchId) {
+            int prefetchSize = Math.max(parameterService.getInt(ParameterConstants.INCOMING_BATCH_BULK_BOOKKEEPING_PREFETCH_SIZE, 100), 1);
+            prefetchedNodeId = batch.getNodeId();
+            prefetchedFromBatchId = batch.getBatchId();
+            prefetchedToBatchId = batch.getBatchId() + prefetchSize - 1;
+            prefetchedBatches = incomingBatchService.findIncomingBatches(prefetchedNodeId, prefetchedFromBatchId, prefetchedToBatchId);
+        }
+        return prefetchedBatches;
+    }
+
+    /**
+     * Insert a new batch as OK in the transaction that loaded its data, so it is recorded by the same commit.
+     */
+    protected void recordBatchInLoadTransaction(DataContext context) {
+        ISqlTransaction transaction = context.findSymmetricTransaction(engine.getTablePrefix());
+        if (transaction != null && !Boolean.TRUE.equals(context.get(AbstractDatabaseWriter.TRANSACTION_ABORTED))) {
+            Batch batch = context.getBatch();
+            Status oldStatus = this.currentBatch.getStatus();
+            this.currentBatch.setValues(context.getReader().getStatistics().get(batch), context
+                    .getWriter().getStatistics().get(batch), true);
+            this.currentBatch.setBulkLoaderFlag(batch.isBulkLoaderFlag());
+            this.currentBatch.setStatus(Status.OK);
+            try {
+                incomingBatchService.insertIncomingBatch(transaction, this.currentBatch);
+            } catch (RuntimeException ex) {
+                this.currentBatch.setStatus(oldStatus);
+                throw ex;
+            }
+            this.isCurrentBatchRecorded = true;
+        }
+    }
+
     public void afterBatchStarted(DataContext context) {
         Batch batch = context.getBatch();
         ISqlTransaction transaction = context.findSymmetricTransaction(engine.getTablePrefix());
@@ -154,7 +216,12 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
                 if (this.currentBatch.getIgnoreCount() > 0) {
                     log.info("Ignoring batch {}", this.currentBatch.getNodeBatchId());
                 }
-                incomingBatchService.updateIncomingBatch(this.currentBatch);
+                if (!this.isCurrentBatchDeferred) {
+                    incomingBatchService.updateIncomingBatch(this.currentBatch);
+                } else if (!this.isCurrentBatchRecorded) {
+                    incomingBatchService.insertIncomingBatch(this.currentBatch);
+                }
+                this.isCurrentBatchDeferred = false;
             } else if (this.currentBatch.isRetry()) {
                 incomingBatchService.deleteIncomingBatch(this.currentBatch);
             }
@@ -162,6 +229,16 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
             this.currentBatch.setStatus(oldStatus);
             throw ex;
         }
+        if (batchSuccessfulCallback != null) {
+            batchSuccessfulCallback.accept(this.currentBatch);
+        }
+    }
+
+    /**
+     * Set a callback that is notified after each batch is loaded and recorded successfully, such as to stream its acknowledgement back right away.
+     */
+    public void setBatchSuccessfulCallback(Consumer<IncomingBatch> batchSuccessfulCallback) {
+        this.batchSuccessfulCallback = batchSuccessfulCallback;
     }
 
     protected void enableSyncTriggers(DataContext context) {
@@ -191,10 +268,13 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
                 log.debug("Bulk loading error.", ex);
             } else {
                 /*
-                 * Reread batch to make sure it wasn't set to IG or OK
+                 * Reread batch to make sure it wasn't set to IG or OK, unless it was never saved because its bookkeeping was deferred
                  */
-                engine.getIncomingBatchService().refreshIncomingBatch(currentBatch);
-                if (currentBatch.getStatus() != Status.OK && currentBatch.getStatus() != Status.IG) {
+                if (!this.isCurrentBatchDeferred) {
+                    engine.getIncomingBatchService().refreshIncomingBatch(currentBatch);
+                }
+                this.isCurrentBatchRecorded = false;
+                if (this.isCurrentBatchDeferred || (currentBatch.getStatus() != Status.OK && currentBatch.getStatus() != Status.IG)) {
                     currentBatch.setStatus(IncomingBatch.Status.ER);
                     currentBatch.setErrorFlag(true);
                 }
@@ -330,14 +410,14 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
                     }
                 }
                 if (transaction != null) {
-                    if (incomingBatchService.isRecordOkBatchesEnabled()
+                    if ((incomingBatchService.isRecordOkBatchesEnabled() && !this.isCurrentBatchDeferred)
                             || this.currentBatch.isRetry()) {
                         incomingBatchService.updateIncomingBatch(transaction, this.currentBatch);
                     } else {
                         incomingBatchService.insertIncomingBatch(transaction, this.currentBatch);
                     }
                 } else {
-                    if (incomingBatchService.isRecordOkBatchesEnabled()
+                    if ((incomingBatchService.isRecordOkBatchesEnabled() && !this.isCurrentBatchDeferred)
                             || this.currentBatch.isRetry()) {
                         incomingBatchService.updateIncomingBatch(this.currentBatch);
                     } else {
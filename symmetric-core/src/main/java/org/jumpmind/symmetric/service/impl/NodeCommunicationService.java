@@ -31,9 +31,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -44,6 +46,7 @@ import org.apache.commons.lang3.time.DateUtils;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.mapper.StringMapper;
+import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.model.Channel;
@@ -62,10 +65,16 @@ import org.jumpmind.symmetric.service.INodeService;
 import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.AppUtils;
 import org.jumpmind.util.RandomTimeSlot;
+import org.jumpmind.util.VirtualThreads;
 import org.slf4j.MDC;
 
 public class NodeCommunicationService extends AbstractService implements INodeCommunicationService {
     private Map<CommunicationType, ThreadPoolExecutor> executors = new HashMap<NodeCommunication.CommunicationType, ThreadPoolExecutor>();
+    private ExecutorService virtualThreadExecutor;
+    private Map<CommunicationType, Semaphore> virtualThreadPermits = new HashMap<CommunicationType, Semaphore>();
+    private Map<CommunicationType, Integer> virtualThreadPermitCounts = new HashMap<CommunicationType, Integer>();
+    private ThreadLocal<Semaphore> taskDatabasePermits = new ThreadLocal<Semaphore>();
+    private boolean pinnedThreadMonitorStarted;
     private INodeService nodeService;
     private IClusterService clusterService;
     private IConfigurationService configurationService;
@@ -399,12 +408,7 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
         return filteredNodes;
     }
 
-    protected ThreadPoolExecutor getExecutor(final CommunicationType communicationType) {
-        return getExecutor(communicationType, null);
-    }
-
-    protected ThreadPoolExecutor getExecutor(final CommunicationType communicationType, final String threadChannelId) {
-        ThreadPoolExecutor service = executors.get(communicationType);
+    protected String getThreadCountParameter(CommunicationType communicationType) {
         String threadCountParameter = "";
         switch (communicationType) {
             case PULL:
@@ -440,6 +444,16 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
             default:
                 break;
         }
+        return threadCountParameter;
+    }
+
+    protected ThreadPoolExecutor getExecutor(final CommunicationType communicationType) {
+        return getExecutor(communicationType, null);
+    }
+
+    protected ThreadPoolExecutor getExecutor(final CommunicationType communicationType, final String threadChannelId) {
+        ThreadPoolExecutor service = executors.get(communicationType);
+        String threadCountParameter = getThreadCountParameter(communicationType);
         int threadCount = parameterService.getInt(threadCountParameter, 1);
         if (service != null && service.getCorePoolSize() != threadCount) {
             synchronized (this) {
@@ -476,10 +490,83 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
     }
 
     public int getAvailableThreads(CommunicationType communicationType) {
+        if (isVirtualThreadsEnabled()) {
+            int threadCount = Math.max(parameterService.getInt(getThreadCountParameter(communicationType), 1), 1);
+            return Math.max(threadCount - currentlyExecuting.get(communicationType).size(), 0);
+        }
         ThreadPoolExecutor service = getExecutor(communicationType);
         return service.getMaximumPoolSize() - service.getActiveCount();
     }
 
+    protected boolean isVirtualThreadsEnabled() {
+        return parameterService.is(ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS_ENABLED, false) && VirtualThreads.isSupported();
+    }
+
+    /**
+     * With virtual threads, the database connections left after the HTTP workers are shared between the communication types in use, and each
+     * type gets at least the minimum number of permits, so one type of communication can not use up the database connections another type needs.
+     */
+    protected synchronized Semaphore getVirtualThreadPermits(CommunicationType communicationType) {
+        int budget = parameterService.getInt(ParameterConstants.DB_POOL_MAX_ACTIVE, 50)
+                - parameterService.getInt(ParameterConstants.CONCURRENT_WORKERS, 20);
+        int typesInUse = virtualThreadPermits.size() + (virtualThreadPermits.containsKey(communicationType) ? 0 : 1);
+        int permitCount = Math.max(budget / typesInUse,
+                Math.max(parameterService.getInt(ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS_MIN_PERMITS, 2), 1));
+        Semaphore permits = virtualThreadPermits.get(communicationType);
+        if (permits == null || permitCount != virtualThreadPermitCounts.get(communicationType)) {
+            /*
+             * Running tasks release their permit to the semaphore they acquired it from, like tasks that finish on a thread pool being restarted
+             */
+            permits = new Semaphore(permitCount);
+            virtualThreadPermits.put(communicationType, permits);
+            virtualThreadPermitCounts.put(communicationType, permitCount);
+        }
+        return permits;
+    }
+
+    /**
+     * Push and pull tasks spend most of their time on the network, so they only take a permit for the extract and load work they hand to
+     * {@link #withDatabasePermit(Callable)}. Other tasks work on the database for their whole run.
+     */
+    protected boolean isTransferType(CommunicationType communicationType) {
+        return communicationType == CommunicationType.PUSH || communicationType == CommunicationType.PULL;
+    }
+
+    public <T> Callable<T> withDatabasePermit(final Callable<T> callable) {
+        final Semaphore permits = taskDatabasePermits.get();
+        if (permits == null) {
+            return callable;
+        }
+        return () -> {
+            long timeoutMs = parameterService.getLong(ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS_PERMIT_TIMEOUT_MS, 60000);
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SymmetricException("Timed out after %d ms waiting for a database permit", timeoutMs);
+            }
+            Semaphore previous = taskDatabasePermits.get();
+            /* work called while holding the permit does not take a second one */
+            taskDatabasePermits.remove();
+            try {
+                return callable.call();
+            } finally {
+                taskDatabasePermits.set(previous);
+                permits.release();
+            }
+        };
+    }
+
+    protected synchronized ExecutorService getVirtualThreadExecutor() {
+        if (virtualThreadExecutor == null) {
+            virtualThreadExecutor = VirtualThreads.newThreadPerTaskExecutor(parameterService.getEngineName().toLowerCase() + "-communication-");
+            long pinnedThresholdMs = parameterService.getLong(ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS_PINNED_THRESHOLD_MS, 100);
+            if (pinnedThresholdMs > 0 && !pinnedThreadMonitorStarted) {
+                VirtualThreads.startPinnedThreadMonitor(pinnedThresholdMs);
+                pinnedThreadMonitorStarted = true;
+            }
+            log.info("Node communication will use virtual threads");
+        }
+        return virtualThreadExecutor;
+    }
+
     protected Date getLockTimeoutDate(CommunicationType communicationType) {
         String parameter = "";
         switch (communicationType) {
@@ -531,6 +618,7 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
                 nodeCommunication.setLastLockTime(now);
                 nodeCommunication.setLockingServerId(clusterService.getServerId());
                 final RemoteNodeStatus status = statuses.add(nodeCommunication.getNodeId(), nodeCommunication.getQueue());
+                final boolean virtualThread = !parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS) && isVirtualThreadsEnabled();
                 Runnable r = new Runnable() {
                     public void run() {
                         long ts = System.currentTimeMillis();
@@ -541,13 +629,24 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
                                     "-" + nodeCommunication.getQueue().toLowerCase();
                             Thread thread = Thread.currentThread();
                             thread.setName(thread.getName().replaceFirst(".*(-\\d+)", name + "$1"));
-                            executor.execute(nodeCommunication, status);
+                            if (virtualThread) {
+                                taskDatabasePermits.set(getVirtualThreadPermits(nodeCommunication.getCommunicationType()));
+                            }
+                            if (virtualThread && !isTransferType(nodeCommunication.getCommunicationType())) {
+                                withDatabasePermit(() -> {
+                                    executor.execute(nodeCommunication, status);
+                                    return null;
+                                }).call();
+                            } else {
+                                executor.execute(nodeCommunication, status);
+                            }
                             failed = status.failed();
                         } catch (Throwable ex) {
                             failed = true;
                             log.error(String.format("Failed to execute %s for node %s and channel %s", nodeCommunication.getCommunicationType().name(),
                                     nodeCommunication.getNodeId(), nodeCommunication.getQueue()), ex);
                         } finally {
+                            taskDatabasePermits.remove();
                             status.setComplete(true);
                             executing.remove(nodeCommunication.getIdentifier());
                             unlock(nodeCommunication, failed, ts);
@@ -556,6 +655,8 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
                 };
                 if (parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS)) {
                     r.run();
+                } else if (virtualThread) {
+                    getVirtualThreadExecutor().execute(r);
                 } else {
                     ThreadPoolExecutor service = getExecutor(nodeCommunication.getCommunicationType(),
                             nodeCommunication.getQueue());
@@ -636,6 +737,16 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
     }
 
     public void stop() {
+        synchronized (this) {
+            if (virtualThreadExecutor != null) {
+                virtualThreadExecutor.shutdown();
+                virtualThreadExecutor = null;
+            }
+            if (pinnedThreadMonitorStarted) {
+                VirtualThreads.stopPinnedThreadMonitor();
+                pinnedThreadMonitorStarted = false;
+            }
+        }
         Collection<CommunicationType> services = new HashSet<NodeCommunication.CommunicationType>(
                 executors.keySet());
         for (CommunicationType communicationType : services) {
@@ -66,6 +66,8 @@ import org.jumpmind.util.FormatUtils;
  * @see IOutgoingBatchService
  */
 public class OutgoingBatchService extends AbstractService implements IOutgoingBatchService {
+    private static final int MAX_IN_LIST_SIZE = 1000;
+
     private INodeService nodeService;
     private IConfigurationService configurationService;
     private ISequenceService sequenceService;
@@ -197,6 +199,18 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                         Types.NUMERIC, symmetricDialect.getSqlTypeForIds(), Types.VARCHAR });
     }
 
+    public void updateOutgoingBatchExtractStatistics(OutgoingBatch outgoingBatch) {
+        sqlTemplate.update(getSql("updateOutgoingBatchExtractStatsSql"),
+                new Object[] { outgoingBatch.getByteCount(), outgoingBatch.getExtractCount(), outgoingBatch.getExtractMillis(),
+                        outgoingBatch.getTransformExtractMillis(), outgoingBatch.getExtractStartTime(), outgoingBatch.getDataRowCount(),
+                        outgoingBatch.getDataInsertRowCount(), outgoingBatch.getDataUpdateRowCount(), outgoingBatch.getDataDeleteRowCount(),
+                        outgoingBatch.getExtractRowCount(), outgoingBatch.getExtractInsertRowCount(), outgoingBatch.getExtractUpdateRowCount(),
+                        outgoingBatch.getExtractDeleteRowCount(), outgoingBatch.getBatchId(), outgoingBatch.getNodeId() },
+                new int[] { Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.TIMESTAMP, Types.NUMERIC, Types.NUMERIC,
+                        Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                        symmetricDialect.getSqlTypeForIds(), Types.VARCHAR });
+    }
+
     public void updateOutgoingBatch(ISqlTransaction transaction, OutgoingBatch outgoingBatch) {
         outgoingBatch.setLastUpdatedTime(new Date());
         outgoingBatch.setLastUpdatedHostName(clusterService.getServerId());
@@ -409,6 +423,27 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         }
     }
 
+    public List<OutgoingBatch> findOutgoingBatches(String nodeId, List<Long> batchIds) {
+        List<OutgoingBatch> batches = new ArrayList<OutgoingBatch>(batchIds.size());
+        for (int start = 0; start < batchIds.size(); start += MAX_IN_LIST_SIZE) {
+            List<Long> ids = batchIds.subList(start, Math.min(start + MAX_IN_LIST_SIZE, batchIds.size()));
+            Object[] args = new Object[ids.size() + 1];
+            int[] types = new int[args.length];
+            args[0] = nodeId;
+            types[0] = Types.VARCHAR;
+            StringBuilder inList = new StringBuilder();
+            for (int i = 0; i < ids.size(); i++) {
+                args[i + 1] = ids.get(i);
+                types[i + 1] = symmetricDialect.getSqlTypeForIds();
+                inList.append("?,");
+            }
+            String sql = getSql("selectOutgoingBatchPrefixSql", "findOutgoingBatchesSql").replace(":BATCH_IDS",
+                    inList.substring(0, inList.length() - 1));
+            batches.addAll(sqlTemplateDirty.query(sql, new OutgoingBatchMapper(true), args, types));
+        }
+        return batches;
+    }
+
     public int countOutgoingBatchesInError() {
         return sqlTemplateDirty.queryForInt(getSql("countOutgoingBatchesErrorsSql"));
     }
@@ -64,8 +64,14 @@ public class OutgoingBatchServiceSqlMap extends AbstractSqlMap {
                         + "  data_insert_row_count=?, data_update_row_count=?, data_delete_row_count=?, other_row_count=?,   "
                         + "  extract_row_count=?, extract_insert_row_count=?, extract_update_row_count=?, extract_delete_row_count=? "
                         + "  where batch_id=? and node_id != ?                    ");
+        putSql("updateOutgoingBatchExtractStatsSql",
+                "update $(outgoing_batch) set byte_count=?, extract_count=?, extract_millis=?, transform_extract_millis=?, extract_start_time=?, "
+                        + "  data_row_count=?, data_insert_row_count=?, data_update_row_count=?, data_delete_row_count=?,   "
+                        + "  extract_row_count=?, extract_insert_row_count=?, extract_update_row_count=?, extract_delete_row_count=? "
+                        + "  where batch_id=? and node_id=?                    ");
         putSql("findOutgoingBatchSql", "where batch_id=? and node_id=?  ");
         putSql("findOutgoingBatchByIdOnlySql", "where batch_id=? ");
+        putSql("findOutgoingBatchesSql", "where node_id=? and batch_id in (:BATCH_IDS) ");
         putSql("selectOutgoingBatchSql",
                 "where node_id = ? and status in (?, ?, ?, ?, ?, ?, ?, ?) order by batch_id asc   ");
         putSql("selectOutgoingBatchChannelSql",
@@ -20,10 +20,15 @@
  */
 package org.jumpmind.symmetric.service.impl;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.symmetric.common.ParameterConstants;
@@ -55,7 +60,9 @@ import org.jumpmind.symmetric.service.IRegistrationService;
 import org.jumpmind.symmetric.statistic.IStatisticManager;
 import org.jumpmind.symmetric.transport.IOutgoingWithResponseTransport;
 import org.jumpmind.symmetric.transport.ITransportManager;
+import org.jumpmind.symmetric.transport.http.HttpOutgoingTransport;
 import org.jumpmind.symmetric.web.WebConstants;
+import org.jumpmind.util.CustomizableThreadFactory;
 
 /**
  * @see IPushService
@@ -71,6 +78,7 @@ public class PushService extends AbstractOfflineDetectorService implements IPush
     private IStatisticManager statisticManager;
     private IConfigurationService configurationService;
     private Map<String, Date> startTimesOfNodesBeingPushedTo = new HashMap<String, Date>();
+    private ExecutorService ackExecutor;
 
     public PushService(IParameterService parameterService, ISymmetricDialect symmetricDialect,
             IDataExtractorService dataExtractorService, IAcknowledgeService acknowledgeService, IRegistrationService registrationService,
@@ -209,7 +217,21 @@ public class PushService extends AbstractOfflineDetectorService implements IPush
             } else {
                 transport = transportManager.getPushTransport(remote, identity,
                         identitySecurity.getNodePassword(), requestProperties, parameterService.getRegistrationUrl());
+                Future<List<BatchAck>> streamingAcks = startStreamingAcks(transport);
                 extractedBatches = dataExtractorService.extract(processInfo, remote, status.getQueue(), transport);
+                if (streamingAcks != null) {
+                    HttpOutgoingTransport httpTransport = (HttpOutgoingTransport) transport;
+                    if (extractedBatches != null && extractedBatches.size() > 0) {
+                        log.info("Push data sent to {}", remote);
+                        httpTransport.finishSending();
+                        List<BatchAck> batchAcks = getStreamingAcks(streamingAcks);
+                        checkForMissingAcks(extractedBatches, batchAcks, dataExtractorService);
+                        status.updateOutgoingStatus(extractedBatches, batchAcks);
+                    } else {
+                        streamingAcks.cancel(true);
+                    }
+                    extractedBatches = null;
+                }
             }
             if (extractedBatches != null && extractedBatches.size() > 0) {
                 log.info("Push data sent to {}", remote);
@@ -241,4 +263,47 @@ public class PushService extends AbstractOfflineDetectorService implements IPush
             }
         }
     }
+
+    /**
+     * When the transport can read while it sends, read acknowledgements on another thread while batches are extracted, so each batch is marked
+     * as done as soon as the remote node loads it.
+     */
+    protected Future<List<BatchAck>> startStreamingAcks(IOutgoingWithResponseTransport transport) {
+        if (parameterService.is(ParameterConstants.PUSH_ACK_STREAMING_ENABLED, false) && transport instanceof HttpOutgoingTransport
+                && ((HttpOutgoingTransport) transport).isFullDuplex()) {
+            HttpOutgoingTransport httpTransport = (HttpOutgoingTransport) transport;
+            httpTransport.setAckStreaming(true);
+            return getAckExecutor().submit(new StreamingAckReader(httpTransport, transportManager, acknowledgeService));
+        }
+        return null;
+    }
+
+    protected List<BatchAck> getStreamingAcks(Future<List<BatchAck>> streamingAcks) throws IOException, InterruptedException {
+        try {
+            return streamingAcks.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    protected synchronized ExecutorService getAckExecutor() {
+        if (ackExecutor == null) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(parameterService.getEngineName().toLowerCase() + "-push-ack");
+            ackExecutor = Executors.newCachedThreadPool(threadFactory);
+        }
+        return ackExecutor;
+    }
+
+    public synchronized void stop() {
+        if (ackExecutor != null) {
+            ackExecutor.shutdownNow();
+            ackExecutor = null;
+        }
+    }
 }
@@ -32,10 +32,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -109,7 +113,9 @@ import org.jumpmind.symmetric.service.INodeCommunicationService.INodeCommunicati
 import org.jumpmind.symmetric.service.IRouterService;
 import org.jumpmind.symmetric.statistic.StatisticConstants;
 import org.jumpmind.symmetric.util.CounterStat;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.jumpmind.util.FormatUtils;
+import org.slf4j.MDC;
 
 /**
  * @see IRouterService
@@ -127,6 +133,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
     protected Map<String, Boolean> isAllDataReadByChannel = new ConcurrentHashMap<String, Boolean>();
     protected Map<String, Boolean> hasMaxDataRoutedByChannel = new ConcurrentHashMap<String, Boolean>();
     protected transient ExecutorService readThread = null;
+    protected transient ThreadPoolExecutor preExtractThread = null;
     protected ISymmetricEngine engine;
     protected IExtensionService extensionService;
     protected DataGapDetector gapDetector;
@@ -183,6 +190,10 @@ public class RouterService extends AbstractService implements IRouterService, IN
                 log.error("", ex);
             }
         }
+        if (preExtractThread != null) {
+            preExtractThread.shutdownNow();
+            preExtractThread = null;
+        }
     }
 
     public void flushCache() {
@@ -579,6 +590,9 @@ public class RouterService extends AbstractService implements IRouterService, IN
             context.setOnlyDefaultRoutersAssigned(onlyDefaultRoutersAssigned);
             context.setDataGaps(gapDetector.getDataGaps());
             context.setMaxBatchesJdbcFlushSize(parameterService.getInt(ParameterConstants.ROUTING_FLUSH_BATCHES_JDBC_BATCH_SIZE, 5000));
+            if (isPreExtractChannel(nodeChannel.getChannel())) {
+                context.setMaxRoutedDataToKeep(parameterService.getInt(ParameterConstants.ROUTING_PRE_EXTRACT_MAX_BATCH_SIZE, 1000));
+            }
             int maxBatchSizeExceedPercent = parameterService.getInt(ParameterConstants.ROUTING_MAX_BATCH_SIZE_EXCEED_PERCENT);
             if (maxBatchSizeExceedPercent > 0) {
                 context.setBatchSizeNotToExceed((int) (nodeChannel.getMaxBatchSize() * (1 + (maxBatchSizeExceedPercent / 100f))));
@@ -685,6 +699,10 @@ public class RouterService extends AbstractService implements IRouterService, IN
         for (Map<String, OutgoingBatch> groupBatches : context.getBatchesByGroups().values()) {
             batches.addAll(groupBatches.values());
         }
+        Map<Long, List<Data>> routedDataByBatchId = null;
+        if (context.isKeepRoutedData()) {
+            routedDataByBatchId = new HashMap<Long, List<Data>>(context.getRoutedDataByBatchId());
+        }
         long ts = System.currentTimeMillis();
         completeBatches(context, batches, usedRouters);
         context.commit();
@@ -695,6 +713,74 @@ public class RouterService extends AbstractService implements IRouterService, IN
         gapDetector.addDataIds(context.getDataIds());
         context.getDataIds().clear();
         context.setNeedsCommitted(false);
+        if (routedDataByBatchId != null) {
+            preExtractBatches(batches, routedDataByBatchId);
+        }
+    }
+
+    protected boolean isPreExtractChannel(Channel channel) {
+        String channels = parameterService.getString(ParameterConstants.ROUTING_PRE_EXTRACT_CHANNELS);
+        if (isNotBlank(channels) && !channel.isReloadFlag() && !channel.isFileSyncFlag()) {
+            for (String channelId : channels.split(",")) {
+                if (channelId.trim().equals(channel.getChannelId())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stage the committed batches from the data that was routed into them on a separate thread, so routing does not wait on writing to
+     * staging. Common batches share one staged batch, so each batch ID is only staged once. When routing.pre.extract.max.queued.batches are
+     * already waiting, or on a failure, the batch is extracted from the database instead.
+     */
+    protected void preExtractBatches(List<OutgoingBatch> batches, Map<Long, List<Data>> routedDataByBatchId) {
+        Set<Long> batchIds = new HashSet<Long>();
+        int skipCount = 0;
+        for (OutgoingBatch batch : batches) {
+            List<Data> routedData = routedDataByBatchId.get(batch.getBatchId());
+            if (batch.getStatus() == Status.NE && routedData != null && routedData.size() == batch.getDataRowCount()
+                    && batchIds.add(batch.getBatchId())) {
+                Runnable task = () -> preExtractBatch(batch, routedData);
+                if (parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS)) {
+                    task.run();
+                } else {
+                    try {
+                        getPreExtractThread().execute(task);
+                    } catch (RejectedExecutionException e) {
+                        skipCount++;
+                    }
+                }
+            }
+        }
+        if (skipCount > 0) {
+            log.debug("Skipped pre-extracting {} batches because the queue is full, so they will be extracted from the database", skipCount);
+        }
+    }
+
+    protected void preExtractBatch(OutgoingBatch batch, List<Data> routedData) {
+        try {
+            MDC.put("engineName", parameterService.getEngineName());
+            engine.getDataExtractorService().preExtract(batch, routedData);
+        } catch (RuntimeException e) {
+            log.warn("Failed to pre-extract batch {}, so it will be extracted from the database.  {}", batch.getNodeBatchId(),
+                    e.getMessage());
+        }
+    }
+
+    protected synchronized ThreadPoolExecutor getPreExtractThread() {
+        int maxQueued = Math.max(parameterService.getInt(ParameterConstants.ROUTING_PRE_EXTRACT_MAX_QUEUED_BATCHES, 100), 1);
+        if (preExtractThread != null && preExtractThread.getQueue().remainingCapacity() + preExtractThread.getQueue().size() != maxQueued) {
+            preExtractThread.shutdown();
+            preExtractThread = null;
+        }
+        if (preExtractThread == null) {
+            preExtractThread = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<Runnable>(maxQueued),
+                    new CustomizableThreadFactory(parameterService.getEngineName().toLowerCase() + "-router-pre-extract"));
+            preExtractThread.allowCoreThreadTimeOut(true);
+        }
+        return preExtractThread;
     }
 
     protected void completeBatches(ChannelRouterContext context, List<OutgoingBatch> batches, Set<IDataRouter> usedRouters) {
@@ -1109,6 +1195,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
         }
         for (OutgoingBatch batch : batchesToRoute) {
             context.addDataEvent(dataMetaData.getData().getDataId(), batch.getBatchId());
+            context.addRoutedData(dataMetaData.getData(), batch.getBatchId());
         }
         context.incrementStat(System.currentTimeMillis() - ts, ChannelRouterContext.STAT_INSERT_BATCHES_MS);
         return numberOfDataEventsInserted;
@@ -0,0 +1,118 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.symmetric.model.BatchAck;
+import org.jumpmind.symmetric.service.IAcknowledgeService;
+import org.jumpmind.symmetric.transport.BatchBufferedWriter;
+import org.jumpmind.symmetric.transport.ITransportManager;
+import org.jumpmind.symmetric.transport.http.HttpOutgoingTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads acknowledgements from the response of a push while batches are still being sent, applying each one as soon as the batch it acknowledges
+ * has finished extracting. Each line from the server can acknowledge one or more batches, and the server repeats every acknowledgement in its
+ * final line, so only the first acknowledgement seen for a batch is applied.
+ */
+class StreamingAckReader implements Callable<List<BatchAck>> {
+    private static final Logger log = LoggerFactory.getLogger(StreamingAckReader.class);
+    private static final long BATCH_COMPLETED_WAIT_MS = 1000;
+    private HttpOutgoingTransport transport;
+    private ITransportManager transportManager;
+    private IAcknowledgeService acknowledgeService;
+    private Map<Long, BatchAck> batchAcks = new LinkedHashMap<Long, BatchAck>();
+
+    public StreamingAckReader(HttpOutgoingTransport transport, ITransportManager transportManager, IAcknowledgeService acknowledgeService) {
+        this.transport = transport;
+        this.transportManager = transportManager;
+        this.acknowledgeService = acknowledgeService;
+    }
+
+    @Override
+    public List<BatchAck> call() throws Exception {
+        BufferedReader reader = transport.readResponseWhileSending();
+        if (reader != null) {
+            StringBuilder line = new StringBuilder();
+            char[] buffer = new char[8192];
+            int count = 0;
+            while (count >= 0) {
+                try {
+                    count = reader.read(buffer);
+                } catch (SocketTimeoutException e) {
+                    if (transport.isSendingFinished()) {
+                        throw e;
+                    }
+                    continue;
+                }
+                for (int i = 0; i < count; i++) {
+                    if (buffer[i] == '\n') {
+                        processLine(line.toString());
+                        line.setLength(0);
+                    } else {
+                        line.append(buffer[i]);
+                    }
+                }
+            }
+            processLine(line.toString());
+        }
+        return new ArrayList<BatchAck>(batchAcks.values());
+    }
+
+    protected void processLine(String line) throws IOException, InterruptedException {
+        if (StringUtils.isNotBlank(line)) {
+            log.debug("Reading streamed ack: {}", line);
+            for (BatchAck batchAck : transportManager.readAcknowledgement(line, "")) {
+                if (!batchAcks.containsKey(batchAck.getBatchId())) {
+                    batchAcks.put(batchAck.getBatchId(), batchAck);
+                    awaitBatchCompleted(batchAck.getBatchId());
+                    log.debug("Saving ack: {}, {}", batchAck.getBatchId(), (batchAck.isOk() ? "OK" : "ER"));
+                    acknowledgeService.ack(batchAck);
+                }
+            }
+        }
+    }
+
+    /**
+     * The acknowledgement can arrive before the extractor records that the batch was sent, so wait for that first to keep the sent status from
+     * overwriting the acknowledgement.
+     */
+    protected void awaitBatchCompleted(long batchId) throws InterruptedException {
+        BufferedWriter writer = transport.getWriter();
+        if (writer instanceof BatchBufferedWriter) {
+            BatchBufferedWriter batchWriter = (BatchBufferedWriter) writer;
+            while (!batchWriter.awaitBatchCompleted(batchId, BATCH_COMPLETED_WAIT_MS) && !transport.isSendingFinished()) {
+                log.debug("Waiting for batch {} to finish sending before saving its ack", batchId);
+            }
+        }
+    }
+}
@@ -23,10 +23,13 @@ package org.jumpmind.symmetric.transport;
 import java.io.BufferedWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class BatchBufferedWriter extends BufferedWriter {
     List<Long> batchIds = new ArrayList<Long>();
+    Set<Long> completedBatchIds = new HashSet<Long>();
 
     public BatchBufferedWriter(Writer out) {
         super(out);
@@ -35,4 +38,29 @@ public class BatchBufferedWriter extends BufferedWriter {
     public List<Long> getBatchIds() {
         return batchIds;
     }
-}
\ No newline at end of file
+
+    /**
+     * Called after a batch has been written and its status has been updated, so an acknowledgement for it can be safely applied.
+     */
+    public synchronized void batchCompleted(long batchId) {
+        completedBatchIds.add(batchId);
+        notifyAll();
+    }
+
+    public synchronized boolean isBatchCompleted(long batchId) {
+        return completedBatchIds.contains(batchId);
+    }
+
+    /**
+     * @return true if the batch was completed before the timeout expired
+     */
+    public synchronized boolean awaitBatchCompleted(long batchId, long timeoutMs) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + timeoutMs;
+        long remaining = timeoutMs;
+        while (!completedBatchIds.contains(batchId) && remaining > 0) {
+            wait(remaining);
+            remaining = endTime - System.currentTimeMillis();
+        }
+        return completedBatchIds.contains(batchId);
+    }
+}
@@ -22,9 +22,12 @@ package org.jumpmind.symmetric.transport;
 
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.service.IParameterService;
@@ -33,15 +36,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Reservation table for push and pull connections. Reservations are kept in concurrent maps by pool and reservation identifier and the size of
+ * each pool is tracked with an atomic counter, so reserving and releasing connections does not serialize requests from different nodes.
+ * 
  * @see IConcurrentConnectionManager
  */
 public class ConcurrentConnectionManager implements IConcurrentConnectionManager {
     private static final Logger log = LoggerFactory.getLogger(ConcurrentConnectionManager.class);
     protected IParameterService parameterService;
-    protected Map<String, Map<String, Reservation>> activeReservationsByNodeByPool = new HashMap<String, Map<String, Reservation>>();
-    protected Map<String, Map<String, NodeConnectionStatistics>> nodeConnectionStatistics = new HashMap<String, Map<String, NodeConnectionStatistics>>();
-    protected Set<String> whiteList = new HashSet<String>();
-    protected Map<String, Long> transportErrorTimeByNode = new HashMap<String, Long>();
+    protected Map<String, Map<String, Reservation>> activeReservationsByNodeByPool = new ConcurrentHashMap<String, Map<String, Reservation>>();
+    protected Map<String, AtomicInteger> reservationCountByPool = new ConcurrentHashMap<String, AtomicInteger>();
+    protected Map<String, Map<String, NodeConnectionStatistics>> nodeConnectionStatistics = new ConcurrentHashMap<String, Map<String, NodeConnectionStatistics>>();
+    protected Map<String, PoolStatistics> poolStatistics = new ConcurrentHashMap<String, PoolStatistics>();
+    protected Set<String> whiteList = ConcurrentHashMap.newKeySet();
+    protected Map<String, Long> transportErrorTimeByNode = new ConcurrentHashMap<String, Long>();
 
     public ConcurrentConnectionManager(IParameterService parameterService,
             IStatisticManager statisticManager) {
@@ -49,39 +57,29 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
     }
 
     protected void logTooBusyRejection(String nodeId, String poolId) {
-        getNodeConnectionStatistics(nodeId, poolId).numOfRejections++;
+        getNodeConnectionStatistics(nodeId, poolId).numOfRejections.incrementAndGet();
     }
 
     protected void logConnectedTimePeriod(String nodeId, long startMs, long endMs, String poolId) {
         NodeConnectionStatistics stats = getNodeConnectionStatistics(nodeId, poolId);
-        stats.totalConnectionCount++;
-        stats.totalConnectionTimeMs += endMs - startMs;
+        stats.totalConnectionCount.incrementAndGet();
+        stats.totalConnectionTimeMs.addAndGet(endMs - startMs);
         stats.lastConnectionTimeMs = startMs;
     }
 
-    private synchronized NodeConnectionStatistics getNodeConnectionStatistics(String nodeId,
-            String poolId) {
-        Map<String, NodeConnectionStatistics> statsMap = nodeConnectionStatistics.get(poolId);
-        if (statsMap == null) {
-            statsMap = new HashMap<String, NodeConnectionStatistics>();
-            nodeConnectionStatistics.put(poolId, statsMap);
-        }
-        NodeConnectionStatistics stats = statsMap.get(nodeId);
-        if (stats == null) {
-            stats = new NodeConnectionStatistics();
-            statsMap.put(nodeId, stats);
-        }
-        return stats;
+    private NodeConnectionStatistics getNodeConnectionStatistics(String nodeId, String poolId) {
+        return nodeConnectionStatistics.computeIfAbsent(poolId, k -> new ConcurrentHashMap<String, NodeConnectionStatistics>())
+                .computeIfAbsent(nodeId, k -> new NodeConnectionStatistics());
+    }
+
+    private PoolStatistics getPoolStatistics(String poolId) {
+        return poolStatistics.computeIfAbsent(poolId, k -> new PoolStatistics());
     }
 
-    public synchronized boolean releaseConnection(String nodeId, String channelId, String poolId) {
+    public boolean releaseConnection(String nodeId, String channelId, String poolId) {
         String reservationId = getReservationIdentifier(nodeId, channelId);
         log.debug("Releasing connection for {} {}", poolId, reservationId);
-        Map<String, Reservation> reservations = getReservationMap(poolId);
-        Reservation reservation = reservations.remove(reservationId);
-        if (reservation != null) {
-            logConnectedTimePeriod(reservationId, reservation.createTime, System.currentTimeMillis(),
-                    poolId);
+        if (releaseReservation(reservationId, poolId)) {
             return true;
         } else {
             log.warn("Failed to release connection for {}", reservationId);
@@ -89,70 +87,112 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
         }
     }
 
-    public synchronized boolean releaseConnection(String nodeId, String poolId) {
-        Map<String, Reservation> reservations = getReservationMap(poolId);
-        Reservation reservation = reservations.remove(nodeId);
+    public boolean releaseConnection(String nodeId, String poolId) {
+        return releaseReservation(nodeId, poolId);
+    }
+
+    protected boolean releaseReservation(String reservationId, String poolId) {
+        Reservation reservation = getReservationMap(poolId).remove(reservationId);
         if (reservation != null) {
-            logConnectedTimePeriod(nodeId, reservation.createTime, System.currentTimeMillis(),
-                    poolId);
+            getReservationCounter(poolId).decrementAndGet();
+            logConnectedTimePeriod(reservationId, reservation.createTime, System.currentTimeMillis(), poolId);
             return true;
         } else {
             return false;
         }
     }
 
-    public synchronized void addToWhitelist(String nodeId) {
+    public void addToWhitelist(String nodeId) {
         whiteList.add(nodeId);
     }
 
-    public synchronized void removeFromWhiteList(String nodeId) {
+    public void removeFromWhiteList(String nodeId) {
         whiteList.remove(nodeId);
     }
 
-    public synchronized String[] getWhiteList() {
-        return whiteList.toArray(new String[whiteList.size()]);
+    public String[] getWhiteList() {
+        return whiteList.toArray(new String[0]);
     }
 
-    public synchronized int getReservationCount(String poolId) {
-        return getReservationMap(poolId).size();
+    public int getReservationCount(String poolId) {
+        return getReservationCounter(poolId).get();
     }
 
-    public synchronized ReservationStatus reserveConnection(String nodeId, String channelId, String poolId,
+    public ReservationStatus reserveConnection(String nodeId, String channelId, String poolId,
             ReservationType reservationRequest, boolean requiresExistingReservation) {
         String reservationId = getReservationIdentifier(nodeId, channelId);
         log.debug("Reserving connection for {} {}", poolId, reservationId);
         Map<String, Reservation> reservations = getReservationMap(poolId);
+        AtomicInteger reservationCount = getReservationCounter(poolId);
         int maxPoolSize = parameterService.getInt(ParameterConstants.CONCURRENT_WORKERS);
         long timeout = parameterService.getLong(ParameterConstants.CONCURRENT_RESERVATION_TIMEOUT);
-        removeTimedOutReservations(reservations);
-        Reservation existingReservation = reservations.get(reservationId);
-        if (requiresExistingReservation && existingReservation == null) {
-            String message = "Node '{}' Channel '{}' requested a {} connection, but was rejected because it was missing a reservation";
-            if (shouldLogTransportError(nodeId)) {
-                log.warn(message, nodeId, channelId, poolId);
-            } else {
-                log.info(message, nodeId, channelId, poolId);
-            }
-            return ReservationStatus.NOT_FOUND;
-        } else if (reservations.size() < maxPoolSize || existingReservation != null || whiteList.contains(nodeId)) {
-            if (existingReservation == null || existingReservation.getType() == ReservationType.SOFT) {
-                reservations.put(reservationId, new Reservation(reservationId,
-                        reservationRequest == ReservationType.SOFT ? System.currentTimeMillis()
-                                + timeout : Long.MAX_VALUE, reservationRequest));
-                transportErrorTimeByNode.remove(nodeId);
-                return ReservationStatus.ACCEPTED;
-            } else {
-                String message = "Node '{}' Channel '{}' requested a {} connection, but was rejected because it already has one";
+        reservationCount.addAndGet(-removeTimedOutReservations(reservations));
+        ReservationStatus status = null;
+        while (status == null) {
+            Reservation existingReservation = reservations.get(reservationId);
+            Reservation newReservation = new Reservation(reservationId,
+                    reservationRequest == ReservationType.SOFT ? System.currentTimeMillis() + timeout : Long.MAX_VALUE, reservationRequest);
+            if (requiresExistingReservation && existingReservation == null) {
+                String message = "Node '{}' Channel '{}' requested a {} connection, but was rejected because it was missing a reservation";
                 if (shouldLogTransportError(nodeId)) {
                     log.warn(message, nodeId, channelId, poolId);
                 } else {
                     log.info(message, nodeId, channelId, poolId);
                 }
-                return ReservationStatus.DUPLICATE;
+                status = ReservationStatus.NOT_FOUND;
+            } else if (existingReservation != null) {
+                if (existingReservation.getType() == ReservationType.SOFT) {
+                    if (reservations.replace(reservationId, existingReservation, newReservation)) {
+                        status = ReservationStatus.ACCEPTED;
+                    }
+                } else {
+                    String message = "Node '{}' Channel '{}' requested a {} connection, but was rejected because it already has one";
+                    if (shouldLogTransportError(nodeId)) {
+                        log.warn(message, nodeId, channelId, poolId);
+                    } else {
+                        log.info(message, nodeId, channelId, poolId);
+                    }
+                    status = ReservationStatus.DUPLICATE;
+                }
+            } else if (acquireSlot(reservationCount, maxPoolSize, whiteList.contains(nodeId))) {
+                if (reservations.putIfAbsent(reservationId, newReservation) == null) {
+                    status = ReservationStatus.ACCEPTED;
+                } else {
+                    /* another request for the same reservation got in first, so give back the slot and try again */
+                    reservationCount.decrementAndGet();
+                }
+            } else {
+                logTooBusyRejection(nodeId, poolId);
+                status = ReservationStatus.BUSY;
             }
+        }
+        PoolStatistics poolStats = getPoolStatistics(poolId);
+        if (status == ReservationStatus.ACCEPTED) {
+            transportErrorTimeByNode.remove(nodeId);
+            poolStats.accepted.incrementAndGet();
+        } else if (status == ReservationStatus.BUSY) {
+            poolStats.rejected.incrementAndGet();
+        } else if (status == ReservationStatus.DUPLICATE) {
+            poolStats.duplicate.incrementAndGet();
         } else {
-            return ReservationStatus.BUSY;
+            poolStats.notFound.incrementAndGet();
+        }
+        return status;
+    }
+
+    protected boolean acquireSlot(AtomicInteger reservationCount, int maxPoolSize, boolean whiteListed) {
+        if (whiteListed) {
+            reservationCount.incrementAndGet();
+            return true;
+        }
+        int count = reservationCount.get();
+        while (count < maxPoolSize) {
+            if (reservationCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+            count = reservationCount.get();
         }
+        return false;
     }
 
     public Map<String, Date> getPullReservationsByNodeId() {
@@ -165,15 +205,12 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
 
     protected Map<String, Date> getReservationsByNodeId(String urlPath) {
         Map<String, Date> byNodeId = new HashMap<String, Date>();
-        Set<String> poolIds = activeReservationsByNodeByPool.keySet();
-        for (String poolId : poolIds) {
-            if (poolId.endsWith(urlPath)) {
-                Map<String, Reservation> reservations = activeReservationsByNodeByPool.get(poolId);
-                Set<String> nodeIds = new HashSet<String>(reservations.keySet());
-                for (String nodeId : nodeIds) {
-                    Reservation reservation = reservations.get(nodeId);
-                    if (reservation != null && reservation.getType() == ReservationType.HARD) {
-                        byNodeId.put(nodeId, new Date(reservation.getCreateTime()));
+        for (Map.Entry<String, Map<String, Reservation>> poolEntry : activeReservationsByNodeByPool.entrySet()) {
+            if (poolEntry.getKey().endsWith(urlPath)) {
+                for (Map.Entry<String, Reservation> entry : poolEntry.getValue().entrySet()) {
+                    Reservation reservation = entry.getValue();
+                    if (reservation.getType() == ReservationType.HARD) {
+                        byNodeId.put(entry.getKey(), new Date(reservation.getCreateTime()));
                     }
                 }
             }
@@ -181,26 +218,29 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
         return byNodeId;
     }
 
-    protected void removeTimedOutReservations(Map<String, Reservation> reservations) {
+    /**
+     * @return the number of reservations that were removed
+     */
+    protected int removeTimedOutReservations(Map<String, Reservation> reservations) {
         long currentTime = System.currentTimeMillis();
-        String[] keys = reservations.keySet().toArray(new String[reservations.size()]);
-        if (keys != null) {
-            for (String key : keys) {
-                Reservation reservation = reservations.get(key);
-                if (reservation.timeToLiveInMs < currentTime) {
-                    reservations.remove(key);
-                }
+        int removed = 0;
+        Iterator<Map.Entry<String, Reservation>> iterator = reservations.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Reservation> entry = iterator.next();
+            Reservation reservation = entry.getValue();
+            if (reservation.timeToLiveInMs < currentTime && reservations.remove(entry.getKey(), reservation)) {
+                removed++;
             }
         }
+        return removed;
     }
 
     private Map<String, Reservation> getReservationMap(String poolId) {
-        Map<String, Reservation> reservations = activeReservationsByNodeByPool.get(poolId);
-        if (reservations == null) {
-            reservations = new HashMap<String, Reservation>();
-            activeReservationsByNodeByPool.put(poolId, reservations);
-        }
-        return reservations;
+        return activeReservationsByNodeByPool.computeIfAbsent(poolId, k -> new ConcurrentHashMap<String, Reservation>());
+    }
+
+    private AtomicInteger getReservationCounter(String poolId) {
+        return reservationCountByPool.computeIfAbsent(poolId, k -> new AtomicInteger());
     }
 
     public static class Reservation {
@@ -269,32 +309,32 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
         return this.nodeConnectionStatistics;
     }
 
+    public Map<String, PoolStatistics> getPoolStatisticsByPool() {
+        return this.poolStatistics;
+    }
+
     protected boolean shouldLogTransportError(String nodeId) {
         long maxErrorMillis = parameterService.getLong(ParameterConstants.TRANSPORT_MAX_ERROR_MILLIS, 300000);
-        Long errorTime = transportErrorTimeByNode.get(nodeId);
-        if (errorTime == null) {
-            errorTime = System.currentTimeMillis();
-            transportErrorTimeByNode.put(nodeId, errorTime);
-        }
+        Long errorTime = transportErrorTimeByNode.computeIfAbsent(nodeId, k -> System.currentTimeMillis());
         return System.currentTimeMillis() - errorTime >= maxErrorMillis;
     }
 
     public static class NodeConnectionStatistics {
-        int numOfRejections;
-        long totalConnectionCount;
-        long totalConnectionTimeMs;
-        long lastConnectionTimeMs;
+        AtomicInteger numOfRejections = new AtomicInteger();
+        AtomicLong totalConnectionCount = new AtomicLong();
+        AtomicLong totalConnectionTimeMs = new AtomicLong();
+        volatile long lastConnectionTimeMs;
 
         public int getNumOfRejections() {
-            return numOfRejections;
+            return numOfRejections.get();
         }
 
         public long getTotalConnectionCount() {
-            return totalConnectionCount;
+            return totalConnectionCount.get();
         }
 
         public long getTotalConnectionTimeMs() {
-            return totalConnectionTimeMs;
+            return totalConnectionTimeMs.get();
         }
 
         public long getLastConnectionTimeMs() {
@@ -302,7 +342,58 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
         }
     }
 
+    /**
+     * The rejected count is only reservations turned away because the pool was full. Requests that already had a reservation or were missing
+     * one are counted on their own, because they say nothing about whether the pool is too small.
+     */
+    public static class PoolStatistics {
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong duplicate = new AtomicLong();
+        AtomicLong notFound = new AtomicLong();
+        long startTime = System.currentTimeMillis();
+
+        public long getAcceptedCount() {
+            return accepted.get();
+        }
+
+        public long getRejectedCount() {
+            return rejected.get();
+        }
+
+        public long getDuplicateCount() {
+            return duplicate.get();
+        }
+
+        public long getNotFoundCount() {
+            return notFound.get();
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public double getAcceptedPerSecond() {
+            return perSecond(accepted.get());
+        }
+
+        public double getRejectedPerSecond() {
+            return perSecond(rejected.get());
+        }
+
+        public double getRejectedPercent() {
+            long acceptedCount = accepted.get();
+            long rejectedCount = rejected.get();
+            return acceptedCount + rejectedCount == 0 ? 0 : rejectedCount * 100d / (acceptedCount + rejectedCount);
+        }
+
+        protected double perSecond(long count) {
+            long elapsedMs = Math.max(1, System.currentTimeMillis() - startTime);
+            return count * 1000d / elapsedMs;
+        }
+    }
+
     public Map<String, Map<String, Reservation>> getActiveReservationsByNodeByPool() {
         return activeReservationsByNodeByPool;
     }
-}
\ No newline at end of file
+}
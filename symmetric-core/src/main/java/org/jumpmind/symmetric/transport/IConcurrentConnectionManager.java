@@ -24,6 +24,7 @@ import java.util.Date;
 import java.util.Map;
 
 import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.NodeConnectionStatistics;
+import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.PoolStatistics;
 import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.Reservation;
 
 public interface IConcurrentConnectionManager {
@@ -75,6 +76,11 @@ public interface IConcurrentConnectionManager {
 
     public Map<String, Map<String, NodeConnectionStatistics>> getNodeConnectionStatisticsByPoolByNodeId();
 
+    /**
+     * @return accepted and rejected reservation counts and rates for each pool
+     */
+    public Map<String, PoolStatistics> getPoolStatisticsByPool();
+
     public Map<String, Map<String, Reservation>> getActiveReservationsByNodeByPool();
 
     public void addToWhitelist(String nodeId);
@@ -47,6 +47,7 @@ import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.ServerConstants;
 import org.jumpmind.symmetric.transport.file.FileTransportManager;
+import org.jumpmind.symmetric.transport.http.Http2TransportManager;
 import org.jumpmind.symmetric.transport.http.HttpTransportManager;
 import org.jumpmind.symmetric.transport.http.SelfSignedX509TrustManager;
 import org.jumpmind.symmetric.transport.http.SimpleHostnameVerifier;
@@ -56,7 +57,12 @@ import org.slf4j.LoggerFactory;
 
 public class TransportManagerFactory {
     private static final Logger log = LoggerFactory.getLogger(TransportManagerFactory.class);
+    public static final String HTTP_CLIENT_HTTP2 = "http2";
     private static boolean isStaticInitialized;
+    private static SSLContext sslContext;
+    private static X509TrustManager trustManager;
+    private static KeyManager[] keyManagers;
+    private static HostnameVerifier hostnameVerifier;
     private ISymmetricEngine symmetricEngine;
 
     public TransportManagerFactory(ISymmetricEngine symmetricEngine) {
@@ -68,7 +74,7 @@ public class TransportManagerFactory {
         try {
             if (!isStaticInitialized) {
                 if (!StringUtils.isBlank(httpSslVerifiedServerNames)) {
-                    HostnameVerifier hostnameVerifier = new SimpleHostnameVerifier(httpSslVerifiedServerNames);
+                    hostnameVerifier = new SimpleHostnameVerifier(httpSslVerifiedServerNames);
                     HttpsURLConnection.setDefaultHostnameVerifier(hostnameVerifier);
                 }
                 if (allowSelfSignedCerts) {
@@ -109,6 +115,9 @@ public class TransportManagerFactory {
     protected HttpTransportManager createHttpTransportManager(ISymmetricEngine symmetricEngine) {
         String impl = symmetricEngine.getParameterService().getString(ServerConstants.HTTP_TRANSPORT_MANAGER_CLASS);
         if (StringUtils.isEmpty(impl)) {
+            if (HTTP_CLIENT_HTTP2.equalsIgnoreCase(symmetricEngine.getParameterService().getString(ParameterConstants.TRANSPORT_HTTP_CLIENT))) {
+                return new Http2TransportManager(symmetricEngine);
+            }
             return new HttpTransportManager(symmetricEngine);
         } else {
             String className = impl.trim();
@@ -149,8 +158,8 @@ public class TransportManagerFactory {
         } catch (Exception e) {
             log.warn("No trust store found: " + e.getMessage());
         }
-        X509TrustManager trustManager = new SelfSignedX509TrustManager(trustStore);
-        KeyManager[] keyManagers = null;
+        trustManager = new SelfSignedX509TrustManager(trustStore);
+        keyManagers = null;
         try {
             keyManagers = securityService.getKeyManagerFactory().getKeyManagers();
         } catch (Exception e) {
@@ -159,5 +168,34 @@ public class TransportManagerFactory {
         context.init(keyManagers, new TrustManager[] { trustManager }, new SecureRandom());
         SSLSocketFactory sslSocketFactory = context.getSocketFactory();
         HttpsURLConnection.setDefaultSSLSocketFactory(sslSocketFactory);
+        sslContext = context;
+    }
+
+    /**
+     * @return the SSL context that accepts self signed certificates, or null if it was not initialized
+     */
+    public static SSLContext getSslContext() {
+        return sslContext;
+    }
+
+    /**
+     * @return the trust manager that accepts self signed certificates, or null if it was not initialized
+     */
+    public static X509TrustManager getTrustManager() {
+        return trustManager;
+    }
+
+    /**
+     * @return the key managers used with the trust manager that accepts self signed certificates, or null if it was not initialized
+     */
+    public static KeyManager[] getKeyManagers() {
+        return keyManagers;
+    }
+
+    /**
+     * @return the verifier for server names that do not match their certificate, from https.verified.server.names, or null if none are set
+     */
+    public static HostnameVerifier getHostnameVerifier() {
+        return hostnameVerifier;
     }
 }
\ No newline at end of file
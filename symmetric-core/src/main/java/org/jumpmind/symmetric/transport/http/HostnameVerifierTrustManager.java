@@ -0,0 +1,150 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import java.net.Socket;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * Checks the server name against its certificate the way {@link javax.net.ssl.HttpsURLConnection} does, asking a {@link HostnameVerifier}
+ * when the name does not match. The {@link java.net.http.HttpClient} has no hostname verifier of its own, so this lets it honor
+ * https.verified.server.names.
+ */
+public class HostnameVerifierTrustManager extends X509ExtendedTrustManager {
+    private static final int DNS_NAME = 2;
+    private static final int IP_ADDRESS = 7;
+    private X509TrustManager trustManager;
+    private HostnameVerifier hostnameVerifier;
+
+    public HostnameVerifierTrustManager(X509TrustManager trustManager, HostnameVerifier hostnameVerifier) {
+        this.trustManager = trustManager;
+        this.hostnameVerifier = hostnameVerifier;
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        trustManager.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        trustManager.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        trustManager.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        trustManager.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        trustManager.checkServerTrusted(chain, authType);
+        if (socket instanceof SSLSocket) {
+            SSLSocket sslSocket = (SSLSocket) socket;
+            checkHostname(chain, sslSocket.getInetAddress() == null ? null : sslSocket.getInetAddress().getHostName(),
+                    sslSocket.getHandshakeSession());
+        }
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        trustManager.checkServerTrusted(chain, authType);
+        if (engine != null) {
+            checkHostname(chain, engine.getPeerHost(), engine.getHandshakeSession());
+        }
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return trustManager.getAcceptedIssuers();
+    }
+
+    protected void checkHostname(X509Certificate[] chain, String hostname, SSLSession session) throws CertificateException {
+        if (chain == null || chain.length == 0 || hostname == null) {
+            return;
+        }
+        if (!matches(hostname, chain[0]) && !hostnameVerifier.verify(hostname, session)) {
+            throw new CertificateException("No name matching " + hostname + " found in the server certificate");
+        }
+    }
+
+    /**
+     * @return true if the host is one of the certificate's subject alternative names, or its common name when it has no DNS names
+     */
+    protected static boolean matches(String hostname, X509Certificate certificate) throws CertificateException {
+        boolean hasDnsName = false;
+        Collection<List<?>> names = certificate.getSubjectAlternativeNames();
+        if (names != null) {
+            for (List<?> name : names) {
+                int type = (Integer) name.get(0);
+                if (type == DNS_NAME) {
+                    hasDnsName = true;
+                    if (matches(hostname, (String) name.get(1))) {
+                        return true;
+                    }
+                } else if (type == IP_ADDRESS && hostname.equalsIgnoreCase((String) name.get(1))) {
+                    return true;
+                }
+            }
+        }
+        if (!hasDnsName) {
+            try {
+                for (Rdn rdn : new LdapName(certificate.getSubjectX500Principal().getName()).getRdns()) {
+                    if (rdn.getType().equalsIgnoreCase("CN") && matches(hostname, rdn.getValue().toString())) {
+                        return true;
+                    }
+                }
+            } catch (InvalidNameException e) {
+                throw new CertificateException(e);
+            }
+        }
+        return false;
+    }
+
+    protected static boolean matches(String hostname, String name) {
+        hostname = hostname.toLowerCase(Locale.ROOT);
+        name = name.toLowerCase(Locale.ROOT);
+        if (name.startsWith("*.")) {
+            int dot = hostname.indexOf('.');
+            return dot > 0 && hostname.substring(dot).equals(name.substring(1));
+        }
+        return hostname.equals(name);
+    }
+}
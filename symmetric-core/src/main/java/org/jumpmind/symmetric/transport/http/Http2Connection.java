@@ -0,0 +1,551 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.security.cert.Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+/**
+ * An {@link HttpConnection} that sends its request through a shared {@link HttpClient}, so connections are pooled and HTTP/2 streams are multiplexed
+ * over one connection per server. The request is started when the output stream is opened or when the response is first accessed, mirroring the
+ * life cycle of {@link java.net.HttpURLConnection}.
+ */
+public class Http2Connection extends HttpConnection {
+    protected static final Set<String> RESTRICTED_HEADERS = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+    static {
+        RESTRICTED_HEADERS.add("connection");
+        RESTRICTED_HEADERS.add("content-length");
+        RESTRICTED_HEADERS.add("expect");
+        RESTRICTED_HEADERS.add("host");
+        RESTRICTED_HEADERS.add("upgrade");
+    }
+
+    protected HttpClient client;
+    protected IntFunction<HttpClient> clientByConnectTimeout;
+    protected int connectTimeout;
+    protected String method = "GET";
+    protected Map<String, List<String>> requestProperties = new LinkedHashMap<String, List<String>>();
+    protected int readTimeout;
+    protected int chunkSize = 8192;
+    protected RequestBodyOutputStream requestBody;
+    protected CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> responseFuture;
+    protected volatile HttpResponse<Flow.Publisher<List<ByteBuffer>>> response;
+    protected ResponseBodyInputStream responseBody;
+
+    public Http2Connection(HttpClient client, URL url) {
+        super(url, null);
+        this.client = client;
+    }
+
+    /**
+     * @param clientByConnectTimeout
+     *            returns the shared client that uses a connect timeout, which is looked up again if the connect timeout is changed
+     */
+    public Http2Connection(IntFunction<HttpClient> clientByConnectTimeout, int connectTimeout, URL url) {
+        this(clientByConnectTimeout.apply(connectTimeout), url);
+        this.clientByConnectTimeout = clientByConnectTimeout;
+        this.connectTimeout = connectTimeout;
+    }
+
+    @Override
+    public void disconnect() {
+        if (responseBody != null) {
+            responseBody.close();
+        }
+        if (responseFuture != null) {
+            responseFuture.cancel(true);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return getHeaderField("Content-Encoding");
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        int code = getResponseCode();
+        if (code >= 400) {
+            throw new IOException("Server returned HTTP response code: " + code + " for URL: " + url);
+        }
+        if (responseBody == null) {
+            responseBody = new ResponseBodyInputStream(readTimeout);
+            response.body().subscribe(responseBody);
+        }
+        return responseBody;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (requestBody == null) {
+            if (responseFuture != null) {
+                throw new IOException("Cannot write output after reading input");
+            }
+            if ("GET".equals(method)) {
+                method = "POST";
+            }
+            requestBody = new RequestBodyOutputStream(chunkSize);
+            send(BodyPublishers.fromPublisher(requestBody));
+            requestBody.setResponseFuture(responseFuture);
+        }
+        return requestBody;
+    }
+
+    /**
+     * The connect timeout belongs to the client, so a different one switches this connection to the shared client for that timeout.
+     */
+    @Override
+    public void setConnectTimeout(int timeout) {
+        if (clientByConnectTimeout != null && timeout != connectTimeout && responseFuture == null) {
+            client = clientByConnectTimeout.apply(timeout);
+            connectTimeout = timeout;
+        }
+    }
+
+    @Override
+    public void setReadTimeout(int timeout) {
+        this.readTimeout = timeout;
+    }
+
+    @Override
+    public void setDoInput(boolean doinput) {
+    }
+
+    @Override
+    public void setDoOutput(boolean dooutput) {
+    }
+
+    @Override
+    public void setAllowUserInteraction(boolean allowuserinteraction) {
+    }
+
+    @Override
+    public void setUseCaches(boolean usecaches) {
+    }
+
+    @Override
+    public void setRequestProperty(String key, String value) {
+        if (!RESTRICTED_HEADERS.contains(key)) {
+            List<String> values = new ArrayList<String>(1);
+            values.add(value);
+            requestProperties.put(key, values);
+        }
+    }
+
+    @Override
+    public void addRequestProperty(String key, String value) {
+        if (!RESTRICTED_HEADERS.contains(key)) {
+            requestProperties.computeIfAbsent(key, k -> new ArrayList<String>(1)).add(value);
+        }
+    }
+
+    @Override
+    public void setChunkedStreamingMode(int chunklen) {
+        if (chunklen > 0) {
+            this.chunkSize = chunklen;
+        }
+    }
+
+    @Override
+    public String getHeaderField(String name) {
+        try {
+            return getResponse().headers().firstValue(name).orElse(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaderFields() {
+        try {
+            return getResponse().headers().map();
+        } catch (IOException e) {
+            return new TreeMap<String, List<String>>();
+        }
+    }
+
+    @Override
+    public void setInstanceFollowRedirects(boolean followRedirects) {
+    }
+
+    @Override
+    public void setRequestMethod(String method) {
+        this.method = method;
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+        return getResponse().statusCode();
+    }
+
+    /**
+     * Wait for the response without ending the request body, so the response can be read on another thread while the request is still being
+     * written. The read timeout only applies after the request body is closed.
+     */
+    public int getResponseCodeWhileSending() throws IOException {
+        return getResponse(false).statusCode();
+    }
+
+    @Override
+    public Certificate[] getServerCertificates() {
+        try {
+            if (getResponse().sslSession().isPresent()) {
+                return getResponse().sslSession().get().getPeerCertificates();
+            }
+        } catch (SSLPeerUnverifiedException e) {
+        } catch (IOException e) {
+        }
+        return new Certificate[] {};
+    }
+
+    public String getProtocolVersion() {
+        try {
+            return getResponse().version().name();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    protected void send(BodyPublisher bodyPublisher) throws IOException {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        for (Map.Entry<String, List<String>> entry : requestProperties.entrySet()) {
+            for (String value : entry.getValue()) {
+                builder.header(entry.getKey(), value);
+            }
+        }
+        if (requestBody == null && readTimeout > 0) {
+            builder.timeout(Duration.ofMillis(readTimeout));
+        }
+        builder.method(method, bodyPublisher);
+        responseFuture = client.sendAsync(builder.build(), BodyHandlers.ofPublisher());
+    }
+
+    protected HttpResponse<Flow.Publisher<List<ByteBuffer>>> getResponse() throws IOException {
+        return getResponse(true);
+    }
+
+    protected HttpResponse<Flow.Publisher<List<ByteBuffer>>> getResponse(boolean endRequest) throws IOException {
+        if (response == null) {
+            if (responseFuture == null) {
+                send(BodyPublishers.noBody());
+            } else if (requestBody != null && endRequest) {
+                requestBody.close();
+            }
+            try {
+                while (response == null) {
+                    try {
+                        if (readTimeout > 0) {
+                            response = responseFuture.get(readTimeout, TimeUnit.MILLISECONDS);
+                        } else {
+                            response = responseFuture.get();
+                        }
+                    } catch (TimeoutException e) {
+                        if (requestBody == null || requestBody.closed) {
+                            responseFuture.cancel(true);
+                            throw new SocketTimeoutException("Read timed out waiting for response from " + url);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Buffers the request body into chunks that are handed to the client as it asks for them. Each flush is sent right away, which lets the
+     * response be read while the request is still being written.
+     */
+    static class RequestBodyOutputStream extends OutputStream implements Flow.Publisher<ByteBuffer>, Flow.Subscription {
+        static final byte[] EOF = new byte[0];
+        BlockingQueue<byte[]> queue = new ArrayBlockingQueue<byte[]>(16);
+        byte[] buffer;
+        int count;
+        volatile boolean closed;
+        volatile boolean cancelled;
+        volatile Flow.Subscriber<? super ByteBuffer> subscriber;
+        AtomicLong demand = new AtomicLong();
+        AtomicInteger drainCount = new AtomicInteger();
+        CompletableFuture<?> responseFuture;
+
+        RequestBodyOutputStream(int chunkSize) {
+            this.buffer = new byte[chunkSize];
+        }
+
+        void setResponseFuture(CompletableFuture<?> responseFuture) {
+            this.responseFuture = responseFuture;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flushBuffer();
+                }
+                int length = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, length);
+                count += length;
+                off += length;
+                len -= length;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                flushBuffer();
+                put(EOF);
+                closed = true;
+            }
+        }
+
+        protected void flushBuffer() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (count > 0) {
+                byte[] chunk = new byte[count];
+                System.arraycopy(buffer, 0, chunk, 0, count);
+                count = 0;
+                put(chunk);
+            }
+        }
+
+        protected void put(byte[] chunk) throws IOException {
+            try {
+                while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled || (responseFuture != null && responseFuture.isDone())) {
+                        throw new IOException("Request was closed by the server before the payload was sent");
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            drain();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+
+        /**
+         * Deliver queued chunks for as much as the subscriber has asked for. Called from both the writer and the client, so only one caller
+         * delivers at a time and the others leave their work to it.
+         */
+        protected void drain() {
+            if (subscriber == null || drainCount.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (!cancelled && demand.get() > 0) {
+                    byte[] chunk = queue.poll();
+                    if (chunk == null) {
+                        break;
+                    } else if (chunk == EOF) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    } else {
+                        demand.decrementAndGet();
+                        subscriber.onNext(ByteBuffer.wrap(chunk));
+                    }
+                }
+            } while (drainCount.decrementAndGet() != 0);
+        }
+    }
+
+    /**
+     * Reads the response body as it arrives, requesting more from the client only as it is consumed and applying the read timeout to each wait.
+     */
+    static class ResponseBodyInputStream extends InputStream implements Flow.Subscriber<List<ByteBuffer>> {
+        static final List<ByteBuffer> EOF = new ArrayList<ByteBuffer>(0);
+        BlockingQueue<List<ByteBuffer>> queue = new LinkedBlockingQueue<List<ByteBuffer>>();
+        Flow.Subscription subscription;
+        Iterator<ByteBuffer> buffers;
+        ByteBuffer current;
+        Throwable error;
+        boolean done;
+        int readTimeout;
+
+        ResponseBodyInputStream(int readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            queue.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            queue.add(EOF);
+        }
+
+        @Override
+        public void onComplete() {
+            queue.add(EOF);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (current == null || !current.hasRemaining()) {
+                if (buffers != null && buffers.hasNext()) {
+                    current = buffers.next();
+                } else if (done) {
+                    return -1;
+                } else {
+                    nextBuffers();
+                }
+            }
+            int length = Math.min(len, current.remaining());
+            current.get(b, off, length);
+            return length;
+        }
+
+        protected void nextBuffers() throws IOException {
+            List<ByteBuffer> item;
+            try {
+                item = readTimeout > 0 ? queue.poll(readTimeout, TimeUnit.MILLISECONDS) : queue.take();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            if (item == null) {
+                throw new SocketTimeoutException("Read timed out");
+            } else if (item == EOF) {
+                done = true;
+                if (error != null) {
+                    throw error instanceof IOException ? (IOException) error : new IOException(error);
+                }
+            } else {
+                buffers = item.iterator();
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public int available() {
+            return current == null ? 0 : current.remaining();
+        }
+
+        @Override
+        public void close() {
+            if (!done) {
+                done = true;
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+            }
+        }
+    }
+}
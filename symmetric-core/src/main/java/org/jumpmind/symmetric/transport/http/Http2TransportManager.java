@@ -0,0 +1,261 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+import org.jumpmind.exception.IoException;
+import org.jumpmind.security.ISecurityService;
+import org.jumpmind.security.SecurityServiceFactory;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.transport.IIncomingTransport;
+import org.jumpmind.symmetric.transport.TransportManagerFactory;
+import org.jumpmind.symmetric.web.WebConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transport manager that sends all requests through one pooled {@link HttpClient}. Connections are kept open and reused across the push, pull,
+ * acknowledgement and heartbeat requests made to a node, and HTTP/2 is negotiated when the server supports it so concurrent requests share one
+ * connection. Acknowledgements can optionally be sent asynchronously, so loading is not held up by the acknowledgement round trip. The next
+ * pull from the same server waits for the acknowledgement, so batches that were already loaded are not sent again.
+ */
+public class Http2TransportManager extends HttpTransportManager {
+    private static final Logger log = LoggerFactory.getLogger(Http2TransportManager.class);
+    protected Map<Integer, HttpClient> httpClients = new ConcurrentHashMap<Integer, HttpClient>();
+    protected SSLContext sslContext;
+    protected Map<String, CompletableFuture<?>> pendingAcks = new ConcurrentHashMap<String, CompletableFuture<?>>();
+    protected boolean asyncAck;
+    protected AtomicInteger pendingAckCount = new AtomicInteger();
+    protected Set<String> http2Origins = ConcurrentHashMap.newKeySet();
+
+    public Http2TransportManager(ISymmetricEngine engine) {
+        super(engine);
+        asyncAck = engine.getParameterService().is(ParameterConstants.TRANSPORT_HTTP_CLIENT_ASYNC_ACK, false);
+    }
+
+    @Override
+    protected HttpConnection createConnection(URL url) throws IOException {
+        return new Http2Connection(this::getHttpClient, getHttpConnectTimeOutInMs(), url);
+    }
+
+    /**
+     * Only HTTP/2 streams can carry the response while the request is still being sent, so this is true once a response from the same server
+     * was received over HTTP/2.
+     */
+    @Override
+    public boolean isFullDuplex(URL url) {
+        return http2Origins.contains(getOrigin(url));
+    }
+
+    @Override
+    public void updateSession(HttpConnection conn) {
+        super.updateSession(conn);
+        if (conn instanceof Http2Connection) {
+            String origin = getOrigin(conn.getURL());
+            if (HttpClient.Version.HTTP_2.name().equals(((Http2Connection) conn).getProtocolVersion())) {
+                http2Origins.add(origin);
+            } else {
+                http2Origins.remove(origin);
+            }
+        }
+    }
+
+    protected String getOrigin(URL url) {
+        return url.getProtocol() + "://" + url.getAuthority();
+    }
+
+    @Override
+    public int sendAcknowledgement(Node remote, List<IncomingBatch> list, Node local,
+            String securityToken, Map<String, String> requestProperties, String registrationUrl) throws IOException {
+        if (asyncAck && list != null && list.size() > 0) {
+            String data = getAcknowledgementData(remote.requires13Compatiblity(), local.getNodeId(), list);
+            log.debug("Sending async ack: {}", data);
+            sendMessageAsync(new URL(buildURL("ack", remote, local, securityToken, registrationUrl)), local.getNodeId(), securityToken,
+                    requestProperties, data);
+            return HttpConnection.HTTP_OK;
+        }
+        return super.sendAcknowledgement(remote, list, local, securityToken, requestProperties, registrationUrl);
+    }
+
+    @Override
+    public IIncomingTransport getPullTransport(Node remote, Node local, String securityToken, Map<String, String> requestProperties,
+            String registrationUrl) throws IOException {
+        awaitPendingAck(new URL(buildURL("pull", remote, local, securityToken, registrationUrl)));
+        return super.getPullTransport(remote, local, securityToken, requestProperties, registrationUrl);
+    }
+
+    /**
+     * Wait for an asynchronous acknowledgement to the same server to finish. An acknowledgement that failed was already logged, and the
+     * batches it covered are sent again like they are when a synchronous acknowledgement fails.
+     */
+    protected void awaitPendingAck(URL url) throws IOException {
+        CompletableFuture<?> ack = pendingAcks.get(getUri(url));
+        if (ack != null) {
+            try {
+                ack.get(getHttpTimeOutInMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            } catch (ExecutionException e) {
+            } catch (TimeoutException e) {
+                log.warn("Timed out waiting for the acknowledgement to {} before pulling", url.getHost());
+            }
+        }
+    }
+
+    protected void sendMessageAsync(final URL url, String nodeId, String securityToken, Map<String, String> requestProperties, String data)
+            throws IOException {
+        Map<String, String> headers = new LinkedHashMap<String, String>(getRequestHeaders(url, securityToken));
+        if (requestProperties != null) {
+            headers.putAll(requestProperties);
+        }
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (!Http2Connection.RESTRICTED_HEADERS.contains(header.getKey())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeMessage(body, data);
+        builder.timeout(Duration.ofMillis(getHttpTimeOutInMs()));
+        builder.POST(BodyPublishers.ofByteArray(body.toByteArray()));
+        final String uri = getUri(url);
+        pendingAckCount.incrementAndGet();
+        CompletableFuture<?> ack = getHttpClient(getHttpConnectTimeOutInMs()).sendAsync(builder.build(), BodyHandlers.discarding())
+                .whenComplete((response, ex) -> {
+                    pendingAckCount.decrementAndGet();
+                    if (ex != null) {
+                        log.warn("Failed to send acknowledgement to {}: {}", url.getHost(), ex.getMessage());
+                    } else if (response.statusCode() != WebConstants.SC_OK) {
+                        log.warn("Acknowledgement to {} returned a response code of {}", url.getHost(), response.statusCode());
+                    } else {
+                        String sessionId = response.headers().firstValue(WebConstants.HEADER_SET_SESSION_ID).orElse(null);
+                        if (useSessionAuth && sessionId != null) {
+                            sessionIdByUri.put(uri, sessionId);
+                        }
+                    }
+                });
+        pendingAcks.put(uri, ack);
+        ack.whenComplete((response, ex) -> pendingAcks.remove(uri, ack));
+    }
+
+    public int getPendingAckCount() {
+        return pendingAckCount.get();
+    }
+
+    /**
+     * The connect timeout can only be set on the client, so there is one pooled client for each connect timeout in use, which is normally just
+     * the one from transport.http.connect.timeout.ms.
+     */
+    protected HttpClient getHttpClient(int connectTimeout) {
+        return httpClients.computeIfAbsent(connectTimeout, timeout -> {
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .sslContext(getSslContext());
+            if (timeout > 0) {
+                builder.connectTimeout(Duration.ofMillis(timeout));
+            }
+            log.info("Created pooled HTTP/2 client for transport with a connect timeout of {} ms", timeout);
+            return builder.build();
+        });
+    }
+
+    /**
+     * When https.verified.server.names is set, the server name is checked by {@link HostnameVerifierTrustManager}, because the client does not
+     * use the default hostname verifier.
+     */
+    protected synchronized SSLContext getSslContext() {
+        if (sslContext == null) {
+            try {
+                HostnameVerifier hostnameVerifier = TransportManagerFactory.getHostnameVerifier();
+                if (hostnameVerifier != null) {
+                    X509TrustManager trustManager = TransportManagerFactory.getTrustManager();
+                    KeyManager[] keyManagers = TransportManagerFactory.getKeyManagers();
+                    if (trustManager == null) {
+                        TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                        factory.init((KeyStore) null);
+                        for (TrustManager manager : factory.getTrustManagers()) {
+                            if (manager instanceof X509TrustManager) {
+                                trustManager = (X509TrustManager) manager;
+                            }
+                        }
+                        try {
+                            ISecurityService securityService = SecurityServiceFactory.create();
+                            keyManagers = securityService.getKeyManagerFactory().getKeyManagers();
+                        } catch (Exception e) {
+                            log.warn("No key managers found: " + e.getMessage());
+                        }
+                    }
+                    sslContext = SSLContext.getInstance("TLS");
+                    sslContext.init(keyManagers, new TrustManager[] { new HostnameVerifierTrustManager(trustManager, hostnameVerifier) },
+                            new SecureRandom());
+                } else {
+                    sslContext = TransportManagerFactory.getSslContext();
+                    if (sslContext == null) {
+                        sslContext = SSLContext.getDefault();
+                    }
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IoException(e);
+            }
+        }
+        return sslContext;
+    }
+}
@@ -23,6 +23,7 @@ package org.jumpmind.symmetric.transport.http;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URL;
@@ -30,6 +31,7 @@ import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.IOUtils;
@@ -44,6 +46,7 @@ import org.jumpmind.symmetric.service.RegistrationPendingException;
 import org.jumpmind.symmetric.service.RegistrationRequiredException;
 import org.jumpmind.symmetric.transport.AuthenticationException;
 import org.jumpmind.symmetric.transport.AuthenticationExpiredException;
+import org.jumpmind.symmetric.transport.BatchBufferedWriter;
 import org.jumpmind.symmetric.transport.ConnectionDuplicateException;
 import org.jumpmind.symmetric.transport.ConnectionRejectedException;
 import org.jumpmind.symmetric.transport.IOutgoingWithResponseTransport;
@@ -73,6 +76,9 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
     private int streamOutputChunkSize = 30720;
     private boolean fileUpload = false;
     private Map<String, String> requestProperties;
+    private boolean ackStreaming;
+    private volatile boolean sendingFinished;
+    private CountDownLatch writerOpened = new CountDownLatch(1);
 
     public HttpOutgoingTransport(HttpTransportManager httpTransportManager, URL url, int httpTimeout, int httpConnectTimeout, boolean useCompression,
             int compressionStrategy, int compressionLevel, String nodeId,
@@ -102,6 +108,7 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
     }
 
     public void close() {
+        sendingFinished = true;
         closeWriter(true);
         closeOutputStream(true);
         closeReader();
@@ -109,6 +116,7 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
             connection.disconnect();
             connection = null;
         }
+        writerOpened.countDown();
     }
 
     private void closeReader() {
@@ -208,9 +216,14 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
                     connection.setRequestProperty(requestProperty.getKey(), requestProperty.getValue());
                 }
             }
+            if (ackStreaming) {
+                connection.setRequestProperty(WebConstants.HEADER_ACK_STREAMING, Boolean.TRUE.toString());
+            }
             if (!fileUpload) {
                 connection.setRequestMethod("PUT");
-                connection.setRequestProperty("Accept-Encoding", "gzip");
+                if (!ackStreaming) {
+                    connection.setRequestProperty("Accept-Encoding", "gzip");
+                }
                 if (useCompression) {
                     connection.addRequestProperty("Content-Type", "gzip"); // application/x-gzip?
                 }
@@ -246,7 +259,8 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
 
     public BufferedWriter openWriter() {
         OutputStreamWriter wout = new OutputStreamWriter(openStream(), StandardCharsets.UTF_8);
-        writer = new BufferedWriter(wout);
+        writer = ackStreaming ? new BatchBufferedWriter(wout) : new BufferedWriter(wout);
+        writerOpened.countDown();
         return writer;
     }
 
@@ -300,6 +314,57 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
         return connection != null;
     }
 
+    public boolean isFullDuplex() {
+        return httpTransportManager.isFullDuplex(url);
+    }
+
+    /**
+     * Ask the server to stream back an acknowledgement for each batch as soon as it is loaded. The response must then be read on another thread
+     * with {@link #readResponseWhileSending()}.
+     */
+    public void setAckStreaming(boolean ackStreaming) {
+        this.ackStreaming = ackStreaming;
+    }
+
+    public boolean isAckStreaming() {
+        return ackStreaming;
+    }
+
+    /**
+     * Wait for the writer to be opened and for the server to start its response, without ending the request. Returns null if the transport was
+     * closed before anything was sent or does not support reading while sending.
+     */
+    public BufferedReader readResponseWhileSending() throws IOException {
+        try {
+            writerOpened.await();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        HttpConnection conn = connection;
+        if (conn instanceof Http2Connection) {
+            analyzeResponseCode(((Http2Connection) conn).getResponseCodeWhileSending());
+            httpTransportManager.updateSession(conn);
+            return HttpTransportManager.getReaderFrom(conn);
+        }
+        return null;
+    }
+
+    /**
+     * End the request body after all batches are written, leaving the response open for a reader on another thread.
+     */
+    public void finishSending() {
+        try {
+            closeWriter(false);
+            closeOutputStream(false);
+        } finally {
+            sendingFinished = true;
+        }
+    }
+
+    public boolean isSendingFinished() {
+        return sendingFinished;
+    }
+
     public ChannelMap getSuspendIgnoreChannelLists(IConfigurationService configurationService, String queue, Node targetNode) {
         ChannelMap suspendIgnoreChannelsList = new ChannelMap();
         try (HttpConnection connection = requestReservation(queue)) {
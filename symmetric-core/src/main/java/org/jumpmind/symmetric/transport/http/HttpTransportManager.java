@@ -31,8 +31,10 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.lang3.StringUtils;
@@ -60,7 +62,7 @@ import org.slf4j.LoggerFactory;
 public class HttpTransportManager extends AbstractTransportManager implements ITransportManager {
     private static final Logger log = LoggerFactory.getLogger(HttpTransportManager.class);
     protected ISymmetricEngine engine;
-    protected Map<String, String> sessionIdByUri = new HashMap<String, String>();
+    protected Map<String, String> sessionIdByUri = new ConcurrentHashMap<String, String>();
     protected boolean useHeaderSecurityToken;
     protected boolean useSessionAuth;
 
@@ -167,20 +169,35 @@ public class HttpTransportManager extends AbstractTransportManager implements IT
 
     public HttpConnection openConnection(URL url, String nodeId, String securityToken)
             throws IOException {
-        HttpConnection conn = new HttpConnection(url);
-        conn.setRequestProperty(WebConstants.HEADER_ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
+        HttpConnection conn = createConnection(url);
+        for (Map.Entry<String, String> header : getRequestHeaders(url, securityToken).entrySet()) {
+            conn.setRequestProperty(header.getKey(), header.getValue());
+        }
+        return conn;
+    }
+
+    /**
+     * @return the headers every request to the URL carries, which identify this node by its session or security token
+     */
+    protected Map<String, String> getRequestHeaders(URL url, String securityToken) {
+        Map<String, String> headers = new LinkedHashMap<String, String>();
+        headers.put(WebConstants.HEADER_ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
         boolean hasSession = false;
         if (useSessionAuth) {
-            String sessionId = sessionIdByUri.get(getUri(conn));
+            String sessionId = sessionIdByUri.get(getUri(url));
             if (sessionId != null) {
-                conn.setRequestProperty(WebConstants.HEADER_SESSION_ID, sessionId);
+                headers.put(WebConstants.HEADER_SESSION_ID, sessionId);
                 hasSession = true;
             }
         }
         if (securityToken != null && useHeaderSecurityToken && !hasSession) {
-            conn.setRequestProperty(WebConstants.HEADER_SECURITY_TOKEN, securityToken);
+            headers.put(WebConstants.HEADER_SECURITY_TOKEN, securityToken);
         }
-        return conn;
+        return headers;
+    }
+
+    protected HttpConnection createConnection(URL url) throws IOException {
+        return new HttpConnection(url);
     }
 
     public void updateSession(HttpConnection conn) {
@@ -199,11 +216,22 @@ public class HttpTransportManager extends AbstractTransportManager implements IT
     }
 
     protected String getUri(HttpConnection conn) {
-        String uri = conn.getURL().toExternalForm();
+        return getUri(conn.getURL());
+    }
+
+    protected String getUri(URL url) {
+        String uri = url.toExternalForm();
         uri = uri.substring(0, uri.lastIndexOf("/"));
         return uri;
     }
 
+    /**
+     * @return true if the response to a request to the URL can be read while the request body is still being sent
+     */
+    public boolean isFullDuplex(URL url) {
+        return false;
+    }
+
     public int getOutputStreamSize() {
         return engine.getParameterService().getInt(ParameterConstants.TRANSPORT_HTTP_PUSH_STREAM_SIZE);
     }
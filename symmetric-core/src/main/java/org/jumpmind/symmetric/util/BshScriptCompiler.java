@@ -0,0 +1,151 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.lang.model.SourceVersion;
+
+import org.jumpmind.util.SimpleClassCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Translates a BeanShell script into a Java class that is compiled once and then run for every row. BeanShell is mostly a superset of Java, so a
+ * script that also compiles as the body of a Java method gives the same result either way. Each bound variable is declared as a local of the given
+ * type, but only when the script mentions it, and is read from an array of values in the order of {@link CompiledScript#getVariableNames()}.
+ * <p/>
+ * When the script does not compile as Java (loosely typed variables, imports, void checks, or a path that does not return a value), null is
+ * returned and the caller keeps using the interpreter. Results are cached by the generated code, including failures, so each script is only
+ * compiled once.
+ */
+public class BshScriptCompiler {
+    protected static final String CODE_START = "import java.util.*;\n"
+            + "import java.io.*;\n"
+            + "import java.math.*;\n"
+            + "public class BshCompiledScriptExt implements org.jumpmind.symmetric.util.BshScriptCompiler.IScript {\n"
+            + "    public Object eval(Object[] variables) throws Exception {\n";
+    protected static final String CODE_END = "\n    }\n}\n";
+    protected static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+    protected static final Pattern RETURN = Pattern.compile("\\breturn\\b");
+    protected static final CompiledScript NOT_COMPILED = new CompiledScript(null, null);
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    protected SimpleClassCompiler compiler;
+    protected Map<String, CompiledScript> compiledScripts = new ConcurrentHashMap<String, CompiledScript>();
+
+    public BshScriptCompiler(SimpleClassCompiler compiler) {
+        this.compiler = compiler;
+    }
+
+    /**
+     * @param script
+     *            the BeanShell script
+     * @param variableTypes
+     *            the Java type of each variable that can be bound, in the order they should be declared
+     * @param lastValueReturned
+     *            true when the script is evaluated on its own, so the value of a single expression is its result, or false when it is the body of a
+     *            method that must use return
+     * @return the compiled script, or null if the script could not be compiled as Java
+     */
+    public CompiledScript compile(String script, Map<String, String> variableTypes, boolean lastValueReturned) {
+        if (script == null || script.trim().length() == 0) {
+            return null;
+        }
+        Set<String> identifiers = new HashSet<String>();
+        Matcher matcher = IDENTIFIER.matcher(script);
+        while (matcher.find()) {
+            identifiers.add(matcher.group());
+        }
+        Map<String, String> declared = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, String> entry : variableTypes.entrySet()) {
+            if (identifiers.contains(entry.getKey()) && SourceVersion.isName(entry.getKey())) {
+                declared.put(entry.getKey(), entry.getValue());
+            }
+        }
+        StringBuilder code = new StringBuilder(CODE_START);
+        List<String> names = new ArrayList<String>(declared.size());
+        for (Map.Entry<String, String> entry : declared.entrySet()) {
+            code.append("        ").append(entry.getValue()).append(" ").append(entry.getKey()).append(" = (")
+                    .append(entry.getValue()).append(") variables[").append(names.size()).append("];\n");
+            names.add(entry.getKey());
+        }
+        code.append(getBody(script, lastValueReturned)).append(CODE_END);
+        String javaCode = code.toString();
+        CompiledScript compiledScript = compiledScripts.get(javaCode);
+        if (compiledScript == null) {
+            synchronized (this) {
+                compiledScript = compiledScripts.get(javaCode);
+                if (compiledScript == null) {
+                    try {
+                        compiledScript = new CompiledScript(names.toArray(new String[names.size()]),
+                                (IScript) compiler.getCompiledClass(javaCode));
+                    } catch (Throwable ex) {
+                        log.debug("BeanShell script will be interpreted because it could not be compiled as Java: {}", ex.getMessage());
+                        compiledScript = NOT_COMPILED;
+                    }
+                    compiledScripts.put(javaCode, compiledScript);
+                }
+            }
+        }
+        return compiledScript == NOT_COMPILED ? null : compiledScript;
+    }
+
+    protected String getBody(String script, boolean lastValueReturned) {
+        String body = script.trim();
+        if (lastValueReturned && !RETURN.matcher(body).find()) {
+            String expression = body.endsWith(";") ? body.substring(0, body.length() - 1) : body;
+            if (expression.indexOf(';') < 0 && expression.indexOf('{') < 0) {
+                return "return (" + expression + ");";
+            }
+        }
+        return body;
+    }
+
+    public interface IScript {
+        public Object eval(Object[] variables) throws Exception;
+    }
+
+    public static class CompiledScript {
+        protected String[] variableNames;
+        protected IScript script;
+
+        protected CompiledScript(String[] variableNames, IScript script) {
+            this.variableNames = variableNames;
+            this.script = script;
+        }
+
+        public String[] getVariableNames() {
+            return variableNames;
+        }
+
+        public Object eval(Object[] variables) throws Exception {
+            return script.eval(variables);
+        }
+    }
+}
@@ -103,6 +103,8 @@ public class WebConstants {
     public static final String HEADER_SECURITY_TOKEN = "Security-Token";
     public static final String HEADER_SESSION_ID = "Session-ID";
     public static final String HEADER_SET_SESSION_ID = "Set-Session-ID";
+    public static final String HEADER_ACK_STREAMING = "Ack-Streaming";
+    public static final String HEADER_BINARY_PROTOCOL = "Binary-Protocol";
     public static final String REG_USER_ID = "regUserId";
     public static final String REG_PASSWORD = "regPassword";
     public static final String PUSH_REGISTRATION = "pushRegistration";
@@ -0,0 +1,146 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.symmetric.model.FileBlockSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FileBlockDeltaTest {
+    private static final int BLOCK_SIZE = 1024;
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("filedelta").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        byte[] base = random(100 * BLOCK_SIZE + 17, 1);
+        byte[] target = concat(base, random(3000, 2));
+        int deltaSize = assertRoundTrip(base, target);
+        assertTrue("delta was " + deltaSize + " bytes", deltaSize < 3000 + BLOCK_SIZE + 200);
+    }
+
+    @Test
+    public void testChangeInMiddle() throws Exception {
+        byte[] base = random(100 * BLOCK_SIZE, 3);
+        byte[] target = base.clone();
+        target[50 * BLOCK_SIZE + 10] ^= 0x55;
+        int deltaSize = assertRoundTrip(base, target);
+        assertTrue("delta was " + deltaSize + " bytes", deltaSize < 2 * BLOCK_SIZE);
+    }
+
+    @Test
+    public void testInsertShiftsBlocks() throws Exception {
+        byte[] base = random(100 * BLOCK_SIZE + 500, 4);
+        byte[] target = concat(concat(Arrays.copyOf(base, 30 * BLOCK_SIZE + 3), random(7, 5)),
+                Arrays.copyOfRange(base, 30 * BLOCK_SIZE + 3, base.length));
+        int deltaSize = assertRoundTrip(base, target);
+        assertTrue("delta was " + deltaSize + " bytes", deltaSize < 3 * BLOCK_SIZE);
+    }
+
+    @Test
+    public void testUnchangedAndRewritten() throws Exception {
+        byte[] base = random(10 * BLOCK_SIZE + 100, 6);
+        assertTrue(assertRoundTrip(base, base.clone()) < 100);
+        assertRoundTrip(base, random(5 * BLOCK_SIZE + 1, 7));
+        assertRoundTrip(base, new byte[0]);
+        assertRoundTrip(new byte[0], base);
+    }
+
+    @Test
+    public void testTargetNotBase() throws Exception {
+        byte[] base = random(10 * BLOCK_SIZE, 8);
+        File delta = writeDelta(base, random(10 * BLOCK_SIZE, 9));
+        File target = new File(dir, "target.dat");
+        byte[] other = base.clone();
+        other[0] ^= 1;
+        FileUtils.writeByteArrayToFile(target, other);
+        try {
+            FileBlockDelta.apply(delta, target);
+            fail("Expected a mismatch");
+        } catch (FileDeltaMismatchException e) {
+        }
+        assertArrayEquals(other, FileUtils.readFileToByteArray(target));
+    }
+
+    @Test
+    public void testBlockSizeGrowsForLargeFiles() {
+        assertEquals(BLOCK_SIZE, FileBlockDelta.getBlockSize(10 * BLOCK_SIZE, BLOCK_SIZE));
+        assertEquals(1L << 20, FileBlockDelta.getBlockSize(1L << 36, BLOCK_SIZE));
+    }
+
+    protected int assertRoundTrip(byte[] base, byte[] content) throws IOException {
+        File delta = writeDelta(base, content);
+        File target = new File(dir, "target.dat");
+        FileUtils.writeByteArrayToFile(target, base);
+        FileBlockDelta.apply(delta, target);
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+        return (int) delta.length();
+    }
+
+    protected File writeDelta(byte[] base, byte[] content) throws IOException {
+        FileBlockSignature baseSignature = FileBlockDelta.copy(new ByteArrayInputStream(base), new ByteArrayOutputStream(), BLOCK_SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FileBlockSignature signature = FileBlockDelta.writeDelta(new ByteArrayInputStream(content), baseSignature, BLOCK_SIZE, out);
+        FileBlockSignature expected = FileBlockDelta.copy(new ByteArrayInputStream(content), new ByteArrayOutputStream(), BLOCK_SIZE);
+        assertEquals(expected.getFileSize(), signature.getFileSize());
+        assertEquals(expected.getCrc32Checksum(), signature.getCrc32Checksum());
+        assertArrayEquals(expected.getBlockChecksums(), signature.getBlockChecksums());
+        File delta = new File(dir, "delta.dat");
+        FileUtils.writeByteArrayToFile(delta, out.toByteArray());
+        return delta;
+    }
+
+    protected static byte[] random(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    protected static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
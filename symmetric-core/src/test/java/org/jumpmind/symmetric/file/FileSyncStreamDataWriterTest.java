@@ -0,0 +1,152 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.FileTrigger;
+import org.jumpmind.symmetric.model.FileTriggerRouter;
+import org.jumpmind.symmetric.model.Router;
+import org.jumpmind.symmetric.service.IConfigurationService;
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.jumpmind.symmetric.service.IFileSyncService;
+import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import bsh.Interpreter;
+
+public class FileSyncStreamDataWriterTest {
+    private static final String[] SNAPSHOT_COLUMNS = { "TRIGGER_ID", "ROUTER_ID", "RELATIVE_DIR", "FILE_NAME", "LAST_EVENT_TYPE",
+            "CRC32_CHECKSUM", "FILE_SIZE", "FILE_MODIFIED_TIME", "LAST_UPDATE_BY" };
+    private File dir;
+    private File sourceDir;
+    private IFileSyncService fileSyncService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("filestreamwriter").toFile();
+        sourceDir = new File(dir, "source");
+        FileUtils.writeStringToFile(new File(sourceDir, "a.txt"), "content", StandardCharsets.UTF_8);
+        fileSyncService = mock(IFileSyncService.class);
+        addTriggerRouter("moved", "target1", null);
+        addTriggerRouter("copied", "target2", "org.apache.commons.io.FileUtils.copyFile(sourceFile, new java.io.File(targetBaseDir + \"/after.txt\"));");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testStreamedBatchMovesFilesAndKeepsSourceForAfterCopyScript() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writeBatch(bytes);
+        File batchDir = unpackAndRun(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("content", FileUtils.readFileToString(new File(dir, "target1/a.txt"), StandardCharsets.UTF_8));
+        assertEquals("content", FileUtils.readFileToString(new File(dir, "target2/a.txt"), StandardCharsets.UTF_8));
+        assertEquals("content", FileUtils.readFileToString(new File(dir, "target2/after.txt"), StandardCharsets.UTF_8));
+        assertFalse(new File(batchDir, "a.txt").exists());
+    }
+
+    @Test
+    public void testStreamedBatchThroughFileTransport() throws Exception {
+        File transportFile = new File(dir, "transport.dat");
+        try (FileOutputStream out = new FileOutputStream(transportFile)) {
+            writeBatch(out);
+        }
+        try (FileInputStream in = new FileInputStream(transportFile)) {
+            assertTrue(FileSyncStreamReader.isStream(in));
+            unpackAndRun(in);
+        }
+        assertEquals("content", FileUtils.readFileToString(new File(dir, "target1/a.txt"), StandardCharsets.UTF_8));
+        assertEquals("content", FileUtils.readFileToString(new File(dir, "target2/after.txt"), StandardCharsets.UTF_8));
+    }
+
+    protected void writeBatch(OutputStream out) throws Exception {
+        INodeService nodeService = mock(INodeService.class);
+        IConfigurationService configurationService = mock(IConfigurationService.class);
+        when(configurationService.getChannel("filesync")).thenReturn(new Channel("filesync", 1));
+        FileSyncStreamDataWriter writer = new FileSyncStreamDataWriter(Long.MAX_VALUE, fileSyncService, nodeService, out,
+                mock(IExtensionService.class), configurationService, mock(IParameterService.class));
+        Batch batch = new Batch(BatchType.EXTRACT, 1, "filesync", BinaryEncoding.BASE64, "00000", "00001", false);
+        writer.open(new DataContext(batch));
+        writer.start(batch);
+        writer.start(new Table(null, null, "sym_file_snapshot", SNAPSHOT_COLUMNS, new String[] { "TRIGGER_ID", "ROUTER_ID" }));
+        writer.write(snapshot("moved"));
+        writer.write(snapshot("copied"));
+        writer.end((Table) null);
+        writer.end(batch, false);
+        writer.finish();
+    }
+
+    protected File unpackAndRun(InputStream in) throws Exception {
+        File toDir = new File(dir, "incoming");
+        new FileSyncStreamReader(in).unpack(toDir);
+        File batchDir = new File(toDir, "1");
+        Interpreter interpreter = new Interpreter();
+        interpreter.set("batchDir", batchDir.getAbsolutePath().replace('\\', '/'));
+        interpreter.source(new File(batchDir, "sync.bsh").getAbsolutePath());
+        return batchDir;
+    }
+
+    protected void addTriggerRouter(String id, String targetDir, String afterCopyScript) {
+        FileTrigger fileTrigger = new FileTrigger(sourceDir.getAbsolutePath(), false, null, null);
+        fileTrigger.setTriggerId(id);
+        fileTrigger.setAfterCopyScript(afterCopyScript);
+        Router router = new Router();
+        router.setRouterId(id);
+        FileTriggerRouter triggerRouter = new FileTriggerRouter(fileTrigger, router);
+        triggerRouter.setTargetBaseDir(new File(dir, targetDir).getAbsolutePath());
+        when(fileSyncService.getFileTriggerRouter(id, id, false)).thenReturn(triggerRouter);
+    }
+
+    protected CsvData snapshot(String id) {
+        File file = new File(sourceDir, "a.txt");
+        return new CsvData(DataEventType.INSERT, new String[] { id, id, ".", "a.txt", "C", "0", Long.toString(file.length()),
+                Long.toString(file.lastModified()), "test" });
+    }
+}
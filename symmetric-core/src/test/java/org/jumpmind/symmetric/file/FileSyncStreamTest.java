@@ -0,0 +1,193 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.exception.IoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FileSyncStreamTest {
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("filestream").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        byte[] large = new byte[300 * 1024 + 7];
+        new Random(1).nextBytes(large);
+        File source = new File(dir, "source.dat");
+        FileUtils.writeByteArrayToFile(source, large);
+        source.setLastModified(1500000000000L);
+        File empty = new File(dir, "empty.dat");
+        empty.createNewFile();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FileSyncStreamWriter writer = new FileSyncStreamWriter(bytes);
+        writer.startEntry("1/sub/source.dat", source.lastModified(), false);
+        writer.transferFrom(source);
+        writer.endEntry();
+        writer.startEntry("1/empty.dat", 0, false);
+        writer.transferFrom(empty);
+        writer.endEntry();
+        writer.startEntry("1/dir/", 0, true);
+        writer.endEntry();
+        writer.startEntry("1/sync.bsh", 0, false);
+        OutputStream out = writer.getEntryOutputStream();
+        byte[] script = new byte[200 * 1024];
+        Arrays.fill(script, (byte) 'x');
+        out.write(script, 0, 10);
+        out.write(script, 10, script.length - 10);
+        writer.endEntry();
+        writer.finish();
+
+        BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertTrue(FileSyncStreamReader.isStream(in));
+        File toDir = new File(dir, "in");
+        new FileSyncStreamReader(in).unpack(toDir);
+        File received = new File(toDir, "1/sub/source.dat");
+        assertArrayEquals(large, FileUtils.readFileToByteArray(received));
+        assertEquals(1500000000000L, received.lastModified());
+        assertEquals(0, new File(toDir, "1/empty.dat").length());
+        assertTrue(new File(toDir, "1/dir").isDirectory());
+        assertArrayEquals(script, FileUtils.readFileToByteArray(new File(toDir, "1/sync.bsh")));
+    }
+
+    @Test
+    public void testRoundTripThroughFiles() throws Exception {
+        byte[] large = new byte[300 * 1024 + 7];
+        new Random(2).nextBytes(large);
+        File source = new File(dir, "source.dat");
+        FileUtils.writeByteArrayToFile(source, large);
+        File transport = new File(dir, "transport.dat");
+        try (FileOutputStream out = new FileOutputStream(transport)) {
+            FileSyncStreamWriter writer = new FileSyncStreamWriter(out);
+            writer.startEntry("1/sync.bsh", 0, false);
+            writer.getEntryOutputStream().write("script".getBytes(StandardCharsets.US_ASCII));
+            writer.endEntry();
+            writer.startEntry("1/source.dat", 0, false);
+            writer.transferFrom(source);
+            writer.endEntry();
+            writer.finish();
+        }
+        File toDir = new File(dir, "in");
+        try (FileInputStream in = new FileInputStream(transport)) {
+            assertTrue(FileSyncStreamReader.isStream(in));
+            new FileSyncStreamReader(in).unpack(toDir);
+        }
+        assertArrayEquals(large, FileUtils.readFileToByteArray(new File(toDir, "1/source.dat")));
+        assertEquals("script", FileUtils.readFileToString(new File(toDir, "1/sync.bsh"), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testZipIsNotStream() throws Exception {
+        BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream("PK\u0003\u0004rest".getBytes(StandardCharsets.US_ASCII)));
+        assertFalse(FileSyncStreamReader.isStream(in));
+        assertEquals('P', in.read());
+        assertFalse(FileSyncStreamReader.isStream(new BufferedInputStream(new ByteArrayInputStream(new byte[0]))));
+    }
+
+    @Test
+    public void testTruncatedStream() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FileSyncStreamWriter writer = new FileSyncStreamWriter(bytes);
+        writer.startEntry("1/a.txt", 0, false);
+        writer.getEntryOutputStream().write("hello".getBytes(StandardCharsets.US_ASCII));
+        writer.endEntry();
+        writer.finish();
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+        try {
+            new FileSyncStreamReader(new ByteArrayInputStream(truncated)).unpack(new File(dir, "in"));
+            fail("Expected the truncated stream to fail");
+        } catch (IoException e) {
+        }
+    }
+
+    @Test
+    public void testEntryOutsideDirectory() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FileSyncStreamWriter writer = new FileSyncStreamWriter(bytes);
+        writer.startEntry("../escape.txt", 0, false);
+        writer.endEntry();
+        writer.finish();
+        try {
+            new FileSyncStreamReader(new ByteArrayInputStream(bytes.toByteArray())).unpack(new File(dir, "in"));
+            fail("Expected the entry to be rejected");
+        } catch (IoException e) {
+        }
+        assertFalse(new File(dir, "escape.txt").exists());
+    }
+
+    @Test
+    public void testMoveFileToTwoTargets() throws Exception {
+        File source = new File(dir, "batch/a.txt");
+        FileUtils.writeStringToFile(source, "content", StandardCharsets.UTF_8);
+        File first = new File(dir, "target1/a.txt");
+        File second = new File(dir, "target2/a.txt");
+        Map<File, File> movedFiles = new HashMap<File, File>();
+        FileSyncUtils.moveFile(source, first, movedFiles);
+        FileSyncUtils.moveFile(source, second, movedFiles);
+        assertFalse(source.exists());
+        assertEquals("content", FileUtils.readFileToString(first, StandardCharsets.UTF_8));
+        assertEquals("content", FileUtils.readFileToString(second, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCopyFileAfterMove() throws Exception {
+        File source = new File(dir, "batch/a.txt");
+        FileUtils.writeStringToFile(source, "content", StandardCharsets.UTF_8);
+        File first = new File(dir, "target1/a.txt");
+        File second = new File(dir, "target2/a.txt");
+        Map<File, File> movedFiles = new HashMap<File, File>();
+        assertEquals(source, FileSyncUtils.copyFile(source, second, movedFiles));
+        FileSyncUtils.moveFile(source, first, movedFiles);
+        assertEquals(first, FileSyncUtils.copyFile(source, second, movedFiles));
+        assertEquals("content", FileUtils.readFileToString(second, StandardCharsets.UTF_8));
+    }
+}
@@ -22,6 +22,8 @@ package org.jumpmind.symmetric.file;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -112,6 +114,64 @@ public class FileTriggerTrackerTest {
     public void testTakeSnapshotAfterRestart() throws Exception {
     }
 
+    @Test
+    public void testWatchServiceTracksChanges() throws Exception {
+        FileTrigger fileTrigger = new FileTrigger(directory.getAbsolutePath(), true, null, null);
+        FileTriggerRouter fileTriggerRouter = new FileTriggerRouter(fileTrigger, new Router());
+        ParallelChecksumCalculator checksumCalculator = new ParallelChecksumCalculator(2);
+        FileTriggerTracker tracker = new FileTriggerTracker(fileTriggerRouter, null, null, true, checksumCalculator, true, null);
+        try {
+            assertTrue(tracker.isWatching());
+            assertEquals(4, tracker.trackChanges().size());
+            File newDirectory = new File(subdirectory, "b");
+            newDirectory.mkdirs();
+            FileUtils.write(new File(newDirectory, "4.txt"), "new", Charset.defaultCharset(), false);
+            FileUtils.write(fileInDirectory1, "abcdef", Charset.defaultCharset(), false);
+            FileUtils.deleteQuietly(fileInDirectory2);
+            Map<String, LastEventType> changes = new HashMap<String, LastEventType>();
+            long endTime = System.currentTimeMillis() + 10000;
+            while (changes.size() < 4 && System.currentTimeMillis() < endTime) {
+                for (FileSnapshot change : tracker.trackChanges()) {
+                    changes.put(change.getRelativeDir() + "/" + change.getFileName(), change.getLastEventType());
+                }
+                Thread.sleep(50);
+            }
+            assertEquals(LastEventType.MODIFY, changes.get("./1.txt"));
+            assertEquals(LastEventType.DELETE, changes.get("./2.csv"));
+            assertEquals(LastEventType.CREATE, changes.get("a/b"));
+            assertEquals(LastEventType.CREATE, changes.get("a/b/4.txt"));
+            assertEquals(4, changes.size());
+        } finally {
+            tracker.close();
+            checksumCalculator.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelChecksumsMatchSerial() throws Exception {
+        FileTrigger fileTrigger = new FileTrigger(directory.getAbsolutePath(), true, null, null);
+        FileTriggerRouter fileTriggerRouter = new FileTriggerRouter(fileTrigger, new Router());
+        DirectorySnapshot serial = new DirectorySnapshot(fileTriggerRouter);
+        new FileTriggerTracker(fileTriggerRouter, null, null, true, null).takeFullSnapshot(serial);
+        DirectorySnapshot parallel = new DirectorySnapshot(fileTriggerRouter);
+        DirectorySnapshot reused = new DirectorySnapshot(fileTriggerRouter);
+        ParallelChecksumCalculator checksumCalculator = new ParallelChecksumCalculator(4);
+        try {
+            new FileTriggerTracker(fileTriggerRouter, null, null, true, checksumCalculator, false, null).takeFullSnapshot(parallel);
+            new FileTriggerTracker(fileTriggerRouter, null, null, true, checksumCalculator, false, null).takeFullSnapshot(reused);
+        } finally {
+            checksumCalculator.shutdown();
+        }
+        assertEquals(0, parallel.diff(reused).size());
+        assertEquals(4, parallel.size());
+        assertEquals(0, serial.diff(parallel).size());
+        for (FileSnapshot file : parallel) {
+            if (!file.getFileName().equals("a")) {
+                assertTrue(file.getCrc32Checksum() != -1);
+            }
+        }
+    }
+
     protected void recreateDirectorySpecAndFiles() throws Exception {
         FileUtils.deleteQuietly(snapshotDirectory);
         FileUtils.deleteQuietly(directory);
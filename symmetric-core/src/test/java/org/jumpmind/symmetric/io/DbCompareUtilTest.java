@@ -0,0 +1,85 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.junit.jupiter.api.Test;
+
+public class DbCompareUtilTest {
+    @Test
+    public void testRangeChecksumSql() {
+        List<Column> columns = Arrays.asList(new Column("id", true, Types.INTEGER, 0, 0), new Column("name", false, Types.VARCHAR, 50, 0));
+        assertEquals("sum(ora_hash(concat_ws('|', coalesce(cast(\"id\" as varchar), '~'), coalesce(cast(\"name\" as varchar), '~'))))",
+                DbCompareUtil.getRangeChecksumSql(DatabaseNamesConstants.H2, columns, "\""));
+        assertEquals("sum(ora_hash(nvl(to_char(ora_hash(\"id\")), '~') || '|' || nvl(to_char(ora_hash(\"name\")), '~')))",
+                DbCompareUtil.getRangeChecksumSql(DatabaseNamesConstants.ORACLE122, columns, "\""));
+        assertEquals("sum(cast(cast('x' || substr(md5(concat_ws('|', coalesce(cast(\"id\" as text), '~'))), 1, 15) as bit(60)) as bigint))",
+                DbCompareUtil.getRangeChecksumSql(DatabaseNamesConstants.POSTGRESQL95, columns.subList(0, 1), "\""));
+    }
+
+    @Test
+    public void testRangeChecksumSqlMsSql() {
+        List<Column> columns = Arrays.asList(new Column("id", true, Types.INTEGER, 0, 0), new Column("amount", false, Types.DOUBLE, 0, 0),
+                new Column("created", false, Types.TIMESTAMP, 0, 0), new Column("data", false, Types.VARBINARY, 50, 0));
+        assertEquals("sum(cast(cast(substring(hashbytes('MD5', coalesce(cast(\"id\" as nvarchar(max)), '~') + '|' + "
+                + "coalesce(convert(nvarchar(max), \"amount\", 2), '~') + '|' + coalesce(convert(nvarchar(max), \"created\", 121), '~') + '|' + "
+                + "coalesce(convert(nvarchar(max), \"data\", 2), '~')), 1, 7) as bigint) as decimal(38, 0)))",
+                DbCompareUtil.getRangeChecksumSql(DatabaseNamesConstants.MSSQL2016, columns, "\""));
+    }
+
+    @Test
+    public void testRangeChecksumSqlNotSupported() {
+        assertNull(DbCompareUtil.getRangeChecksumSql(DatabaseNamesConstants.SQLITE, Arrays.asList(new Column("id"), new Column("name")), ""));
+        assertNull(DbCompareUtil.getRangeChecksumSql(DatabaseNamesConstants.H2, Collections.<Column> emptyList(), ""));
+    }
+
+    @Test
+    public void testSplitKeysSql() {
+        assertEquals("select \"id\" from (select \"id\", row_number() over (ORDER BY \"id\") as dbcompare_row_number from \"item\" t where (1=1)) r "
+                + "where mod(dbcompare_row_number, 125) = 0 and dbcompare_row_number < 1000 order by dbcompare_row_number",
+                DbCompareUtil.getSplitKeysSql(DatabaseNamesConstants.H2, "\"id\"", "\"item\" t where (1=1)", "ORDER BY \"id\"", 125, 1000));
+        assertEquals("select \"id\" from (select \"id\", row_number() over (ORDER BY \"id\") as dbcompare_row_number from \"item\" t where (1=1)) r "
+                + "where dbcompare_row_number % 125 = 0 and dbcompare_row_number < 1000 order by dbcompare_row_number",
+                DbCompareUtil.getSplitKeysSql(DatabaseNamesConstants.MSSQL2016, "\"id\"", "\"item\" t where (1=1)", "ORDER BY \"id\"", 125, 1000));
+    }
+
+    @Test
+    public void testRowNumberSupported() {
+        assertTrue(DbCompareUtil.isRowNumberSupported(DatabaseNamesConstants.H2, 2, 1));
+        assertTrue(DbCompareUtil.isRowNumberSupported(DatabaseNamesConstants.MYSQL, 8, 0));
+        assertFalse(DbCompareUtil.isRowNumberSupported(DatabaseNamesConstants.MYSQL, 5, 7));
+        assertTrue(DbCompareUtil.isRowNumberSupported(DatabaseNamesConstants.MARIADB, 10, 2));
+        assertFalse(DbCompareUtil.isRowNumberSupported(DatabaseNamesConstants.MARIADB, 10, 1));
+        assertFalse(DbCompareUtil.isRowNumberSupported(DatabaseNamesConstants.SQLITE, 3, 0));
+    }
+}
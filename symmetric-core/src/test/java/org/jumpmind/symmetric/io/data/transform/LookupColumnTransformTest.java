@@ -0,0 +1,185 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.db.DbTestUtils;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.CsvConstants;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataProcessor;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.reader.ProtocolDataReader;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.symmetric.io.data.writer.TransformWriter;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.util.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class LookupColumnTransformTest {
+    static final String LOOKUP_SQL = "select name from test_lookup_value where code = :CODE";
+    static IDatabasePlatform platform;
+    static Table lookupTable;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        platform = DbTestUtils.createDatabasePlatform(DbTestUtils.ROOT);
+        lookupTable = new Table("test_lookup_value");
+        lookupTable.addColumn(new Column("code", true, Types.VARCHAR, 10, 0));
+        lookupTable.addColumn(new Column("name", false, Types.VARCHAR, 50, 0));
+        platform.alterCaseToMatchDatabaseDefaultCase(lookupTable);
+        platform.createTables(true, false, lookupTable);
+        String[][] values = { { "A", "Alpha" }, { "B", "Bravo" }, { "C", "Charlie" }, { "D", "Delta" }, { "E", "Echo" } };
+        for (String[] value : values) {
+            platform.getSqlTemplate().update("insert into test_lookup_value (code, name) values (?, ?)", (Object[]) value);
+        }
+    }
+
+    @AfterAll
+    public static void teardown() {
+        platform.dropTables(true, lookupTable);
+    }
+
+    @Test
+    public void testLookupCacheAndPrefetch() {
+        IParameterService parameterService = mock(IParameterService.class);
+        when(parameterService.getInt(ParameterConstants.TRANSFORM_LOOKUP_CACHE_SIZE, 0)).thenReturn(3);
+        when(parameterService.getInt(ParameterConstants.TRANSFORM_LOOKUP_PREFETCH_SIZE, 0)).thenReturn(4);
+        Map<String, IColumnTransform<?>> columnTransforms = new HashMap<String, IColumnTransform<?>>();
+        columnTransforms.put(LookupColumnTransform.NAME, new LookupColumnTransform(parameterService));
+        TransformColumn lookupColumn = new TransformColumn("code", "name", false, LookupColumnTransform.NAME, LOOKUP_SQL);
+        CollectingDataWriter targetWriter = new CollectingDataWriter();
+        TransformTable transformTable = new TransformTable("lookup_source", "lookup_target", TransformPoint.LOAD,
+                new TransformColumn("id", "id", true), lookupColumn);
+        transformTable.setColumnPolicy(ColumnPolicy.SPECIFIED);
+        TransformWriter writer = new TransformWriter(platform, TransformPoint.LOAD, targetWriter, columnTransforms, transformTable);
+        /*
+         * Rows are held back in blocks of 3, the smaller of the cache and prefetch sizes. The first two blocks prefetch A and B, then C, D and
+         * E, which evicts A and B from the cache. The last block prefetches A again and X, which is not found, so X runs the lookup on its own.
+         */
+        List<String> codes = Arrays.asList("A", "B", "A", "C", "D", "E", "A", "X");
+        StringBuilder csv = new StringBuilder();
+        csv.append(CsvConstants.NODEID).append(",00001\n");
+        csv.append(CsvConstants.BINARY).append(",BASE64\n");
+        csv.append(CsvConstants.CHANNEL).append(",default\n");
+        csv.append(CsvConstants.BATCH).append(",1\n");
+        csv.append(CsvConstants.TABLE).append(",lookup_source\n");
+        csv.append(CsvConstants.KEYS).append(",id\n");
+        csv.append(CsvConstants.COLUMNS).append(",id,code\n");
+        for (int i = 0; i < codes.size(); i++) {
+            csv.append(CsvConstants.INSERT).append(",").append(i + 1).append(",\"").append(codes.get(i)).append("\"\n");
+        }
+        csv.append(CsvConstants.COMMIT).append(",1\n");
+        DataContext context = new DataContext();
+        new DataProcessor(new ProtocolDataReader(BatchType.LOAD, "00000", csv.toString()), writer, "lookup test").process(context);
+
+        List<CsvData> datas = targetWriter.writtenDatas.get("lookup_target");
+        assertEquals(codes.size(), datas.size());
+        Map<String, String> names = new HashMap<String, String>();
+        names.put("A", "Alpha");
+        names.put("B", "Bravo");
+        names.put("C", "Charlie");
+        names.put("D", "Delta");
+        names.put("E", "Echo");
+        String[] columnNames = targetWriter.tables.get("lookup_target").getColumnNames();
+        for (int i = 0; i < codes.size(); i++) {
+            Map<String, String> row = datas.get(i).toColumnNameValuePairs(columnNames, CsvData.ROW_DATA);
+            assertEquals(Integer.toString(i + 1), row.get("id"));
+            assertEquals("Lookup for " + codes.get(i), names.get(codes.get(i)), row.get("name"));
+        }
+        assertNull(datas.get(7).toColumnNameValuePairs(columnNames, CsvData.ROW_DATA).get("name"));
+
+        Statistics stats = targetWriter.statistics.values().iterator().next();
+        assertEquals(7, stats.get(DataWriterStatisticConstants.LOOKUPCACHEHITS));
+        assertEquals(1, stats.get(DataWriterStatisticConstants.LOOKUPCACHEMISSES));
+        assertEquals("Three prefetch queries and one lookup for X", 4, stats.get(DataWriterStatisticConstants.LOOKUPQUERYCOUNT));
+
+        @SuppressWarnings("unchecked")
+        Map<List<Object>, String> cache = (Map<List<Object>, String>) context.get(LookupColumnTransform.CACHE_CONTEXT_KEY
+                + lookupColumn.getTransformId() + "." + lookupColumn.getTargetColumnName() + "." + lookupColumn.getIncludeOn());
+        List<Object> cachedCodes = new ArrayList<Object>();
+        for (List<Object> key : cache.keySet()) {
+            cachedCodes.add(key.get(1));
+        }
+        assertEquals("Least recently used codes are evicted", Arrays.asList("E", "A", "X"), cachedCodes);
+    }
+
+    static class CollectingDataWriter implements IDataWriter {
+        Map<String, List<CsvData>> writtenDatas = new HashMap<String, List<CsvData>>();
+        Map<String, Table> tables = new HashMap<String, Table>();
+        Map<Batch, Statistics> statistics = new HashMap<Batch, Statistics>();
+        Table table;
+
+        public void open(DataContext context) {
+        }
+
+        public void close() {
+        }
+
+        public Map<Batch, Statistics> getStatistics() {
+            return statistics;
+        }
+
+        public void start(Batch batch) {
+            statistics.put(batch, new Statistics());
+        }
+
+        public boolean start(Table table) {
+            this.table = table;
+            tables.put(table.getName(), table);
+            return true;
+        }
+
+        public void write(CsvData data) {
+            List<CsvData> datas = writtenDatas.get(table.getName());
+            if (datas == null) {
+                datas = new ArrayList<CsvData>();
+                writtenDatas.put(table.getName(), datas);
+            }
+            datas.add(data);
+        }
+
+        public void end(Table table) {
+        }
+
+        public void end(Batch batch, boolean inError) {
+        }
+    }
+}
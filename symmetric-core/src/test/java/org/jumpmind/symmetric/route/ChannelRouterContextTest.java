@@ -0,0 +1,99 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.NodeChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ChannelRouterContextTest {
+    ChannelRouterContext context;
+
+    @BeforeEach
+    public void setUp() {
+        context = new ChannelRouterContext("00000", new NodeChannel("testChannel"), mock(ISqlTransaction.class), null);
+    }
+
+    @Test
+    public void testRoutedDataNotKeptByDefault() {
+        assertFalse(context.isKeepRoutedData());
+        context.addRoutedData(newData(1, DataEventType.INSERT), 10);
+        assertTrue(context.getRoutedDataByBatchId().isEmpty());
+    }
+
+    @Test
+    public void testRoutedDataKeptInOrder() {
+        context.setMaxRoutedDataToKeep(10);
+        context.addRoutedData(newData(1, DataEventType.INSERT), 10);
+        context.addRoutedData(newData(2, DataEventType.UPDATE), 11);
+        context.addRoutedData(newData(3, DataEventType.DELETE), 10);
+        List<Data> datas = context.getRoutedData(10);
+        assertEquals(2, datas.size());
+        assertEquals(1, datas.get(0).getDataId());
+        assertEquals(3, datas.get(1).getDataId());
+        assertEquals(1, context.getRoutedData(11).size());
+    }
+
+    @Test
+    public void testBatchWithNonDmlIsNotKept() {
+        context.setMaxRoutedDataToKeep(10);
+        context.addRoutedData(newData(1, DataEventType.INSERT), 10);
+        context.addRoutedData(newData(2, DataEventType.CREATE), 10);
+        context.addRoutedData(newData(3, DataEventType.INSERT), 10);
+        assertTrue(context.getRoutedDataByBatchId().containsKey(10L));
+        assertNull(context.getRoutedData(10));
+    }
+
+    @Test
+    public void testBatchOverMaxIsNotKept() {
+        context.setMaxRoutedDataToKeep(2);
+        context.addRoutedData(newData(1, DataEventType.INSERT), 10);
+        context.addRoutedData(newData(2, DataEventType.INSERT), 10);
+        assertEquals(2, context.getRoutedData(10).size());
+        context.addRoutedData(newData(3, DataEventType.INSERT), 10);
+        assertNull(context.getRoutedData(10));
+    }
+
+    @Test
+    public void testRoutedDataClearedOnCommit() {
+        context.setMaxRoutedDataToKeep(10);
+        context.addRoutedData(newData(1, DataEventType.INSERT), 10);
+        context.commit();
+        assertTrue(context.getRoutedDataByBatchId().isEmpty());
+    }
+
+    protected Data newData(long dataId, DataEventType eventType) {
+        Data data = new Data("test_table", eventType, "1,\"a\"", "1", null, "testChannel", null, null);
+        data.setDataId(dataId);
+        return data;
+    }
+}
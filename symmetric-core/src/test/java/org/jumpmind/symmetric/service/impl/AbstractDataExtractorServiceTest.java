@@ -30,6 +30,7 @@ import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.symmetric.TestConstants;
+import org.jumpmind.symmetric.model.Data;
 import org.jumpmind.symmetric.model.OutgoingBatch;
 import org.jumpmind.symmetric.model.ProcessInfo;
 import org.jumpmind.symmetric.model.Router;
@@ -108,6 +109,45 @@ public abstract class AbstractDataExtractorServiceTest extends AbstractServiceTe
         assertNumberOfLinesThatStartWith(1, "commit," + batchId, results.getCsv());
     }
 
+    @Test
+    public void testPreExtractMatchesDatabaseExtract() {
+        save(new TestExtract(id++, "abc 123", "abcdefghijklmnopqrstuvwxyz", new Timestamp(
+                System.currentTimeMillis()), new Date(System.currentTimeMillis()), true,
+                Integer.MAX_VALUE, new BigDecimal(Double.toString(Math.PI))));
+        TestExtract updated = new TestExtract(id++, "def 456", null, null, null, false, 1, BigDecimal.ONE);
+        save(updated);
+        updated.setVarcharValue("ghi 789");
+        save(updated);
+        routeAndCreateGaps();
+        OutgoingBatch batch = null;
+        for (OutgoingBatch outgoingBatch : getOutgoingBatchService().getOutgoingBatches(TestConstants.TEST_CLIENT_NODE.getNodeId(),
+                false).getBatches()) {
+            if (outgoingBatch.getStatus() == OutgoingBatch.Status.NE) {
+                batch = outgoingBatch;
+            }
+        }
+        assertNotNull(batch);
+        List<Data> routedData = getDataService().listData(batch.getBatchId(), batch.getNodeId(), 0, batch.getChannelId(), 1000);
+        assertEquals(3, routedData.size());
+        DataExtractorService service = (DataExtractorService) getDataExtractorService();
+        assertTrue(service.preExtract(batch, routedData));
+        OutgoingBatch preExtractedBatch = getOutgoingBatchService().findOutgoingBatch(batch.getBatchId(), batch.getNodeId());
+        assertEquals(1l, preExtractedBatch.getExtractCount());
+        assertEquals(3l, preExtractedBatch.getDataRowCount());
+        assertTrue(preExtractedBatch.getByteCount() > 0);
+        ExtractResults preExtractResults = extract();
+        assertEquals(1, preExtractResults.getBatches().size());
+        // extract the same batch again from the database
+        service.getStagedResource(batch).delete();
+        getSqlTemplate().update("update sym_outgoing_batch set status='NE', sent_count=0 where batch_id=? and node_id=?",
+                batch.getBatchId(), batch.getNodeId());
+        ExtractResults databaseResults = extract();
+        assertEquals(1, databaseResults.getBatches().size());
+        assertNumberOfLinesThatStartWith(2, "insert,", databaseResults.getCsv());
+        assertNumberOfLinesThatStartWith(1, "update,", databaseResults.getCsv());
+        assertEquals(databaseResults.getCsv(), preExtractResults.getCsv());
+    }
+
     protected ExtractResults extract() {
         IDataExtractorService service = getDataExtractorService();
         StringWriter writer = new StringWriter();
@@ -0,0 +1,133 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jumpmind.db.platform.DatabaseInfo;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.symmetric.AbstractSymmetricEngine;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.AbstractSymmetricDialect;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.BatchAck;
+import org.jumpmind.symmetric.model.BatchAckResult;
+import org.jumpmind.symmetric.model.OutgoingBatch;
+import org.jumpmind.symmetric.service.IConfigurationService;
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.jumpmind.symmetric.service.IOutgoingBatchService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AcknowledgeServiceTest {
+    ISqlTransaction sqlTransaction;
+    IOutgoingBatchService outgoingBatchService;
+    AcknowledgeService acknowledgeService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ISqlTemplate sqlTemplate = mock(ISqlTemplate.class);
+        sqlTransaction = mock(ISqlTransaction.class);
+        when(sqlTemplate.startSqlTransaction()).thenReturn(sqlTransaction);
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getDatabaseInfo()).thenReturn(new DatabaseInfo());
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        ISymmetricDialect symmetricDialect = mock(AbstractSymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        IParameterService parameterService = mock(ParameterService.class);
+        when(parameterService.getInt(ParameterConstants.ACK_BULK_MAX_BATCHES, 100)).thenReturn(100);
+        outgoingBatchService = mock(IOutgoingBatchService.class);
+        ISymmetricEngine engine = mock(AbstractSymmetricEngine.class);
+        when(engine.getParameterService()).thenReturn(parameterService);
+        when(engine.getSymmetricDialect()).thenReturn(symmetricDialect);
+        when(engine.getOutgoingBatchService()).thenReturn(outgoingBatchService);
+        when(engine.getExtensionService()).thenReturn(mock(IExtensionService.class));
+        when(engine.getStatisticManager()).thenReturn(mock(IStatisticManager.class));
+        when(engine.getConfigurationService()).thenReturn(mock(IConfigurationService.class));
+        acknowledgeService = new AcknowledgeService(engine);
+    }
+
+    @Test
+    public void testBulkAck() throws Exception {
+        List<OutgoingBatch> outgoingBatches = new ArrayList<OutgoingBatch>();
+        for (long batchId = 1; batchId <= 2; batchId++) {
+            OutgoingBatch outgoingBatch = new OutgoingBatch("00001", "default", Status.LD);
+            outgoingBatch.setBatchId(batchId);
+            outgoingBatches.add(outgoingBatch);
+        }
+        when(outgoingBatchService.findOutgoingBatches("00001", Arrays.asList(1l, 2l, 3l))).thenReturn(outgoingBatches);
+        List<BatchAck> acks = new ArrayList<BatchAck>();
+        for (long batchId = 1; batchId <= 3; batchId++) {
+            BatchAck ack = new BatchAck(batchId);
+            ack.setNodeId("00001");
+            acks.add(ack);
+        }
+        List<BatchAckResult> results = acknowledgeService.ack(acks);
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isOk());
+        assertTrue(results.get(1).isOk());
+        assertFalse(results.get(2).isOk());
+        assertEquals(Status.OK, outgoingBatches.get(0).getStatus());
+        assertEquals(Status.OK, outgoingBatches.get(1).getStatus());
+        verify(outgoingBatchService, never()).findOutgoingBatch(anyLong(), anyString());
+        verify(outgoingBatchService).updateOutgoingBatches(sqlTransaction, outgoingBatches, 2);
+        verify(sqlTransaction, times(1)).commit();
+    }
+
+    @Test
+    public void testBulkAckWithError() throws Exception {
+        OutgoingBatch okBatch = new OutgoingBatch("00001", "default", Status.LD);
+        okBatch.setBatchId(1);
+        OutgoingBatch errorBatch = new OutgoingBatch("00001", "default", Status.LD);
+        errorBatch.setBatchId(2);
+        errorBatch.setLoadFlag(true);
+        when(outgoingBatchService.findOutgoingBatches(eq("00001"), eq(Arrays.asList(1l, 2l)))).thenReturn(Arrays.asList(okBatch, errorBatch));
+        BatchAck ok = new BatchAck(1);
+        ok.setNodeId("00001");
+        BatchAck error = new BatchAck(2, 0);
+        error.setNodeId("00001");
+        acknowledgeService.ack(Arrays.asList(ok, error));
+        assertEquals(Status.ER, errorBatch.getStatus());
+        verify(outgoingBatchService).updateOutgoingBatch(sqlTransaction, okBatch);
+        verify(outgoingBatchService).updateOutgoingBatch(sqlTransaction, errorBatch);
+        verify(sqlTransaction, times(1)).commit();
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.symmetric.AbstractSymmetricEngine;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.IDataReader;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.reader.DataReaderStatistics;
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.jumpmind.symmetric.model.ProcessInfo;
+import org.jumpmind.symmetric.service.IDataLoaderService;
+import org.jumpmind.symmetric.service.IIncomingBatchService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.jumpmind.util.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ManageIncomingBatchListenerTest {
+    IIncomingBatchService incomingBatchService;
+    ISqlTransaction transaction;
+    ManageIncomingBatchListener listener;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        incomingBatchService = mock(IIncomingBatchService.class);
+        when(incomingBatchService.isRecordOkBatchesEnabled()).thenReturn(true);
+        when(incomingBatchService.isBulkBookkeepingEnabled()).thenReturn(true);
+        IParameterService parameterService = mock(ParameterService.class);
+        when(parameterService.is(ParameterConstants.DATA_LOADER_ENABLED)).thenReturn(true);
+        when(parameterService.getInt(ParameterConstants.INCOMING_BATCH_BULK_BOOKKEEPING_PREFETCH_SIZE, 100)).thenReturn(100);
+        ISymmetricDialect symmetricDialect = mock(ISymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(mock(IDatabasePlatform.class));
+        ISymmetricEngine engine = mock(AbstractSymmetricEngine.class);
+        when(engine.getParameterService()).thenReturn(parameterService);
+        when(engine.getSymmetricDialect()).thenReturn(symmetricDialect);
+        when(engine.getTargetDialect()).thenReturn(symmetricDialect);
+        when(engine.getIncomingBatchService()).thenReturn(incomingBatchService);
+        when(engine.getDataLoaderService()).thenReturn(mock(IDataLoaderService.class));
+        when(engine.getStatisticManager()).thenReturn(mock(IStatisticManager.class));
+        when(engine.getTablePrefix()).thenReturn("sym");
+        transaction = mock(ISqlTransaction.class);
+        listener = new ManageIncomingBatchListener(new ProcessInfo(), engine);
+    }
+
+    @Test
+    public void testBulkBookkeeping() throws Exception {
+        IncomingBatch loadedBatch = new IncomingBatch();
+        loadedBatch.setBatchId(11);
+        loadedBatch.setNodeId("00001");
+        loadedBatch.setStatus(Status.OK);
+        Map<Long, IncomingBatch> prefetchedBatches = new HashMap<Long, IncomingBatch>();
+        prefetchedBatches.put(11l, loadedBatch);
+        when(incomingBatchService.findIncomingBatches("00001", 10, 109)).thenReturn(prefetchedBatches);
+        when(incomingBatchService.acquireIncomingBatch(any(IncomingBatch.class), eq(prefetchedBatches))).thenAnswer(invocation -> {
+            IncomingBatch batch = invocation.getArgument(0);
+            if (batch.getBatchId() == 11) {
+                batch.setRetry(true);
+                return false;
+            }
+            return true;
+        });
+
+        DataContext context = load(10);
+        listener.beforeBatchEnd(context);
+        listener.batchSuccessful(context);
+        load(11);
+
+        verify(incomingBatchService, times(1)).findIncomingBatches(anyString(), anyLong(), anyLong());
+        verify(incomingBatchService, never()).acquireIncomingBatch(any(IncomingBatch.class));
+        verify(incomingBatchService).insertIncomingBatch(transaction, listener.getBatchesProcessed().get(0));
+        verify(incomingBatchService, never()).insertIncomingBatch(any(IncomingBatch.class));
+        verify(incomingBatchService, never()).updateIncomingBatch(any(IncomingBatch.class));
+        assertEquals(2, listener.getBatchesProcessed().size());
+        assertEquals(Status.OK, listener.getBatchesProcessed().get(0).getStatus());
+        assertTrue(listener.getBatchesProcessed().get(1).isRetry());
+    }
+
+    @Test
+    public void testBulkBookkeepingWithError() throws Exception {
+        when(incomingBatchService.findIncomingBatches("00001", 10, 109)).thenReturn(new HashMap<Long, IncomingBatch>());
+        when(incomingBatchService.acquireIncomingBatch(any(IncomingBatch.class), any())).thenReturn(true);
+
+        DataContext context = load(10);
+        listener.beforeBatchEnd(context);
+        listener.batchInError(context, new RuntimeException("commit failed"));
+
+        IncomingBatch batch = listener.getBatchesProcessed().get(0);
+        verify(incomingBatchService, never()).refreshIncomingBatch(batch);
+        verify(incomingBatchService, times(2)).insertIncomingBatch(transaction, batch);
+        verify(incomingBatchService, never()).updateIncomingBatch(transaction, batch);
+        assertEquals(Status.ER, batch.getStatus());
+    }
+
+    protected DataContext load(long batchId) {
+        Batch batch = new Batch(BatchType.LOAD, batchId, "default", null, "00001", "00000", false);
+        IDataWriter writer = mock(IDataWriter.class);
+        Map<Batch, Statistics> writerStatistics = new HashMap<Batch, Statistics>();
+        writerStatistics.put(batch, new Statistics());
+        when(writer.getStatistics()).thenReturn(writerStatistics);
+        IDataReader reader = mock(IDataReader.class);
+        Map<Batch, Statistics> readerStatistics = new HashMap<Batch, Statistics>();
+        readerStatistics.put(batch, new DataReaderStatistics());
+        when(reader.getStatistics()).thenReturn(readerStatistics);
+        DataContext context = mock(DataContext.class);
+        when(context.getBatch()).thenReturn(batch);
+        when(context.getReader()).thenReturn(reader);
+        when(context.getWriter()).thenReturn(writer);
+        when(context.findSymmetricTransaction("sym")).thenReturn(transaction);
+        listener.beforeBatchStarted(context);
+        return context;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.config.IParameterChangeListener;
+import org.jumpmind.symmetric.config.ParameterSnapshot;
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.junit.jupiter.api.Test;
+
+public class ParameterServiceSnapshotTest {
+    @Test
+    public void testTypedValues() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("int.value", " 42 ");
+        properties.setProperty("long.value", "5000000000");
+        properties.setProperty("bad.value", "abc");
+        properties.setProperty("blank.value", " ");
+        properties.setProperty("flag.value", "1");
+        MockParameterService service = new MockParameterService(properties);
+        assertEquals(42, service.getInt("int.value"));
+        assertEquals(5000000000L, service.getLong("long.value"));
+        assertEquals(7, service.getInt("long.value", 7));
+        assertEquals(3, service.getInt("bad.value", 3));
+        assertEquals("default", service.getString("blank.value", "default"));
+        assertTrue(service.is("flag.value"));
+        assertFalse(service.is("bad.value"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testChangeListener() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.PARAMETER_REFRESH_PERIOD_IN_MS, "1");
+        properties.setProperty("changed.value", "1");
+        properties.setProperty("same.value", "a");
+        MockParameterService service = new MockParameterService(properties);
+        IParameterChangeListener listener = mock(IParameterChangeListener.class);
+        IExtensionService extensionService = mock(IExtensionService.class);
+        when(extensionService.getExtensionPointList(IParameterChangeListener.class)).thenReturn(Collections.singletonList(listener));
+        service.setExtensionService(extensionService);
+        LongSupplier handle = service.getLongParameter("changed.value", 0);
+        assertEquals(1, handle.getAsLong());
+        service.rereadParameters();
+        verify(listener, never()).parametersChanged(any(Set.class), any(ParameterSnapshot.class));
+        properties.setProperty("changed.value", "2");
+        service.rereadParameters();
+        verify(listener).parametersChanged(eq(Collections.singleton("changed.value")), any(ParameterSnapshot.class));
+        assertEquals(2, handle.getAsLong());
+    }
+}
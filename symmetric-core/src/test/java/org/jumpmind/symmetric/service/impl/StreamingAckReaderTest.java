@@ -0,0 +1,186 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.symmetric.model.BatchAck;
+import org.jumpmind.symmetric.service.IAcknowledgeService;
+import org.jumpmind.symmetric.transport.BatchBufferedWriter;
+import org.jumpmind.symmetric.transport.ITransportManager;
+import org.jumpmind.symmetric.transport.http.HttpOutgoingTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+public class StreamingAckReaderTest {
+    HttpOutgoingTransport transport;
+    ITransportManager transportManager;
+    IAcknowledgeService acknowledgeService;
+    BatchBufferedWriter writer;
+    BatchAck ack1 = new BatchAck(1);
+    BatchAck ack2 = new BatchAck(2);
+    ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        transport = mock(HttpOutgoingTransport.class);
+        transportManager = mock(ITransportManager.class);
+        acknowledgeService = mock(IAcknowledgeService.class);
+        writer = new BatchBufferedWriter(new StringWriter());
+        when(transport.getWriter()).thenReturn(writer);
+        when(transportManager.readAcknowledgement("batch-1=ok", "")).thenReturn(Arrays.asList(ack1));
+        when(transportManager.readAcknowledgement("batch-2=ok", "")).thenReturn(Arrays.asList(ack2));
+        when(transportManager.readAcknowledgement("batch-1=ok&batch-2=ok", "")).thenReturn(Arrays.asList(ack1, ack2));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAcksAppliedInOrderAfterBatchCompleted() throws Exception {
+        respondWith("batch-1=ok\n", "batch-2=ok\n", "batch-1=ok&batch-2=ok");
+        Future<List<BatchAck>> future = executor.submit(new StreamingAckReader(transport, transportManager, acknowledgeService));
+        Thread.sleep(200);
+        verify(acknowledgeService, never()).ack(any(BatchAck.class));
+        writer.batchCompleted(1);
+        verify(acknowledgeService, timeout(5000)).ack(ack1);
+        verify(acknowledgeService, never()).ack(ack2);
+        writer.batchCompleted(2);
+        List<BatchAck> acks = future.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(ack1, ack2), acks);
+        InOrder inOrder = inOrder(acknowledgeService);
+        inOrder.verify(acknowledgeService).ack(ack1);
+        inOrder.verify(acknowledgeService).ack(ack2);
+        verify(acknowledgeService, times(2)).ack(any(BatchAck.class));
+    }
+
+    @Test
+    public void testAckAppliedWhenSendingFinishesWithoutBatchCompleted() throws Exception {
+        respondWith("batch-1=ok\n");
+        when(transport.isSendingFinished()).thenReturn(true);
+        List<BatchAck> acks = new StreamingAckReader(transport, transportManager, acknowledgeService).call();
+        assertEquals(Arrays.asList(ack1), acks);
+        verify(acknowledgeService).ack(ack1);
+    }
+
+    @Test
+    public void testTimeoutWhileSendingKeepsReading() throws Exception {
+        writer.batchCompleted(1);
+        respondWith(new SocketTimeoutException("Read timed out"), "batch-1=ok\n");
+        when(transport.isSendingFinished()).thenReturn(false);
+        List<BatchAck> acks = new StreamingAckReader(transport, transportManager, acknowledgeService).call();
+        assertEquals(Arrays.asList(ack1), acks);
+        verify(acknowledgeService).ack(ack1);
+    }
+
+    @Test
+    public void testTimeoutAfterSendingFinishedFails() throws Exception {
+        writer.batchCompleted(1);
+        respondWith("batch-1=ok\n", new SocketTimeoutException("Read timed out"), "batch-2=ok\n");
+        when(transport.isSendingFinished()).thenReturn(true);
+        try {
+            new StreamingAckReader(transport, transportManager, acknowledgeService).call();
+            fail("Expected a timeout");
+        } catch (SocketTimeoutException e) {
+        }
+        verify(acknowledgeService).ack(ack1);
+        verify(acknowledgeService, never()).ack(ack2);
+    }
+
+    @Test
+    public void testConnectionFailureMidStream() throws Exception {
+        writer.batchCompleted(1);
+        writer.batchCompleted(2);
+        respondWith("batch-1=ok\nbatch-", new IOException("Connection reset"), "2=ok\n");
+        Future<List<BatchAck>> future = executor.submit(new StreamingAckReader(transport, transportManager, acknowledgeService));
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected the connection failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals("Connection reset", e.getCause().getMessage());
+        }
+        verify(acknowledgeService).ack(ack1);
+        verify(acknowledgeService, never()).ack(ack2);
+    }
+
+    protected void respondWith(Object... chunks) throws IOException {
+        when(transport.readResponseWhileSending()).thenReturn(new BufferedReader(new ScriptedReader(chunks)));
+    }
+
+    /**
+     * Returns each chunk from a separate read, or throws it if the chunk is an exception, to imitate a response arriving over the network.
+     */
+    static class ScriptedReader extends Reader {
+        LinkedList<Object> chunks;
+
+        ScriptedReader(Object... chunks) {
+            this.chunks = new LinkedList<Object>(Arrays.asList(chunks));
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (chunks.isEmpty()) {
+                return -1;
+            }
+            Object chunk = chunks.removeFirst();
+            if (chunk instanceof IOException) {
+                throw (IOException) chunk;
+            }
+            String text = (String) chunk;
+            text.getChars(0, text.length(), buffer, offset);
+            return text.length();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
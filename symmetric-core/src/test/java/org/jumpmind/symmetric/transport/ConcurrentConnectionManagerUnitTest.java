@@ -22,11 +22,21 @@ package org.jumpmind.symmetric.transport;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.symmetric.statistic.MockStatisticManager;
 import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.Reservation;
+import org.jumpmind.symmetric.transport.IConcurrentConnectionManager.ReservationStatus;
 import org.jumpmind.symmetric.transport.IConcurrentConnectionManager.ReservationType;
 import org.junit.jupiter.api.Test;
 
@@ -48,4 +58,63 @@ public class ConcurrentConnectionManagerUnitTest {
         mgr.removeTimedOutReservations(reservations);
         assertEquals(1, reservations.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReserveAndRelease() {
+        ConcurrentConnectionManager mgr = new ConcurrentConnectionManager(mockParameterService(2), new MockStatisticManager());
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("1", null, "push", ReservationType.SOFT, false));
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("1", null, "push", ReservationType.HARD, true));
+        assertEquals(ReservationStatus.DUPLICATE, mgr.reserveConnection("1", null, "push", ReservationType.HARD, true));
+        assertEquals(ReservationStatus.NOT_FOUND, mgr.reserveConnection("2", null, "push", ReservationType.HARD, true));
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("2", null, "push", ReservationType.SOFT, false));
+        assertEquals(ReservationStatus.BUSY, mgr.reserveConnection("3", null, "push", ReservationType.SOFT, false));
+        assertEquals(2, mgr.getReservationCount("push"));
+        mgr.addToWhitelist("3");
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("3", null, "push", ReservationType.SOFT, false));
+        assertEquals(3, mgr.getReservationCount("push"));
+        assertTrue(mgr.releaseConnection("1", null, "push"));
+        assertFalse(mgr.releaseConnection("1", null, "push"));
+        assertEquals(2, mgr.getReservationCount("push"));
+        assertEquals(4, mgr.getPoolStatisticsByPool().get("push").getAcceptedCount());
+        assertEquals(1, mgr.getPoolStatisticsByPool().get("push").getRejectedCount());
+        assertEquals(1, mgr.getPoolStatisticsByPool().get("push").getDuplicateCount());
+        assertEquals(1, mgr.getPoolStatisticsByPool().get("push").getNotFoundCount());
+        assertEquals(1, mgr.getNodeConnectionStatisticsByPoolByNodeId().get("push").get("3").getNumOfRejections());
+    }
+
+    @Test
+    public void testConcurrentReservationsDoNotExceedPoolSize() throws Exception {
+        final int maxPoolSize = 10;
+        final ConcurrentConnectionManager mgr = new ConcurrentConnectionManager(mockParameterService(maxPoolSize), new MockStatisticManager());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger accepted = new AtomicInteger();
+        for (int i = 0; i < 200; i++) {
+            final String nodeId = Integer.toString(i);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (mgr.reserveConnection(nodeId, null, "pull", ReservationType.SOFT, false) == ReservationStatus.ACCEPTED) {
+                    accepted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(maxPoolSize, accepted.get());
+        assertEquals(maxPoolSize, mgr.getReservationCount("pull"));
+        assertEquals(maxPoolSize, mgr.getActiveReservationsByNodeByPool().get("pull").size());
+    }
+
+    protected IParameterService mockParameterService(int maxPoolSize) {
+        IParameterService parameterService = mock(IParameterService.class);
+        when(parameterService.getInt(ParameterConstants.CONCURRENT_WORKERS)).thenReturn(maxPoolSize);
+        when(parameterService.getLong(ParameterConstants.CONCURRENT_RESERVATION_TIMEOUT)).thenReturn(20000l);
+        when(parameterService.getLong(ParameterConstants.TRANSPORT_MAX_ERROR_MILLIS, 300000)).thenReturn(300000l);
+        return parameterService;
+    }
+}
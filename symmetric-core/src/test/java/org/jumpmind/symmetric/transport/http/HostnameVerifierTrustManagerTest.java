@@ -0,0 +1,83 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.net.ssl.X509TrustManager;
+import javax.security.auth.x500.X500Principal;
+
+import org.junit.jupiter.api.Test;
+
+public class HostnameVerifierTrustManagerTest {
+    @Test
+    public void testMatchesName() {
+        assertTrue(HostnameVerifierTrustManager.matches("node.example.com", "NODE.example.com"));
+        assertTrue(HostnameVerifierTrustManager.matches("node.example.com", "*.example.com"));
+        assertFalse(HostnameVerifierTrustManager.matches("a.node.example.com", "*.example.com"));
+        assertFalse(HostnameVerifierTrustManager.matches("example.com", "*.example.com"));
+        assertFalse(HostnameVerifierTrustManager.matches("other.com", "node.example.com"));
+    }
+
+    @Test
+    public void testMatchesCertificate() throws Exception {
+        X509Certificate withNames = certificate("CN=ignored", Arrays.asList(Arrays.asList(2, "node.example.com"), Arrays.asList(7, "10.0.0.1")));
+        assertTrue(HostnameVerifierTrustManager.matches("node.example.com", withNames));
+        assertTrue(HostnameVerifierTrustManager.matches("10.0.0.1", withNames));
+        assertFalse(HostnameVerifierTrustManager.matches("ignored", withNames));
+        X509Certificate commonName = certificate("CN=node.example.com, O=Test", null);
+        assertTrue(HostnameVerifierTrustManager.matches("node.example.com", commonName));
+    }
+
+    @Test
+    public void testVerifiedServerNames() throws Exception {
+        X509Certificate[] chain = { certificate("CN=node.example.com", null) };
+        HostnameVerifierTrustManager trustManager = new HostnameVerifierTrustManager(mock(X509TrustManager.class),
+                new SimpleHostnameVerifier("localhost"));
+        trustManager.checkHostname(chain, "node.example.com", null);
+        trustManager.checkHostname(chain, "localhost", null);
+        try {
+            trustManager.checkHostname(chain, "other.example.com", null);
+            fail("Expected the server name to be rejected");
+        } catch (CertificateException e) {
+        }
+        new HostnameVerifierTrustManager(mock(X509TrustManager.class), new SimpleHostnameVerifier("all")).checkHostname(chain,
+                "other.example.com", null);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected X509Certificate certificate(String subject, List<List<?>> names) throws Exception {
+        X509Certificate certificate = mock(X509Certificate.class);
+        when(certificate.getSubjectX500Principal()).thenReturn(new X500Principal(subject));
+        when(certificate.getSubjectAlternativeNames()).thenReturn((Collection<List<?>>) (Collection<?>) names);
+        return certificate;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class Http2ConnectionTest {
+    private HttpServer server;
+    private HttpClient client;
+    private String baseUrl;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] request = exchange.getRequestBody().readAllBytes();
+            byte[] response = (exchange.getRequestMethod() + ":" + request.length + ":"
+                    + exchange.getRequestHeaders().getFirst("X-Test")).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("X-Reply", "ok");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testStreamedRequestBodyOnReusedClient() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Http2Connection conn = new Http2Connection(client, new URL(baseUrl + "/echo"));
+            conn.setRequestMethod("PUT");
+            conn.setChunkedStreamingMode(1000);
+            conn.setReadTimeout(10000);
+            conn.setRequestProperty("X-Test", "value" + i);
+            conn.setRequestProperty("Connection", "close");
+            try (OutputStream os = conn.getOutputStream()) {
+                for (int j = 0; j < 50000; j++) {
+                    os.write(j);
+                }
+                os.write(new byte[5000]);
+            }
+            assertEquals(200, conn.getResponseCode());
+            assertEquals("ok", conn.getHeaderField("X-Reply"));
+            assertEquals("PUT:55000:value" + i, new String(conn.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testGetWithoutBody() throws Exception {
+        Http2Connection conn = new Http2Connection(client, new URL(baseUrl + "/echo"));
+        conn.setReadTimeout(10000);
+        assertEquals(200, conn.getResponseCode());
+        assertEquals("GET:0:null", new String(conn.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testErrorResponse() throws Exception {
+        Http2Connection conn = new Http2Connection(client, new URL(baseUrl + "/missing"));
+        conn.setReadTimeout(10000);
+        assertEquals(404, conn.getResponseCode());
+        try {
+            conn.getInputStream();
+            fail("Expected an IOException for an error response");
+        } catch (IOException e) {
+        }
+    }
+
+    @Test
+    public void testConnectTimeoutSelectsClient() throws Exception {
+        List<Integer> timeouts = new ArrayList<Integer>();
+        Http2Connection conn = new Http2Connection(timeout -> {
+            timeouts.add(timeout);
+            return client;
+        }, 1000, new URL(baseUrl + "/echo"));
+        conn.setConnectTimeout(1000);
+        conn.setConnectTimeout(2000);
+        assertEquals(200, conn.getResponseCode());
+        conn.setConnectTimeout(3000);
+        assertEquals(Arrays.asList(1000, 2000), timeouts);
+    }
+}
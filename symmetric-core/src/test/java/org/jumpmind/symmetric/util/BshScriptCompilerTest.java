@@ -0,0 +1,74 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jumpmind.symmetric.util.BshScriptCompiler.CompiledScript;
+import org.jumpmind.util.SimpleClassCompiler;
+import org.junit.jupiter.api.Test;
+
+public class BshScriptCompilerTest {
+    @Test
+    public void testCompileMethodBody() throws Exception {
+        BshScriptCompiler compiler = new BshScriptCompiler(new SimpleClassCompiler());
+        Map<String, String> variableTypes = new LinkedHashMap<String, String>();
+        variableTypes.put("currentValue", "String");
+        variableTypes.put("oldValue", "String");
+        variableTypes.put("NAME", "String");
+        CompiledScript script = compiler.compile("if (currentValue == null) {\n return NAME;\n}\nreturn currentValue.trim() + \"-\" + NAME;",
+                variableTypes, false);
+        assertNotNull(script);
+        assertArrayEquals(new String[] { "currentValue", "NAME" }, script.getVariableNames());
+        assertEquals("a-b", script.eval(new Object[] { " a ", "b" }));
+        assertEquals("b", script.eval(new Object[] { null, "b" }));
+        assertSame(script, compiler.compile("if (currentValue == null) {\n return NAME;\n}\nreturn currentValue.trim() + \"-\" + NAME;",
+                variableTypes, false));
+    }
+
+    @Test
+    public void testCompileExpression() throws Exception {
+        BshScriptCompiler compiler = new BshScriptCompiler(new SimpleClassCompiler());
+        Map<String, String> variableTypes = new LinkedHashMap<String, String>();
+        variableTypes.put("STORE_ID", "Object");
+        CompiledScript script = compiler.compile("\"1\".equals(STORE_ID) || \"2\".equals(STORE_ID);", variableTypes, true);
+        assertNotNull(script);
+        assertEquals(Boolean.TRUE, script.eval(new Object[] { "2" }));
+        assertEquals(Boolean.FALSE, script.eval(new Object[] { "3" }));
+        assertNull(compiler.compile("\"1\".equals(STORE_ID)", variableTypes, false));
+    }
+
+    @Test
+    public void testScriptThatIsNotJavaIsInterpreted() {
+        BshScriptCompiler compiler = new BshScriptCompiler(new SimpleClassCompiler());
+        Map<String, String> variableTypes = new LinkedHashMap<String, String>();
+        variableTypes.put("currentValue", "String");
+        assertNull(compiler.compile("value = currentValue.trim();\nreturn value;", variableTypes, false));
+        assertNull(compiler.compile("if (currentValue.length() > 1) {\n return currentValue;\n}", variableTypes, false));
+    }
+}
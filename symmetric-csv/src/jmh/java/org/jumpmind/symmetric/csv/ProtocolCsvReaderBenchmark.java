@@ -0,0 +1,125 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.csv;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading a batch in the sync protocol format with {@link CsvReader} against {@link ProtocolCsvReader}. Run with
+ * <code>gradlew :symmetric-csv:jmh</code> and add <code>-PjmhArgs="-prof gc"</code> to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtocolCsvReaderBenchmark {
+    private static final String[] KEYWORDS = { "nodeid", "binary", "channel", "batch", "table", "keys", "columns", "insert", "update", "old",
+            "delete", "commit" };
+
+    @Param({ "10", "50" })
+    public int columnCount;
+
+    private String batch;
+
+    @Setup
+    public void setup() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, ',');
+        writer.setEscapeMode(CsvWriter.ESCAPE_MODE_BACKSLASH);
+        writer.setTextQualifier('"');
+        writer.setUseTextQualifier(true);
+        writer.setForceQualifier(true);
+        writer.writeRecord(new String[] { "nodeid", "00000" });
+        writer.writeRecord(new String[] { "channel", "default" });
+        writer.writeRecord(new String[] { "batch", "1" });
+        writer.writeRecord(new String[] { "table", "benchmark_table" });
+        for (int i = 0; i < 10000; i++) {
+            writer.write(i % 5 == 0 ? "update" : "insert");
+            for (int j = 0; j < columnCount; j++) {
+                if (j % 7 == 6) {
+                    writer.write(null, true);
+                } else if (j % 5 == 4) {
+                    writer.write("line one\nsaid \"hello\" \\ " + i, true);
+                } else {
+                    writer.write("value " + i + "-" + j, true);
+                }
+            }
+            writer.endRecord();
+        }
+        writer.writeRecord(new String[] { "commit", "1" });
+        writer.close();
+        batch = out.toString();
+    }
+
+    @Benchmark
+    public void csvReader(Blackhole blackhole) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(batch));
+        reader.setEscapeMode(CsvReader.ESCAPE_MODE_BACKSLASH);
+        reader.setSafetySwitch(false);
+        reader.setCaptureRawRecord(false);
+        while (reader.readRecord()) {
+            String[] values = reader.getValues();
+            blackhole.consume(values[0].equals("insert") || values[0].equals("update"));
+            blackhole.consume(values);
+        }
+        reader.close();
+    }
+
+    @Benchmark
+    public void protocolCsvReader(Blackhole blackhole) throws IOException {
+        ProtocolCsvReader reader = new ProtocolCsvReader(new StringReader(batch), KEYWORDS);
+        while (reader.readRecord()) {
+            String keyword = reader.getKeyword();
+            blackhole.consume("insert".equals(keyword) || "update".equals(keyword));
+            blackhole.consume(reader.getSlice(1, reader.getColumnCount()));
+        }
+        reader.close();
+    }
+
+    @Benchmark
+    public void protocolCsvReaderMaterialized(Blackhole blackhole) throws IOException {
+        ProtocolCsvReader reader = new ProtocolCsvReader(new StringReader(batch), KEYWORDS);
+        while (reader.readRecord()) {
+            String keyword = reader.getKeyword();
+            blackhole.consume("insert".equals(keyword) || "update".equals(keyword));
+            blackhole.consume(reader.getSlice(1, reader.getColumnCount()).toArray());
+        }
+        reader.close();
+    }
+}
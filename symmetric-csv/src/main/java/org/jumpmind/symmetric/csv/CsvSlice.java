@@ -0,0 +1,72 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.csv;
+
+/**
+ * A range of column values copied out of a {@link ProtocolCsvReader} record. The characters of all the values are held in one array and a
+ * {@link String} is only created for a value when it is asked for.
+ */
+public class CsvSlice {
+    private final char[] chars;
+    // end offset of each value in chars, or the complement of the end offset when the value is null
+    private final int[] ends;
+
+    CsvSlice(char[] chars, int[] ends) {
+        this.chars = chars;
+        this.ends = ends;
+    }
+
+    public int size() {
+        return ends.length;
+    }
+
+    public boolean isNull(int index) {
+        return ends[index] < 0;
+    }
+
+    public String get(int index) {
+        if (ends[index] < 0) {
+            return null;
+        }
+        int start = index == 0 ? 0 : end(index - 1);
+        return new String(chars, start, ends[index] - start);
+    }
+
+    /**
+     * @return The number of characters held by all of the values.
+     */
+    public int length() {
+        return chars.length;
+    }
+
+    public String[] toArray() {
+        String[] values = new String[ends.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(i);
+        }
+        return values;
+    }
+
+    private int end(int index) {
+        int end = ends[index];
+        return end < 0 ? ~end : end;
+    }
+}
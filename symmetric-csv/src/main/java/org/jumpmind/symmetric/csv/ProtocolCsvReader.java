@@ -0,0 +1,389 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A parser for the SymmetricDS protocol dialect of CSV that reads the same records as a {@link CsvReader} set up with
+ * {@link CsvReader#ESCAPE_MODE_BACKSLASH}, but without its general purpose settings. Columns are delimited by a comma, records by a carriage
+ * return or line feed, values may be quoted with a double quote and escaped with a backslash, whitespace around unquoted values is trimmed and an
+ * unquoted empty value is null. Anything after the closing quote of a value is ignored up to the next delimiter.
+ * <p>
+ * The values of a record are unescaped into one buffer that is reused for every record, so reading a record does not create any objects. The
+ * first column is matched against the keywords the reader was created with, and values are only turned into strings by {@link #get(int)},
+ * {@link #getValues(int, int)} or by a {@link CsvSlice}.
+ */
+public class ProtocolCsvReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 32768;
+    private static final int INITIAL_COLUMN_COUNT = 16;
+    private Reader reader;
+    private char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int count;
+    private char[] data = new char[BUFFER_SIZE];
+    private int dataLength;
+    private int[] starts = new int[INITIAL_COLUMN_COUNT];
+    private int[] ends = new int[INITIAL_COLUMN_COUNT];
+    private boolean[] nulls = new boolean[INITIAL_COLUMN_COUNT];
+    private int columnCount;
+    private long currentRecord = -1;
+    private String[] keywordTable;
+    private String keyword;
+    private boolean closed;
+
+    public ProtocolCsvReader(Reader reader, String... keywords) {
+        if (reader == null) {
+            throw new IllegalArgumentException("Parameter reader can not be null.");
+        }
+        this.reader = reader;
+        int size = Integer.highestOneBit(Math.max(keywords.length, 1) * 4);
+        this.keywordTable = new String[size];
+        for (String word : keywords) {
+            int slot = word.hashCode() & (size - 1);
+            while (keywordTable[slot] != null && !keywordTable[slot].equals(word)) {
+                slot = (slot + 1) & (size - 1);
+            }
+            keywordTable[slot] = word;
+        }
+    }
+
+    /**
+     * Reads another record, skipping empty lines.
+     * 
+     * @return Whether another record was successfully read or not.
+     */
+    public boolean readRecord() throws IOException {
+        checkClosed();
+        columnCount = 0;
+        dataLength = 0;
+        keyword = null;
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c < 0) {
+            return false;
+        }
+        while (true) {
+            while (c == ' ' || c == '\t') {
+                c = read();
+            }
+            int start = dataLength;
+            if (c == '"') {
+                c = readQualified();
+                endColumn(start, false);
+            } else {
+                while (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                    append((char) c);
+                    c = read();
+                }
+                while (dataLength > start && (data[dataLength - 1] == ' ' || data[dataLength - 1] == '\t')) {
+                    dataLength--;
+                }
+                endColumn(start, dataLength == start);
+            }
+            if (c != ',') {
+                break;
+            }
+            c = read();
+        }
+        keyword = lookupKeyword();
+        currentRecord++;
+        return true;
+    }
+
+    /**
+     * Reads a quoted value after its opening quote and returns the character that ended it, which is a delimiter, a record delimiter or -1 at
+     * the end of the data.
+     */
+    private int readQualified() throws IOException {
+        int c = read();
+        while (c >= 0) {
+            if (c == '"') {
+                do {
+                    c = read();
+                } while (c >= 0 && c != ',' && c != '\r' && c != '\n');
+                return c;
+            } else if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case -1:
+                        return c;
+                    case 'n':
+                        append('\n');
+                        break;
+                    case 'r':
+                        append('\r');
+                        break;
+                    case 't':
+                        append('\t');
+                        break;
+                    case 'b':
+                        append('\b');
+                        break;
+                    case 'f':
+                        append('\f');
+                        break;
+                    case 'e':
+                        append((char) 27);
+                        break;
+                    case 'v':
+                        append((char) 11);
+                        break;
+                    case 'a':
+                        append((char) 7);
+                        break;
+                    case '0':
+                    case '1':
+                    case '2':
+                    case '3':
+                    case '4':
+                    case '5':
+                    case '6':
+                    case '7':
+                        if (!readComplexEscape(8, 2, c - '0')) {
+                            return -1;
+                        }
+                        break;
+                    case 'u':
+                    case 'U':
+                        if (!readComplexEscape(16, 4, 0)) {
+                            return -1;
+                        }
+                        break;
+                    case 'x':
+                    case 'X':
+                        if (!readComplexEscape(16, 2, 0)) {
+                            return -1;
+                        }
+                        break;
+                    case 'o':
+                    case 'O':
+                        if (!readComplexEscape(8, 3, 0)) {
+                            return -1;
+                        }
+                        break;
+                    case 'd':
+                    case 'D':
+                        if (!readComplexEscape(10, 3, 0)) {
+                            return -1;
+                        }
+                        break;
+                    default:
+                        append((char) c);
+                        break;
+                }
+            } else {
+                append((char) c);
+            }
+            c = read();
+        }
+        return c;
+    }
+
+    private boolean readComplexEscape(int radix, int length, int value) throws IOException {
+        char escapeValue = (char) value;
+        for (int i = 0; i < length; i++) {
+            int c = read();
+            if (c < 0) {
+                return false;
+            }
+            escapeValue = (char) (escapeValue * radix + (radix == 16 ? hexToDec((char) c) : c - '0'));
+        }
+        append(escapeValue);
+        return true;
+    }
+
+    private static int hexToDec(char hex) {
+        if (hex >= 'a') {
+            return hex - 'a' + 10;
+        } else if (hex >= 'A') {
+            return hex - 'A' + 10;
+        } else {
+            return hex - '0';
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == count) {
+            count = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (count <= 0) {
+                count = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private void append(char c) {
+        if (dataLength == data.length) {
+            char[] holder = new char[data.length * 2];
+            System.arraycopy(data, 0, holder, 0, dataLength);
+            data = holder;
+        }
+        data[dataLength++] = c;
+    }
+
+    private void endColumn(int start, boolean isNull) {
+        if (columnCount == starts.length) {
+            int newLength = columnCount * 2;
+            int[] startHolder = new int[newLength];
+            System.arraycopy(starts, 0, startHolder, 0, columnCount);
+            starts = startHolder;
+            int[] endHolder = new int[newLength];
+            System.arraycopy(ends, 0, endHolder, 0, columnCount);
+            ends = endHolder;
+            boolean[] nullHolder = new boolean[newLength];
+            System.arraycopy(nulls, 0, nullHolder, 0, columnCount);
+            nulls = nullHolder;
+        }
+        starts[columnCount] = start;
+        ends[columnCount] = dataLength;
+        nulls[columnCount] = isNull;
+        columnCount++;
+    }
+
+    private String lookupKeyword() {
+        if (columnCount == 0 || nulls[0]) {
+            return null;
+        }
+        int start = starts[0];
+        int length = ends[0] - start;
+        int hash = 0;
+        for (int i = start; i < ends[0]; i++) {
+            hash = 31 * hash + data[i];
+        }
+        int mask = keywordTable.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            String word = keywordTable[slot];
+            if (word == null) {
+                return null;
+            } else if (word.length() == length && matches(word, start)) {
+                return word;
+            }
+        }
+    }
+
+    private boolean matches(String word, int start) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != data[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The keyword this reader was created with that matches the first column of the current record, or null if there is no match.
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public long getCurrentRecord() {
+        return currentRecord;
+    }
+
+    public boolean isNull(int index) {
+        return index >= columnCount || nulls[index];
+    }
+
+    /**
+     * @return The number of characters in the value of the column, which is zero for a null value or a column past the end of the record.
+     */
+    public int getLength(int index) {
+        return index >= columnCount ? 0 : ends[index] - starts[index];
+    }
+
+    /**
+     * @return The number of characters in all the values of the current record.
+     */
+    public int getRecordLength() {
+        return dataLength;
+    }
+
+    /**
+     * @return The value of the column, or null if the value is null or the column is past the end of the record.
+     */
+    public String get(int index) {
+        if (index >= columnCount || nulls[index]) {
+            return null;
+        }
+        return new String(data, starts[index], ends[index] - starts[index]);
+    }
+
+    public String[] getValues() {
+        return getValues(0, columnCount);
+    }
+
+    public String[] getValues(int from, int to) {
+        String[] values = new String[Math.max(to - from, 0)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(from + i);
+        }
+        return values;
+    }
+
+    /**
+     * Copies the values of a range of columns out of the reused buffer so they can be held past the next call to {@link #readRecord()}.
+     */
+    public CsvSlice getSlice(int from, int to) {
+        to = Math.min(to, columnCount);
+        if (from >= to) {
+            return new CsvSlice(new char[0], new int[0]);
+        }
+        int offset = starts[from];
+        char[] chars = new char[ends[to - 1] - offset];
+        System.arraycopy(data, offset, chars, 0, chars.length);
+        int[] sliceEnds = new int[to - from];
+        for (int i = 0; i < sliceEnds.length; i++) {
+            int end = ends[from + i] - offset;
+            sliceEnds[i] = nulls[from + i] ? ~end : end;
+        }
+        return new CsvSlice(chars, sliceEnds);
+    }
+
+    private void checkClosed() throws IOException {
+        if (closed) {
+            throw new IOException("This instance of the ProtocolCsvReader class has already been closed.");
+        }
+    }
+
+    public void close() {
+        if (!closed) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+            }
+            reader = null;
+            buffer = null;
+            data = null;
+            closed = true;
+        }
+    }
+}
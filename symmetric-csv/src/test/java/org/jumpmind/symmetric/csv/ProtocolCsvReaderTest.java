@@ -0,0 +1,153 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.csv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ProtocolCsvReaderTest {
+    private static final String SPECIAL_CHARS = ",\"\\\n\r\t 'ab1\u00e9\u4e2d";
+
+    @Test
+    public void testKeywords() throws Exception {
+        ProtocolCsvReader reader = new ProtocolCsvReader(new StringReader("insert,\"1\"\ninserted,\"2\"\n\"update\"\n,\"3\"\n"), "insert",
+                "update", "delete");
+        assertTrue(reader.readRecord());
+        assertEquals("insert", reader.getKeyword());
+        assertTrue(reader.readRecord());
+        assertNull(reader.getKeyword());
+        assertTrue(reader.readRecord());
+        assertEquals("update", reader.getKeyword());
+        assertTrue(reader.readRecord());
+        assertNull(reader.getKeyword());
+        assertTrue(reader.isNull(0));
+        assertFalse(reader.readRecord());
+        reader.close();
+    }
+
+    @Test
+    public void testSlice() throws Exception {
+        ProtocolCsvReader reader = new ProtocolCsvReader(new StringReader("insert,\"a\\\"b\",,\"\",\"x\\ny\"\nnext"), "insert");
+        assertTrue(reader.readRecord());
+        CsvSlice slice = reader.getSlice(1, reader.getColumnCount());
+        assertTrue(reader.readRecord());
+        assertEquals(4, slice.size());
+        assertArrayEquals(new String[] { "a\"b", null, "", "x\ny" }, slice.toArray());
+        assertTrue(slice.isNull(1));
+        assertEquals(0, reader.getSlice(1, 1).size());
+        assertEquals("next", reader.get(0));
+        reader.close();
+    }
+
+    @Test
+    public void testSameValuesAsCsvReader() throws Exception {
+        String[] inputs = { "", "\n\n", "a", "a,", ",", "a,b\r\nc,d\r\n", "  a  ,\tb\t, \"c\" ,\" d \"", "\"a\"junk,b", "\"unterminated",
+                "a\\b,c\"d", "\"\\u0041\\x42\\o103\\d068\\105\\q\\\\\"", "\"\\t\\b\\f\\e\\v\\a\\r\"", "x,\"\"\n\n\ny", "   \n", "\"a\nb\",\"c\rd\"",
+                "\"ab\"\"cd\",e" };
+        for (String input : inputs) {
+            assertSameValues(input);
+        }
+    }
+
+    @Test
+    public void testSameValuesAsCsvReaderForWrittenData() throws Exception {
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            StringWriter out = new StringWriter();
+            CsvWriter writer = new CsvWriter(out, ',');
+            writer.setEscapeMode(CsvWriter.ESCAPE_MODE_BACKSLASH);
+            writer.setTextQualifier('"');
+            writer.setUseTextQualifier(true);
+            writer.setForceQualifier(true);
+            int records = 1 + random.nextInt(5);
+            for (int j = 0; j < records; j++) {
+                writer.write("insert");
+                int columns = random.nextInt(20);
+                for (int k = 0; k < columns; k++) {
+                    writer.write(randomValue(random), true);
+                }
+                writer.endRecord();
+            }
+            writer.close();
+            assertSameValues(out.toString());
+        }
+    }
+
+    @Test
+    public void testLargeRecordsAcrossBuffers() throws Exception {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            input.append("insert,\"");
+            for (int j = 0; j < 5000; j++) {
+                input.append(j % 10 == 0 ? "\\\"" : "x");
+            }
+            input.append("\",").append(i).append("\n");
+        }
+        assertSameValues(input.toString());
+    }
+
+    protected void assertSameValues(String input) throws IOException {
+        List<String[]> expected = new ArrayList<String[]>();
+        CsvReader csvReader = new CsvReader(new StringReader(input));
+        csvReader.setEscapeMode(CsvReader.ESCAPE_MODE_BACKSLASH);
+        csvReader.setSafetySwitch(false);
+        csvReader.setCaptureRawRecord(false);
+        while (csvReader.readRecord()) {
+            expected.add(csvReader.getValues());
+        }
+        csvReader.close();
+        ProtocolCsvReader reader = new ProtocolCsvReader(new StringReader(input), "insert");
+        for (String[] values : expected) {
+            assertTrue(reader.readRecord());
+            assertArrayEquals(input, values, reader.getValues());
+            assertArrayEquals(input, values, reader.getSlice(0, reader.getColumnCount()).toArray());
+        }
+        assertFalse(input, reader.readRecord());
+        reader.close();
+    }
+
+    protected String randomValue(Random random) {
+        int type = random.nextInt(10);
+        if (type == 0) {
+            return null;
+        } else if (type == 1) {
+            return "";
+        }
+        StringBuilder value = new StringBuilder();
+        int length = random.nextInt(30);
+        for (int i = 0; i < length; i++) {
+            value.append(SPECIAL_CHARS.charAt(random.nextInt(SPECIAL_CHARS.length())));
+        }
+        return value.toString();
+    }
+}
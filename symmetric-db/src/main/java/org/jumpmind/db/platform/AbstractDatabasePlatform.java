@@ -54,14 +54,17 @@ import java.sql.Array;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import javax.sql.DataSource;
@@ -131,6 +134,9 @@ public abstract class AbstractDatabasePlatform implements IDatabasePlatform {
     protected Boolean supportsMultiThreadedTransactions;
     protected boolean supportsTruncate = true;
     protected String sourceNodeId;
+    protected volatile Map<DmlStatementKey, DmlStatement> dmlStatementCache;
+    protected AtomicLong dmlStatementCacheHits = new AtomicLong();
+    protected AtomicLong dmlStatementCacheMisses = new AtomicLong();
 
     public AbstractDatabasePlatform(SqlTemplateSettings settings) {
         this.settings = settings;
@@ -159,10 +165,55 @@ public abstract class AbstractDatabasePlatform implements IDatabasePlatform {
     @Override
     public DmlStatement createDmlStatement(DmlType dmlType, String catalogName, String schemaName, String tableName, Column[] keys,
             Column[] columns, boolean[] nullKeyValues, String textColumnExpression, boolean namedParameters) {
+        boolean quotedIdentifiers = getDdlBuilder().isDelimitedIdentifierModeOn();
+        Map<DmlStatementKey, DmlStatement> cache = getDmlStatementCache();
+        DmlStatementKey key = null;
+        if (cache != null) {
+            key = new DmlStatementKey(dmlType, catalogName, schemaName, tableName, keys, columns, nullKeyValues, textColumnExpression,
+                    namedParameters, quotedIdentifiers);
+            DmlStatement statement = cache.get(key);
+            if (statement != null) {
+                dmlStatementCacheHits.incrementAndGet();
+                return statement;
+            }
+            dmlStatementCacheMisses.incrementAndGet();
+        }
         DmlStatementOptions options = new DmlStatementOptions(dmlType, tableName).databaseInfo(getDatabaseInfo()).catalogName(catalogName).schemaName(
-                schemaName).columns(columns).keys(keys).nullKeyValues(nullKeyValues).quotedIdentifiers(getDdlBuilder().isDelimitedIdentifierModeOn())
+                schemaName).columns(columns).keys(keys).nullKeyValues(nullKeyValues).quotedIdentifiers(quotedIdentifiers)
                 .textColumnExpression(textColumnExpression).namedParameters(namedParameters);
-        return createDmlStatement(options);
+        DmlStatement statement = createDmlStatement(options);
+        if (key != null) {
+            cache.put(key, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Statements are shared by all threads, so they are only cached when the SQL is not changed after it is created, which is not the case when
+     * the platform uses a CTE expression.
+     */
+    protected Map<DmlStatementKey, DmlStatement> getDmlStatementCache() {
+        if (dmlStatementCache == null && settings != null && settings.getDmlStatementCacheSize() > 0
+                && getDatabaseInfo().getCteExpression() == null) {
+            final int cacheSize = settings.getDmlStatementCacheSize();
+            dmlStatementCache = Collections.synchronizedMap(new LinkedHashMap<DmlStatementKey, DmlStatement>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<DmlStatementKey, DmlStatement> eldest) {
+                    return size() > cacheSize;
+                }
+            });
+        }
+        return dmlStatementCache;
+    }
+
+    public long getDmlStatementCacheHits() {
+        return dmlStatementCacheHits.get();
+    }
+
+    public long getDmlStatementCacheMisses() {
+        return dmlStatementCacheMisses.get();
     }
 
     @Override
@@ -1348,4 +1399,83 @@ public abstract class AbstractDatabasePlatform implements IDatabasePlatform {
     public boolean allowsUniqueIndexDuplicatesWithNulls() {
         return true;
     }
+
+    /**
+     * Identifies a generated DML statement. Columns are compared by identity, so a statement is only reused for the same table model, and a
+     * table that is read again from the database gets new statements.
+     */
+    protected static class DmlStatementKey {
+        DmlType dmlType;
+        String catalogName;
+        String schemaName;
+        String tableName;
+        Column[] keys;
+        Column[] columns;
+        boolean[] nullKeyValues;
+        String textColumnExpression;
+        boolean namedParameters;
+        boolean quotedIdentifiers;
+        int hashCode;
+
+        DmlStatementKey(DmlType dmlType, String catalogName, String schemaName, String tableName, Column[] keys, Column[] columns,
+                boolean[] nullKeyValues, String textColumnExpression, boolean namedParameters, boolean quotedIdentifiers) {
+            this.dmlType = dmlType;
+            this.catalogName = catalogName;
+            this.schemaName = schemaName;
+            this.tableName = tableName;
+            this.keys = keys;
+            this.columns = columns;
+            this.nullKeyValues = nullKeyValues;
+            this.textColumnExpression = textColumnExpression;
+            this.namedParameters = namedParameters;
+            this.quotedIdentifiers = quotedIdentifiers;
+            int hash = Objects.hash(dmlType, catalogName, schemaName, tableName, textColumnExpression, namedParameters, quotedIdentifiers);
+            hash = 31 * hash + identityHashCode(keys);
+            hash = 31 * hash + identityHashCode(columns);
+            this.hashCode = 31 * hash + Arrays.hashCode(nullKeyValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DmlStatementKey)) {
+                return false;
+            }
+            DmlStatementKey other = (DmlStatementKey) obj;
+            return hashCode == other.hashCode && dmlType == other.dmlType && namedParameters == other.namedParameters
+                    && quotedIdentifiers == other.quotedIdentifiers && Objects.equals(tableName, other.tableName)
+                    && Objects.equals(schemaName, other.schemaName) && Objects.equals(catalogName, other.catalogName)
+                    && Objects.equals(textColumnExpression, other.textColumnExpression) && Arrays.equals(nullKeyValues, other.nullKeyValues)
+                    && identityEquals(keys, other.keys) && identityEquals(columns, other.columns);
+        }
+
+        static int identityHashCode(Column[] array) {
+            if (array == null) {
+                return 0;
+            }
+            int hash = 1;
+            for (Column column : array) {
+                hash = 31 * hash + System.identityHashCode(column);
+            }
+            return hash;
+        }
+
+        static boolean identityEquals(Column[] array, Column[] other) {
+            if (array == other) {
+                return true;
+            } else if (array == null || other == null || array.length != other.length) {
+                return false;
+            }
+            for (int i = 0; i < array.length; i++) {
+                if (array[i] != other[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
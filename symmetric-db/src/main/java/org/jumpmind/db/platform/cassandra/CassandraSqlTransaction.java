@@ -166,4 +166,14 @@ public class CassandraSqlTransaction implements ISqlTransaction {
     public void clearBatch() {
         // TODO Auto-generated method stub
     }
+
+    @Override
+    public long getStatementCacheHits() {
+        return 0;
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return 0;
+    }
 }
@@ -33,8 +33,6 @@ public class PostgreSqlDmlStatement extends DmlStatement {
         super(options);
     }
 
-    protected boolean allowIgnoreOnConflict = true;
-
     @Override
     public String buildInsertSql(String tableName, Column[] keyColumns, Column[] columns) {
         if (keyColumns != null && keyColumns.length > 0 && keyColumns[0] != null) {
@@ -61,7 +59,6 @@ public class PostgreSqlDmlStatement extends DmlStatement {
 
     @Override
     public String getSql(boolean allowIgnoreOnConflict) {
-        this.allowIgnoreOnConflict = allowIgnoreOnConflict;
         if (allowIgnoreOnConflict) {
             return sql;
         } else {
@@ -71,6 +68,11 @@ public class PostgreSqlDmlStatement extends DmlStatement {
 
     @Override
     public Column[] getMetaData() {
+        return getMetaData(true);
+    }
+
+    @Override
+    public Column[] getMetaData(boolean allowIgnoreOnConflict) {
         if (dmlType == DmlType.INSERT && allowIgnoreOnConflict) {
             return getColumnKeyMetaData();
         } else {
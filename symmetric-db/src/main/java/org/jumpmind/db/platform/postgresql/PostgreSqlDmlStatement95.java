@@ -53,10 +53,15 @@ public class PostgreSqlDmlStatement95 extends PostgreSqlDmlStatement {
 
     @Override
     public Column[] getMetaData() {
+        return getMetaData(true);
+    }
+
+    @Override
+    public Column[] getMetaData(boolean allowIgnoreOnConflict) {
         if (dmlType == DmlType.INSERT) {
             return getColumns();
         } else {
-            return super.getMetaData();
+            return super.getMetaData(allowIgnoreOnConflict);
         }
     }
 
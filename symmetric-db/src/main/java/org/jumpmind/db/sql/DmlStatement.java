@@ -382,6 +382,13 @@ public class DmlStatement {
         return null;
     }
 
+    /**
+     * The meta data that matches the SQL from {@link #getSql(boolean)}
+     */
+    public Column[] getMetaData(boolean allowIgnoreOnConflict) {
+        return getMetaData();
+    }
+
     public Column[] getKeys() {
         return keys;
     }
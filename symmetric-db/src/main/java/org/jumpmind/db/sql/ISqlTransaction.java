@@ -80,4 +80,11 @@ public interface ISqlTransaction {
             Object[] args, int[] types);
 
     public void clearBatch();
+
+    /**
+     * The number of prepares that reused a statement from the connection's statement cache
+     */
+    public long getStatementCacheHits();
+
+    public long getStatementCacheMisses();
 }
@@ -31,6 +31,8 @@ public class SqlTemplateSettings {
     protected int queryTimeout;
     protected int batchSize = 100;
     protected int batchBulkLoaderSize = 25;
+    protected int statementCacheSize;
+    protected int dmlStatementCacheSize;
     protected boolean readStringsAsBytes;
     protected boolean treatBinaryAsLob;
     protected boolean rightTrimCharValues;
@@ -165,4 +167,20 @@ public class SqlTemplateSettings {
     public void setIncludeRowIdentifierAsColumn(boolean includeRowIdentifierAsColumn) {
         this.includeRowIdentifierAsColumn = includeRowIdentifierAsColumn;
     }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getDmlStatementCacheSize() {
+        return dmlStatementCacheSize;
+    }
+
+    public void setDmlStatementCacheSize(int dmlStatementCacheSize) {
+        this.dmlStatementCacheSize = dmlStatementCacheSize;
+    }
 }
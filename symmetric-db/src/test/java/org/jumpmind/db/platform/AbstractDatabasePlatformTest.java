@@ -21,13 +21,18 @@
 package org.jumpmind.db.platform;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Date;
 
+import org.jumpmind.db.model.Column;
 import org.jumpmind.db.platform.h2.H2DdlBuilder;
+import org.jumpmind.db.sql.DmlStatement;
+import org.jumpmind.db.sql.DmlStatement.DmlType;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.SqlTemplateSettings;
 import org.junit.jupiter.api.Test;
@@ -80,40 +85,65 @@ public class AbstractDatabasePlatformTest {
         assertEquals(3, testDatabasePlatform.parseQualifiedTableName("\"CATALOG\".\"SCHEMA\".\"TABLE\"").size());
     }
 
-    private AbstractDatabasePlatform testDatabasePlatform = new AbstractDatabasePlatform(new SqlTemplateSettings()) {
-        @Override
-        public String getName() {
-            return "Test";
-        }
+    @Test
+    public void testDmlStatementCache() {
+        SqlTemplateSettings settings = new SqlTemplateSettings();
+        settings.setDmlStatementCacheSize(2);
+        AbstractDatabasePlatform platform = newTestDatabasePlatform(settings);
+        Column[] keys = new Column[] { new Column("ID", true) };
+        Column[] columns = new Column[] { keys[0], new Column("NAME") };
+        DmlStatement insert = platform.createDmlStatement(DmlType.INSERT, null, null, "TEST", keys, columns, null, null);
+        assertSame(insert, platform.createDmlStatement(DmlType.INSERT, null, null, "TEST", keys, columns, null, null));
+        assertNotSame(insert, platform.createDmlStatement(DmlType.INSERT, null, null, "TEST", keys,
+                new Column[] { new Column("ID", true), new Column("NAME") }, null, null));
+        DmlStatement update = platform.createDmlStatement(DmlType.UPDATE, null, null, "TEST", keys, columns, null, null);
+        assertNotSame(insert, update);
+        assertEquals(1, platform.getDmlStatementCacheHits());
+        assertEquals(3, platform.getDmlStatementCacheMisses());
+        assertNotSame(insert, platform.createDmlStatement(DmlType.INSERT, null, null, "TEST", keys, columns, null, null));
+        assertSame(update, platform.createDmlStatement(DmlType.UPDATE, null, null, "TEST", keys, columns, null, null));
+        DmlStatement notCached = testDatabasePlatform.createDmlStatement(DmlType.INSERT, null, null, "TEST", keys, columns, null, null);
+        assertNotSame(notCached, testDatabasePlatform.createDmlStatement(DmlType.INSERT, null, null, "TEST", keys, columns, null, null));
+    }
 
-        @Override
-        public String getDefaultSchema() {
-            return "default Schema.";
-        }
+    private AbstractDatabasePlatform testDatabasePlatform = newTestDatabasePlatform(new SqlTemplateSettings());
 
-        @Override
-        public String getDefaultCatalog() {
-            return "";
-        }
+    private static AbstractDatabasePlatform newTestDatabasePlatform(SqlTemplateSettings settings) {
+        return new AbstractDatabasePlatform(settings) {
+            @Override
+            public String getName() {
+                return "Test";
+            }
 
-        @Override
-        public <T> T getDataSource() {
-            return null;
-        }
+            @Override
+            public String getDefaultSchema() {
+                return "default Schema.";
+            }
 
-        @Override
-        public ISqlTemplate getSqlTemplate() {
-            return null;
-        }
+            @Override
+            public String getDefaultCatalog() {
+                return "";
+            }
 
-        @Override
-        public ISqlTemplate getSqlTemplateDirty() {
-            return null;
-        }
+            @Override
+            public <T> T getDataSource() {
+                return null;
+            }
 
-        @Override
-        public IDdlBuilder getDdlBuilder() {
-            return new H2DdlBuilder();
-        }
-    };
+            @Override
+            public ISqlTemplate getSqlTemplate() {
+                return null;
+            }
+
+            @Override
+            public ISqlTemplate getSqlTemplateDirty() {
+                return null;
+            }
+
+            @Override
+            public IDdlBuilder getDdlBuilder() {
+                return new H2DdlBuilder();
+            }
+        };
+    }
 }
@@ -0,0 +1,153 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Base64;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.reader.BinaryProtocolDataReader;
+import org.jumpmind.symmetric.io.data.reader.ProtocolDataReader;
+import org.jumpmind.symmetric.io.data.writer.BinaryProtocolDataWriter;
+import org.jumpmind.symmetric.io.data.writer.ProtocolDataWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares writing and reading a batch of rows with a large binary column in the CSV protocol and the binary protocol. Run with
+ * <code>gradlew :symmetric-io:jmh</code>. The size of the batch in each protocol is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+    @Param({ "256", "4096" })
+    public int blobSize;
+
+    private Table table;
+
+    private List<CsvData> rows;
+
+    private String csv;
+
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        table = new Table("test_binary");
+        table.addColumn(new Column("id", true, Types.INTEGER, 10, 0));
+        table.addColumn(new Column("text_value", false, Types.VARCHAR, 100, 0));
+        table.addColumn(new Column("nullable_value", false, Types.VARCHAR, 100, 0));
+        table.addColumn(new Column("blob_value", false, Types.BLOB, 0, 0));
+        Random random = new Random(0);
+        rows = new ArrayList<CsvData>();
+        for (int i = 0; i < 2000; i++) {
+            byte[] blob = new byte[blobSize];
+            random.nextBytes(blob);
+            rows.add(new CsvData(DataEventType.INSERT, new String[] { String.valueOf(i), "row \"" + i + "\", text",
+                    i % 2 == 0 ? null : "", Base64.encodeBase64String(blob) }));
+        }
+        csv = writeCsv();
+        binary = writeBinary();
+        System.out.println("CSV protocol: " + csv.length() + " bytes, binary protocol: " + binary.length + " bytes");
+    }
+
+    @Benchmark
+    public void csvProtocol(Blackhole blackhole) {
+        read(new ProtocolDataReader(BatchType.LOAD, "00001", writeCsv()), blackhole);
+    }
+
+    @Benchmark
+    public void binaryProtocol(Blackhole blackhole) {
+        read(new BinaryProtocolDataReader(BatchType.LOAD, "00001", new ByteArrayInputStream(writeBinary())), blackhole);
+    }
+
+    @Benchmark
+    public void csvProtocolRead(Blackhole blackhole) {
+        read(new ProtocolDataReader(BatchType.LOAD, "00001", csv), blackhole);
+    }
+
+    @Benchmark
+    public void binaryProtocolRead(Blackhole blackhole) {
+        read(new BinaryProtocolDataReader(BatchType.LOAD, "00001", new ByteArrayInputStream(binary)), blackhole);
+    }
+
+    protected String writeCsv() {
+        StringWriter out = new StringWriter();
+        write(new ProtocolDataWriter("00000", out, false, false, false));
+        return out.toString();
+    }
+
+    protected byte[] writeBinary() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(new BinaryProtocolDataWriter("00000", out, false, false));
+        return out.toByteArray();
+    }
+
+    protected void write(IDataWriter writer) {
+        Batch batch = new Batch(BatchType.EXTRACT, 1, "default", BinaryEncoding.BASE64, "00000", "00001", false);
+        writer.open(new DataContext(batch));
+        writer.start(batch);
+        writer.start(table);
+        for (CsvData row : rows) {
+            writer.write(new CsvData(row.getDataEventType(), row.getParsedData(CsvData.ROW_DATA)));
+        }
+        writer.end(table);
+        writer.end(batch, false);
+        writer.close();
+    }
+
+    protected void read(IDataReader reader, Blackhole blackhole) {
+        reader.open(new DataContext(reader));
+        while (reader.nextBatch() != null) {
+            while (reader.nextTable() != null) {
+                CsvData data = null;
+                while ((data = reader.nextData()) != null) {
+                    blackhole.consume(data);
+                }
+            }
+        }
+        reader.close();
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data;
+
+/**
+ * Record and field markers for the binary protocol. A stream starts with {@link #MAGIC} and a version byte, then each record is a single type
+ * byte followed by its payload. Strings and byte arrays are written as a variable length size followed by the bytes, and row values are typed
+ * fields so binary columns are sent raw instead of hex or base64 text.
+ */
+final public class BinaryProtocolConstants {
+    private BinaryProtocolConstants() {
+    }
+
+    public static final byte[] MAGIC = { 'S', 'Y', 'M', 'B' };
+    public static final byte VERSION = 1;
+    public static final byte NODEID = 1;
+    public static final byte BINARY = 2;
+    public static final byte CHANNEL = 3;
+    public static final byte BATCH = 4;
+    public static final byte TABLE = 5;
+    public static final byte INSERT = 6;
+    public static final byte UPDATE = 7;
+    public static final byte DELETE = 8;
+    public static final byte OLD = 9;
+    public static final byte SQL = 10;
+    public static final byte BSH = 11;
+    public static final byte CREATE = 12;
+    public static final byte BASETIME = 13;
+    public static final byte TIME = 14;
+    public static final byte NO_BINARY_OLD_DATA = 15;
+    public static final byte IGNORE = 16;
+    public static final byte COMMIT = 17;
+    public static final byte FIELD_NULL = 0;
+    public static final byte FIELD_STRING = 1;
+    public static final byte FIELD_BYTES = 2;
+    public static final byte COLUMN_PRIMARY_KEY = 1;
+    public static final byte COLUMN_BINARY = 2;
+}
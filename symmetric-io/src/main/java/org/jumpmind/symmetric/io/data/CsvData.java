@@ -28,6 +28,7 @@ import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.model.Column;
 import org.jumpmind.db.model.Table;
+import org.jumpmind.symmetric.csv.CsvSlice;
 import org.jumpmind.util.LinkedCaseInsensitiveMap;
 
 /**
@@ -49,6 +50,7 @@ public class CsvData {
     public static final String ATTRIBUTE_DATA_ID = "dataId";
     public static final String ATTRIBUTE_CREATE_TIME = "createTime";
     private Map<String, String[]> parsedCsvData = null;
+    private Map<String, CsvSlice> slicedCsvData = null;
     private Map<String, String> csvData = null;
     private Map<String, Object> attributes;
     private boolean noBinaryOldData = false;
@@ -83,6 +85,7 @@ public class CsvData {
 
     public boolean contains(String key) {
         return (parsedCsvData != null && parsedCsvData.get(key) != null)
+                || (slicedCsvData != null && slicedCsvData.get(key) != null)
                 || (csvData != null && csvData.get(key) != null);
     }
 
@@ -116,6 +119,9 @@ public class CsvData {
         if (parsedCsvData != null) {
             parsedCsvData.remove(key);
         }
+        if (slicedCsvData != null) {
+            slicedCsvData.remove(key);
+        }
     }
 
     public void removeAllData(String key) {
@@ -137,8 +143,11 @@ public class CsvData {
         if (csvData != null) {
             data = csvData.get(key);
         }
-        if (data == null && parsedCsvData != null) {
-            String[] parsedData = parsedCsvData.get(key);
+        if (data == null && (parsedCsvData != null || slicedCsvData != null)) {
+            String[] parsedData = parsedCsvData != null ? parsedCsvData.get(key) : null;
+            if (parsedData == null && slicedCsvData != null && slicedCsvData.get(key) != null) {
+                parsedData = slicedCsvData.get(key).toArray();
+            }
             if (parsedData != null) {
                 data = CsvUtils.escapeCsvData(parsedData);
                 // swap out data for parsed data so we don't
@@ -181,10 +190,26 @@ public class CsvData {
         parsedCsvData.put(key, data);
     }
 
+    /**
+     * Holds values read by a {@link org.jumpmind.symmetric.csv.ProtocolCsvReader} without creating their strings until the data is asked for.
+     */
+    public final void putSlicedData(String key, CsvSlice data) {
+        removeAllData(key);
+        if (slicedCsvData == null) {
+            slicedCsvData = new HashMap<String, CsvSlice>(2);
+        }
+        changedDataIndicators = null;
+        slicedCsvData.put(key, data);
+    }
+
     public String[] getParsedData(String key) {
         String[] values = null;
         if (parsedCsvData != null && parsedCsvData.containsKey(key)) {
             values = parsedCsvData.get(key);
+        } else if (slicedCsvData != null && slicedCsvData.containsKey(key)) {
+            CsvSlice slice = slicedCsvData.get(key);
+            values = slice != null ? slice.toArray() : null;
+            putParsedData(key, values);
         } else if (csvData != null && csvData.containsKey(key)) {
             String data = csvData.get(key);
             if (data != null) {
@@ -30,6 +30,7 @@ import java.io.Writer;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.symmetric.csv.CsvReader;
 import org.jumpmind.symmetric.csv.CsvWriter;
+import org.jumpmind.symmetric.csv.ProtocolCsvReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +47,18 @@ public class CsvUtils {
         return csvReader;
     }
 
+    /**
+     * Creates a reader for the sync protocol that reads the same values as {@link #getCsvReader(Reader)} and recognizes the protocol keywords
+     * without creating strings.
+     */
+    public static ProtocolCsvReader getProtocolCsvReader(Reader reader) {
+        return new ProtocolCsvReader(reader, CsvConstants.NO_BINARY_OLD_DATA, CsvConstants.BINARY, CsvConstants.NODEID, CsvConstants.SCHEMA,
+                CsvConstants.CATALOG, CsvConstants.TABLE, CsvConstants.KEYS, CsvConstants.COLUMNS, CsvConstants.BATCH, CsvConstants.INSERT,
+                CsvConstants.UPDATE, CsvConstants.OLD, CsvConstants.DELETE, CsvConstants.COMMIT, CsvConstants.SQL, CsvConstants.BSH,
+                CsvConstants.CREATE, CsvConstants.CHANNEL, CsvConstants.IGNORE, CsvConstants.RETRY, CsvConstants.STATS,
+                CsvConstants.STATS_COLUMNS, CsvConstants.BASETIME, CsvConstants.TIME);
+    }
+
     public static CsvReader getCsvReaderDquote(Reader reader) {
         CsvReader csvReader = new CsvReader(reader);
         csvReader.setEscapeMode(CsvWriter.ESCAPE_MODE_DOUBLED);
@@ -22,19 +22,29 @@ package org.jumpmind.symmetric.io.data;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.sql.Types;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.jumpmind.db.io.DatabaseXmlUtil;
@@ -54,6 +64,7 @@ import org.jumpmind.db.util.BinaryEncoding;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.symmetric.csv.CsvWriter;
 import org.jumpmind.symmetric.io.IoVersion;
+import org.jumpmind.util.CustomizableThreadFactory;
 
 /**
  * Export the structure and data from database tables to file.
@@ -83,6 +94,8 @@ public class DbExport {
     private String schema;
     private String dir;
     private int maxRows = Integer.MAX_VALUE;
+    private int threadCount = 1;
+    private int chunkSize = 100000;
     private boolean useQuotedIdentifiers = true;
     private boolean useJdbcTimestampFormat = true;
     private IDatabasePlatform platform;
@@ -159,8 +172,12 @@ public class DbExport {
         try {
             writerWrapper = new WriterWrapper(output);
             tables = Database.sortByForeignKeys(tables);
-            for (Table table : tables) {
-                writeTable(writerWrapper, table, sql);
+            if (threadCount > 1 && sql == null) {
+                writeTablesInParallel(writerWrapper, tables);
+            } else {
+                for (Table table : tables) {
+                    writeTable(writerWrapper, table, sql);
+                }
             }
         } finally {
             if (writerWrapper != null) {
@@ -202,32 +219,178 @@ public class DbExport {
         writerWrapper.startTable(table);
         if (!noData) {
             if (sql == null) {
-                if (excludeColumns == null || excludeColumns.length == 0) {
-                    sql = platform.createDmlStatement(DmlType.SELECT_ALL, table, null).getSql();
-                } else {
-                    Column[] columnsToExport = getColumnsToExport(table);
-                    sql = platform.createDmlStatement(DmlType.SELECT_ALL, table.getCatalog(), table.getSchema(), table.getName(),
-                            table.getPrimaryKeyColumns(), columnsToExport, null, null).getSql();
-                }
+                sql = getSelectSql(table);
+            } else if (StringUtils.isNotBlank(whereClause)) {
+                sql = String.format("%s %s", sql, whereClause);
             }
             if (table.getColumnCount() > 0) {
-                if (StringUtils.isNotBlank(whereClause)) {
-                    sql = String.format("%s %s", sql, whereClause);
+                writeRows(writerWrapper, sql);
+            }
+        }
+        writerWrapper.finishTable(table);
+    }
+
+    protected String getSelectSql(Table table) {
+        String sql = null;
+        if (excludeColumns == null || excludeColumns.length == 0) {
+            sql = platform.createDmlStatement(DmlType.SELECT_ALL, table, null).getSql();
+        } else {
+            Column[] columnsToExport = getColumnsToExport(table);
+            sql = platform.createDmlStatement(DmlType.SELECT_ALL, table.getCatalog(), table.getSchema(), table.getName(),
+                    table.getPrimaryKeyColumns(), columnsToExport, null, null).getSql();
+        }
+        if (StringUtils.isNotBlank(whereClause)) {
+            sql = String.format("%s %s", sql, whereClause);
+        }
+        return sql;
+    }
+
+    protected void writeRows(final WriterWrapper writerWrapper, String sql, Object... args) {
+        platform.getSqlTemplate().query(sql, new ISqlRowMapper<Object>() {
+            int rows = maxRows;
+
+            public Object mapRow(Row row) {
+                if (rows > 0) {
+                    writerWrapper.writeRow(row);
+                    rows--;
                 }
-                platform.getSqlTemplate().query(sql, new ISqlRowMapper<Object>() {
-                    int rows = maxRows;
+                return Boolean.TRUE;
+            }
+        }, args);
+    }
 
-                    public Object mapRow(Row row) {
-                        if (rows > 0) {
-                            writerWrapper.writeRow(row);
-                            rows--;
+    /**
+     * Export the data for each table on a pool of threads, with large tables split into primary key ranges, while the DDL, comments and
+     * framing are written in foreign key order on the calling thread. Each chunk of rows is spooled to a temporary file and appended in table
+     * and range order, so the output is the same as a single threaded export.
+     */
+    protected void writeTablesInParallel(WriterWrapper writerWrapper, Table[] tables) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, new CustomizableThreadFactory("dbexport"));
+        List<List<Future<File>>> tableChunks = new ArrayList<List<Future<File>>>();
+        try {
+            for (Table table : tables) {
+                removeExcludedColumns(table);
+                List<Future<File>> chunks = new ArrayList<Future<File>>();
+                if (!noData && table.getColumnCount() > 0) {
+                    String sql = getSelectSql(table);
+                    List<long[]> ranges = getChunkRanges(table);
+                    if (ranges.size() > 0) {
+                        String rangeSql = String.format("%s where %s between ? and ?", sql, getQuotedName(table.getPrimaryKeyColumns()[0].getName()));
+                        for (long[] range : ranges) {
+                            Table chunkTable = table.copy();
+                            chunks.add(executor.submit(() -> writeChunk(chunkTable, rangeSql, range[0], range[1])));
                         }
-                        return Boolean.TRUE;
+                    } else {
+                        Table chunkTable = table.copy();
+                        chunks.add(executor.submit(() -> writeChunk(chunkTable, sql)));
                     }
-                });
+                }
+                tableChunks.add(chunks);
+            }
+            for (int i = 0; i < tables.length; i++) {
+                writerWrapper.startTable(tables[i]);
+                for (Future<File> chunk : tableChunks.get(i)) {
+                    File file = null;
+                    try {
+                        file = chunk.get();
+                        writerWrapper.append(file);
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof RuntimeException) {
+                            throw (RuntimeException) e.getCause();
+                        }
+                        throw new IoException("Failed to export table " + tables[i].getName(), e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IoException("Interrupted while exporting table " + tables[i].getName(), e);
+                    } finally {
+                        FileUtils.deleteQuietly(file);
+                    }
+                }
+                writerWrapper.finishTable(tables[i]);
+            }
+        } finally {
+            executor.shutdownNow();
+            for (List<Future<File>> chunks : tableChunks) {
+                for (Future<File> chunk : chunks) {
+                    if (!chunk.cancel(true)) {
+                        try {
+                            FileUtils.deleteQuietly(chunk.get());
+                        } catch (Exception e) {
+                        }
+                    }
+                }
             }
         }
-        writerWrapper.finishTable(table);
+    }
+
+    protected File writeChunk(Table table, String sql, Object... args) throws IOException {
+        File file = File.createTempFile("dbexport", ".tmp");
+        boolean success = false;
+        WriterWrapper chunkWriter = new WriterWrapper(new OutputStreamWriter(new FileOutputStream(file), Charset.defaultCharset()));
+        try {
+            chunkWriter.startChunk(table);
+            writeRows(chunkWriter, sql, args);
+            success = true;
+        } finally {
+            chunkWriter.finishChunk();
+            if (!success) {
+                FileUtils.deleteQuietly(file);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Split a table with a single integer primary key into ranges of about chunkSize rows. Returns no ranges when the table is small or cannot
+     * be split, in which case it is exported by a single worker.
+     */
+    protected List<long[]> getChunkRanges(Table table) {
+        List<long[]> ranges = new ArrayList<long[]>();
+        Column[] pkColumns = table.getPrimaryKeyColumns();
+        if (chunkSize <= 0 || maxRows != Integer.MAX_VALUE || StringUtils.isNotBlank(whereClause) || pkColumns.length != 1
+                || !isIntegerColumn(pkColumns[0])) {
+            return ranges;
+        }
+        String pkName = getQuotedName(pkColumns[0].getName());
+        String tableName = Table.getFullyQualifiedTableName(table.getCatalog(), table.getSchema(), table.getName(),
+                getQuote(), platform.getDatabaseInfo().getCatalogSeparator(), platform.getDatabaseInfo().getSchemaSeparator());
+        Row row = platform.getSqlTemplate().queryForRow(String.format("select min(%s) as min_value, max(%s) as max_value, count(*) as row_count from %s",
+                pkName, pkName, tableName));
+        if (row == null || row.get("min_value") == null || row.getLong("row_count") <= chunkSize) {
+            return ranges;
+        }
+        long min = row.getLong("min_value");
+        long max = row.getLong("max_value");
+        long count = row.getLong("row_count");
+        long chunks = (count + chunkSize - 1) / chunkSize;
+        long span = max - min;
+        if (span < 0) {
+            return ranges;
+        }
+        long step = span / chunks + 1;
+        for (long start = min; start <= max; start += step) {
+            long end = max - start < step ? max : start + step - 1;
+            ranges.add(new long[] { start, end });
+            if (end == max) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+    protected boolean isIntegerColumn(Column column) {
+        int type = column.getMappedTypeCode();
+        return type == Types.INTEGER || type == Types.BIGINT || type == Types.SMALLINT || type == Types.TINYINT
+                || ((type == Types.NUMERIC || type == Types.DECIMAL) && column.getScale() == 0);
+    }
+
+    protected String getQuote() {
+        String quote = platform.getDatabaseInfo().getDelimiterToken();
+        return platform.getDdlBuilder().isDelimitedIdentifierModeOn() && quote != null ? quote : "";
+    }
+
+    protected String getQuotedName(String name) {
+        return getQuote() + name + getQuote();
     }
 
     protected Column[] getColumnsToExport(Table table) {
@@ -427,6 +590,22 @@ public class DbExport {
         return maxRows;
     }
 
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
     protected String getDatabaseName() {
         Compatible mappedCompatible = compatible;
         if (mappedCompatible == Compatible.MSSQL) {
@@ -453,6 +632,76 @@ public class DbExport {
             }
         }
 
+        public WriterWrapper(Writer writer) {
+            this.writer = writer;
+            this.startedWriting = true;
+        }
+
+        /**
+         * Prepare to write rows of a table without writing any DDL, comments or headers, for a chunk that is appended to the output later.
+         */
+        protected void startChunk(Table table) {
+            this.table = table;
+            if (format == Format.CSV || format == Format.CSV_DQUOTE) {
+                csvWriter = createCsvWriter();
+            } else if (format == Format.SQL) {
+                insertSql = createInsertSql(table);
+            }
+        }
+
+        protected void finishChunk() {
+            if (csvWriter != null) {
+                csvWriter.flush();
+                csvWriter = null;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+
+        protected void append(File file) throws IOException {
+            if (csvWriter != null) {
+                csvWriter.flush();
+            }
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), Charset.defaultCharset())) {
+                IOUtils.copy(reader, writer);
+            }
+        }
+
+        protected CsvWriter createCsvWriter() {
+            CsvWriter csvWriter = new CsvWriter(writer, ',');
+            if (format == Format.CSV) {
+                csvWriter.setEscapeMode(CsvWriter.ESCAPE_MODE_BACKSLASH);
+            } else {
+                csvWriter.setEscapeMode(CsvWriter.ESCAPE_MODE_DOUBLED);
+            }
+            csvWriter.setTextQualifier('\"');
+            csvWriter.setUseTextQualifier(true);
+            csvWriter.setForceQualifier(true);
+            return csvWriter;
+        }
+
+        protected DmlStatement createInsertSql(Table table) {
+            if (table.getCatalog() != null
+                    && table.getCatalog().equals(platform.getDefaultCatalog())) {
+                table.setCatalog(null);
+            }
+            if (table.getCatalog() == null && table.getSchema() != null
+                    && table.getSchema().equals(platform.getDefaultSchema())) {
+                table.setSchema(null);
+            }
+            Table targetTable = table.copy();
+            DmlStatementOptions options = new DmlStatementOptions(DmlType.INSERT, targetTable);
+            if (excludeColumns == null || excludeColumns.length == 0) {
+                return DmlStatementFactory.getInstance().create(getDatabaseName(), options.quotedIdentifiers(useQuotedIdentifiers));
+            } else {
+                Column[] columnsToExport = getColumnsToExport(table);
+                return DmlStatementFactory.getInstance().create(getDatabaseName(), options.columns(columnsToExport).quotedIdentifiers(startedWriting));
+            }
+        }
+
         protected void startTable(Table table) {
             try {
                 this.table = table;
@@ -487,35 +736,10 @@ public class DbExport {
                     startedWriting = true;
                 }
                 String databaseName = getDatabaseName();
-                if (format == Format.CSV && csvWriter == null) {
-                    csvWriter = new CsvWriter(writer, ',');
-                    csvWriter.setEscapeMode(CsvWriter.ESCAPE_MODE_BACKSLASH);
-                    csvWriter.setTextQualifier('\"');
-                    csvWriter.setUseTextQualifier(true);
-                    csvWriter.setForceQualifier(true);
-                } else if (format == Format.CSV_DQUOTE && csvWriter == null) {
-                    csvWriter = new CsvWriter(writer, ',');
-                    csvWriter.setEscapeMode(CsvWriter.ESCAPE_MODE_DOUBLED);
-                    csvWriter.setTextQualifier('\"');
-                    csvWriter.setUseTextQualifier(true);
-                    csvWriter.setForceQualifier(true);
+                if ((format == Format.CSV || format == Format.CSV_DQUOTE) && csvWriter == null) {
+                    csvWriter = createCsvWriter();
                 } else if (format == Format.SQL) {
-                    if (table.getCatalog() != null
-                            && table.getCatalog().equals(platform.getDefaultCatalog())) {
-                        table.setCatalog(null);
-                    }
-                    if (table.getCatalog() == null && table.getSchema() != null
-                            && table.getSchema().equals(platform.getDefaultSchema())) {
-                        table.setSchema(null);
-                    }
-                    Table targetTable = table.copy();
-                    DmlStatementOptions options = new DmlStatementOptions(DmlType.INSERT, targetTable);
-                    if (excludeColumns == null || excludeColumns.length == 0) {
-                        insertSql = DmlStatementFactory.getInstance().create(databaseName, options.quotedIdentifiers(useQuotedIdentifiers));
-                    } else {
-                        Column[] columnsToExport = getColumnsToExport(table);
-                        insertSql = DmlStatementFactory.getInstance().create(databaseName, options.columns(columnsToExport).quotedIdentifiers(startedWriting));
-                    }
+                    insertSql = createInsertSql(table);
                 }
                 if (!noCreateInfo) {
                     if (format == Format.SQL) {
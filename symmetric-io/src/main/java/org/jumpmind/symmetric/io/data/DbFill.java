@@ -31,6 +31,8 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -38,6 +40,11 @@ import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
@@ -58,6 +65,7 @@ import org.jumpmind.db.sql.SqlException;
 import org.jumpmind.db.util.BinaryEncoding;
 import org.jumpmind.db.util.TableRow;
 import org.jumpmind.util.AppUtils;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.jumpmind.util.FormatUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -91,6 +99,10 @@ public class DbFill {
     private int maxByteSize = 32;
     private int maxTextSize = 32;
     private String textColumnExpression;
+    private int threadCount = 1;
+    private int batchSize = 1;
+    private int rate = 0;
+    private int duration = 0;
     // Weights given to insert, update, and delete commands when
     // randomly selecting a command for any given table.
     private DmlWeight dmlWeight = new DmlWeight(1, 0, 0);
@@ -115,6 +127,10 @@ public class DbFill {
     // Minimum column size for all columns with foreign key references
     // For example, if pid varchar(10) references id varchar(5), then both id and pid will return min column size as 5
     private Map<String, Integer> minColumnSizes = new HashMap<String, Integer>();
+    // Rows generated for insert that are waiting to be sent as a JDBC batch, by table.
+    private Map<Table, List<Row>> pendingInserts = new LinkedHashMap<Table, List<Row>>();
+    private Map<Table, DmlStatement> insertStatements = new HashMap<Table, DmlStatement>();
+    private int pendingInsertCount;
     // -1 for no limit
     private static final int RANDOM_SELECT_SIZE = 100;
     // Must remain 0-2 to choose randomly.
@@ -413,6 +429,92 @@ public class DbFill {
                 truncateTable(table);
             }
         }
+        if (threadCount > 1) {
+            fillTablesInParallel(tablesToFill, orderedTables, tableProperties);
+        } else {
+            fillTablesInTransaction(tablesToFill, orderedTables, tableProperties);
+        }
+    }
+
+    /**
+     * Split the record count and rate across worker threads. Each worker fills all the tables in foreign key order in its own transaction,
+     * with its own copy of the generated row values so that child rows reference the parent rows generated by the same worker.
+     */
+    private void fillTablesInParallel(List<Table> tablesToFill, List<Table> orderedTables, Map<String, DmlWeight> tableProperties) {
+        log.info("Filling tables with {} threads", threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, new CustomizableThreadFactory("dbfill"));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < threadCount; i++) {
+                int workerCount = inputLength / threadCount + (i < inputLength % threadCount ? 1 : 0);
+                int workerRate = rate / threadCount + (i < rate % threadCount ? 1 : 0);
+                if (workerCount > 0 && (rate == 0 || workerRate > 0)) {
+                    DbFill worker = copyForWorker(workerCount, workerRate);
+                    futures.add(executor.submit(() -> worker.fillTablesInTransaction(tablesToFill, orderedTables, tableProperties)));
+                }
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected DbFill copyForWorker(int recordCount, int workerRate) {
+        DbFill worker = new DbFill(platform);
+        worker.catalog = catalog;
+        worker.schema = schema;
+        worker.cascading = cascading;
+        worker.cascadingSelect = cascadingSelect;
+        worker.inputLength = recordCount;
+        worker.repeat = repeat;
+        worker.maxRowsCommit = maxRowsCommit;
+        worker.commitDelay = commitDelay;
+        worker.percentRollback = percentRollback;
+        worker.interval = interval;
+        worker.debug = debug;
+        worker.verbose = verbose;
+        worker.continueOnError = continueOnError;
+        worker.useRandomCount = useRandomCount;
+        worker.maxByteSize = maxByteSize;
+        worker.maxTextSize = maxTextSize;
+        worker.textColumnExpression = textColumnExpression;
+        worker.dmlWeight = dmlWeight;
+        worker.batchSize = batchSize;
+        worker.rate = workerRate;
+        worker.duration = duration;
+        worker.allDbTablesCache = getAllDbTables();
+        worker.foreignKeyReferences = foreignKeyReferences;
+        worker.foreignTables = foreignTables;
+        worker.foreignTablesReversed = foreignTablesReversed;
+        worker.commonDependencyTables = commonDependencyTables;
+        worker.compositeForeignKeys = compositeForeignKeys;
+        worker.minColumnSizes = minColumnSizes;
+        // columns that share a value also share the list that holds it, so keep the sharing in the copy
+        Map<List<Object>, List<Object>> copiedValues = new IdentityHashMap<List<Object>, List<Object>>();
+        for (Map.Entry<String, List<Object>> entry : commonDependencyValues.entrySet()) {
+            List<Object> copy = copiedValues.get(entry.getValue());
+            if (copy == null) {
+                copy = new ArrayList<Object>();
+                copiedValues.put(entry.getValue(), copy);
+            }
+            worker.commonDependencyValues.put(entry.getKey(), copy);
+        }
+        return worker;
+    }
+
+    private void fillTablesInTransaction(List<Table> tablesToFill, List<Table> orderedTables, Map<String, DmlWeight> tableProperties) {
         ISqlTransaction tran = platform.getSqlTemplate().startSqlTransaction();
         try {
             DatabaseInfo dbInfo = platform.getDatabaseInfo();
@@ -421,7 +523,14 @@ public class DbFill {
             String schemaSeparator = dbInfo.getSchemaSeparator();
             int rowsInTransaction = 0;
             int rowsTotal = 0;
-            for (int x = 0; x < repeat; x++) {
+            long operations = 0;
+            long startTime = System.nanoTime();
+            long endTime = duration > 0 ? System.currentTimeMillis() + duration * 1000L : 0;
+            boolean batching = batchSize > 1;
+            if (batching) {
+                tran.setInBatchMode(true);
+            }
+            repeat_loop: for (int x = 0; x < repeat || endTime > 0; x++) {
                 int numRowsToGenerate = inputLength;
                 int numRowsToCommit = maxRowsCommit;
                 if (useRandomCount) {
@@ -431,8 +540,11 @@ public class DbFill {
                     numRowsToCommit = numRowsToCommit > 0 ? numRowsToCommit : 1;
                 }
                 for (int i = 0; i < numRowsToGenerate; i++) {
+                    if (endTime > 0 && System.currentTimeMillis() >= endTime) {
+                        break repeat_loop;
+                    }
                     for (Table table : orderedTables) {
-                        if (table.hasAutoIncrementColumn()) {
+                        if (!batching && table.hasAutoIncrementColumn()) {
                             log.info("Turning on identity insert for table " + table.getName());
                             tran.allowInsertIntoAutoIncrementColumns(true, table, quote, catalogSeparator, schemaSeparator);
                         }
@@ -448,12 +560,22 @@ public class DbFill {
                             }
                             continue;
                         }
+                        if (batching && dmlType != INSERT) {
+                            flushInserts(tran, orderedTables);
+                        }
                         switch (dmlType) {
                             case INSERT:
                                 if (verbose) {
                                     log.info("Inserting into table " + table.getName());
                                 }
-                                insertRandomRecord(tran, table);
+                                if (batching) {
+                                    queueRandomRecord(table);
+                                    if (pendingInsertCount >= batchSize) {
+                                        flushInserts(tran, orderedTables);
+                                    }
+                                } else {
+                                    insertRandomRecord(tran, table);
+                                }
                                 break;
                             case UPDATE:
                                 if (verbose) {
@@ -469,7 +591,11 @@ public class DbFill {
                                 selectRandomRecord(tran, table);
                                 break;
                         }
+                        if (rate > 0) {
+                            throttle(startTime, ++operations);
+                        }
                         if (++rowsInTransaction >= numRowsToCommit) {
+                            flushInserts(tran, orderedTables);
                             if (commitDelay > 0) {
                                 AppUtils.sleep(commitDelay);
                             }
@@ -484,7 +610,7 @@ public class DbFill {
                             rowsInTransaction = 0;
                             AppUtils.sleep(interval);
                         }
-                        if (table.hasAutoIncrementColumn()) {
+                        if (!batching && table.hasAutoIncrementColumn()) {
                             log.info("Turning off identity insert for table " + table.getName());
                             tran.allowInsertIntoAutoIncrementColumns(false, table, quote, catalogSeparator, schemaSeparator);
                         }
@@ -494,6 +620,7 @@ public class DbFill {
                 currentRowValues.clear();
             }
             if (rowsInTransaction > 0) {
+                flushInserts(tran, orderedTables);
                 if (commitDelay > 0) {
                     AppUtils.sleep(commitDelay);
                 }
@@ -505,6 +632,87 @@ public class DbFill {
         }
     }
 
+    /**
+     * Sleep as needed to hold the rate of operations per second since the start time.
+     */
+    private void throttle(long startTime, long operations) {
+        long waitNanos = startTime + operations * 1000000000L / rate - System.nanoTime();
+        if (waitNanos > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    private void queueRandomRecord(Table table) {
+        DmlStatement insertStatement = insertStatements.get(table);
+        if (insertStatement == null) {
+            insertStatement = createInsertDmlStatement(table);
+            insertStatements.put(table, insertStatement);
+        }
+        List<Row> rows = pendingInserts.get(table);
+        if (rows == null) {
+            rows = new ArrayList<Row>();
+            pendingInserts.put(table, rows);
+        }
+        rows.add(createRandomInsertValues(insertStatement, table));
+        pendingInsertCount++;
+    }
+
+    /**
+     * Send the queued inserts as one JDBC batch per table, in foreign key order so parent rows are inserted before the child rows that
+     * reference them. If a batch fails, its rows are inserted one at a time and rows that still fail are skipped.
+     */
+    private void flushInserts(ISqlTransaction tran, List<Table> orderedTables) {
+        if (pendingInsertCount == 0) {
+            return;
+        }
+        DatabaseInfo dbInfo = platform.getDatabaseInfo();
+        for (Table table : orderedTables) {
+            List<Row> rows = pendingInserts.get(table);
+            if (rows == null || rows.size() == 0) {
+                continue;
+            }
+            DmlStatement insertStatement = insertStatements.get(table);
+            if (table.hasAutoIncrementColumn()) {
+                tran.allowInsertIntoAutoIncrementColumns(true, table, dbInfo.getDelimiterToken(), dbInfo.getCatalogSeparator(),
+                        dbInfo.getSchemaSeparator());
+            }
+            try {
+                tran.prepare(insertStatement.getSql());
+                for (Row row : rows) {
+                    tran.addRow(row, getInsertValues(insertStatement, table, row), null);
+                }
+                tran.flush();
+            } catch (SqlException e) {
+                tran.getUnflushedMarkers(true);
+                log.warn("Failed to batch insert into {}, inserting rows one at a time: {}", table.getName(), e.getMessage());
+                for (Row row : rows) {
+                    try {
+                        tran.prepareAndExecute(insertStatement.getSql(), getInsertValues(insertStatement, table, row));
+                    } catch (SqlException ex) {
+                        log.info("Failed to insert into {}: {}", table.getName(), ex.getMessage());
+                        if (debug) {
+                            logRow(row);
+                        }
+                        if (dbInfo.isRequiresSavePointsInTransaction()) {
+                            tran.rollback();
+                        }
+                    }
+                }
+            } finally {
+                if (table.hasAutoIncrementColumn()) {
+                    tran.allowInsertIntoAutoIncrementColumns(false, table, dbInfo.getDelimiterToken(), dbInfo.getCatalogSeparator(),
+                            dbInfo.getSchemaSeparator());
+                }
+            }
+            rows.clear();
+        }
+        pendingInsertCount = 0;
+    }
+
+    private Object[] getInsertValues(DmlStatement insertStatement, Table table, Row row) {
+        return insertStatement.getValueArray(row.toArray(table.getColumnNames()), row.toArray(table.getPrimaryKeyColumnNames()));
+    }
+
     private void truncateTable(Table table) {
         if (verbose) {
             log.info("Truncating table " + table.getFullyQualifiedTableName());
@@ -1325,6 +1533,38 @@ public class DbFill {
         return dmlWeight.getDeleteWeight();
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
     public void setTextColumnExpression(String textColumnExpression) {
         this.textColumnExpression = textColumnExpression;
     }
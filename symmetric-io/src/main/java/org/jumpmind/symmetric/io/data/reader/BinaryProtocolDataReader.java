@@ -0,0 +1,416 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.reader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.input.CountingInputStream;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.exception.IoException;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.BinaryProtocolConstants;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.IDataReader;
+import org.jumpmind.symmetric.io.data.ProtocolException;
+import org.jumpmind.util.Statistics;
+
+/**
+ * Reads batches written by {@link org.jumpmind.symmetric.io.data.writer.BinaryProtocolDataWriter}. Binary values are encoded again with the
+ * batch's {@link BinaryEncoding}, so the data handed to writers is the same as when it is read by {@link ProtocolDataReader}.
+ */
+public class BinaryProtocolDataReader extends AbstractDataReader implements IDataReader {
+    protected InputStream is;
+    protected CountingInputStream countingStream;
+    protected DataInputStream in;
+    protected Map<Batch, Statistics> statistics = new HashMap<Batch, Statistics>();
+    protected DataContext context;
+    protected Object next;
+    protected Batch batch;
+    protected String channelId;
+    protected String tableName;
+    protected String sourceNodeId;
+    protected String targetNodeId;
+    protected BinaryEncoding binaryEncoding;
+    protected boolean noBinaryOldData = false;
+    protected BatchType batchType;
+    protected int lineNumber = 0;
+    protected long baseTime;
+    protected Timestamp createTime;
+    protected String[] parsedOldData;
+    protected Map<String, boolean[]> binaryColumnsByTable = new HashMap<String, boolean[]>();
+    protected boolean[] binaryColumns;
+    protected boolean[] binaryPkColumns;
+
+    public BinaryProtocolDataReader(BatchType batchType, String targetNodeId, InputStream is) {
+        this.is = is;
+        this.batchType = batchType;
+        this.targetNodeId = targetNodeId;
+    }
+
+    /**
+     * Check for the binary protocol header without consuming it, so a receiver can choose between this reader and {@link ProtocolDataReader}.
+     */
+    public static boolean isBinaryProtocol(BufferedInputStream is) throws IOException {
+        byte[] magic = BinaryProtocolConstants.MAGIC;
+        is.mark(magic.length);
+        try {
+            byte[] header = is.readNBytes(magic.length);
+            return Arrays.equals(magic, header);
+        } finally {
+            is.reset();
+        }
+    }
+
+    public void open(DataContext context) {
+        this.context = context;
+        this.lineNumber = 0;
+        this.countingStream = new CountingInputStream(is instanceof BufferedInputStream ? is : new BufferedInputStream(is));
+        this.in = new DataInputStream(countingStream);
+        try {
+            byte[] header = new byte[BinaryProtocolConstants.MAGIC.length];
+            in.readFully(header);
+            if (!Arrays.equals(BinaryProtocolConstants.MAGIC, header)) {
+                throw new ProtocolException("The stream does not start with the binary protocol header");
+            }
+            int version = in.readByte();
+            if (version != BinaryProtocolConstants.VERSION) {
+                throw new ProtocolException("Unsupported binary protocol version %d", version);
+            }
+        } catch (EOFException e) {
+            next = null;
+            return;
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+        this.next = readNext();
+    }
+
+    public Object readNext() {
+        try {
+            long bytesRead = countingStream.getByteCount();
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    return null;
+                }
+                lineNumber++;
+                context.put(ProtocolDataReader.CTX_LINE_NUMBER, lineNumber);
+                Statistics stats = batch != null ? statistics.get(batch) : null;
+                switch (type) {
+                    case BinaryProtocolConstants.NODEID:
+                        sourceNodeId = readString();
+                        break;
+                    case BinaryProtocolConstants.BINARY:
+                        binaryEncoding = BinaryEncoding.valueOf(readString());
+                        break;
+                    case BinaryProtocolConstants.CHANNEL:
+                        channelId = readString();
+                        break;
+                    case BinaryProtocolConstants.BATCH:
+                        Batch batch = new Batch(batchType, in.readLong(), channelId, binaryEncoding, sourceNodeId, targetNodeId, false);
+                        statistics.put(batch, new DataReaderStatistics());
+                        createTime = null;
+                        baseTime = 0;
+                        return batch;
+                    case BinaryProtocolConstants.TABLE:
+                        Table table = readTable();
+                        countBytes(stats, bytesRead);
+                        return table;
+                    case BinaryProtocolConstants.NO_BINARY_OLD_DATA:
+                        noBinaryOldData = in.readBoolean();
+                        break;
+                    case BinaryProtocolConstants.BASETIME:
+                        baseTime = in.readLong();
+                        createTime = new Timestamp(baseTime);
+                        break;
+                    case BinaryProtocolConstants.TIME:
+                        createTime = new Timestamp(in.readLong() + baseTime);
+                        break;
+                    case BinaryProtocolConstants.OLD:
+                        parsedOldData = readFields(noBinaryOldData ? null : binaryColumns);
+                        break;
+                    case BinaryProtocolConstants.INSERT:
+                        return newRowData(DataEventType.INSERT, stats, bytesRead, readFields(binaryColumns), null);
+                    case BinaryProtocolConstants.UPDATE:
+                        String[] rowData = readFields(binaryColumns);
+                        return newRowData(DataEventType.UPDATE, stats, bytesRead, rowData, readFields(binaryPkColumns));
+                    case BinaryProtocolConstants.DELETE:
+                        return newRowData(DataEventType.DELETE, stats, bytesRead, null, readFields(binaryPkColumns));
+                    case BinaryProtocolConstants.SQL:
+                        return newScriptData(DataEventType.SQL, stats, bytesRead);
+                    case BinaryProtocolConstants.BSH:
+                        return newScriptData(DataEventType.BSH, stats, bytesRead);
+                    case BinaryProtocolConstants.CREATE:
+                        return newScriptData(DataEventType.CREATE, stats, bytesRead);
+                    case BinaryProtocolConstants.IGNORE:
+                        if (this.batch != null) {
+                            this.batch.setIgnored(true);
+                        }
+                        break;
+                    case BinaryProtocolConstants.COMMIT:
+                        in.readLong();
+                        countBytes(stats, bytesRead);
+                        if (this.batch != null) {
+                            this.batch.setComplete(true);
+                        }
+                        return null;
+                    default:
+                        throw new ProtocolException("Unknown binary protocol record type %d at record %d", type, lineNumber);
+                }
+            }
+        } catch (EOFException e) {
+            throw new ProtocolException("Unexpected end of binary protocol stream at record %d", lineNumber);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    protected Table readTable() throws IOException {
+        String catalogName = readString();
+        String schemaName = readString();
+        tableName = readString();
+        String fullyQualifiedTableName = Table.getFullyQualifiedTableName(catalogName, schemaName, tableName);
+        Table table = null;
+        if (in.readBoolean()) {
+            table = context.getParsedTables().get(fullyQualifiedTableName);
+            if (table == null) {
+                table = new Table(catalogName, schemaName, tableName);
+            }
+            table.removeAllColumns();
+            int columnCount = readVarInt();
+            boolean[] binary = new boolean[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                String name = readString();
+                byte flags = in.readByte();
+                int typeCode = in.readInt();
+                Column column = new Column(name, (flags & BinaryProtocolConstants.COLUMN_PRIMARY_KEY) != 0);
+                column.setMappedTypeCode(typeCode);
+                table.addColumn(column);
+                binary[i] = (flags & BinaryProtocolConstants.COLUMN_BINARY) != 0;
+            }
+            context.getParsedTables().put(fullyQualifiedTableName, table);
+            binaryColumnsByTable.put(fullyQualifiedTableName, binary);
+        } else {
+            table = context.getParsedTables().get(fullyQualifiedTableName);
+            if (table == null) {
+                throw new ProtocolException("Table %s was referenced before its columns were sent", fullyQualifiedTableName);
+            }
+        }
+        binaryColumns = binaryColumnsByTable.get(fullyQualifiedTableName);
+        if (binaryColumns == null) {
+            binaryColumns = new boolean[table.getColumnCount()];
+        }
+        Column[] pkColumns = table.getPrimaryKeyColumns();
+        binaryPkColumns = new boolean[pkColumns.length];
+        for (int i = 0; i < pkColumns.length; i++) {
+            int index = table.getColumnIndex(pkColumns[i]);
+            binaryPkColumns[i] = index >= 0 && index < binaryColumns.length && binaryColumns[index];
+        }
+        context.setLastParsedTable(table);
+        return table;
+    }
+
+    protected CsvData newRowData(DataEventType eventType, Statistics stats, long bytesRead, String[] rowData, String[] pkData) {
+        CsvData data = new CsvData();
+        data.setNoBinaryOldData(noBinaryOldData);
+        data.setDataEventType(eventType);
+        if (rowData != null) {
+            data.putParsedData(CsvData.ROW_DATA, rowData);
+        }
+        if (pkData != null) {
+            data.putParsedData(CsvData.PK_DATA, pkData);
+        }
+        if (eventType != DataEventType.INSERT) {
+            data.putParsedData(CsvData.OLD_DATA, parsedOldData);
+        }
+        parsedOldData = null;
+        if (createTime != null) {
+            data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, createTime);
+        }
+        data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, channelId);
+        data.putAttribute(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
+        data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, sourceNodeId);
+        if (stats != null) {
+            stats.increment(DataReaderStatistics.READ_RECORD_COUNT_INDEX, 1);
+        }
+        countBytes(stats, bytesRead);
+        return data;
+    }
+
+    protected CsvData newScriptData(DataEventType eventType, Statistics stats, long bytesRead) throws IOException {
+        CsvData data = new CsvData();
+        data.setNoBinaryOldData(noBinaryOldData);
+        data.setDataEventType(eventType);
+        data.putParsedData(CsvData.ROW_DATA, readFields(null));
+        countBytes(stats, bytesRead);
+        return data;
+    }
+
+    protected void countBytes(Statistics stats, long bytesRead) {
+        if (stats != null) {
+            stats.increment(DataReaderStatistics.READ_BYTE_COUNT_INDEX, countingStream.getByteCount() - bytesRead);
+        }
+    }
+
+    /**
+     * Read each value as a typed field. Raw bytes are only expected for the columns that were flagged as binary when the table was sent, the
+     * same columns the writer decodes.
+     */
+    protected String[] readFields(boolean[] binary) throws IOException {
+        int count = readVarInt();
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            if (type == BinaryProtocolConstants.FIELD_STRING) {
+                values[i] = new String(readBytes(), StandardCharsets.UTF_8);
+            } else if (type == BinaryProtocolConstants.FIELD_BYTES) {
+                if (binary == null || i >= binary.length || !binary[i]) {
+                    throw new ProtocolException("Received bytes for field %d that is not a binary column at record %d", i, lineNumber);
+                }
+                values[i] = encodeBinary(readBytes());
+            } else if (type != BinaryProtocolConstants.FIELD_NULL) {
+                throw new ProtocolException("Unknown binary protocol field type %d at record %d", type, lineNumber);
+            }
+        }
+        return values;
+    }
+
+    protected String encodeBinary(byte[] bytes) {
+        if (binaryEncoding == BinaryEncoding.HEX) {
+            return Hex.encodeHexString(bytes);
+        } else if (binaryEncoding == BinaryEncoding.BASE64) {
+            return new String(Base64.encodeBase64(bytes), Charset.defaultCharset());
+        } else {
+            return new String(bytes, Charset.defaultCharset());
+        }
+    }
+
+    protected String readString() throws IOException {
+        byte type = in.readByte();
+        return type == BinaryProtocolConstants.FIELD_NULL ? null : new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    protected byte[] readBytes() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    protected int readVarInt() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 35);
+        return value;
+    }
+
+    public Batch nextBatch() {
+        if (next instanceof Batch) {
+            this.batch = (Batch) next;
+            next = null;
+            return batch;
+        } else {
+            do {
+                next = readNext();
+                if (next instanceof Batch) {
+                    this.batch = (Batch) next;
+                    next = null;
+                    return batch;
+                }
+            } while (next != null);
+        }
+        return null;
+    }
+
+    public Table nextTable() {
+        if (next instanceof Table) {
+            Table table = (Table) next;
+            context.setLastParsedTable(table);
+            next = null;
+            return table;
+        } else {
+            do {
+                next = readNext();
+                if (next instanceof Table) {
+                    Table table = (Table) next;
+                    context.setLastParsedTable(table);
+                    next = null;
+                    return table;
+                }
+            } while (next != null && !(next instanceof Batch));
+        }
+        return null;
+    }
+
+    public CsvData nextData() {
+        if (next instanceof CsvData) {
+            CsvData data = (CsvData) next;
+            next = null;
+            return data;
+        } else {
+            do {
+                next = readNext();
+                if (next instanceof CsvData) {
+                    CsvData data = (CsvData) next;
+                    next = null;
+                    return data;
+                }
+            } while (next != null && !(next instanceof Batch) && !(next instanceof Table));
+        }
+        return null;
+    }
+
+    public void close() {
+        try {
+            if (in != null) {
+                in.close();
+            } else if (is != null) {
+                is.close();
+            }
+        } catch (IOException e) {
+        }
+    }
+
+    public Map<Batch, Statistics> getStatistics() {
+        return statistics;
+    }
+}
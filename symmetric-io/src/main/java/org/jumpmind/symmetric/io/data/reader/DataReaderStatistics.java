@@ -46,4 +46,6 @@ public class DataReaderStatistics extends Statistics {
     public static final String EXTRACT_UPDATE_ROW_COUNT = "EXTRACT_UPDATE_ROW_COUNT";
     public static final String EXTRACT_DELETE_ROW_COUNT = "EXTRACT_DELETE_ROW_COUNT";
     public static final String FAILED_DATA_ID = "FAILED_DATA_ID";
+    public static final int READ_BYTE_COUNT_INDEX = Statistics.index(READ_BYTE_COUNT);
+    public static final int READ_RECORD_COUNT_INDEX = Statistics.index(READ_RECORD_COUNT);
 }
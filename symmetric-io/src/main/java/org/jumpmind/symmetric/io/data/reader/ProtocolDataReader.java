@@ -42,7 +42,8 @@ import org.jumpmind.db.model.Column;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.db.util.BinaryEncoding;
 import org.jumpmind.exception.IoException;
-import org.jumpmind.symmetric.csv.CsvReader;
+import org.jumpmind.symmetric.csv.CsvSlice;
+import org.jumpmind.symmetric.csv.ProtocolCsvReader;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.Batch.BatchType;
 import org.jumpmind.symmetric.io.data.CsvConstants;
@@ -53,7 +54,6 @@ import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.io.data.IDataReader;
 import org.jumpmind.symmetric.io.data.ProtocolException;
 import org.jumpmind.symmetric.io.stage.IStagedResource;
-import org.jumpmind.util.CollectionUtils;
 import org.jumpmind.util.Statistics;
 
 public class ProtocolDataReader extends AbstractDataReader implements IDataReader {
@@ -61,7 +61,7 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
     protected IStagedResource stagedResource;
     protected Reader reader;
     protected Map<Batch, Statistics> statistics = new HashMap<Batch, Statistics>();
-    protected CsvReader csvReader;
+    protected ProtocolCsvReader csvReader;
     protected DataContext context;
     protected Object next;
     protected Batch batch;
@@ -73,7 +73,7 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
     protected boolean noBinaryOldData = false;
     protected BatchType batchType;
     protected int lineNumber = 0;
-    protected String[] tokens;
+    protected boolean pendingRecord;
     protected boolean streamToFile = true;
     protected long baseTime;
     protected Timestamp createTime;
@@ -131,7 +131,7 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
         }
         this.lineNumber = 0;
         this.context = context;
-        this.csvReader = CsvUtils.getCsvReader(reader);
+        this.csvReader = CsvUtils.getProtocolCsvReader(reader);
         this.next = readNext();
     }
 
@@ -140,114 +140,117 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
             Set<String> keys = null;
             String schemaName = null;
             String catalogName = null;
-            String[] parsedOldData = null;
+            CsvSlice parsedOldData = null;
             long bytesRead = 0;
             String[] statsColumns = null;
             String[] statsValues = null;
             Table table = null;
-            while (tokens != null || csvReader.readRecord()) {
+            while (pendingRecord || csvReader.readRecord()) {
                 lineNumber++;
                 context.put(CTX_LINE_NUMBER, lineNumber);
-                if (tokens == null) {
-                    tokens = csvReader.getValues();
+                pendingRecord = true;
+                String keyword = csvReader.getKeyword();
+                int tokenCount = csvReader.getColumnCount();
+                if (log.isDebugEnabled()) {
+                    logDebugAndCountBytes(csvReader.getValues());
                 }
-                bytesRead += logDebugAndCountBytes(tokens);
+                bytesRead += csvReader.getRecordLength();
                 Statistics stats = null;
                 if (batch != null) {
                     stats = statistics.get(batch);
-                    stats.increment(DataReaderStatistics.READ_BYTE_COUNT, bytesRead);
+                    stats.increment(DataReaderStatistics.READ_BYTE_COUNT_INDEX, bytesRead);
                     bytesRead = 0;
                 }
-                if (table != null && !(tokens[0].equals(CsvConstants.TABLE) || tokens[0].equals(CsvConstants.KEYS)
-                        || tokens[0].equals(CsvConstants.COLUMNS))) {
+                if (table != null && !(CsvConstants.TABLE.equals(keyword) || CsvConstants.KEYS.equals(keyword)
+                        || CsvConstants.COLUMNS.equals(keyword))) {
                     return table;
                 }
-                if (stats != null && (tokens[0].equals(CsvConstants.INSERT) || tokens[0].equals(CsvConstants.UPDATE)
-                        || tokens[0].equals(CsvConstants.DELETE))) {
-                    stats.increment(DataReaderStatistics.READ_RECORD_COUNT, 1);
+                if (stats != null && (CsvConstants.INSERT.equals(keyword) || CsvConstants.UPDATE.equals(keyword)
+                        || CsvConstants.DELETE.equals(keyword))) {
+                    stats.increment(DataReaderStatistics.READ_RECORD_COUNT_INDEX, 1);
                 }
-                if (tokens[0].equals(CsvConstants.INSERT)) {
+                if (CsvConstants.INSERT.equals(keyword)) {
                     CsvData data = new CsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.INSERT);
-                    data.putParsedData(CsvData.ROW_DATA, CollectionUtils.copyOfRange(tokens, 1, tokens.length));
+                    data.putSlicedData(CsvData.ROW_DATA, csvReader.getSlice(1, tokenCount));
                     if (createTime != null) {
                         data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, createTime);
                     }
                     data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, channelId);
                     data.putAttribute(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
                     data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, sourceNodeId);
-                    tokens = null;
+                    pendingRecord = false;
                     return data;
-                } else if (tokens[0].equals(CsvConstants.OLD)) {
-                    parsedOldData = CollectionUtils.copyOfRange(tokens, 1, tokens.length);
-                } else if (tokens[0].equals(CsvConstants.UPDATE)) {
+                } else if (CsvConstants.OLD.equals(keyword)) {
+                    parsedOldData = csvReader.getSlice(1, tokenCount);
+                } else if (CsvConstants.UPDATE.equals(keyword)) {
                     CsvData data = new CsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.UPDATE);
                     int columnCount = context.getLastParsedTable().getColumnCount();
-                    if (tokens.length <= columnCount) {
+                    if (tokenCount <= columnCount) {
                         String msg = String.format(
                                 "Invalid state while parsing csv data.  "
                                         + "The number of columns (%d) reported for table '%s' doesn't match up with the token count (%d) data: %s",
-                                columnCount, context.getLastParsedTable().getFullyQualifiedTableName(), tokens.length,
-                                ArrayUtils.toString(tokens));
+                                columnCount, context.getLastParsedTable().getFullyQualifiedTableName(), tokenCount,
+                                ArrayUtils.toString(csvReader.getValues()));
                         throw new ProtocolException(msg);
                     }
-                    data.putParsedData(CsvData.ROW_DATA, CollectionUtils.copyOfRange(tokens, 1, columnCount + 1));
-                    data.putParsedData(CsvData.PK_DATA, CollectionUtils.copyOfRange(tokens, columnCount + 1, tokens.length));
-                    data.putParsedData(CsvData.OLD_DATA, parsedOldData);
+                    data.putSlicedData(CsvData.ROW_DATA, csvReader.getSlice(1, columnCount + 1));
+                    data.putSlicedData(CsvData.PK_DATA, csvReader.getSlice(columnCount + 1, tokenCount));
+                    data.putSlicedData(CsvData.OLD_DATA, parsedOldData);
                     if (createTime != null) {
                         data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, createTime);
                     }
                     data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, channelId);
                     data.putAttribute(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
                     data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, sourceNodeId);
-                    tokens = null;
+                    pendingRecord = false;
                     return data;
-                } else if (tokens[0].equals(CsvConstants.DELETE)) {
+                } else if (CsvConstants.DELETE.equals(keyword)) {
                     CsvData data = new CsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.DELETE);
-                    data.putParsedData(CsvData.PK_DATA, CollectionUtils.copyOfRange(tokens, 1, tokens.length));
-                    data.putParsedData(CsvData.OLD_DATA, parsedOldData);
+                    data.putSlicedData(CsvData.PK_DATA, csvReader.getSlice(1, tokenCount));
+                    data.putSlicedData(CsvData.OLD_DATA, parsedOldData);
                     if (createTime != null) {
                         data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, createTime);
                     }
                     data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, channelId);
                     data.putAttribute(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
                     data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, sourceNodeId);
-                    tokens = null;
+                    pendingRecord = false;
                     return data;
-                } else if (tokens[0].equals(CsvConstants.TIME)) {
-                    createTime = new Timestamp(Long.parseLong(tokens[1]) + baseTime);
-                } else if (tokens[0].equals(CsvConstants.BATCH) || tokens[0].equals(CsvConstants.RETRY)) {
-                    Batch batch = new Batch(batchType, Long.parseLong(tokens[1]), channelId, binaryEncoding, sourceNodeId, targetNodeId,
+                } else if (CsvConstants.TIME.equals(keyword)) {
+                    createTime = new Timestamp(Long.parseLong(csvReader.get(1)) + baseTime);
+                } else if (CsvConstants.BATCH.equals(keyword) || CsvConstants.RETRY.equals(keyword)) {
+                    Batch batch = new Batch(batchType, Long.parseLong(csvReader.get(1)), channelId, binaryEncoding, sourceNodeId, targetNodeId,
                             false);
                     stats = stats != null ? stats : new DataReaderStatistics();
                     statistics.put(batch, stats);
-                    if (tokens[0].equals(CsvConstants.RETRY) && !streamToFile) {
+                    if (CsvConstants.RETRY.equals(keyword) && !streamToFile) {
                         batch.setInvalidRetry(true);
                     }
-                    tokens = null;
+                    pendingRecord = false;
                     createTime = null;
                     return batch;
-                } else if (tokens[0].equals(CsvConstants.NO_BINARY_OLD_DATA)) {
-                    if (tokens.length > 1) {
-                        noBinaryOldData = Boolean.parseBoolean(tokens[1]);
+                } else if (CsvConstants.NO_BINARY_OLD_DATA.equals(keyword)) {
+                    if (tokenCount > 1) {
+                        noBinaryOldData = Boolean.parseBoolean(csvReader.get(1));
                     }
-                } else if (tokens[0].equals(CsvConstants.NODEID)) {
-                    this.sourceNodeId = tokens[1];
-                } else if (tokens[0].equals(CsvConstants.BINARY)) {
-                    this.binaryEncoding = BinaryEncoding.valueOf(tokens[1]);
-                } else if (tokens[0].equals(CsvConstants.CHANNEL)) {
-                    this.channelId = tokens[1];
-                } else if (tokens[0].equals(CsvConstants.SCHEMA)) {
-                    schemaName = tokens.length == 1 || StringUtils.isBlank(tokens[1]) ? null : tokens[1];
-                } else if (tokens[0].equals(CsvConstants.CATALOG)) {
-                    catalogName = tokens.length == 1 || StringUtils.isBlank(tokens[1]) ? null : tokens[1];
-                } else if (tokens[0].equals(CsvConstants.TABLE)) {
-                    tableName = tokens[1];
+                } else if (CsvConstants.NODEID.equals(keyword)) {
+                    this.sourceNodeId = csvReader.get(1);
+                } else if (CsvConstants.BINARY.equals(keyword)) {
+                    this.binaryEncoding = BinaryEncoding.valueOf(csvReader.get(1));
+                } else if (CsvConstants.CHANNEL.equals(keyword)) {
+                    this.channelId = csvReader.get(1);
+                } else if (CsvConstants.SCHEMA.equals(keyword)) {
+                    schemaName = tokenCount == 1 || StringUtils.isBlank(csvReader.get(1)) ? null : csvReader.get(1);
+                } else if (CsvConstants.CATALOG.equals(keyword)) {
+                    catalogName = tokenCount == 1 || StringUtils.isBlank(csvReader.get(1)) ? null : csvReader.get(1);
+                } else if (CsvConstants.TABLE.equals(keyword)) {
+                    tableName = csvReader.get(1);
                     table = context.getParsedTables().get(Table.getFullyQualifiedTableName(catalogName, schemaName, tableName));
                     if (table != null) {
                         context.setLastParsedTable(table);
@@ -255,64 +258,65 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
                         table = new Table(catalogName, schemaName, tableName);
                         context.setLastParsedTable(table);
                     }
-                } else if (tokens[0].equals(CsvConstants.KEYS)) {
+                } else if (CsvConstants.KEYS.equals(keyword)) {
                     if (keys == null) {
-                        keys = new HashSet<String>(tokens.length);
+                        keys = new HashSet<String>(tokenCount);
                     }
-                    for (int i = 1; i < tokens.length; i++) {
-                        keys.add(tokens[i]);
+                    for (int i = 1; i < tokenCount; i++) {
+                        keys.add(csvReader.get(i));
                     }
-                } else if (tokens[0].equals(CsvConstants.COLUMNS)) {
+                } else if (CsvConstants.COLUMNS.equals(keyword)) {
                     table.removeAllColumns();
-                    for (int i = 1; i < tokens.length; i++) {
-                        Column column = new Column(tokens[i], keys != null && keys.contains(tokens[i]));
+                    for (int i = 1; i < tokenCount; i++) {
+                        String columnName = csvReader.get(i);
+                        Column column = new Column(columnName, keys != null && keys.contains(columnName));
                         table.addColumn(column);
                     }
                     context.getParsedTables().put(table.getFullyQualifiedTableName(), table);
-                } else if (tokens[0].equals(CsvConstants.COMMIT)) {
+                } else if (CsvConstants.COMMIT.equals(keyword)) {
                     if (batch != null) {
                         batch.setComplete(true);
                     }
-                    tokens = null;
+                    pendingRecord = false;
                     return null;
-                } else if (tokens[0].equals(CsvConstants.SQL)) {
+                } else if (CsvConstants.SQL.equals(keyword)) {
                     CsvData data = new CsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.SQL);
-                    data.putParsedData(CsvData.ROW_DATA, new String[] { tokens[1], tokens.length > 2 ? tokens[2] : "0" });
-                    tokens = null;
+                    data.putParsedData(CsvData.ROW_DATA, new String[] { csvReader.get(1), tokenCount > 2 ? csvReader.get(2) : "0" });
+                    pendingRecord = false;
                     return data;
-                } else if (tokens[0].equals(CsvConstants.BSH)) {
+                } else if (CsvConstants.BSH.equals(keyword)) {
                     CsvData data = new CsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.BSH);
-                    data.putParsedData(CsvData.ROW_DATA, new String[] { tokens[1] });
-                    tokens = null;
+                    data.putParsedData(CsvData.ROW_DATA, new String[] { csvReader.get(1) });
+                    pendingRecord = false;
                     return data;
-                } else if (tokens[0].equals(CsvConstants.CREATE)) {
+                } else if (CsvConstants.CREATE.equals(keyword)) {
                     CsvData data = new CsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.CREATE);
-                    data.putParsedData(CsvData.ROW_DATA, new String[] { tokens[1] });
-                    tokens = null;
+                    data.putParsedData(CsvData.ROW_DATA, new String[] { csvReader.get(1) });
+                    pendingRecord = false;
                     return data;
-                } else if (tokens[0].equals(CsvConstants.IGNORE)) {
+                } else if (CsvConstants.IGNORE.equals(keyword)) {
                     if (batch != null) {
                         batch.setIgnored(true);
                     }
-                } else if (tokens[0].equals(CsvConstants.STATS_COLUMNS)) {
-                    statsColumns = CollectionUtils.copyOfRange(tokens, 1, tokens.length);
-                } else if (tokens[0].equals(CsvConstants.STATS)) {
-                    statsValues = CollectionUtils.copyOfRange(tokens, 1, tokens.length);
+                } else if (CsvConstants.STATS_COLUMNS.equals(keyword)) {
+                    statsColumns = csvReader.getValues(1, tokenCount);
+                } else if (CsvConstants.STATS.equals(keyword)) {
+                    statsValues = csvReader.getValues(1, tokenCount);
                     stats = stats != null ? stats : new DataReaderStatistics();
                     putStats(stats, statsColumns, statsValues);
-                } else if (tokens[0].equals(CsvConstants.BASETIME)) {
-                    baseTime = Long.parseLong(tokens[1]);
+                } else if (CsvConstants.BASETIME.equals(keyword)) {
+                    baseTime = Long.parseLong(csvReader.get(1));
                     createTime = new Timestamp(baseTime);
                 } else {
-                    log.info("Unable to handle unknown csv values: " + Arrays.toString(tokens));
+                    log.info("Unable to handle unknown csv values: " + Arrays.toString(csvReader.getValues()));
                 }
-                tokens = null;
+                pendingRecord = false;
             }
         } catch (IOException ex) {
             throw new IoException(ex);
@@ -0,0 +1,42 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.transform;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.symmetric.io.data.DataContext;
+
+/**
+ * A column transform that can fetch what it needs for a block of rows at once. When one of the active transforms uses it, the transform writer holds
+ * back up to {@link #getPrefetchSize(TransformColumn)} rows of a table, calls {@link #prefetch} with their source values, and then transforms the
+ * rows in their original order.
+ */
+public interface IPrefetchColumnTransform<T> extends IColumnTransform<T> {
+    /**
+     * @return the number of rows to prefetch for, or 0 if the column can only be transformed one row at a time
+     */
+    public int getPrefetchSize(TransformColumn column);
+
+    public void prefetch(IDatabasePlatform platform, DataContext context, TransformColumn column,
+            List<Map<String, String>> sourceValuesList);
+}
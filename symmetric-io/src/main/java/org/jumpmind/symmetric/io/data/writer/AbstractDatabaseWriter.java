@@ -139,8 +139,8 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
             if (targetTable != null || !data.requiresTable()
                     || (targetTable == null && data.getDataEventType() == DataEventType.SQL)) {
                 try {
-                    statistics.get(batch).increment(DataWriterStatisticConstants.ROWCOUNT);
-                    statistics.get(batch).increment(DataWriterStatisticConstants.LINENUMBER);
+                    statistics.get(batch).increment(DataWriterStatisticConstants.ROWCOUNT_INDEX);
+                    statistics.get(batch).increment(DataWriterStatisticConstants.LINENUMBER_INDEX);
                     if (filterBefore(data)) {
                         switch (data.getDataEventType()) {
                             case UPDATE:
@@ -166,7 +166,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                             ResolvedData resolvedData = getWriterSettings().getResolvedData(statementCount);
                             if (resolvedData != null) {
                                 if (resolvedData.isIgnoreRow()) {
-                                    statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
+                                    statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT_INDEX);
                                 } else {
                                     Conflict conflict = new Conflict();
                                     conflict.setDetectType(DetectConflict.USE_PK_DATA);
@@ -221,7 +221,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                     long statementCount = batchStatistics.get(DataWriterStatisticConstants.ROWCOUNT);
                     ResolvedData resolvedData = getWriterSettings().getResolvedData(statementCount);
                     if (conflictResolver != null && conflictResolver.isIgnoreRow(this, data)) {
-                        statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
+                        statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT_INDEX);
                     } else if (conflictResolver != null && resolvedData != null) {
                         Conflict conflict = new Conflict();
                         conflict.setDetectType(DetectConflict.USE_PK_DATA);
@@ -238,7 +238,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                             throw ex;
                         } else {
                             uncommittedCount++;
-                            statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
+                            statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT_INDEX);
                             checkForEarlyCommit();
                             if (Boolean.TRUE.equals(context.get(AbstractDatabaseWriter.TRANSACTION_ABORTED))) {
                                 context.put(CONFLICT_IGNORE, true);
@@ -292,12 +292,12 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                 .getDatabaseWriterErrorHandlers();
         if (filters != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
                 for (IDatabaseWriterErrorHandler filter : filters) {
                     process &= filter.handleError(context, targetTable, data, ex);
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
             }
         }
         return process;
@@ -308,7 +308,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         List<IDatabaseWriterFilter> filters = this.writerSettings.getDatabaseWriterFilters();
         if (filters != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
                 for (IDatabaseWriterFilter filter : filters) {
                     process &= filter.beforeWrite(this.context, this.sourceTable, data);
                 }
@@ -321,7 +321,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                     targetTableWasChangedByFilter(oldTargetTable);
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
             }
         }
         return process;
@@ -334,12 +334,12 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         List<IDatabaseWriterFilter> filters = this.writerSettings.getDatabaseWriterFilters();
         if (filters != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
                 for (IDatabaseWriterFilter filter : filters) {
                     filter.earlyCommit(context);
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
             }
         }
     }
@@ -348,12 +348,12 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         List<IDatabaseWriterFilter> filters = this.writerSettings.getDatabaseWriterFilters();
         if (filters != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
                 for (IDatabaseWriterFilter filter : filters) {
                     filter.batchComplete(context);
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
             }
         }
     }
@@ -362,12 +362,12 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         List<IDatabaseWriterFilter> filters = this.writerSettings.getDatabaseWriterFilters();
         if (filters != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
                 for (IDatabaseWriterFilter filter : filters) {
                     filter.batchCommitted(context);
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
             }
         }
     }
@@ -376,12 +376,12 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         List<IDatabaseWriterFilter> filters = this.writerSettings.getDatabaseWriterFilters();
         if (filters != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
                 for (IDatabaseWriterFilter filter : filters) {
                     filter.batchRolledback(context);
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
             }
         }
     }
@@ -390,12 +390,12 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         List<IDatabaseWriterFilter> filters = this.writerSettings.getDatabaseWriterFilters();
         if (filters != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
                 for (IDatabaseWriterFilter filter : filters) {
                     filter.afterWrite(this.context, this.sourceTable, data);
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.FILTERMILLIS_INDEX);
             }
         }
     }
@@ -442,7 +442,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
 
     protected boolean script(CsvData data) {
         try {
-            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             String script = data.getParsedData(CsvData.ROW_DATA)[0];
             Map<String, Object> variables = new HashMap<String, Object>();
             bindVariables(variables);
@@ -0,0 +1,343 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.exception.IoException;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.BinaryProtocolConstants;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.util.Statistics;
+
+/**
+ * Writes batches in the binary protocol read by {@link org.jumpmind.symmetric.io.data.reader.BinaryProtocolDataReader}. Values are written as
+ * length prefixed fields instead of quoted and escaped CSV, table metadata is written once per batch, and binary columns are decoded from the
+ * batch's {@link BinaryEncoding} and sent as raw bytes.
+ */
+public class BinaryProtocolDataWriter implements IDataWriter {
+    protected DataContext context;
+    protected Batch batch;
+    protected Table table;
+    protected boolean[] binaryColumns;
+    protected boolean[] binaryPkColumns;
+    protected Set<String> tablesSentInBatch = new HashSet<String>();
+    protected Map<Batch, Statistics> statistics = new HashMap<Batch, Statistics>();
+    protected CountingOutputStream countingStream;
+    protected DataOutputStream out;
+    protected String sourceNodeId;
+    protected boolean headerWritten = false;
+    protected boolean noBinaryOldData = false;
+    protected boolean sendCaptureTime = false;
+    protected boolean sendRowCaptureTime = false;
+    protected long baseTime;
+    protected long lastTime;
+
+    public BinaryProtocolDataWriter(String sourceNodeId, OutputStream os, boolean sendCaptureTime, boolean sendRowCaptureTime) {
+        this.sourceNodeId = sourceNodeId;
+        this.countingStream = new CountingOutputStream(os instanceof BufferedOutputStream ? os : new BufferedOutputStream(os));
+        this.out = new DataOutputStream(countingStream);
+        this.sendCaptureTime = sendCaptureTime;
+        this.sendRowCaptureTime = sendRowCaptureTime;
+    }
+
+    public void open(DataContext context) {
+        this.context = context;
+    }
+
+    public void close() {
+    }
+
+    public Map<Batch, Statistics> getStatistics() {
+        return statistics;
+    }
+
+    public void start(Batch batch) {
+        this.statistics.put(batch, new Statistics());
+        this.batch = batch;
+        this.baseTime = 0;
+        this.lastTime = 0;
+        this.tablesSentInBatch.clear();
+        if (StringUtils.isBlank(sourceNodeId)) {
+            sourceNodeId = batch.getSourceNodeId();
+        }
+        try {
+            long startCount = countingStream.getByteCount();
+            if (!headerWritten) {
+                out.write(BinaryProtocolConstants.MAGIC);
+                out.writeByte(BinaryProtocolConstants.VERSION);
+                if (StringUtils.isNotBlank(sourceNodeId)) {
+                    out.writeByte(BinaryProtocolConstants.NODEID);
+                    writeString(sourceNodeId);
+                }
+                headerWritten = true;
+            }
+            if (batch.getBinaryEncoding() != null) {
+                out.writeByte(BinaryProtocolConstants.BINARY);
+                writeString(batch.getBinaryEncoding().name());
+            }
+            if (StringUtils.isNotBlank(batch.getChannelId())) {
+                out.writeByte(BinaryProtocolConstants.CHANNEL);
+                writeString(batch.getChannelId());
+            }
+            out.writeByte(BinaryProtocolConstants.BATCH);
+            out.writeLong(batch.getBatchId());
+            countBytes(startCount);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    public boolean start(Table table) {
+        if (!batch.isIgnored()) {
+            this.table = table;
+            Column[] columns = table.getColumns();
+            Column[] pkColumns = table.getPrimaryKeyColumns();
+            binaryColumns = getBinaryColumns(columns);
+            binaryPkColumns = getBinaryColumns(pkColumns);
+            try {
+                long startCount = countingStream.getByteCount();
+                out.writeByte(BinaryProtocolConstants.TABLE);
+                writeString(StringUtils.isNotBlank(table.getCatalog()) ? table.getCatalog() : null);
+                writeString(StringUtils.isNotBlank(table.getSchema()) ? table.getSchema() : null);
+                writeString(table.getName());
+                String fullyQualifiedTableName = table.getFullyQualifiedTableName();
+                if (tablesSentInBatch.add(fullyQualifiedTableName)) {
+                    out.writeBoolean(true);
+                    writeVarInt(columns.length);
+                    for (int i = 0; i < columns.length; i++) {
+                        writeString(columns[i].getName());
+                        byte flags = 0;
+                        if (columns[i].isPrimaryKey()) {
+                            flags |= BinaryProtocolConstants.COLUMN_PRIMARY_KEY;
+                        }
+                        if (binaryColumns[i]) {
+                            flags |= BinaryProtocolConstants.COLUMN_BINARY;
+                        }
+                        out.writeByte(flags);
+                        out.writeInt(columns[i].getMappedTypeCode());
+                    }
+                } else {
+                    out.writeBoolean(false);
+                }
+                countBytes(startCount);
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public void write(CsvData data) {
+        if (!batch.isIgnored()) {
+            Statistics stats = statistics.get(batch);
+            try {
+                long startCount = countingStream.getByteCount();
+                if (noBinaryOldData != data.isNoBinaryOldData()) {
+                    noBinaryOldData = data.isNoBinaryOldData();
+                    out.writeByte(BinaryProtocolConstants.NO_BINARY_OLD_DATA);
+                    out.writeBoolean(noBinaryOldData);
+                }
+                stats.increment(DataWriterStatisticConstants.ROWCOUNT);
+                stats.increment(DataWriterStatisticConstants.LINENUMBER);
+                switch (data.getDataEventType()) {
+                    case INSERT:
+                        writeTime(data);
+                        out.writeByte(BinaryProtocolConstants.INSERT);
+                        writeFields(data.getParsedData(CsvData.ROW_DATA), binaryColumns);
+                        stats.increment(DataWriterStatisticConstants.INSERTCOUNT);
+                        stats.incrementTableStats(table.getNameLowerCase(), DataEventType.INSERT.getCode(), 1);
+                        break;
+                    case UPDATE:
+                        writeTime(data);
+                        writeOldData(data);
+                        out.writeByte(BinaryProtocolConstants.UPDATE);
+                        writeFields(data.getParsedData(CsvData.ROW_DATA), binaryColumns);
+                        writeFields(data.getParsedData(CsvData.PK_DATA), binaryPkColumns);
+                        stats.increment(DataWriterStatisticConstants.UPDATECOUNT);
+                        stats.incrementTableStats(table.getNameLowerCase(), DataEventType.UPDATE.getCode(), 1);
+                        break;
+                    case DELETE:
+                        writeTime(data);
+                        writeOldData(data);
+                        out.writeByte(BinaryProtocolConstants.DELETE);
+                        writeFields(data.getParsedData(CsvData.PK_DATA), binaryPkColumns);
+                        stats.increment(DataWriterStatisticConstants.DELETECOUNT);
+                        stats.incrementTableStats(table.getNameLowerCase(), DataEventType.DELETE.getCode(), 1);
+                        break;
+                    case CREATE:
+                        out.writeByte(BinaryProtocolConstants.CREATE);
+                        writeFields(data.getParsedData(CsvData.ROW_DATA), null);
+                        break;
+                    case BSH:
+                        out.writeByte(BinaryProtocolConstants.BSH);
+                        writeFields(data.getParsedData(CsvData.ROW_DATA), null);
+                        break;
+                    case SQL:
+                        out.writeByte(BinaryProtocolConstants.SQL);
+                        writeFields(data.getParsedData(CsvData.ROW_DATA), null);
+                        break;
+                    case RELOAD:
+                    default:
+                        break;
+                }
+                countBytes(startCount);
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+    }
+
+    protected void writeOldData(CsvData data) throws IOException {
+        String[] oldData = data.getParsedData(CsvData.OLD_DATA);
+        if (oldData != null && oldData.length > 0) {
+            out.writeByte(BinaryProtocolConstants.OLD);
+            writeFields(oldData, noBinaryOldData ? null : binaryColumns);
+        }
+    }
+
+    protected void writeTime(CsvData data) throws IOException {
+        Date createTime = (Date) data.getAttribute(CsvData.ATTRIBUTE_CREATE_TIME);
+        if (sendCaptureTime && baseTime == 0 && createTime != null) {
+            baseTime = createTime.getTime();
+            out.writeByte(BinaryProtocolConstants.BASETIME);
+            out.writeLong(baseTime);
+        }
+        if (sendCaptureTime && sendRowCaptureTime && createTime != null) {
+            long thisTime = createTime.getTime() - baseTime;
+            if (thisTime != lastTime) {
+                out.writeByte(BinaryProtocolConstants.TIME);
+                out.writeLong(thisTime);
+                lastTime = thisTime;
+            }
+        }
+    }
+
+    public void end(Table table) {
+    }
+
+    public void end(Batch batch, boolean inError) {
+        try {
+            long startCount = countingStream.getByteCount();
+            if (batch.isIgnored()) {
+                out.writeByte(BinaryProtocolConstants.IGNORE);
+            }
+            if (!inError) {
+                out.writeByte(BinaryProtocolConstants.COMMIT);
+                out.writeLong(batch.getBatchId());
+                countBytes(startCount);
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    protected boolean[] getBinaryColumns(Column[] columns) {
+        boolean[] binary = new boolean[columns.length];
+        BinaryEncoding encoding = batch.getBinaryEncoding();
+        if (encoding == BinaryEncoding.HEX || encoding == BinaryEncoding.BASE64) {
+            for (int i = 0; i < columns.length; i++) {
+                binary[i] = columns[i].isOfBinaryType();
+            }
+        }
+        return binary;
+    }
+
+    /**
+     * Write each value as a typed field. Values of binary columns are decoded and written as bytes so they can be encoded again by the reader,
+     * falling back to text if a value is not in the batch's encoding.
+     */
+    protected void writeFields(String[] values, boolean[] binary) throws IOException {
+        if (values == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(values.length);
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i];
+            if (value == null) {
+                out.writeByte(BinaryProtocolConstants.FIELD_NULL);
+            } else {
+                byte[] bytes = null;
+                if (binary != null && i < binary.length && binary[i]) {
+                    try {
+                        bytes = batch.decodeBinary(value);
+                    } catch (RuntimeException e) {
+                        bytes = null;
+                    }
+                }
+                if (bytes != null) {
+                    out.writeByte(BinaryProtocolConstants.FIELD_BYTES);
+                    writeBytes(bytes);
+                } else {
+                    out.writeByte(BinaryProtocolConstants.FIELD_STRING);
+                    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    protected void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeByte(BinaryProtocolConstants.FIELD_NULL);
+        } else {
+            out.writeByte(BinaryProtocolConstants.FIELD_STRING);
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    protected void writeBytes(byte[] bytes) throws IOException {
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    protected void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    protected void countBytes(long startCount) {
+        statistics.get(batch).increment(DataWriterStatisticConstants.BYTECOUNT, countingStream.getByteCount() - startCount);
+    }
+}
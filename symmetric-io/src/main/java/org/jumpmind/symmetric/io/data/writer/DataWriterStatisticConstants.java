@@ -20,10 +20,17 @@
  */
 package org.jumpmind.symmetric.io.data.writer;
 
+import org.jumpmind.util.Statistics;
+
 abstract public class DataWriterStatisticConstants {
     public static final String BYTECOUNT = "BYTECOUNT";
     public static final String TRANSFORMMILLIS = "TRANSFORMMILLIS";
     public static final String FILTERMILLIS = "FILTERMILLIS";
+    public static final String LOOKUPCACHEHITS = "LOOKUPCACHEHITS";
+    public static final String LOOKUPCACHEMISSES = "LOOKUPCACHEMISSES";
+    public static final String LOOKUPQUERYCOUNT = "LOOKUPQUERYCOUNT";
+    public static final String STATEMENTCACHEHITS = "STATEMENTCACHEHITS";
+    public static final String STATEMENTCACHEMISSES = "STATEMENTCACHEMISSES";
     public static final String LOADMILLIS = "LOADMILLIS";
     public static final String ROWCOUNT = "STATEMENTCOUNT";
     public static final String INSERTCOUNT = "INSERTCOUNT";
@@ -40,6 +47,20 @@ abstract public class DataWriterStatisticConstants {
     public static final String MISSINGDELETECOUNT = "MISSINGDELETECOUNT";
     public static final String IGNORECOUNT = "IGNORECOUNT";
     public static final String IGNOREROWCOUNT = "IGNOREROWCOUNT";
+    public static final String BATCHREPLAYCOUNT = "BATCHREPLAYCOUNT";
     public static final String LINENUMBER = "LINENUMBER";
     public static final String STARTTIME = "STARTTIME";
+    /*
+     * Indexes of the statistics that are updated for every row
+     */
+    public static final int LOADMILLIS_INDEX = Statistics.index(LOADMILLIS);
+    public static final int FILTERMILLIS_INDEX = Statistics.index(FILTERMILLIS);
+    public static final int ROWCOUNT_INDEX = Statistics.index(ROWCOUNT);
+    public static final int LINENUMBER_INDEX = Statistics.index(LINENUMBER);
+    public static final int INSERTCOUNT_INDEX = Statistics.index(INSERTCOUNT);
+    public static final int UPDATECOUNT_INDEX = Statistics.index(UPDATECOUNT);
+    public static final int DELETECOUNT_INDEX = Statistics.index(DELETECOUNT);
+    public static final int IGNOREROWCOUNT_INDEX = Statistics.index(IGNOREROWCOUNT);
+    public static final int STATEMENTCACHEHITS_INDEX = Statistics.index(STATEMENTCACHEHITS);
+    public static final int STATEMENTCACHEMISSES_INDEX = Statistics.index(STATEMENTCACHEMISSES);
 }
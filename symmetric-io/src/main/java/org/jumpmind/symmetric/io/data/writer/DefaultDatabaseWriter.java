@@ -67,6 +67,7 @@ import org.jumpmind.symmetric.io.data.writer.Conflict.DetectConflict;
 import org.jumpmind.symmetric.io.data.writer.Conflict.DetectExpressionKey;
 import org.jumpmind.util.CollectionUtils;
 import org.jumpmind.util.FormatUtils;
+import org.jumpmind.util.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -180,7 +181,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     protected void commit(boolean earlyCommit) {
         if (transaction != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
                 transaction.commit();
                 if (!earlyCommit) {
                     notifyFiltersBatchCommitted();
@@ -188,7 +189,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
                     notifyFiltersEarlyCommit();
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             }
         }
         super.commit(earlyCommit);
@@ -198,7 +199,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     protected void commit(boolean earlyCommit, ISqlTransaction newTransaction) {
         if (transaction != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
                 newTransaction.commit();
                 if (!earlyCommit) {
                     notifyFiltersBatchCommitted();
@@ -206,7 +207,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
                     notifyFiltersEarlyCommit();
                 }
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             }
         }
         super.commit(earlyCommit);
@@ -217,11 +218,11 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     protected void rollback() {
         if (transaction != null) {
             try {
-                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
                 transaction.rollback();
                 notifyFiltersBatchRolledback();
             } finally {
-                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             }
         }
         super.rollback();
@@ -245,11 +246,11 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     protected LoadStatus insert(CsvData data) {
         try {
             if (isRequiresSavePointsInTransaction && conflictResolver != null && conflictResolver.isIgnoreRow(this, data)) {
-                statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
+                statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT_INDEX);
                 currentDmlStatement = null;
                 return LoadStatus.SUCCESS;
             }
-            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             if (requireNewStatement(DmlType.INSERT, data, false, true, null)) {
                 lastUseConflictDetection = true;
                 currentDmlStatement = getPlatform().createDmlStatement(DmlType.INSERT, targetTable, writerSettings.getTextColumnExpression());
@@ -265,7 +266,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
                 String[] values = (String[]) ArrayUtils.addAll(getRowData(data, CsvData.ROW_DATA),
                         currentDmlStatement.getLookupKeyData(getLookupDataMap(data, conflict)));
                 long count = execute(data, values);
-                statistics.get(batch).increment(DataWriterStatisticConstants.INSERTCOUNT, count);
+                statistics.get(batch).increment(DataWriterStatisticConstants.INSERTCOUNT_INDEX, count);
                 statistics.get(batch).incrementTableStats(targetTable.getName(), DataEventType.INSERT.getCode(), count);
                 if (count > 0) {
                     return LoadStatus.SUCCESS;
@@ -291,7 +292,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
             logFailureDetails(ex, data, true);
             throw ex;
         } finally {
-            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
         }
     }
 
@@ -301,7 +302,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
                 getTransaction().execute("savepoint sym");
                 getTransaction().prepare(currentDmlStatement.getSql(false));
                 currentDmlValues = getPlatform().getObjectValues(batch.getBinaryEncoding(), values,
-                        currentDmlStatement.getMetaData(), false, writerSettings.isFitToColumn());
+                        currentDmlStatement.getMetaData(false), false, writerSettings.isFitToColumn());
                 getTransaction().addRow(data, currentDmlValues, currentDmlStatement.getTypes());
             } catch (SqlException e) {
                 getTransaction().execute("rollback to savepoint sym");
@@ -317,11 +318,11 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     protected LoadStatus delete(CsvData data, boolean useConflictDetection) {
         try {
             if (isRequiresSavePointsInTransaction && conflictResolver != null && conflictResolver.isIgnoreRow(this, data)) {
-                statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
+                statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT_INDEX);
                 currentDmlStatement = null;
                 return LoadStatus.SUCCESS;
             }
-            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             Conflict conflict = writerSettings.pickConflict(targetTable, batch);
             Map<String, String> lookupDataMap = null;
             if (requireNewStatement(DmlType.DELETE, data, useConflictDetection, useConflictDetection,
@@ -408,7 +409,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
             try {
                 lookupDataMap = lookupDataMap == null ? getLookupDataMap(data, conflict) : lookupDataMap;
                 long count = execute(data, currentDmlStatement.getLookupKeyData(lookupDataMap));
-                statistics.get(batch).increment(DataWriterStatisticConstants.DELETECOUNT, count);
+                statistics.get(batch).increment(DataWriterStatisticConstants.DELETECOUNT_INDEX, count);
                 statistics.get(batch).incrementTableStats(targetTable.getName(), DataEventType.DELETE.getCode(), count);
                 if (count > 0) {
                     return LoadStatus.SUCCESS;
@@ -433,7 +434,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
             logFailureDetails(ex, data, true);
             throw ex;
         } finally {
-            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
         }
     }
 
@@ -441,11 +442,11 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     protected LoadStatus update(CsvData data, boolean applyChangesOnly, boolean useConflictDetection) {
         try {
             if (isRequiresSavePointsInTransaction && conflictResolver != null && conflictResolver.isIgnoreRow(this, data)) {
-                statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
+                statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT_INDEX);
                 currentDmlStatement = null;
                 return LoadStatus.SUCCESS;
             }
-            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             String[] rowData = getRowData(data, CsvData.ROW_DATA);
             String[] oldData = getRowData(data, CsvData.OLD_DATA);
             ArrayList<String> changedColumnValueList = new ArrayList<>();
@@ -576,7 +577,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
                         currentDmlStatement.getLookupKeyData(lookupDataMap));
                 try {
                     long count = execute(data, values);
-                    statistics.get(batch).increment(DataWriterStatisticConstants.UPDATECOUNT, count);
+                    statistics.get(batch).increment(DataWriterStatisticConstants.UPDATECOUNT_INDEX, count);
                     statistics.get(batch).incrementTableStats(targetTable.getName(), DataEventType.UPDATE.getCode(), count);
                     if (count > 0) {
                         return LoadStatus.SUCCESS;
@@ -609,7 +610,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
             logFailureDetails(ex, data, true);
             throw ex;
         } finally {
-            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
         }
     }
 
@@ -624,7 +625,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
         boolean hasMatchingPlatform = false;
         try {
             getTargetTransaction().commit();
-            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             xml = data.getParsedData(CsvData.ROW_DATA)[0];
             log.info("About to create table using the following definition: {}", xml);
             StringReader reader = new StringReader(xml);
@@ -686,14 +687,14 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
                 throw ex;
             }
         } finally {
-            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
         }
     }
 
     @Override
     protected boolean sql(CsvData data) {
         try {
-            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
             String[] parsedData = data.getParsedData(CsvData.ROW_DATA);
             String script = parsedData[0];
             boolean captureChanges = parsedData.length > 1 && parsedData[1].equals("1");
@@ -802,7 +803,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
                     count);
             return true;
         } finally {
-            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS_INDEX);
         }
     }
 
@@ -1173,11 +1174,26 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     }
 
     protected void prepare() {
-        getTransaction().prepare(currentDmlStatement.getSql());
+        prepareStatement(currentDmlStatement.getSql());
     }
 
     protected void prepare(String sql, CsvData data) {
-        getTransaction().prepare(sql);
+        prepareStatement(sql);
+    }
+
+    protected void prepareStatement(String sql) {
+        ISqlTransaction transaction = getTransaction();
+        long hits = transaction.getStatementCacheHits();
+        long misses = transaction.getStatementCacheMisses();
+        transaction.prepare(sql);
+        Statistics stats = statistics.get(batch);
+        if (stats != null) {
+            if (transaction.getStatementCacheHits() > hits) {
+                stats.increment(DataWriterStatisticConstants.STATEMENTCACHEHITS_INDEX);
+            } else if (transaction.getStatementCacheMisses() > misses) {
+                stats.increment(DataWriterStatisticConstants.STATEMENTCACHEMISSES_INDEX);
+            }
+        }
     }
 
     protected int execute(CsvData data, String[] values) {
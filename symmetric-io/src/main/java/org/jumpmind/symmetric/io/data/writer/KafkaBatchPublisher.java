@@ -0,0 +1,232 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.jumpmind.exception.InterruptedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the records of one batch to Kafka without waiting for each one. Sends block while the estimated size of unacknowledged records is over
+ * the in-flight limit. {@link #confirm()} waits for every record of the batch and fails if any of them failed, so the batch is only acknowledged
+ * once Kafka has all of its records. With a transactional producer, {@link #sendInTransaction(List)} sends the records of a batch in one
+ * transaction instead. Counts and latencies are kept for each topic.
+ */
+public class KafkaBatchPublisher {
+    private static final Logger log = LoggerFactory.getLogger(KafkaBatchPublisher.class);
+    protected Producer<String, Object> producer;
+    protected long maxInFlightBytes;
+    protected long inFlightBytes;
+    protected volatile Exception sendError;
+    protected Map<String, TopicStatistics> topicStatistics = new ConcurrentHashMap<String, TopicStatistics>();
+
+    public KafkaBatchPublisher(Producer<String, Object> producer, long maxInFlightBytes) {
+        this.producer = producer;
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    public void send(ProducerRecord<String, Object> record) {
+        final long size = estimateSize(record);
+        synchronized (this) {
+            if (sendError != null) {
+                throw new RuntimeException("Failed to send records to Kafka", sendError);
+            }
+            while (inFlightBytes > 0 && inFlightBytes + size > maxInFlightBytes) {
+                try {
+                    wait();
+                } catch (java.lang.InterruptedException e) {
+                    throw new InterruptedException(e);
+                }
+            }
+            inFlightBytes += size;
+        }
+        final TopicStatistics stats = getTopicStatistics(record.topic());
+        final long startTime = System.nanoTime();
+        try {
+            producer.send(record, (RecordMetadata metadata, Exception exception) -> {
+                stats.record(exception == null, metadata != null ? Math.max(metadata.serializedValueSize(), 0) : 0,
+                        System.nanoTime() - startTime);
+                if (exception != null && sendError == null) {
+                    sendError = exception;
+                }
+                synchronized (KafkaBatchPublisher.this) {
+                    inFlightBytes -= size;
+                    KafkaBatchPublisher.this.notifyAll();
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                inFlightBytes -= size;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until every record sent so far is acknowledged and throws the first error from them, if any.
+     */
+    public void confirm() {
+        producer.flush();
+        synchronized (this) {
+            while (inFlightBytes > 0) {
+                try {
+                    wait(1000);
+                } catch (java.lang.InterruptedException e) {
+                    throw new InterruptedException(e);
+                }
+            }
+        }
+        Exception error = sendError;
+        if (error != null) {
+            sendError = null;
+            throw new RuntimeException("Failed to send records to Kafka", error);
+        }
+        if (log.isDebugEnabled()) {
+            for (Map.Entry<String, TopicStatistics> entry : topicStatistics.entrySet()) {
+                log.debug("Kafka topic {}: {}", entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Sends the records in one transaction and commits it. The producer may be shared with other writers, so the transaction holds the producer
+     * until it is committed or aborted.
+     */
+    public void sendInTransaction(List<ProducerRecord<String, Object>> records) {
+        synchronized (producer) {
+            producer.beginTransaction();
+            try {
+                for (ProducerRecord<String, Object> record : records) {
+                    send(record);
+                }
+                producer.commitTransaction();
+                confirm();
+            } catch (RuntimeException e) {
+                try {
+                    producer.abortTransaction();
+                } catch (RuntimeException ex) {
+                    log.warn("Failed to abort Kafka transaction: {}", ex.getMessage());
+                }
+                sendError = null;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Waits for the records of a failed batch to finish, so their errors are not reported for the next batch.
+     */
+    public void abort() {
+        try {
+            producer.flush();
+        } catch (RuntimeException e) {
+            log.debug("Failed to flush Kafka producer after batch error: {}", e.getMessage());
+        }
+        sendError = null;
+    }
+
+    public synchronized long getInFlightBytes() {
+        return inFlightBytes;
+    }
+
+    public Map<String, TopicStatistics> getTopicStatistics() {
+        return topicStatistics;
+    }
+
+    protected TopicStatistics getTopicStatistics(String topic) {
+        return topicStatistics.computeIfAbsent(topic, t -> new TopicStatistics());
+    }
+
+    protected long estimateSize(ProducerRecord<String, Object> record) {
+        long size = record.key() != null ? record.key().length() : 0;
+        Object value = record.value();
+        if (value instanceof byte[]) {
+            size += ((byte[]) value).length;
+        } else if (value instanceof CharSequence) {
+            size += ((CharSequence) value).length();
+        } else if (value != null) {
+            size += 1024;
+        }
+        return size;
+    }
+
+    public static class TopicStatistics {
+        protected AtomicLong sentCount = new AtomicLong();
+        protected AtomicLong failedCount = new AtomicLong();
+        protected AtomicLong sentBytes = new AtomicLong();
+        protected AtomicLong totalLatencyNanos = new AtomicLong();
+        protected AtomicLong maxLatencyNanos = new AtomicLong();
+        protected long startTime = System.nanoTime();
+
+        protected void record(boolean success, long bytes, long latencyNanos) {
+            if (success) {
+                sentCount.incrementAndGet();
+                sentBytes.addAndGet(bytes);
+            } else {
+                failedCount.incrementAndGet();
+            }
+            totalLatencyNanos.addAndGet(latencyNanos);
+            maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        }
+
+        public long getSentCount() {
+            return sentCount.get();
+        }
+
+        public long getFailedCount() {
+            return failedCount.get();
+        }
+
+        public long getSentBytes() {
+            return sentBytes.get();
+        }
+
+        public double getAverageLatencyMillis() {
+            long count = sentCount.get() + failedCount.get();
+            return count > 0 ? (double) totalLatencyNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+        }
+
+        public double getMaxLatencyMillis() {
+            return (double) maxLatencyNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double getRecordsPerSecond() {
+            long elapsed = System.nanoTime() - startTime;
+            return elapsed > 0 ? sentCount.get() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sent=%d, failed=%d, bytes=%d, records/sec=%.1f, avgLatencyMs=%.2f, maxLatencyMs=%.2f", getSentCount(),
+                    getFailedCount(), getSentBytes(), getRecordsPerSecond(), getAverageLatencyMillis(), getMaxLatencyMillis());
+        }
+    }
+}
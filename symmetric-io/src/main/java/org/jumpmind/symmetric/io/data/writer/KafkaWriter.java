@@ -37,6 +37,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.Encoder;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.commons.beanutils.BeanUtils;
@@ -45,6 +46,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -78,6 +80,7 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
     private static final Logger log = LoggerFactory.getLogger(KafkaWriter.class);
     private static final String TRUNCATE_PATTERN = "^(truncate)( table)?.*";
     private static final String DELETE_PATTERN = "^(delete from).*";
+    private static final Gson gson = new Gson();
     protected final String KAFKA_TEXT_CACHE = "KAFKA_TEXT_CACHE" + this.hashCode();
     protected Map<String, List<ProducerRecord<String, Object>>> kafkaDataMap = new HashMap<String, List<ProducerRecord<String, Object>>>();
     protected String kafkaDataKey;
@@ -113,14 +116,24 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
     public final static String KAFKA_SECURITY_PROTOCOL_SASL_PLAINTEXT = "SASL_PLAINTEXT";
     public final static String KAFKA_SECURITY_PROTOCOL_SASL_SSL = "SASL_SSL";
     public final static String KAFKA_SECURITY_PROTOCOL_SSL = "SSL";
+    public final static String KAFKA_ASYNC_SEND = "kafka.async.send";
+    public final static String KAFKA_MAX_IN_FLIGHT_BYTES = "kafka.max.in.flight.bytes";
+    public final static long DEFAULT_MAX_IN_FLIGHT_BYTES = 32 * 1024 * 1024;
     Schema.Parser parser = new Schema.Parser();
     Schema schema = null;
+    Schema columnSchema = null;
+    GenericDatumWriter<GenericRecord> datumWriter;
+    BinaryEncoder encoder;
     Map<String, Object> configs = new HashMap<String, Object>();
     Map<String, Class<?>> tableClassCache = new HashMap<String, Class<?>>();
     Map<String, String> tableNameCache = new HashMap<String, String>();
     Map<String, Map<String, String>> tableColumnCache = new HashMap<String, Map<String, String>>();
-    public KafkaProducer<String, Object> kafkaProducer;
-    protected static Map<String, KafkaProducer<String, Object>> producerMap = new HashMap<String, KafkaProducer<String, Object>>();
+    public Producer<String, Object> kafkaProducer;
+    protected static Map<String, Producer<String, Object>> producerMap = new HashMap<String, Producer<String, Object>>();
+    protected boolean asyncSend;
+    protected boolean transactional;
+    protected KafkaBatchPublisher publisher;
+    protected List<ProducerRecord<String, Object>> transactionRecords = new ArrayList<ProducerRecord<String, Object>>();
 
     public KafkaWriter(IDatabasePlatform symmetricPlatform, IDatabasePlatform targetPlatform, String prefix,
             IDatabaseWriterConflictResolver conflictResolver, DatabaseWriterSettings settings, String producer, String outputFormat,
@@ -128,6 +141,8 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             String loadOnlyPrefix, TypedProperties props, String runtimeConfigTablePrefix, String channelReload) {
         super(symmetricPlatform, targetPlatform, prefix, conflictResolver, settings);
         schema = parser.parse(AVRO_CDC_SCHEMA);
+        columnSchema = schema.getField("data").schema().getElementType();
+        datumWriter = new GenericDatumWriter<GenericRecord>(schema);
         this.url = url;
         this.producer = producer;
         this.outputFormat = outputFormat;
@@ -144,10 +159,13 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                     "Kakfa not configured properly, verify you have set the endpoint to kafka with the following property : " + loadOnlyPrefix
                             + "db.url");
         }
+        this.asyncSend = props.is(KAFKA_ASYNC_SEND, false);
+        this.transactional = StringUtils.isNotBlank(props.get("kafkaclient." + ProducerConfig.TRANSACTIONAL_ID_CONFIG));
         String clientID = this.producer + "-" + this.externalNodeID;
-        if (producerMap.get(clientID) != null) {
+        synchronized (producerMap) {
             kafkaProducer = producerMap.get(clientID);
-        } else {
+        }
+        if (kafkaProducer == null) {
             configs.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, this.url);
             configs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
             configs.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
@@ -158,15 +176,27 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG, confluentUrl);
                 configs.put(ProducerConfig.CLIENT_ID_CONFIG, clientID);
             }
+            if (asyncSend) {
+                configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            }
             for (Object key : this.props.keySet()) {
                 if (key.toString().startsWith("kafkaclient.")) {
                     configs.put(key.toString().substring(12), this.props.get(key));
                 }
             }
-            kafkaProducer = new KafkaProducer<String, Object>(configs);
-            producerMap.put(clientID, kafkaProducer);
+            synchronized (producerMap) {
+                kafkaProducer = producerMap.get(clientID);
+                if (kafkaProducer == null) {
+                    kafkaProducer = new KafkaProducer<String, Object>(configs);
+                    if (transactional) {
+                        kafkaProducer.initTransactions();
+                    }
+                    producerMap.put(clientID, kafkaProducer);
+                }
+            }
             log.debug("Kafka client config: {}", configs);
         }
+        publisher = new KafkaBatchPublisher(kafkaProducer, props.getLong(KAFKA_MAX_IN_FLIGHT_BYTES, DEFAULT_MAX_IN_FLIGHT_BYTES));
     }
 
     @Override
@@ -227,7 +257,6 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             kafkaText.append("{\"").append(table.getName()).append("\": {").append("\"eventType\": \"" + data.getDataEventType() + "\",")
                     .append("\"data\": { ");
             // Let Gson escape the json values
-            Gson gson = new Gson();
             for (int i = 0; i < table.getColumnNames().length; i++) {
                 kafkaText.append("\"").append(table.getColumnNames()[i]).append("\": ");
                 kafkaText.append(gson.toJson(rowData[i]));
@@ -309,21 +338,21 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 avroRecord.put("eventType", data.getDataEventType().toString());
                 Collection<GenericRecord> dataCollection = new ArrayList<GenericRecord>();
                 for (int i = 0; i < table.getColumnNames().length; i++) {
-                    GenericRecord columnRecord = new GenericData.Record(schema.getField("data").schema().getElementType());
+                    GenericRecord columnRecord = new GenericData.Record(columnSchema);
                     columnRecord.put("name", table.getColumnNames()[i]);
                     columnRecord.put("value", rowData[i]);
                     dataCollection.add(columnRecord);
                 }
                 avroRecord.put("data", dataCollection);
                 try {
-                    kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, datumToByteArray(schema, avroRecord)));
+                    addRecord(kafkaDataList, new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, toByteArray(avroRecord)));
                     return 1;
                 } catch (IOException ioe) {
                     throw new RuntimeException("Unable to convert row data to an Avro record", ioe);
                 }
             }
         }
-        kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
+        addRecord(kafkaDataList, new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
         return 1;
     }
 
@@ -455,12 +484,44 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
         if (!inError) {
             notifyFiltersBatchComplete();
             batchComplete(context);
+            confirmDelivery();
             commit(false);
         } else {
+            kafkaDataMap = new HashMap<String, List<ProducerRecord<String, Object>>>();
+            transactionRecords.clear();
+            publisher.abort();
             rollback();
         }
     }
 
+    /**
+     * Waits until Kafka has every record of the batch, so the batch is not acknowledged before its records are delivered. With a
+     * transactional producer, the records of the batch are sent and committed in one transaction.
+     */
+    protected void confirmDelivery() {
+        if (transactional) {
+            try {
+                publisher.sendInTransaction(transactionRecords);
+            } finally {
+                transactionRecords.clear();
+            }
+        } else if (asyncSend) {
+            publisher.confirm();
+        }
+    }
+
+    protected void addRecord(List<ProducerRecord<String, Object>> kafkaDataList, ProducerRecord<String, Object> record) {
+        if (asyncSend && messageBy.equals(KAFKA_MESSAGE_BY_ROW) && confluentUrl == null) {
+            sendKafkaMessage(record);
+        } else {
+            kafkaDataList.add(record);
+        }
+    }
+
+    public KafkaBatchPublisher getPublisher() {
+        return publisher;
+    }
+
     public String getTableName(String dbTableName) {
         String name = tableNameCache.get(dbTableName);
         if (name == null) {
@@ -538,11 +599,11 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
     }
 
     public String getColumnName(String dbTableName, String dbColumnName, Object bean) {
-        if (tableColumnCache.containsKey(dbColumnName) && tableColumnCache.get(dbTableName).containsKey(dbColumnName)) {
+        if (tableColumnCache.containsKey(dbTableName) && tableColumnCache.get(dbTableName).containsKey(dbColumnName)) {
             return tableColumnCache.get(dbTableName).get(dbColumnName);
         } else {
             String columnName = null;
-            if (!tableColumnCache.containsKey(dbColumnName)) {
+            if (!tableColumnCache.containsKey(dbTableName)) {
                 tableColumnCache.put(dbTableName, new HashMap<String, String>());
             }
             String dbColumnNameSimple = dbColumnName.toLowerCase().replaceAll("[^a-z0-9]", "");
@@ -563,7 +624,21 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
 
     public void sendKafkaMessage(ProducerRecord<String, Object> record) {
         log.debug("Sending message (topic={}) (key={}) {}", record.topic(), record.key(), record.value());
-        kafkaProducer.send(record);
+        if (transactional) {
+            transactionRecords.add(record);
+        } else if (asyncSend) {
+            publisher.send(record);
+        } else {
+            kafkaProducer.send(record);
+        }
+    }
+
+    protected byte[] toByteArray(GenericRecord datum) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        encoder = EncoderFactory.get().binaryEncoder(os, encoder);
+        datumWriter.write(datum, encoder);
+        encoder.flush();
+        return os.toByteArray();
     }
 
     public static byte[] datumToByteArray(Schema schema, GenericRecord datum) throws IOException {
@@ -609,8 +684,6 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 // e.printStackTrace();
             } finally {
                 context.put(KAFKA_TEXT_CACHE, new HashMap<String, List<String>>());
-                tableNameCache.clear();
-                tableColumnCache = new HashMap<String, Map<String, String>>();
             }
         }
     }
@@ -654,7 +727,6 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             kafkaText.append("{\"").append(table.getName()).append("\": {").append("\"eventType\": \"" + data.getDataEventType() + "\",")
                     .append("\"data\": { ");
             // Let Gson escape the json values
-            Gson gson = new Gson();
             if (oldData != null) {
                 for (int i = 0; i < table.getColumnCount(); i++) {
                     kafkaText.append("\"").append(table.getColumnNames()[i]).append("\": ");
@@ -787,21 +859,21 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 avroRecord.put("eventType", data.getDataEventType().toString());
                 Collection<GenericRecord> dataCollection = new ArrayList<GenericRecord>();
                 for (int i = 0; i < table.getColumnNames().length; i++) {
-                    GenericRecord columnRecord = new GenericData.Record(schema.getField("data").schema().getElementType());
+                    GenericRecord columnRecord = new GenericData.Record(columnSchema);
                     columnRecord.put("name", table.getColumnNames()[i]);
                     columnRecord.put("value", rowData[i]);
                     dataCollection.add(columnRecord);
                 }
                 avroRecord.put("data", dataCollection);
                 try {
-                    kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, datumToByteArray(schema, avroRecord)));
+                    addRecord(kafkaDataList, new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, toByteArray(avroRecord)));
                     return 1;
                 } catch (IOException ioe) {
                     throw new RuntimeException("Unable to convert row data to an Avro record", ioe);
                 }
             }
         }
-        kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
+        addRecord(kafkaDataList, new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
         return 1;
     }
 }
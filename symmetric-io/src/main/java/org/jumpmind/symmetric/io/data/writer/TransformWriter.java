@@ -35,7 +35,9 @@ import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.DataContext;
 import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.reader.ExtractDataReader;
 import org.jumpmind.symmetric.io.data.transform.IColumnTransform;
+import org.jumpmind.symmetric.io.data.transform.IPrefetchColumnTransform;
 import org.jumpmind.symmetric.io.data.transform.IgnoreColumnException;
 import org.jumpmind.symmetric.io.data.transform.IgnoreRowException;
 import org.jumpmind.symmetric.io.data.transform.NewAndOldValue;
@@ -61,6 +63,8 @@ public class TransformWriter extends NestedDataWriter {
     protected Batch batch;
     protected Map<String, IColumnTransform<?>> columnTransforms;
     protected Table lastTransformedTable;
+    protected int prefetchSize;
+    protected List<PrefetchRow> prefetchRows = new ArrayList<PrefetchRow>();
 
     public TransformWriter(IDatabasePlatform platform, TransformPoint transformPoint,
             IDataWriter targetWriter, Map<String, IColumnTransform<?>> columnTransforms,
@@ -107,13 +111,28 @@ public class TransformWriter extends NestedDataWriter {
                         this.sourceTable.getPrimaryKeyColumnNames(),
                         this.sourceTable.getColumnNames()));
             }
+            prefetchSize = getPrefetchSize(activeTransforms);
             return true;
         } else {
             this.sourceTable = null;
+            prefetchSize = 0;
             return super.start(table);
         }
     }
 
+    protected int getPrefetchSize(List<TransformTable> transformTables) {
+        int size = 0;
+        for (TransformTable transformation : transformTables) {
+            for (TransformColumn transformColumn : transformation.getTransformColumns()) {
+                IColumnTransform<?> transform = columnTransforms != null ? columnTransforms.get(transformColumn.getTransformType()) : null;
+                if (transform instanceof IPrefetchColumnTransform) {
+                    size = Math.max(size, ((IPrefetchColumnTransform<?>) transform).getPrefetchSize(transformColumn));
+                }
+            }
+        }
+        return size;
+    }
+
     protected boolean isTransformable(DataEventType eventType) {
         return eventType != null
                 && (eventType == DataEventType.INSERT || eventType == DataEventType.UPDATE || eventType == DataEventType.DELETE
@@ -127,9 +146,11 @@ public class TransformWriter extends NestedDataWriter {
                     context.getLastParsedTable() != null) {
                 // if we cross batches and the table isn't specified, then
                 // use the last table we used
+                flushPrefetchRows();
                 start(context.getLastParsedTable());
             }
             if (eventType == DataEventType.SQL) {
+                flushPrefetchRows();
                 List<TransformTable> transformTables = activeTransforms;
                 for (TransformTable transformation : transformTables) {
                     Table transformedTable = new Table(transformation.getTargetCatalogName(),
@@ -155,31 +176,17 @@ public class TransformWriter extends NestedDataWriter {
                     sourceValues = sourceKeyValues;
                 }
             }
-            if (log.isDebugEnabled()) {
-                log.debug(
-                        "{} transformation(s) started because of {} on {}.  The original row data was: {}",
-                        new Object[] { activeTransforms.size(), eventType.toString(),
-                                this.sourceTable.getFullyQualifiedTableName(), sourceValues });
-            }
-            List<TransformTable> transformTables = activeTransforms;
-            if (eventType == DataEventType.DELETE) {
-                transformTables = new ArrayList<TransformTable>(activeTransforms);
-                Collections.reverse(transformTables);
-            }
-            for (TransformTable transformation : transformTables) {
-                DataEventType localEventType = eventType;
-                if (localEventType == DataEventType.INSERT && transformation.isUpdateFirst()) {
-                    localEventType = DataEventType.UPDATE;
-                }
-                List<TransformedData> dataThatHasBeenTransformed = transform(localEventType, context, transformation, sourceKeyValues, oldSourceValues,
-                        sourceValues);
-                for (TransformedData transformedData : dataThatHasBeenTransformed) {
-                    Table transformedTable = transformedData.buildTargetTable();
-                    CsvData csvData = transformedData.buildTargetCsvData(data.getAttributes());
-                    callWriter(transformedTable, csvData);
+            if (prefetchSize > 0) {
+                prefetchRows.add(new PrefetchRow(data, context.get(ExtractDataReader.DATA_CONTEXT_CURRENT_CSV_DATA),
+                        sourceKeyValues, oldSourceValues, sourceValues));
+                if (prefetchRows.size() >= prefetchSize) {
+                    flushPrefetchRows();
                 }
+            } else {
+                write(data, sourceKeyValues, oldSourceValues, sourceValues);
             }
         } else {
+            flushPrefetchRows();
             if (sourceTable != null) {
                 super.start(sourceTable);
             }
@@ -190,6 +197,72 @@ public class TransformWriter extends NestedDataWriter {
         }
     }
 
+    protected void write(CsvData data, Map<String, String> sourceKeyValues, Map<String, String> oldSourceValues,
+            Map<String, String> sourceValues) {
+        DataEventType eventType = data.getDataEventType();
+        if (log.isDebugEnabled()) {
+            log.debug(
+                    "{} transformation(s) started because of {} on {}.  The original row data was: {}",
+                    new Object[] { activeTransforms.size(), eventType.toString(),
+                            this.sourceTable.getFullyQualifiedTableName(), sourceValues });
+        }
+        List<TransformTable> transformTables = activeTransforms;
+        if (eventType == DataEventType.DELETE) {
+            transformTables = new ArrayList<TransformTable>(activeTransforms);
+            Collections.reverse(transformTables);
+        }
+        for (TransformTable transformation : transformTables) {
+            DataEventType localEventType = eventType;
+            if (localEventType == DataEventType.INSERT && transformation.isUpdateFirst()) {
+                localEventType = DataEventType.UPDATE;
+            }
+            List<TransformedData> dataThatHasBeenTransformed = transform(localEventType, context, transformation, sourceKeyValues, oldSourceValues,
+                    sourceValues);
+            for (TransformedData transformedData : dataThatHasBeenTransformed) {
+                Table transformedTable = transformedData.buildTargetTable();
+                CsvData csvData = transformedData.buildTargetCsvData(data.getAttributes());
+                callWriter(transformedTable, csvData);
+            }
+        }
+    }
+
+    /**
+     * Lets the prefetching column transforms fetch what they need for the rows that were held back, then transforms and writes those rows in
+     * the order they were received.
+     */
+    protected void flushPrefetchRows() {
+        if (prefetchRows.size() > 0) {
+            List<PrefetchRow> rows = prefetchRows;
+            prefetchRows = new ArrayList<PrefetchRow>(rows.size());
+            long ts = System.currentTimeMillis();
+            List<Map<String, String>> sourceValuesList = new ArrayList<Map<String, String>>(rows.size());
+            for (PrefetchRow row : rows) {
+                if (row.sourceValues != null) {
+                    sourceValuesList.add(row.sourceValues);
+                }
+            }
+            for (TransformTable transformation : activeTransforms) {
+                for (TransformColumn transformColumn : transformation.getTransformColumns()) {
+                    IColumnTransform<?> transform = columnTransforms != null ? columnTransforms.get(transformColumn.getTransformType()) : null;
+                    if (transform instanceof IPrefetchColumnTransform
+                            && ((IPrefetchColumnTransform<?>) transform).getPrefetchSize(transformColumn) > 0) {
+                        ((IPrefetchColumnTransform<?>) transform).prefetch(platform, context, transformColumn, sourceValuesList);
+                    }
+                }
+            }
+            Statistics stats = this.nestedWriter.getStatistics().get(batch);
+            if (stats != null) {
+                stats.increment(DataWriterStatisticConstants.TRANSFORMMILLIS, System.currentTimeMillis() - ts);
+            }
+            for (PrefetchRow row : rows) {
+                if (row.contextData != null) {
+                    context.put(ExtractDataReader.DATA_CONTEXT_CURRENT_CSV_DATA, row.contextData);
+                }
+                write(row.data, row.sourceKeyValues, row.oldSourceValues, row.sourceValues);
+            }
+        }
+    }
+
     protected void callWriter(Table transformedTable, CsvData csvData) {
         boolean processData = true;
         if (lastTransformedTable == null || transformedTable == null || !lastTransformedTable.equalsByName(transformedTable)) {
@@ -459,6 +532,7 @@ public class TransformWriter extends NestedDataWriter {
     }
 
     public void end(Table table) {
+        flushPrefetchRows();
         if (this.lastTransformedTable != null) {
             this.nestedWriter.end(lastTransformedTable);
             this.lastTransformedTable = null;
@@ -469,4 +543,21 @@ public class TransformWriter extends NestedDataWriter {
             super.end(table);
         }
     }
+
+    static class PrefetchRow {
+        CsvData data;
+        Object contextData;
+        Map<String, String> sourceKeyValues;
+        Map<String, String> oldSourceValues;
+        Map<String, String> sourceValues;
+
+        PrefetchRow(CsvData data, Object contextData, Map<String, String> sourceKeyValues, Map<String, String> oldSourceValues,
+                Map<String, String> sourceValues) {
+            this.data = data;
+            this.contextData = contextData;
+            this.sourceKeyValues = sourceKeyValues;
+            this.oldSourceValues = oldSourceValues;
+            this.sourceValues = sourceValues;
+        }
+    }
 }
@@ -0,0 +1,232 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base64;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.IDataReader;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.ProtocolException;
+import org.jumpmind.symmetric.io.data.writer.BinaryProtocolDataWriter;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.symmetric.io.data.writer.ProtocolDataWriter;
+import org.junit.jupiter.api.Test;
+
+public class BinaryProtocolDataReaderTest {
+    @Test
+    public void testRoundTripMatchesCsvProtocol() throws Exception {
+        Table table = createTable();
+        List<CsvData> rows = createRows(20, 100);
+        rows.add(new CsvData(DataEventType.UPDATE, new String[] { "1" }, new String[] { "1", "x,\"quoted\"\nline", null,
+                encode("updated") }));
+        CsvData delete = new CsvData(DataEventType.DELETE);
+        delete.putParsedData(CsvData.PK_DATA, new String[] { "2" });
+        delete.putParsedData(CsvData.OLD_DATA, new String[] { "2", "old", "", encode("old") });
+        rows.add(delete);
+        rows.add(new CsvData(DataEventType.SQL, new String[] { "delete from test_binary", "0" }));
+        List<CsvData> csvRows = read(new ProtocolDataReader(BatchType.LOAD, "00001", writeCsv(table, rows)));
+        List<CsvData> binaryRows = read(new BinaryProtocolDataReader(BatchType.LOAD, "00001",
+                new ByteArrayInputStream(writeBinary(table, rows))));
+        assertEquals(rows.size(), csvRows.size());
+        assertEquals(csvRows.size(), binaryRows.size());
+        for (int i = 0; i < csvRows.size(); i++) {
+            CsvData expected = csvRows.get(i);
+            CsvData actual = binaryRows.get(i);
+            assertEquals(expected.getDataEventType(), actual.getDataEventType());
+            assertArrayEquals(expected.getParsedData(CsvData.ROW_DATA), actual.getParsedData(CsvData.ROW_DATA));
+            assertArrayEquals(expected.getParsedData(CsvData.PK_DATA), actual.getParsedData(CsvData.PK_DATA));
+            assertArrayEquals(expected.getParsedData(CsvData.OLD_DATA), actual.getParsedData(CsvData.OLD_DATA));
+            assertEquals(expected.getAttribute(CsvData.ATTRIBUTE_TABLE_NAME), actual.getAttribute(CsvData.ATTRIBUTE_TABLE_NAME));
+            assertEquals(expected.getAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID), actual.getAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID));
+        }
+    }
+
+    @Test
+    public void testTableMetadataAndBatches() throws Exception {
+        Table table = createTable();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        BinaryProtocolDataWriter writer = new BinaryProtocolDataWriter("00000", os, false, false);
+        writer.open(new DataContext());
+        for (long batchId = 1; batchId <= 2; batchId++) {
+            Batch batch = new Batch(BatchType.EXTRACT, batchId, "testchannel", BinaryEncoding.BASE64, "00000", "00001", false);
+            writer.start(batch);
+            for (int i = 0; i < 2; i++) {
+                writer.start(table);
+                writer.write(new CsvData(DataEventType.INSERT, new String[] { String.valueOf(i), "a", null, encode("b") }));
+                writer.end(table);
+            }
+            writer.end(batch, false);
+            assertTrue(writer.getStatistics().get(batch).get(DataWriterStatisticConstants.BYTECOUNT) > 0);
+        }
+        BufferedInputStream is = new BufferedInputStream(new ByteArrayInputStream(os.toByteArray()));
+        assertTrue(BinaryProtocolDataReader.isBinaryProtocol(is));
+        BinaryProtocolDataReader reader = new BinaryProtocolDataReader(BatchType.LOAD, "00001", is);
+        DataContext ctx = new DataContext(reader);
+        reader.open(ctx);
+        for (long batchId = 1; batchId <= 2; batchId++) {
+            Batch batch = reader.nextBatch();
+            assertNotNull(batch);
+            assertEquals(batchId, batch.getBatchId());
+            assertEquals("testchannel", batch.getChannelId());
+            assertEquals("00000", batch.getSourceNodeId());
+            assertEquals(BinaryEncoding.BASE64, batch.getBinaryEncoding());
+            for (int i = 0; i < 2; i++) {
+                Table readTable = reader.nextTable();
+                assertNotNull(readTable);
+                assertEquals("test_binary", readTable.getName());
+                assertEquals(4, readTable.getColumnCount());
+                assertEquals(1, readTable.getPrimaryKeyColumnCount());
+                assertEquals(Types.BLOB, readTable.getColumn(3).getMappedTypeCode());
+                CsvData data = reader.nextData();
+                assertNotNull(data);
+                assertEquals(String.valueOf(i), data.getParsedData(CsvData.ROW_DATA)[0]);
+                assertNull(data.getParsedData(CsvData.ROW_DATA)[2]);
+                assertNull(reader.nextData());
+            }
+            assertNull(reader.nextTable());
+            assertTrue(batch.isComplete());
+        }
+        assertNull(reader.nextBatch());
+        reader.close();
+        assertFalse(BinaryProtocolDataReader.isBinaryProtocol(new BufferedInputStream(new ByteArrayInputStream(
+                "nodeid,00000".getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    @Test
+    public void testBytesOnlyForBinaryColumns() throws Exception {
+        Table table = createTable();
+        List<CsvData> rows = new ArrayList<CsvData>();
+        rows.add(new CsvData(DataEventType.INSERT, new String[] { "1", encode("text"), null, encode("blob") }));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(new BinaryProtocolDataWriter("00000", out, false, false) {
+            @Override
+            protected void writeFields(String[] values, boolean[] binary) throws IOException {
+                boolean[] allBinary = new boolean[values == null ? 0 : values.length];
+                Arrays.fill(allBinary, true);
+                super.writeFields(values, binary == null ? null : allBinary);
+            }
+        }, table, rows);
+        try {
+            read(new BinaryProtocolDataReader(BatchType.LOAD, "00001", new ByteArrayInputStream(out.toByteArray())));
+            fail("Expected bytes for a text column to be rejected");
+        } catch (ProtocolException e) {
+        }
+        List<CsvData> binaryRows = read(new BinaryProtocolDataReader(BatchType.LOAD, "00001",
+                new ByteArrayInputStream(writeBinary(table, rows))));
+        assertArrayEquals(rows.get(0).getParsedData(CsvData.ROW_DATA), binaryRows.get(0).getParsedData(CsvData.ROW_DATA));
+    }
+
+    protected Table createTable() {
+        Table table = new Table("test_binary");
+        table.addColumn(new Column("id", true, Types.INTEGER, 10, 0));
+        table.addColumn(new Column("text_value", false, Types.VARCHAR, 100, 0));
+        table.addColumn(new Column("nullable_value", false, Types.VARCHAR, 100, 0));
+        table.addColumn(new Column("blob_value", false, Types.BLOB, 0, 0));
+        return table;
+    }
+
+    protected List<CsvData> createRows(int count, int blobSize) {
+        Random random = new Random(0);
+        List<CsvData> rows = new ArrayList<CsvData>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] blob = new byte[blobSize];
+            random.nextBytes(blob);
+            rows.add(new CsvData(DataEventType.INSERT, new String[] { String.valueOf(i), "row \"" + i + "\", text",
+                    i % 2 == 0 ? null : "", Base64.encodeBase64String(blob) }));
+        }
+        return rows;
+    }
+
+    protected String encode(String value) {
+        return Base64.encodeBase64String(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected String writeCsv(Table table, List<CsvData> rows) {
+        StringWriter out = new StringWriter();
+        write(new ProtocolDataWriter("00000", out, false, false, false), table, rows);
+        return out.toString();
+    }
+
+    protected byte[] writeBinary(Table table, List<CsvData> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(new BinaryProtocolDataWriter("00000", out, false, false), table, rows);
+        return out.toByteArray();
+    }
+
+    protected void write(IDataWriter writer, Table table, List<CsvData> rows) {
+        Batch batch = new Batch(BatchType.EXTRACT, 1, "default", BinaryEncoding.BASE64, "00000", "00001", false);
+        writer.open(new DataContext(batch));
+        writer.start(batch);
+        writer.start(table);
+        for (CsvData row : rows) {
+            CsvData copy = new CsvData(row.getDataEventType());
+            copy.putParsedData(CsvData.ROW_DATA, row.getParsedData(CsvData.ROW_DATA));
+            copy.putParsedData(CsvData.PK_DATA, row.getParsedData(CsvData.PK_DATA));
+            copy.putParsedData(CsvData.OLD_DATA, row.getParsedData(CsvData.OLD_DATA));
+            writer.write(copy);
+        }
+        writer.end(table);
+        writer.end(batch, false);
+        writer.close();
+    }
+
+    protected List<CsvData> read(IDataReader reader) {
+        List<CsvData> rows = new ArrayList<CsvData>();
+        reader.open(new DataContext(reader));
+        while (reader.nextBatch() != null) {
+            while (reader.nextTable() != null) {
+                CsvData data = null;
+                while ((data = reader.nextData()) != null) {
+                    rows.add(data);
+                }
+            }
+        }
+        reader.close();
+        return rows;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+public class KafkaBatchPublisherTest {
+    @Test
+    public void testSendAndConfirm() {
+        MockProducer<String, Object> producer = createProducer(true);
+        KafkaBatchPublisher publisher = new KafkaBatchPublisher(producer, 1024);
+        for (int i = 0; i < 3; i++) {
+            publisher.send(new ProducerRecord<String, Object>("orders", "key" + i, "value" + i));
+        }
+        publisher.confirm();
+        Assert.assertEquals(3, producer.history().size());
+        Assert.assertEquals(0, publisher.getInFlightBytes());
+        Assert.assertEquals(3, publisher.getTopicStatistics().get("orders").getSentCount());
+        Assert.assertEquals(0, publisher.getTopicStatistics().get("orders").getFailedCount());
+    }
+
+    @Test
+    public void testFailedSendFailsConfirm() {
+        MockProducer<String, Object> producer = createProducer(false);
+        KafkaBatchPublisher publisher = new KafkaBatchPublisher(producer, 1024);
+        publisher.send(new ProducerRecord<String, Object>("orders", "key1", "value1"));
+        publisher.send(new ProducerRecord<String, Object>("orders", "key2", "value2"));
+        producer.errorNext(new RuntimeException("broker unavailable"));
+        try {
+            publisher.confirm();
+            Assert.fail("Expected the failed send to fail the batch");
+        } catch (RuntimeException e) {
+            Assert.assertEquals("broker unavailable", e.getCause().getMessage());
+        }
+        Assert.assertEquals(0, publisher.getInFlightBytes());
+        Assert.assertEquals(1, publisher.getTopicStatistics().get("orders").getSentCount());
+        Assert.assertEquals(1, publisher.getTopicStatistics().get("orders").getFailedCount());
+        publisher.send(new ProducerRecord<String, Object>("orders", "key3", "value3"));
+        publisher.confirm();
+        Assert.assertEquals(2, publisher.getTopicStatistics().get("orders").getSentCount());
+    }
+
+    @Test
+    public void testSendInTransaction() {
+        MockProducer<String, Object> producer = createProducer(true);
+        producer.initTransactions();
+        KafkaBatchPublisher publisher = new KafkaBatchPublisher(producer, 1024);
+        List<ProducerRecord<String, Object>> records = new ArrayList<ProducerRecord<String, Object>>();
+        records.add(new ProducerRecord<String, Object>("orders", "key1", "value1"));
+        records.add(new ProducerRecord<String, Object>("customers", "key2", "value2"));
+        publisher.sendInTransaction(records);
+        Assert.assertTrue(producer.transactionCommitted());
+        Assert.assertFalse(producer.transactionInFlight());
+        Assert.assertEquals(2, producer.history().size());
+        Assert.assertEquals(1, publisher.getTopicStatistics().get("orders").getSentCount());
+        Assert.assertEquals(1, publisher.getTopicStatistics().get("customers").getSentCount());
+    }
+
+    protected MockProducer<String, Object> createProducer(boolean autoComplete) {
+        return new MockProducer<String, Object>(autoComplete, new StringSerializer(),
+                (topic, data) -> data == null ? null : data.toString().getBytes());
+    }
+}
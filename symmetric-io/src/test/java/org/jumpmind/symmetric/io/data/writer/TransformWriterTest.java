@@ -20,6 +20,8 @@
  */
 package org.jumpmind.symmetric.io.data.writer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +29,7 @@ import java.util.Map;
 import org.jumpmind.db.DbTestUtils;
 import org.jumpmind.db.model.Column;
 import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.symmetric.io.AbstractWriterTest;
 import org.jumpmind.symmetric.io.data.*;
 import org.jumpmind.symmetric.io.data.transform.*;
@@ -118,6 +121,28 @@ public class TransformWriterTest extends AbstractWriterTest {
         Assert.assertEquals("1", pkData[0]);
     }
 
+    @Test
+    public void testPrefetchColumnTransform() throws Exception {
+        mockWriter.reset();
+        PrefetchColumnTransform prefetchTransform = new PrefetchColumnTransform(2);
+        Map<String, IColumnTransform<?>> columnTransforms = buildDefaultColumnTransforms();
+        addColumnTransform(PrefetchColumnTransform.NAME, columnTransforms, prefetchTransform);
+        TransformWriter writer = new TransformWriter(platform, TransformPoint.LOAD, mockWriter, columnTransforms, new TransformTable[] {
+                new TransformTable("s5", "t5", TransformPoint.LOAD, new TransformColumn("id", "id", true),
+                        new TransformColumn("id", "col2", false, PrefetchColumnTransform.NAME, null)) });
+        Table table = new Table("s5", new Column("id"));
+        writeData(writer, new TableCsvData(table, new CsvData(DataEventType.INSERT, new String[] { "1" }),
+                new CsvData(DataEventType.INSERT, new String[] { "2" }), new CsvData(DataEventType.INSERT, new String[] { "3" })));
+        List<CsvData> datas = mockWriter.writtenDatas.get("t5");
+        Assert.assertEquals(3, datas.size());
+        for (int i = 0; i < datas.size(); i++) {
+            String id = Integer.toString(i + 1);
+            Assert.assertEquals(id, datas.get(i).getParsedData(CsvData.ROW_DATA)[0]);
+            Assert.assertEquals("prefetched " + id, datas.get(i).getParsedData(CsvData.ROW_DATA)[1]);
+        }
+        Assert.assertEquals(Arrays.asList(2, 1), prefetchTransform.blockSizes);
+    }
+
     @Test
     public void testSimpleTableBeanShellMapping() throws Exception {
     }
@@ -173,4 +198,41 @@ public class TransformWriterTest extends AbstractWriterTest {
     public static void addColumnTransform(String name, Map<String, IColumnTransform<?>> columnTransforms, IColumnTransform<?> columnTransform) {
         columnTransforms.put(name, columnTransform);
     }
+
+    static class PrefetchColumnTransform implements IPrefetchColumnTransform<String> {
+        static final String NAME = "prefetch";
+        int prefetchSize;
+        List<Integer> blockSizes = new ArrayList<Integer>();
+        Map<String, String> prefetched = new HashMap<String, String>();
+
+        PrefetchColumnTransform(int prefetchSize) {
+            this.prefetchSize = prefetchSize;
+        }
+
+        public int getPrefetchSize(TransformColumn column) {
+            return prefetchSize;
+        }
+
+        public void prefetch(IDatabasePlatform platform, DataContext context, TransformColumn column,
+                List<Map<String, String>> sourceValuesList) {
+            blockSizes.add(sourceValuesList.size());
+            for (Map<String, String> sourceValues : sourceValuesList) {
+                String value = sourceValues.get(column.getSourceColumnName());
+                prefetched.put(value, "prefetched " + value);
+            }
+        }
+
+        public String transform(IDatabasePlatform platform, DataContext context, TransformColumn column, TransformedData data,
+                Map<String, String> sourceValues, String newValue, String oldValue) throws IgnoreColumnException, IgnoreRowException {
+            return prefetched.get(newValue);
+        }
+
+        public boolean isExtractColumnTransform() {
+            return true;
+        }
+
+        public boolean isLoadColumnTransform() {
+            return true;
+        }
+    }
 }
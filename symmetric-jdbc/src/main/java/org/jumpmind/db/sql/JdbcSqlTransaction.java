@@ -29,6 +29,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -55,6 +56,10 @@ public class JdbcSqlTransaction implements ISqlTransaction {
     protected LogSqlBuilder logSqlBuilder;
     protected List<ISqlTransactionListener> listeners = new ArrayList<ISqlTransactionListener>();
     protected int batchSize = 100;
+    protected int statementCacheSize;
+    protected Map<String, PreparedStatement> statementCache;
+    protected long statementCacheHits;
+    protected long statementCacheMisses;
 
     public JdbcSqlTransaction(JdbcSqlTemplate jdbcSqlTemplate) {
         this(jdbcSqlTemplate, false);
@@ -65,6 +70,7 @@ public class JdbcSqlTransaction implements ISqlTransaction {
         this.jdbcSqlTemplate = jdbcSqlTemplate;
         this.logSqlBuilder = jdbcSqlTemplate.logSqlBuilder;
         this.batchSize = jdbcSqlTemplate.getSettings().getBatchSize();
+        this.statementCacheSize = jdbcSqlTemplate.getSettings().getStatementCacheSize();
         this.init();
     }
 
@@ -142,6 +148,7 @@ public class JdbcSqlTransaction implements ISqlTransaction {
     public void close() {
         if (connection != null) {
             JdbcSqlTemplate.close(pstmt);
+            closeStatementCache();
             try {
                 connection.setAutoCommit(this.oldAutoCommitValue);
             } catch (SQLException ex) {
@@ -172,6 +179,31 @@ public class JdbcSqlTransaction implements ISqlTransaction {
         return rowsUpdated;
     }
 
+    /**
+     * Executes the pending batch and returns the update count of each row in the order the rows were added, instead of failing the whole batch
+     * when some rows fail. Rows that failed, or that were not run because the driver stopped at a failure, are {@link Statement#EXECUTE_FAILED}.
+     */
+    public int[] flushForUpdateCounts() {
+        int[] rowCounts = new int[markers.size()];
+        if (markers.size() > 0 && pstmt != null) {
+            int[] updates;
+            try {
+                updates = pstmt.executeBatch();
+            } catch (BatchUpdateException ex) {
+                log.debug("Batch failed with {}", ex.getMessage());
+                updates = ex.getUpdateCounts() != null ? ex.getUpdateCounts() : new int[0];
+                clearBatch();
+            } catch (SQLException ex) {
+                throw jdbcSqlTemplate.translate(ex);
+            }
+            for (int i = 0; i < rowCounts.length; i++) {
+                rowCounts[i] = i < updates.length ? normalizeUpdateCount(updates[i]) : Statement.EXECUTE_FAILED;
+            }
+            markers.clear();
+        }
+        return rowCounts;
+    }
+
     @Override
     public Row queryForRow(String sql, Object... args) {
         List<Row> rows = query(sql, new RowMapper(), args, null);
@@ -410,14 +442,70 @@ public class JdbcSqlTransaction implements ISqlTransaction {
                 throw new IllegalStateException(
                         "Cannot prepare a new batch before the last batch has been flushed.");
             }
-            JdbcSqlTemplate.close(pstmt);
-            pstmt = connection.prepareStatement(sql);
+            if (statementCacheSize > 0) {
+                pstmt = getCachedStatement(sql);
+            } else {
+                JdbcSqlTemplate.close(pstmt);
+                pstmt = connection.prepareStatement(sql);
+            }
             psql = sql;
         } catch (SQLException ex) {
             throw jdbcSqlTemplate.translate(new SqlException("Exception while preparing sql [" + sql + "]", ex));
         }
     }
 
+    /**
+     * Statements stay open on the connection for as long as they are in the cache, so switching back to the SQL of an earlier table or batch
+     * does not prepare it again. The least recently used statement is closed when the cache is full.
+     */
+    protected PreparedStatement getCachedStatement(String sql) throws SQLException {
+        if (statementCache == null) {
+            statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        JdbcSqlTemplate.close(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+        PreparedStatement statement = statementCache.get(sql);
+        if (statement == null) {
+            statementCacheMisses++;
+            statement = connection.prepareStatement(sql);
+            statementCache.put(sql, statement);
+        } else {
+            statementCacheHits++;
+            if (inBatchMode) {
+                statement.clearBatch();
+            }
+        }
+        return statement;
+    }
+
+    protected void closeStatementCache() {
+        if (statementCache != null) {
+            for (PreparedStatement statement : statementCache.values()) {
+                JdbcSqlTemplate.close(statement);
+            }
+            statementCache.clear();
+        }
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
     public int addRow(Object marker, Object[] args, int[] argTypes) {
         int rowsUpdated = 0;
         try {
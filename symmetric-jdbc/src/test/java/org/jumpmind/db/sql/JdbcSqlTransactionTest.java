@@ -0,0 +1,143 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+public class JdbcSqlTransactionTest {
+    static final String INSERT_SQL = "insert into test_statement_cache (id, name) values (?, ?)";
+    static final String UPDATE_SQL = "update test_statement_cache set name = ? where id = ?";
+    static final String DELETE_SQL = "delete from test_statement_cache where id = ?";
+    SingleConnectionDataSource ds;
+    IDatabasePlatform platform;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        Class.forName("org.h2.Driver");
+        Connection c = DriverManager.getConnection("jdbc:h2:mem:statementcache");
+        ds = new SingleConnectionDataSource(c, true);
+        SqlTemplateSettings settings = new SqlTemplateSettings();
+        settings.setStatementCacheSize(2);
+        platform = JdbcDatabasePlatformFactory.getInstance().create(ds, settings, true, false);
+        platform.getSqlTemplate().update("create table test_statement_cache (id integer primary key, name varchar(50))");
+    }
+
+    @AfterEach
+    public void teardown() {
+        platform.getSqlTemplate().update("drop table test_statement_cache");
+        ds.destroy();
+    }
+
+    @Test
+    public void testRepeatedSqlReusesStatement() throws Exception {
+        JdbcSqlTransaction transaction = (JdbcSqlTransaction) platform.getSqlTemplate().startSqlTransaction();
+        try {
+            transaction.prepare(INSERT_SQL);
+            PreparedStatement insert = transaction.pstmt;
+            assertEquals(0, transaction.getStatementCacheHits());
+            assertEquals(1, transaction.getStatementCacheMisses());
+            transaction.prepare(UPDATE_SQL);
+            assertNotSame(insert, transaction.pstmt);
+            transaction.prepare(INSERT_SQL);
+            assertSame(insert, transaction.pstmt);
+            assertFalse(insert.isClosed());
+            assertEquals(1, transaction.getStatementCacheHits());
+            assertEquals(2, transaction.getStatementCacheMisses());
+            assertEquals(1, transaction.addRow(1, new Object[] { 1, "one" }, new int[] { Types.INTEGER, Types.VARCHAR }));
+            transaction.commit();
+        } finally {
+            transaction.close();
+        }
+        assertEquals(1, platform.getSqlTemplate().queryForInt("select count(*) from test_statement_cache"));
+    }
+
+    @Test
+    public void testEvictedStatementIsClosed() throws Exception {
+        JdbcSqlTransaction transaction = (JdbcSqlTransaction) platform.getSqlTemplate().startSqlTransaction();
+        try {
+            transaction.prepare(INSERT_SQL);
+            PreparedStatement insert = transaction.pstmt;
+            transaction.prepare(UPDATE_SQL);
+            PreparedStatement update = transaction.pstmt;
+            transaction.prepare(DELETE_SQL);
+            assertTrue(insert.isClosed());
+            assertFalse(update.isClosed());
+            assertFalse(transaction.pstmt.isClosed());
+            transaction.prepare(INSERT_SQL);
+            assertNotSame(insert, transaction.pstmt);
+            assertEquals(0, transaction.getStatementCacheHits());
+            assertEquals(4, transaction.getStatementCacheMisses());
+        } finally {
+            transaction.close();
+        }
+    }
+
+    @Test
+    public void testReusedStatementIsClearedInBatchMode() throws Exception {
+        JdbcSqlTransaction transaction = (JdbcSqlTransaction) platform.getSqlTemplate().startSqlTransaction();
+        try {
+            transaction.setInBatchMode(true);
+            transaction.prepare(INSERT_SQL);
+            PreparedStatement insert = transaction.pstmt;
+            insert.setInt(1, 1);
+            insert.setString(2, "left over");
+            insert.addBatch();
+            transaction.prepare(UPDATE_SQL);
+            transaction.prepare(INSERT_SQL);
+            assertSame(insert, transaction.pstmt);
+            transaction.addRow(2, new Object[] { 2, "two" }, new int[] { Types.INTEGER, Types.VARCHAR });
+            transaction.commit();
+        } finally {
+            transaction.close();
+        }
+        assertEquals(0, platform.getSqlTemplate().queryForInt("select count(*) from test_statement_cache where id = 1"));
+        assertEquals(1, platform.getSqlTemplate().queryForInt("select count(*) from test_statement_cache where id = 2"));
+    }
+
+    @Test
+    public void testCloseClosesCachedStatements() throws Exception {
+        JdbcSqlTransaction transaction = (JdbcSqlTransaction) platform.getSqlTemplate().startSqlTransaction();
+        transaction.prepare(INSERT_SQL);
+        PreparedStatement insert = transaction.pstmt;
+        transaction.prepare(UPDATE_SQL);
+        PreparedStatement update = transaction.pstmt;
+        transaction.close();
+        assertTrue(insert.isClosed());
+        assertTrue(update.isClosed());
+        assertTrue(transaction.statementCache.isEmpty());
+    }
+}
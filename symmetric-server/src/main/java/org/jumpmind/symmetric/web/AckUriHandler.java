@@ -70,8 +70,9 @@ public class AckUriHandler extends AbstractUriHandler {
         long keepAliveMillis = parameterService.getLong(ParameterConstants.DATA_LOADER_SEND_ACK_KEEPALIVE);
         long ts = System.currentTimeMillis();
         PrintWriter writer = res.getWriter();
-        for (BatchAck batchInfo : batches) {
-            acknowledgeService.ack(batchInfo);
+        int bulkSize = Math.max(parameterService.getInt(ParameterConstants.ACK_BULK_MAX_BATCHES, 100), 1);
+        for (int i = 0; i < batches.size(); i += bulkSize) {
+            acknowledgeService.ack(batches.subList(i, Math.min(i + bulkSize, batches.size())));
             if (keepAliveMillis > 0 && System.currentTimeMillis() - ts >= keepAliveMillis) {
                 try {
                     writer.write("1=1&");
@@ -31,6 +31,7 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.BinaryProtocolConstants;
 import org.jumpmind.symmetric.model.ChannelMap;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.NodeSecurity;
@@ -87,13 +88,19 @@ public class PullUriHandler extends AbstractCompressionUriHandler {
         map.addSuspendChannels(req.getHeader(WebConstants.SUSPENDED_CHANNELS));
         map.addIgnoreChannels(req.getHeader(WebConstants.IGNORED_CHANNELS));
         map.setChannelQueue(req.getHeader(WebConstants.CHANNEL_QUEUE));
+        boolean binaryProtocol = parameterService.is(ParameterConstants.TRANSPORT_BINARY_PROTOCOL_ENABLED, false)
+                && String.valueOf(BinaryProtocolConstants.VERSION).equals(req.getHeader(WebConstants.HEADER_BINARY_PROTOCOL));
+        if (binaryProtocol) {
+            res.setHeader(WebConstants.HEADER_BINARY_PROTOCOL, String.valueOf(BinaryProtocolConstants.VERSION));
+        }
         // pull out headers and pass to pull() method
-        handlePull(nodeId, req.getRemoteHost(), req.getRemoteAddr(), res.getOutputStream(), req.getHeader(WebConstants.HEADER_ACCEPT_CHARSET), res, map);
+        handlePull(nodeId, req.getRemoteHost(), req.getRemoteAddr(), res.getOutputStream(), req.getHeader(WebConstants.HEADER_ACCEPT_CHARSET), res, map,
+                binaryProtocol);
         log.debug("Pull completed for {} at remote address {}", nodeId, req.getRemoteAddr());
     }
 
     protected void handlePull(String nodeId, String remoteHost, String remoteAddress,
-            OutputStream outputStream, String encoding, HttpServletResponse res, ChannelMap map) throws IOException {
+            OutputStream outputStream, String encoding, HttpServletResponse res, ChannelMap map, boolean binaryProtocol) throws IOException {
         NodeSecurity nodeSecurity = nodeService.findNodeSecurity(nodeId, true);
         long ts = System.currentTimeMillis();
         try {
@@ -115,7 +122,7 @@ public class PullUriHandler extends AbstractCompressionUriHandler {
                     try {
                         Node targetNode = nodeService.findNode(nodeId, true);
                         List<OutgoingBatch> batchList = dataExtractorService.extract(processInfo, targetNode,
-                                map.getChannelQueue(), outgoingTransport);
+                                map.getChannelQueue(), outgoingTransport, binaryProtocol);
                         logDataReceivedFromPull(targetNode, batchList, processInfo, remoteHost);
                         if (processInfo.getStatus() != ProcessStatus.ERROR) {
                             addPendingBatchCounts(targetNode.getNodeId(), res);
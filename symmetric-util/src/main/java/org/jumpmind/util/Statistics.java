@@ -20,81 +20,249 @@
  */
 package org.jumpmind.util;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Counters and timers for one batch. Each category name is given a fixed index the first time it is seen, and values are kept in primitive arrays
+ * at that index, so counting a row does not box or hash. Callers that update a category for every row can look up its index once with
+ * {@link #index(String)} and use the methods that take an index. Timers measure nanoseconds and add whole milliseconds to their category,
+ * carrying the remainder to the next stop.
+ */
 public class Statistics {
-    Map<String, Long> stats = new HashMap<String, Long>();
-    Map<String, Long> timers = new HashMap<String, Long>();
-    Map<String, Map<String, Long>> tableStats = new HashMap<String, Map<String, Long>>();
+    private static final Map<String, Integer> indexes = new ConcurrentHashMap<String, Integer>();
+    private static volatile String[] names = new String[0];
+    private static final long NO_COUNT = Long.MIN_VALUE;
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    protected long[] values = new long[Math.max(names.length, 16)];
+    protected boolean[] present = new boolean[values.length];
+    protected long[] timerStarts = new long[values.length];
+    protected boolean[] timerRunning = new boolean[values.length];
+    protected long[] timerRemainders = new long[values.length];
+    protected Map<String, long[]> tableStats = new HashMap<String, long[]>();
+    protected String lastTableName;
+    protected long[] lastTableCounts;
+
+    /**
+     * Returns the index of a category, assigning the next free index the first time the category is seen.
+     */
+    public static int index(String category) {
+        Integer index = indexes.get(category);
+        if (index == null) {
+            synchronized (indexes) {
+                index = indexes.get(category);
+                if (index == null) {
+                    String[] newNames = Arrays.copyOf(names, names.length + 1);
+                    index = names.length;
+                    newNames[index] = category;
+                    names = newNames;
+                    indexes.put(category, index);
+                }
+            }
+        }
+        return index;
+    }
 
     public void increment(String category) {
-        increment(category, 1);
+        increment(index(category), 1);
+    }
+
+    public void increment(int index) {
+        increment(index, 1);
     }
 
     public long get(String category) {
-        Long value = stats.get(category);
-        if (value != null) {
-            return value;
-        } else {
-            return 0l;
-        }
+        return get(index(category));
+    }
+
+    public long get(int index) {
+        return index < values.length ? values[index] : 0l;
     }
 
     public void set(String category, long value) {
-        stats.put(category, value);
+        set(index(category), value);
+    }
+
+    public void set(int index, long value) {
+        ensureCapacity(index);
+        values[index] = value;
+        present[index] = true;
     }
 
     public boolean contains(String category) {
-        return stats.containsKey(category);
+        int index = index(category);
+        return index < present.length && present[index];
     }
 
     public void increment(String category, long increment) {
-        Long value = stats.get(category);
-        if (value == null) {
-            value = increment;
-        } else {
-            value = value + increment;
-        }
-        stats.put(category, value);
+        increment(index(category), increment);
+    }
+
+    public void increment(int index, long increment) {
+        ensureCapacity(index);
+        values[index] += increment;
+        present[index] = true;
     }
 
     public void incrementTableStats(String tableName, String dmlType, long increment) {
-        Map<String, Long> tableStatMap = tableStats.get(tableName);
-        if (tableStatMap == null) {
-            tableStatMap = new HashMap<String, Long>();
+        long[] counts = lastTableCounts;
+        if (counts == null || tableName != lastTableName) {
+            counts = tableStats.get(tableName);
+            if (counts == null) {
+                counts = new long[0];
+            }
         }
-        Long value = tableStatMap.get(dmlType);
-        if (value == null) {
-            value = increment;
-        } else {
-            value = value + increment;
+        int index = index(dmlType);
+        if (index >= counts.length) {
+            int length = counts.length;
+            counts = Arrays.copyOf(counts, Math.max(index + 1, names.length));
+            Arrays.fill(counts, length, counts.length, NO_COUNT);
+            tableStats.put(tableName, counts);
         }
-        tableStatMap.put(dmlType, value);
-        tableStats.put(tableName, tableStatMap);
+        if (counts[index] == NO_COUNT) {
+            counts[index] = 0;
+        }
+        counts[index] += increment;
+        lastTableName = tableName;
+        lastTableCounts = counts;
     }
 
+    /**
+     * Returns the counts for each table and DML type at the time of the call.
+     */
     public Map<String, Map<String, Long>> getTableStats() {
-        return this.tableStats;
+        String[] names = Statistics.names;
+        Map<String, Map<String, Long>> tableStatMaps = new HashMap<String, Map<String, Long>>();
+        for (Map.Entry<String, long[]> entry : tableStats.entrySet()) {
+            Map<String, Long> tableStatMap = new HashMap<String, Long>();
+            long[] counts = entry.getValue();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != NO_COUNT) {
+                    tableStatMap.put(names[i], counts[i]);
+                }
+            }
+            tableStatMaps.put(entry.getKey(), tableStatMap);
+        }
+        return tableStatMaps;
+    }
+
+    /**
+     * Returns a live, read-only view of the categories that have a value.
+     */
+    public Map<String, Long> getStats() {
+        return new StatsView();
     }
 
     public void startTimer(String category) {
-        timers.put(category, System.currentTimeMillis());
+        startTimer(index(category));
+    }
+
+    public void startTimer(int index) {
+        ensureCapacity(index);
+        timerStarts[index] = System.nanoTime();
+        timerRunning[index] = true;
     }
 
     public long stopTimer(String category) {
-        long time = 0;
-        Long startTime = timers.get(category);
-        if (startTime != null) {
-            time = System.currentTimeMillis() - startTime;
-            increment(category, time);
+        return stopTimer(index(category));
+    }
+
+    /**
+     * Stops the timer and adds the elapsed time to its category in milliseconds. Returns the elapsed milliseconds, or 0 if the timer was not
+     * started.
+     */
+    public long stopTimer(int index) {
+        if (index >= timerRunning.length || !timerRunning[index]) {
+            return 0;
+        }
+        timerRunning[index] = false;
+        long elapsed = System.nanoTime() - timerStarts[index];
+        long total = timerRemainders[index] + elapsed;
+        timerRemainders[index] = total % NANOS_PER_MILLI;
+        increment(index, total / NANOS_PER_MILLI);
+        return elapsed / NANOS_PER_MILLI;
+    }
+
+    protected void ensureCapacity(int index) {
+        if (index >= values.length) {
+            int length = Math.max(index + 1, Math.max(names.length, values.length * 2));
+            values = Arrays.copyOf(values, length);
+            present = Arrays.copyOf(present, length);
+            timerStarts = Arrays.copyOf(timerStarts, length);
+            timerRunning = Arrays.copyOf(timerRunning, length);
+            timerRemainders = Arrays.copyOf(timerRemainders, length);
         }
-        timers.remove(category);
-        return time;
     }
 
     @Override
     public String toString() {
-        return stats.toString();
+        return getStats().toString();
+    }
+
+    class StatsView extends AbstractMap<String, Long> {
+        @Override
+        public Long get(Object key) {
+            return key instanceof String && contains((String) key) ? Statistics.this.get((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && contains((String) key);
+        }
+
+        @Override
+        public Set<Map.Entry<String, Long>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Long>>() {
+                @Override
+                public Iterator<Map.Entry<String, Long>> iterator() {
+                    return new Iterator<Map.Entry<String, Long>>() {
+                        int next = findNext(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Long> next() {
+                            if (next < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<String, Long> entry = new SimpleImmutableEntry<String, Long>(names[next], values[next]);
+                            next = findNext(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int i = 0; i < present.length; i++) {
+                        if (present[i]) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+
+        int findNext(int from) {
+            for (int i = from; i < present.length; i++) {
+                if (present[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
     }
 }
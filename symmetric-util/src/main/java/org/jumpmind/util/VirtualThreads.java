@@ -0,0 +1,140 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.util;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates virtual threads when running on Java 21 or later. The build targets Java 17, so the virtual thread API is called by reflection, and
+ * {@link #isSupported()} is false on older runtimes.
+ */
+public class VirtualThreads {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static Method ofVirtual;
+    private static Method name;
+    private static Method factory;
+    private static Method newThreadPerTaskExecutor;
+    private static RecordingStream pinnedThreadStream;
+    private static int pinnedThreadMonitorCount;
+    static {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (Exception e) {
+            ofVirtual = null;
+        }
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * Create a factory for virtual threads named with the prefix and a counter.
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            Object builder = ofVirtual.invoke(null);
+            builder = name.invoke(builder, namePrefix, 1l);
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, newThreadFactory(namePrefix));
+        } catch (UnsupportedOperationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Log a warning with the stack when a virtual thread stays pinned to its carrier thread, such as while blocked inside a synchronized block,
+     * for longer than the threshold. The monitor is shared, so the threshold of the first caller is used, and it runs until every caller has
+     * called {@link #stopPinnedThreadMonitor()}.
+     */
+    public static synchronized void startPinnedThreadMonitor(long thresholdMillis) {
+        pinnedThreadMonitorCount++;
+        if (pinnedThreadStream == null && isSupported()) {
+            try {
+                RecordingStream stream = new RecordingStream();
+                stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+                stream.onEvent(PINNED_EVENT, event -> log.warn("Virtual thread {} was pinned to its carrier thread for {} ms{}",
+                        event.getThread() != null ? event.getThread().getJavaName() : "?", event.getDuration().toMillis(), getStack(event)));
+                stream.startAsync();
+                pinnedThreadStream = stream;
+                log.info("Monitoring virtual threads pinned for more than {} ms", thresholdMillis);
+            } catch (Exception e) {
+                log.info("Unable to monitor pinned virtual threads: {}", e.getMessage());
+            }
+        }
+    }
+
+    public static synchronized void stopPinnedThreadMonitor() {
+        if (pinnedThreadMonitorCount > 0 && --pinnedThreadMonitorCount == 0 && pinnedThreadStream != null) {
+            pinnedThreadStream.close();
+            pinnedThreadStream = null;
+        }
+    }
+
+    public static synchronized boolean isPinnedThreadMonitorRunning() {
+        return pinnedThreadStream != null;
+    }
+
+    protected static String getStack(RecordedEvent event) {
+        StringBuilder sb = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                sb.append("\n\tat ").append(frame.getMethod().getType().getName()).append(".").append(frame.getMethod().getName())
+                        .append(":").append(frame.getLineNumber());
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class StatisticsTest {
+    @Test
+    public void testCounters() {
+        Statistics stats = new Statistics();
+        int rowCountIndex = Statistics.index("TEST_ROWCOUNT");
+        assertEquals(rowCountIndex, Statistics.index("TEST_ROWCOUNT"));
+        assertFalse(stats.contains("TEST_ROWCOUNT"));
+        stats.increment(rowCountIndex);
+        stats.increment("TEST_ROWCOUNT", 2);
+        stats.set("TEST_STARTTIME", 100);
+        assertEquals(3, stats.get("TEST_ROWCOUNT"));
+        assertEquals(3, stats.get(rowCountIndex));
+        assertEquals(0, stats.get("TEST_MISSING"));
+        assertTrue(stats.contains("TEST_STARTTIME"));
+        Map<String, Long> expected = new HashMap<String, Long>();
+        expected.put("TEST_ROWCOUNT", 3l);
+        expected.put("TEST_STARTTIME", 100l);
+        assertEquals(expected, stats.getStats());
+        assertNull(stats.getStats().get("TEST_MISSING"));
+        stats.increment("TEST_LATER");
+        assertEquals(Long.valueOf(1), stats.getStats().get("TEST_LATER"));
+    }
+
+    @Test
+    public void testTimer() throws Exception {
+        Statistics stats = new Statistics();
+        assertEquals(0, stats.stopTimer("TEST_MILLIS"));
+        assertFalse(stats.contains("TEST_MILLIS"));
+        stats.startTimer("TEST_MILLIS");
+        Thread.sleep(20);
+        long elapsed = stats.stopTimer("TEST_MILLIS");
+        assertTrue(elapsed >= 20);
+        assertEquals(elapsed, stats.get("TEST_MILLIS"));
+    }
+
+    @Test
+    public void testTableStats() {
+        Statistics stats = new Statistics();
+        stats.incrementTableStats("a", "I", 2);
+        stats.incrementTableStats("a", "I", 1);
+        stats.incrementTableStats("b", "D", 1);
+        stats.incrementTableStats("a", "U", 0);
+        Map<String, Map<String, Long>> tableStats = stats.getTableStats();
+        assertEquals(2, tableStats.size());
+        assertEquals(Long.valueOf(3), tableStats.get("a").get("I"));
+        assertEquals(Long.valueOf(0), tableStats.get("a").get("U"));
+        assertEquals(1, tableStats.get("b").size());
+        assertEquals(Long.valueOf(1), tableStats.get("b").get("D"));
+    }
+}
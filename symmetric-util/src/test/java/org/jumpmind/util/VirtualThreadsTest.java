@@ -0,0 +1,68 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadsTest {
+    @Test
+    public void testSupported() throws Exception {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    public void testThreadPerTaskExecutor() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            try {
+                VirtualThreads.newThreadPerTaskExecutor("test-");
+                assertTrue("Expected virtual threads to be unsupported", false);
+            } catch (UnsupportedOperationException e) {
+            }
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(name.get(10, TimeUnit.SECONDS).startsWith("test-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPinnedThreadMonitorStopsAfterLastCaller() throws Exception {
+        VirtualThreads.startPinnedThreadMonitor(100);
+        VirtualThreads.startPinnedThreadMonitor(100);
+        assertEquals(VirtualThreads.isSupported(), VirtualThreads.isPinnedThreadMonitorRunning());
+        VirtualThreads.stopPinnedThreadMonitor();
+        assertEquals(VirtualThreads.isSupported(), VirtualThreads.isPinnedThreadMonitorRunning());
+        VirtualThreads.stopPinnedThreadMonitor();
+        assertFalse(VirtualThreads.isPinnedThreadMonitorRunning());
+    }
+}